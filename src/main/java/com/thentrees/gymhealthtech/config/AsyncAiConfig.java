@@ -0,0 +1,31 @@
+package com.thentrees.gymhealthtech.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncAiConfig {
+
+  @Value("${app.ai.jobs.max-concurrent:4}")
+  private int maxConcurrent;
+
+  @Value("${app.ai.jobs.queue-capacity:20}")
+  private int queueCapacity;
+
+  /**
+   * AI generations wait on a slow remote service, so they run here instead of on Tomcat workers;
+   * a full queue rejects new jobs rather than letting them pile up.
+   */
+  @Bean(name = "aiJobExecutor")
+  public ThreadPoolTaskExecutor aiJobExecutor() {
+    ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+    ex.setCorePoolSize(maxConcurrent);
+    ex.setMaxPoolSize(maxConcurrent);
+    ex.setQueueCapacity(queueCapacity);
+    ex.setThreadNamePrefix("ai-job-");
+    ex.initialize();
+    return ex;
+  }
+}
@@ -0,0 +1,29 @@
+package com.thentrees.gymhealthtech.config;
+
+import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncCacheConfig {
+
+  @Value("${app.cache.refresh.threads:2}")
+  private int refreshThreads;
+
+  @Value("${app.cache.refresh.queue-capacity:100}")
+  private int queueCapacity;
+
+  /** Background reloads of soft-expired cache entries; a full queue just keeps serving stale. */
+  @Bean(name = "cacheRefreshExecutor")
+  public Executor cacheRefreshExecutor() {
+    ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+    ex.setCorePoolSize(refreshThreads);
+    ex.setMaxPoolSize(refreshThreads);
+    ex.setQueueCapacity(queueCapacity);
+    ex.setThreadNamePrefix("cache-refresh-");
+    ex.initialize();
+    return ex;
+  }
+}
@@ -0,0 +1,29 @@
+package com.thentrees.gymhealthtech.config;
+
+import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncImportConfig {
+
+  @Value("${app.import.max-concurrent-jobs:2}")
+  private int maxConcurrentJobs;
+
+  @Value("${app.import.queue-capacity:5}")
+  private int queueCapacity;
+
+  /** Bulk imports are few and heavy, so they get a small pool of their own. */
+  @Bean(name = "importExecutor")
+  public Executor importExecutor() {
+    ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+    ex.setCorePoolSize(maxConcurrentJobs);
+    ex.setMaxPoolSize(maxConcurrentJobs);
+    ex.setQueueCapacity(queueCapacity);
+    ex.setThreadNamePrefix("import-");
+    ex.initialize();
+    return ex;
+  }
+}
@@ -12,6 +12,7 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -63,4 +64,12 @@ public class RedisConfig {
     t.afterPropertiesSet();
     return t;
   }
+
+  /** Shared pub/sub container used to broadcast cache invalidations to every node. */
+  @Bean
+  public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory cf) {
+    var container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(cf);
+    return container;
+  }
 }
@@ -0,0 +1,36 @@
+package com.thentrees.gymhealthtech.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the PostgreSQL full-text functions used by the search specifications. Criteria cannot
+ * express the {@code @@} operator, and only the operator form lets the planner use the GIN index
+ * on {@code exercises.search_vector}. Registered through META-INF/services.
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+  // Same folding as exercise_search_vector(): accents removed, english stems or verbatim tokens
+  private static final String EXERCISE_TSQUERY =
+      "(to_tsquery('english', immutable_unaccent(?1))"
+          + " || to_tsquery('simple', immutable_unaccent(?1)))";
+
+  @Override
+  public void contributeFunctions(FunctionContributions functionContributions) {
+    var basicTypes = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+    BasicType<Boolean> booleanType = basicTypes.resolve(StandardBasicTypes.BOOLEAN);
+    BasicType<Double> doubleType = basicTypes.resolve(StandardBasicTypes.DOUBLE);
+
+    // search_vector only exists on exercises, so the unqualified column is unambiguous in joins
+    functionContributions
+        .getFunctionRegistry()
+        .registerPattern(
+            "exercise_fts_match", "(search_vector @@ " + EXERCISE_TSQUERY + ")", booleanType);
+    functionContributions
+        .getFunctionRegistry()
+        .registerPattern(
+            "exercise_fts_rank", "ts_rank(search_vector, " + EXERCISE_TSQUERY + ")", doubleType);
+  }
+}
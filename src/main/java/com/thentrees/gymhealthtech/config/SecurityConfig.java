@@ -2,7 +2,9 @@ package com.thentrees.gymhealthtech.config;
 
 import com.thentrees.gymhealthtech.filter.JwtAuthenticationFilter;
 import com.thentrees.gymhealthtech.filter.MDCFilter;
+import com.thentrees.gymhealthtech.filter.RateLimitFilter;
 import com.thentrees.gymhealthtech.service.impl.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import java.util.Arrays;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -29,6 +31,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 public class SecurityConfig {
   private final JwtAuthenticationFilter jwtAuthFilter;
   private final MDCFilter mdcFilter;
+  private final RateLimitFilter rateLimitFilter;
   private final UserDetailsServiceImpl userDetailsService;
 
   @Bean
@@ -44,9 +47,14 @@ public class SecurityConfig {
             session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .addFilterBefore(mdcFilter, UsernamePasswordAuthenticationFilter.class)
         .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+        .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
         .authorizeHttpRequests(
             auth ->
                 auth
+                    // Async dispatches of SSE streams and error forwards carry no JWT; the
+                    // original request was already authorized
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR)
+                    .permitAll()
                     // Public endpoints
                     .requestMatchers("/api/v1/auth/**")
                     .permitAll()
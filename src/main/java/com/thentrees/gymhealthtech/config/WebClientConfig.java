@@ -1,5 +1,6 @@
 package com.thentrees.gymhealthtech.config;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,18 +19,38 @@ public class WebClientConfig {
   @Value("${app.aiUrl}")
   private String aiServiceBaseUrl;
 
+  @Value("${app.ai.client.max-connections:16}")
+  private int maxConnections;
+
+  @Value("${app.ai.client.pending-acquire-max:32}")
+  private int pendingAcquireMax;
+
+  @Value("${app.ai.client.pending-acquire-timeout-ms:5000}")
+  private long pendingAcquireTimeoutMs;
+
+  @Value("${app.ai.client.connect-timeout-ms:5000}")
+  private int connectTimeoutMs;
+
+  @Value("${app.ai.client.response-timeout-seconds:40}")
+  private long responseTimeoutSeconds;
+
   @Bean
   public WebClient webClient(WebClient.Builder webClientBuilder) {
     // config connectionProvider for timeout
+    // Bounded pool: a slow upstream fails fast on acquire instead of queueing without limit
     ConnectionProvider provider = ConnectionProvider.builder("ai-connection-pool")
-      // timeout wait connection successfully
-      .maxIdleTime(Duration.ofMinutes(10))
+      .maxConnections(maxConnections)
+      .pendingAcquireMaxCount(pendingAcquireMax)
+      .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
       .maxIdleTime(Duration.ofSeconds(30))
+      // Publishes reactor.netty.connection.provider.* gauges to the global Micrometer registry
+      .metrics(true)
       .build();
 
     HttpClient httpClient = HttpClient.create(provider)
+      .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
     // set Read and Write timeout
-      .responseTimeout(Duration.ofSeconds(40));
+      .responseTimeout(Duration.ofSeconds(responseTimeoutSeconds));
 
     return webClientBuilder.baseUrl(aiServiceBaseUrl)
       .clientConnector(new ReactorClientHttpConnector(httpClient))
@@ -0,0 +1,15 @@
+package com.thentrees.gymhealthtech.constant;
+
+/** Versioned cache namespaces, see {@code RedisService#versionedKey}. */
+public final class CacheConstant {
+  public static final String EXERCISE_CACHE = "exercise";
+  public static final String FOOD_CACHE = "food";
+  public static final String EQUIPMENT_CACHE = "equipment";
+  public static final String TEMPLATE_CACHE = "template";
+
+  // Carries the namespace whose version was just bumped, so nodes drop their local copies
+  public static final String NAMESPACE_INVALIDATION_CHANNEL = "cache:namespace:invalidate";
+
+  private CacheConstant() {
+  }
+}
@@ -7,6 +7,7 @@ public final class S3Constant {
   public static final String S3_VIDEO_FOLDER = "videos";
   public static final String S3_FOOD_IMAGE_FOLDER = "foods";
   public static final String S3_DEVICE_IMAGE_FOLDER = "devices";
+  public static final String S3_IMPORT_REPORT_FOLDER = "import-reports";
 
   private S3Constant() {
   }
@@ -4,16 +4,26 @@ import com.thentrees.gymhealthtech.constant.AppConstants;
 import com.thentrees.gymhealthtech.custom.PremiumOnly;
 import com.thentrees.gymhealthtech.dto.request.GeneratorWorkoutPlanRequest;
 import com.thentrees.gymhealthtech.dto.response.APIResponse;
-import com.thentrees.gymhealthtech.dto.response.GeneratorMealPlanResponse;
-import com.thentrees.gymhealthtech.dto.response.GeneratorWorkoutPlanResponse;
-import com.thentrees.gymhealthtech.service.AIService;
+import com.thentrees.gymhealthtech.dto.response.AiJobResponse;
+import com.thentrees.gymhealthtech.model.User;
+import com.thentrees.gymhealthtech.service.AiJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping(AppConstants.API_V1 + "/ai")
@@ -21,18 +31,83 @@ import org.springframework.web.bind.annotation.RestController;
 
 public class AIController {
 
-  private final AIService aiService;
+  private final AiJobService aiJobService;
 
+  @Operation(
+      summary = "Generate a workout plan",
+      description =
+          "Queues the generation and returns the job at once; poll /ai/jobs/{jobId} or subscribe"
+              + " to /ai/jobs/{jobId}/events for the result. An identical request still running"
+              + " or finished recently returns that job; pass regenerate=true to force a new one.")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "202", description = "Generation queued"),
+    @ApiResponse(responseCode = "429", description = "Too many generations in progress")
+  })
   @PremiumOnly
   @PostMapping("/generate-plan")
-  public ResponseEntity<APIResponse<GeneratorWorkoutPlanResponse>> generateWorkoutPlan(@RequestBody GeneratorWorkoutPlanRequest request) {
-    GeneratorWorkoutPlanResponse planResponse = aiService.createGeneratorWorkoutPlan(request);
-    return ResponseEntity.ok(APIResponse.success(planResponse));
+  public ResponseEntity<APIResponse<AiJobResponse>> generateWorkoutPlan(
+      @RequestBody GeneratorWorkoutPlanRequest request,
+      @RequestParam(value = "regenerate", defaultValue = "false") boolean regenerate,
+      Authentication authentication) {
+    AiJobResponse job =
+        aiJobService.submitWorkoutPlan(request, currentUserId(authentication), regenerate);
+    return ResponseEntity.accepted().body(APIResponse.success(job));
   }
 
+  @Operation(
+      summary = "Generate a meal plan",
+      description =
+          "Queues the generation and returns the job at once. Today's identical request is"
+              + " reused unless regenerate=true.")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "202", description = "Generation queued"),
+    @ApiResponse(responseCode = "429", description = "Too many generations in progress")
+  })
   @PostMapping("/meal-plan/generate")
-  public ResponseEntity<GeneratorMealPlanResponse> generationMealPlan(Authentication authentication) {
-    GeneratorMealPlanResponse planResponse = aiService.createGeneratorMealPlan(authentication);
-    return ResponseEntity.ok(planResponse);
+  public ResponseEntity<APIResponse<AiJobResponse>> generationMealPlan(
+      @RequestParam(value = "regenerate", defaultValue = "false") boolean regenerate,
+      Authentication authentication) {
+    AiJobResponse job = aiJobService.submitMealPlan(currentUserId(authentication), regenerate);
+    return ResponseEntity.accepted().body(APIResponse.success(job));
+  }
+
+  @Operation(
+      summary = "Get AI job status",
+      description = "Returns the job status, and the generated plan once it has succeeded.")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Job found"),
+    @ApiResponse(responseCode = "404", description = "Unknown or expired job")
+  })
+  @GetMapping("/jobs/{jobId}")
+  public ResponseEntity<APIResponse<AiJobResponse>> getJob(
+      @PathVariable("jobId") UUID jobId, Authentication authentication) {
+    return ResponseEntity.ok(
+        APIResponse.success(aiJobService.getJob(jobId, currentUserId(authentication))));
+  }
+
+  @Operation(
+      summary = "Stream AI job status",
+      description =
+          "Server-sent events: a \"status\" event on every status change, closed once the job"
+              + " has finished.")
+  @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamJob(@PathVariable("jobId") UUID jobId, Authentication authentication) {
+    return aiJobService.streamJob(jobId, currentUserId(authentication));
+  }
+
+  @Operation(summary = "Cancel an AI job")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Job cancelled or already finished"),
+    @ApiResponse(responseCode = "404", description = "Unknown or expired job")
+  })
+  @DeleteMapping("/jobs/{jobId}")
+  public ResponseEntity<APIResponse<AiJobResponse>> cancelJob(
+      @PathVariable("jobId") UUID jobId, Authentication authentication) {
+    return ResponseEntity.ok(
+        APIResponse.success(aiJobService.cancelJob(jobId, currentUserId(authentication))));
+  }
+
+  private static UUID currentUserId(Authentication authentication) {
+    return ((User) authentication.getPrincipal()).getId();
   }
 }
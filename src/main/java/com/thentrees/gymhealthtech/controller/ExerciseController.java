@@ -77,6 +77,7 @@ public class ExerciseController {
       @RequestParam(required = false) List<String> musclesCodes,
       @RequestParam(required = false) String equipmentType,
       @RequestParam(required = false) String exerciseType,
+      @RequestParam(required = false) String exerciseCategory,
       @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_NUMBER) Integer page,
       @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE) Integer size,
       @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_BY) String sortBy,
@@ -89,6 +90,7 @@ public class ExerciseController {
             .musclesCodes(musclesCodes)
             .equipmentType(equipmentType)
             .exerciseType(exerciseType)
+            .exerciseCategory(exerciseCategory)
             .page(page)
             .size(size)
             .sortBy(sortBy)
@@ -99,6 +101,32 @@ public class ExerciseController {
     return ResponseEntity.ok(APIResponse.success(exercises));
   }
 
+  @Operation(
+      method = "GET",
+      summary = "Count exercises per filter value",
+      description =
+          "Counts per muscle, primary muscle, equipment, type, level and category for the given"
+              + " filters; each facet ignores its own filter")
+  @GetMapping("/facets")
+  public ResponseEntity<APIResponse<ExerciseFacetResponse>> exerciseFacets(
+      @RequestParam(required = false) ExerciseLevel level,
+      @RequestParam(required = false) String primaryMuscle,
+      @RequestParam(required = false) List<String> musclesCodes,
+      @RequestParam(required = false) String equipmentType,
+      @RequestParam(required = false) String exerciseType,
+      @RequestParam(required = false) String exerciseCategory) {
+    ExerciseSearchRequest request =
+        ExerciseSearchRequest.builder()
+            .level(level)
+            .primaryMuscle(primaryMuscle)
+            .musclesCodes(musclesCodes)
+            .equipmentType(equipmentType)
+            .exerciseType(exerciseType)
+            .exerciseCategory(exerciseCategory)
+            .build();
+    return ResponseEntity.ok(APIResponse.success(exerciseLibraryService.getExerciseFacets(request)));
+  }
+
   @PostMapping
   @PreAuthorize("hasRole('ADMIN')")
   public ResponseEntity<APIResponse<ExerciseDetailResponse>> exercise(
@@ -175,9 +203,15 @@ public class ExerciseController {
       })
   @PostMapping("/import-exercise")
   @PreAuthorize("hasRole('ADMIN')")
-  public String importJson(@RequestParam("file") MultipartFile file) throws Exception {
-    int count = exerciseLibraryService.importExercisesFromJson(file);
-    return "Imported/Updated " + count + " exercises.";
+  public ResponseEntity<APIResponse<ImportExerciseResponse>> importJson(
+      @RequestParam("file") MultipartFile file) throws Exception {
+    ImportExerciseResponse result = exerciseLibraryService.importExercisesFromJson(file);
+    return ResponseEntity.ok(
+        APIResponse.success(
+            result,
+            String.format(
+                "Imported %d, updated %d, skipped %d exercises",
+                result.getInsertedCount(), result.getUpdatedCount(), result.getSkippedCount())));
   }
 
   @PutMapping("/{id}")
@@ -7,8 +7,10 @@ import com.thentrees.gymhealthtech.dto.response.APIResponse;
 import com.thentrees.gymhealthtech.dto.response.FoodResponse;
 import com.thentrees.gymhealthtech.dto.response.ImportFoodResponse;
 import com.thentrees.gymhealthtech.dto.response.PagedResponse;
+import com.thentrees.gymhealthtech.service.FoodImportService;
 import com.thentrees.gymhealthtech.service.FoodService;
 import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -32,7 +34,18 @@ import org.springframework.web.multipart.MultipartFile;
 @Slf4j
 public class FoodController {
   private final FoodService foodService;
+  private final FoodImportService foodImportService;
 
+  @Operation(
+      summary = "Import foods from Excel",
+      description =
+          "Queues a nutrition spreadsheet (.xlsx) import. The file is streamed in the background;"
+              + " poll the returned job id for progress and the error report.")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "202", description = "Import queued"),
+    @ApiResponse(responseCode = "400", description = "Empty or non-xlsx file"),
+    @ApiResponse(responseCode = "403", description = "Forbidden")
+  })
   @PostMapping(value = "/foods/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
   @PreAuthorize("hasRole('ADMIN')")
   public ResponseEntity<ImportFoodResponse> importFoods(@RequestParam("file") MultipartFile file) {
@@ -47,27 +60,8 @@ public class FoodController {
     }
 
     try {
-      ImportFoodResponse result = foodService.importDataFood(file);
-
-      log.info(
-          "Import completed: {} success, {} failed out of {} total",
-          result.getSuccessCount(),
-          result.getFailCount(),
-          result.getTotalRows());
-
-      return ResponseEntity.ok(
-          ImportFoodResponse.builder()
-              .success(true)
-              .message(
-                  String.format(
-                      "Imported %d/%d foods successfully",
-                      result.getSuccessCount(), result.getTotalRows()))
-              .totalRows(result.getTotalRows())
-              .successCount(result.getSuccessCount())
-              .failCount(result.getFailCount())
-              .errors(result.getErrors())
-              .build());
-
+      ImportFoodResponse job = foodImportService.startImport(file);
+      return ResponseEntity.accepted().body(job);
     } catch (IOException e) {
       log.error("Error importing foods", e);
       return ResponseEntity.internalServerError()
@@ -75,9 +69,25 @@ public class FoodController {
     }
   }
 
+  @Operation(
+      summary = "Get food import status",
+      description =
+          "Returns progress and counters of an import job. Once completed with failures,"
+              + " errorReportUrl points to a CSV with every rejected row.")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Import job found"),
+    @ApiResponse(responseCode = "404", description = "Unknown or expired import job")
+  })
+  @GetMapping("/foods/import/{jobId}")
+  @PreAuthorize("hasRole('ADMIN')")
+  public ResponseEntity<ImportFoodResponse> importStatus(@PathVariable("jobId") UUID jobId) {
+    return ResponseEntity.ok(foodImportService.getImportStatus(jobId));
+  }
+
   @GetMapping("/foods")
   public ResponseEntity<APIResponse<PagedResponse<FoodResponse>>> foods(
       @RequestParam(required = false) String keyword,
+      @RequestParam(required = false) List<String> tags,
       @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_NUMBER) Integer page,
       @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE) Integer size,
       @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_BY) String sortBy,
@@ -85,7 +95,7 @@ public class FoodController {
     Pageable pageable =
         PageRequest.of(page, size, Sort.Direction.fromString(sortDirection), sortBy);
 
-    PagedResponse<FoodResponse> foods = foodService.getAllFoods(keyword, pageable);
+    PagedResponse<FoodResponse> foods = foodService.getAllFoods(keyword, tags, pageable);
     return ResponseEntity.ok(APIResponse.success(foods));
   }
 
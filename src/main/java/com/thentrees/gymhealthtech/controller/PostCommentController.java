@@ -3,6 +3,7 @@ package com.thentrees.gymhealthtech.controller;
 import com.thentrees.gymhealthtech.constant.AppConstants;
 import com.thentrees.gymhealthtech.dto.request.CreateCommentRequest;
 import com.thentrees.gymhealthtech.dto.response.APIResponse;
+import com.thentrees.gymhealthtech.dto.response.CursorPageResponse;
 import com.thentrees.gymhealthtech.dto.response.PostCommentResponse;
 import com.thentrees.gymhealthtech.service.PostCommentService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,7 +12,6 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
-import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -67,7 +67,9 @@ public class PostCommentController {
 
   @Operation(
       summary = "Get comments for a post",
-      description = "Retrieves all comments associated with the specified post.")
+      description =
+          "Retrieves a page of top-level comments, newest first, each with its first replies."
+              + " Pass nextCursor to get the following page.")
   @ApiResponses(
       value = {
         @ApiResponse(
@@ -94,9 +96,45 @@ public class PostCommentController {
                     schema = @Schema(implementation = APIResponse.class)))
       })
   @GetMapping("/{postId}")
-  public ResponseEntity<APIResponse<List<PostCommentResponse>>> getCommentsByPost(
-      @PathVariable String postId) {
-    List<PostCommentResponse> responses = commentService.getPostComments(postId);
+  public ResponseEntity<APIResponse<CursorPageResponse<PostCommentResponse>>> getCommentsByPost(
+      @PathVariable String postId,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "size", required = false) Integer size) {
+    CursorPageResponse<PostCommentResponse> responses =
+        commentService.getPostComments(postId, cursor, size);
+    return ResponseEntity.status(HttpStatus.OK).body(APIResponse.success(responses));
+  }
+
+  @Operation(
+      summary = "Get more replies of a comment thread",
+      description =
+          "Retrieves the next replies of a thread, oldest first. Start from the repliesCursor of the"
+              + " top-level comment.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Replies retrieved successfully",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = CursorPageResponse.class))
+            }),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Comment not found",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = APIResponse.class)))
+      })
+  @GetMapping("/{commentId}/replies")
+  public ResponseEntity<APIResponse<CursorPageResponse<PostCommentResponse>>> getReplies(
+      @PathVariable UUID commentId,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "size", required = false) Integer size) {
+    CursorPageResponse<PostCommentResponse> responses =
+        commentService.getCommentReplies(commentId, cursor, size);
     return ResponseEntity.status(HttpStatus.OK).body(APIResponse.success(responses));
   }
 
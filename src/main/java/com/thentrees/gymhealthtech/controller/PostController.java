@@ -4,7 +4,9 @@ import com.thentrees.gymhealthtech.constant.AppConstants;
 import com.thentrees.gymhealthtech.constant.SuccessMessages;
 import com.thentrees.gymhealthtech.dto.request.CreatePostRequest;
 import com.thentrees.gymhealthtech.dto.response.APIResponse;
+import com.thentrees.gymhealthtech.dto.response.CursorPageResponse;
 import com.thentrees.gymhealthtech.dto.response.PostResponse;
+import com.thentrees.gymhealthtech.dto.response.PostSummaryResponse;
 import com.thentrees.gymhealthtech.service.PostService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -191,8 +193,10 @@ public class PostController {
   }
 
   @Operation(
-      summary = "Get All Posts",
-      description = "Retrieves a list of all posts in the community.")
+      summary = "Get Community Feed",
+      description =
+          "Retrieves the community feed newest first, one page at a time. Pass the returned"
+              + " nextCursor to get the following page.")
   @ApiResponses(
       value = {
         @ApiResponse(
@@ -201,8 +205,15 @@ public class PostController {
             content = {
               @Content(
                   mediaType = "application/json",
-                  schema = @Schema(implementation = PostResponse.class))
+                  schema = @Schema(implementation = CursorPageResponse.class))
             }),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = APIResponse.class))),
         @ApiResponse(
             responseCode = "500",
             description = "Internal server error",
@@ -212,8 +223,43 @@ public class PostController {
                     schema = @Schema(implementation = APIResponse.class)))
       })
   @GetMapping
-  public ResponseEntity<APIResponse<List<PostResponse>>> getAllPosts() {
-    List<PostResponse> responses = postService.getAllPosts();
+  public ResponseEntity<APIResponse<CursorPageResponse<PostSummaryResponse>>> getFeed(
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "size", required = false) Integer size) {
+    CursorPageResponse<PostSummaryResponse> responses = postService.getFeed(cursor, size);
+    return ResponseEntity.ok(APIResponse.success(responses));
+  }
+
+  @Operation(
+      summary = "Get Saved Posts",
+      description =
+          "Retrieves the posts saved by the current user, most recently saved first. Pass the"
+              + " returned nextCursor to get the following page.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Saved posts retrieved successfully",
+            content = {
+              @Content(
+                  mediaType = "application/json",
+                  schema = @Schema(implementation = CursorPageResponse.class))
+            }),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid cursor",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = APIResponse.class)))
+      })
+  @GetMapping("/saved")
+  public ResponseEntity<APIResponse<CursorPageResponse<PostSummaryResponse>>> getSavedPosts(
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "size", required = false) Integer size,
+      Authentication authentication) {
+    CursorPageResponse<PostSummaryResponse> responses =
+        postService.getSavedPosts(cursor, size, authentication);
     return ResponseEntity.ok(APIResponse.success(responses));
   }
 
@@ -19,6 +19,7 @@ public class ExerciseSearchRequest implements Serializable {
   private List<String> musclesCodes;
   private String equipmentType;
   private String exerciseType;
+  private String exerciseCategory;
 
   // Pagination
   private Integer page = 0;
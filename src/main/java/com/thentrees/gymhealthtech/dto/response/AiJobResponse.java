@@ -0,0 +1,30 @@
+package com.thentrees.gymhealthtech.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.thentrees.gymhealthtech.enums.AiJobStatus;
+import com.thentrees.gymhealthtech.enums.AiJobType;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** State of an AI generation job; the result field matching {@link #type} is set on success. */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AiJobResponse {
+  private UUID jobId;
+  private AiJobType type;
+  private AiJobStatus status;
+  private UUID userId;
+  private String message;
+  private GeneratorWorkoutPlanResponse workoutPlan;
+  private GeneratorMealPlanResponse mealPlan;
+  private LocalDateTime submittedAt;
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+}
@@ -0,0 +1,18 @@
+package com.thentrees.gymhealthtech.dto.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+  private List<T> content;
+  private int size;
+  private boolean hasNext;
+  private String nextCursor; // null khi đã hết dữ liệu
+}
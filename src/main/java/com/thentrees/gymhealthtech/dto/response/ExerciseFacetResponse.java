@@ -0,0 +1,25 @@
+package com.thentrees.gymhealthtech.dto.response;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Exercise counts per filter value. Each facet is counted with every other active filter applied
+ * but not its own, so the counts show what selecting another value of that facet would return.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExerciseFacetResponse {
+  private int totalElements;
+  private Map<String, Integer> muscles;
+  private Map<String, Integer> primaryMuscles;
+  private Map<String, Integer> equipment;
+  private Map<String, Integer> exerciseTypes;
+  private Map<String, Integer> levels;
+  private Map<String, Integer> categories;
+}
@@ -0,0 +1,21 @@
+package com.thentrees.gymhealthtech.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportExerciseResponse {
+  private int totalRows;
+  private int insertedCount;
+  private int updatedCount;
+  private int skippedCount;
+  // Lý do bỏ qua của các dòng đầu tiên
+  @Builder.Default private List<String> skipped = new ArrayList<>();
+}
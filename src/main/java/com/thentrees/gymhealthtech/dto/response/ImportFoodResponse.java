@@ -1,17 +1,31 @@
 package com.thentrees.gymhealthtech.dto.response;
 
+import com.thentrees.gymhealthtech.enums.ImportJobStatus;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
 public class ImportFoodResponse {
+  private UUID jobId;
+  private ImportJobStatus status;
   private boolean success;
   private String message;
+  private Integer processedRows;
   private Integer totalRows;
   private Integer successCount;
   private Integer failCount;
+  // Chỉ giữ vài lỗi đầu tiên, danh sách đầy đủ nằm trong errorReportUrl
   private java.util.List<String> errors;
+  private String errorReportUrl;
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
 
   public static ImportFoodResponse error(String message) {
     return ImportFoodResponse.builder().success(false).message(message).build();
@@ -25,4 +25,7 @@ public class PostCommentResponse {
   private LocalDateTime createdAt;
   private List<PostCommentResponse> replies; // đệ quy
   private String postId; // chỉ giữ id, KHÔNG giữ Post object
+  private String parentCommentId;
+  private Boolean hasMoreReplies; // còn replies chưa tải trong thread
+  private String repliesCursor; // truyền vào API replies để tải tiếp
 }
@@ -19,6 +19,10 @@ public class PostResponse {
   private int sharesCount;
   private int savesCount;
 
+  // Quan hệ của người đang xem với bài viết
+  private boolean likedByMe;
+  private boolean savedByMe;
+
   private LocalDateTime createdAt;
   // commented out for future use
   private List<PostCommentResponse> comments;
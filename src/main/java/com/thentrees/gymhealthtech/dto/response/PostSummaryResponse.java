@@ -0,0 +1,27 @@
+package com.thentrees.gymhealthtech.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Data;
+
+/** Feed entry: the post with its counters, without the comment tree or plan details. */
+@Data
+public class PostSummaryResponse {
+  private String postId;
+  private UserSummaryResponse user;
+  private String planId;
+  private String content;
+  private List<String> tags;
+  private List<String> mediaUrls;
+
+  private int likesCount;
+  private int commentsCount;
+  private int sharesCount;
+  private int savesCount;
+
+  // Quan hệ của người đang xem với bài viết
+  private boolean likedByMe;
+  private boolean savedByMe;
+
+  private LocalDateTime createdAt;
+}
@@ -0,0 +1,13 @@
+package com.thentrees.gymhealthtech.enums;
+
+public enum AiJobStatus {
+  QUEUED,
+  RUNNING,
+  SUCCEEDED,
+  FAILED,
+  CANCELLED;
+
+  public boolean isTerminal() {
+    return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+  }
+}
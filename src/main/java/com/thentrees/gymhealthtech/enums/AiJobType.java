@@ -0,0 +1,6 @@
+package com.thentrees.gymhealthtech.enums;
+
+public enum AiJobType {
+  WORKOUT_PLAN,
+  MEAL_PLAN
+}
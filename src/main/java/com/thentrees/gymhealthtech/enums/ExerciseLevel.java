@@ -1,8 +1,27 @@
 package com.thentrees.gymhealthtech.enums;
 
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
 public enum ExerciseLevel {
-  BEGINNER,
-  INTERMEDIATE,
-  ADVANCED,
-  EXPERT
+  // exercises.difficulty_level: 1 beginner, 2 beginner-intermediate, 3 intermediate,
+  // 4 intermediate-advanced, 5 advanced
+  BEGINNER(1, 2),
+  INTERMEDIATE(3, 3),
+  ADVANCED(4, 4),
+  EXPERT(5, 5);
+
+  private final int minDifficulty;
+  private final int maxDifficulty;
+
+  public static ExerciseLevel fromDifficulty(int difficultyLevel) {
+    for (ExerciseLevel level : values()) {
+      if (difficultyLevel >= level.minDifficulty && difficultyLevel <= level.maxDifficulty) {
+        return level;
+      }
+    }
+    return null;
+  }
 }
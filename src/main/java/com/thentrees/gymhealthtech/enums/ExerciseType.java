@@ -8,5 +8,18 @@ public enum ExerciseType {
   MACHINE,
   PLYOMETRIC,
   CARDIO,
-  STRETCH
+  STRETCH;
+
+  /** Case-insensitive lookup used by filters; returns null for unknown codes. */
+  public static ExerciseType fromCode(String code) {
+    if (code == null) {
+      return null;
+    }
+    for (ExerciseType type : values()) {
+      if (type.name().equalsIgnoreCase(code.trim())) {
+        return type;
+      }
+    }
+    return null;
+  }
 }
@@ -0,0 +1,8 @@
+package com.thentrees.gymhealthtech.enums;
+
+public enum ImportJobStatus {
+  PENDING,
+  RUNNING,
+  COMPLETED,
+  FAILED
+}
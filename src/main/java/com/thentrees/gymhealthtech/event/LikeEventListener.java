@@ -1,11 +1,9 @@
 package com.thentrees.gymhealthtech.event;
 
-import com.thentrees.gymhealthtech.repository.PostRepository;
+import com.thentrees.gymhealthtech.service.PostLikeCounterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 
@@ -14,19 +12,18 @@ import org.springframework.transaction.event.TransactionalEventListener;
 @Slf4j
 public class LikeEventListener {
 
-  private final PostRepository postRepository;
+  private final PostLikeCounterService postLikeCounterService;
 
-  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  // Counter changes are buffered and flushed in batches instead of locking the post row per like
   @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
   public void handleLikeToggler(LikeEvent event) {
     log.info("User {} liked the post has id: {}", event.getUserId(), event.getPostId());
-    postRepository.incrementLikesCount(event.getPostId());
+    postLikeCounterService.recordDelta(event.getPostId(), 1);
   }
 
-  @Transactional(propagation = Propagation.REQUIRES_NEW)
   @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
   public void handleUnLikeToggle(UnLikeEvent event) {
     log.info("User {} unLiked the post has id: {}", event.getUserId(), event.getPostId());
-    postRepository.decrementLikesCount(event.getPostId());
+    postLikeCounterService.recordDelta(event.getPostId(), -1);
   }
 }
@@ -0,0 +1,6 @@
+package com.thentrees.gymhealthtech.exception;
+
+/** An AI call refused locally because the circuit is open or the bulkhead is full. */
+public class AiServiceUnavailableException extends InfrastructureException {
+  public AiServiceUnavailableException(String msg) { super(msg, null); }
+}
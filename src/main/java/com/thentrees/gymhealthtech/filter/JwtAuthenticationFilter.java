@@ -1,6 +1,8 @@
 package com.thentrees.gymhealthtech.filter;
 
 import com.thentrees.gymhealthtech.service.JwtService;
+import com.thentrees.gymhealthtech.service.PrincipalCacheService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.MalformedJwtException;
@@ -9,7 +11,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.security.SignatureException;
+import java.util.UUID;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,7 +22,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -31,7 +32,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtService jwtService;
-  private final UserDetailsService userDetailsService;
+  private final PrincipalCacheService principalCacheService;
 
   @Override
   protected void doFilterInternal(
@@ -55,10 +56,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     final String rawToken = authHeader.substring(7);
 
-    // 1. Validate token
-    String userEmail;
+    // 1. Validate token - parse & verify signature exactly once, reuse claims below
+    Claims claims;
     try {
-      userEmail = jwtService.extractUsername(rawToken);
+      claims = jwtService.parseClaims(rawToken);
 
     } catch (ExpiredJwtException e) {
       log.warn("Expired JWT for request {} {}", request.getMethod(), request.getRequestURI());
@@ -76,13 +77,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       return;
     }
 
+    String userEmail = claims.getSubject();
+
     // 2. Kiểm tra authentication hiện tại
     Authentication existingAuth = SecurityContextHolder.getContext().getAuthentication();
     if (userEmail != null && (existingAuth == null || existingAuth instanceof AnonymousAuthenticationToken)) {
 
-      UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+      UserDetails userDetails = principalCacheService.loadUser(userEmail);
 
-      if (jwtService.isTokenValid(rawToken, userDetails)) {
+      if (jwtService.isTokenValid(claims, userDetails)) {
         UsernamePasswordAuthenticationToken authToken =
           new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -90,8 +93,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         SecurityContextHolder.getContext().setAuthentication(authToken);
 
         // Put userId vào MDC
-        String userId = jwtService.extractUserId(rawToken).toString();
-        MDC.put("userId", userId);
+        UUID userId = jwtService.extractUserId(claims);
+        if (userId != null) {
+          MDC.put("userId", userId.toString());
+        }
 
         log.debug("Authenticated user: {}", userEmail);
 
@@ -1,41 +1,142 @@
 package com.thentrees.gymhealthtech.filter;
+import com.thentrees.gymhealthtech.model.User;
 import com.thentrees.gymhealthtech.service.RateLimiterService;
+import com.thentrees.gymhealthtech.service.RateLimiterService.Decision;
+import com.thentrees.gymhealthtech.service.RateLimiterService.Policy;
+import com.thentrees.gymhealthtech.util.ClientIpExtractor;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Runs inside the security chain right after {@link JwtAuthenticationFilter}, so authenticated
+ * callers are bucketed by user id and everyone else by client IP.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class RateLimitFilter extends OncePerRequestFilter {
 
+  private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
   private final RateLimiterService rateLimiterService;
 
+  @Value("${app.rate-limit.api.user-requests:300}")
+  private long userRequests;
+
+  @Value("${app.rate-limit.api.ip-requests:120}")
+  private long ipRequests;
+
+  @Value("${app.rate-limit.api.auth-requests:20}")
+  private long authRequests;
+
+  @Value("${app.rate-limit.api.ai-requests:10}")
+  private long aiRequests;
+
+  @Value("${app.rate-limit.api.window-seconds:60}")
+  private long windowSeconds;
+
+  private Policy userPolicy;
+  private Policy ipPolicy;
+  private Policy authEndpointPolicy;
+  private Policy aiEndpointPolicy;
+
+  @PostConstruct
+  void initPolicies() {
+    Duration window = Duration.ofSeconds(windowSeconds);
+    userPolicy = Policy.perPeriod("user", userRequests, window);
+    ipPolicy = Policy.perPeriod("ip", ipRequests, window);
+    authEndpointPolicy = Policy.perPeriod("auth", authRequests, window);
+    aiEndpointPolicy = Policy.perPeriod("ai", aiRequests, window);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return request.getRequestURI().startsWith("/actuator");
+  }
+
   @Override
   protected void doFilterInternal(HttpServletRequest request,
                                   HttpServletResponse response,
                                   FilterChain filterChain) throws ServletException, IOException {
 
-    String userId = MDC.get("userId");
-    if (userId == null) userId = "anonymous";
+    String path = request.getRequestURI();
+    String clientIp = ClientIpExtractor.extract(request);
+    String userId = currentUserId();
 
-    boolean allowed = rateLimiterService.tryConsume(userId);
-    if (!allowed) {
-      log.warn("Rate limit exceeded for userId={}", userId);
+    // Principal-wide bucket + endpoint-specific buckets; the most restrictive one wins
+    List<Decision> decisions = new ArrayList<>();
+    decisions.add(userId != null
+      ? rateLimiterService.tryConsume(userId, userPolicy)
+      : rateLimiterService.tryConsume(clientIp, ipPolicy));
+    if (PATH_MATCHER.match("/api/v1/auth/**", path)) {
+      decisions.add(rateLimiterService.tryConsume(clientIp, authEndpointPolicy));
+    }
+    // Only submissions start a generation; polling a job falls under the principal-wide bucket
+    if (PATH_MATCHER.match("/api/v1/ai/**", path) && "POST".equals(request.getMethod())) {
+      decisions.add(rateLimiterService.tryConsume(userId != null ? userId : clientIp, aiEndpointPolicy));
+    }
+
+    Decision effective = mostRestrictive(decisions);
+    writeHeaders(response, effective);
+
+    if (!effective.allowed()) {
+      log.warn("Rate limit exceeded for {} on {}", userId != null ? "userId=" + userId : "ip=" + clientIp, path);
       response.setStatus(429);
-      response.getWriter().write("Rate limit exceeded. Vui lòng thử lại sau.");
+      response.setHeader("Retry-After", String.valueOf(Math.max(1, effective.retryAfterSeconds())));
+      response.setContentType("application/json");
+      response.setCharacterEncoding("UTF-8");
+      response.getWriter().write("""
+                {
+                    "message": "Rate limit exceeded. Vui lòng thử lại sau.",
+                    "code": "RATE_LIMIT_EXCEEDED",
+                    "status": 429
+                }
+                """);
       return;
     }
 
     filterChain.doFilter(request, response);
   }
-}
 
+  private Decision mostRestrictive(List<Decision> decisions) {
+    Decision result = decisions.get(0);
+    for (Decision decision : decisions) {
+      if (!decision.allowed() && (result.allowed() || decision.retryAfterSeconds() > result.retryAfterSeconds())) {
+        result = decision;
+      } else if (result.allowed() && decision.allowed() && decision.remaining() < result.remaining()) {
+        result = decision;
+      }
+    }
+    return result;
+  }
+
+  private void writeHeaders(HttpServletResponse response, Decision decision) {
+    response.setHeader("X-RateLimit-Limit", String.valueOf(decision.limit()));
+    response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+    response.setHeader("X-RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+  }
+
+  private String currentUserId() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof User user && user.getId() != null) {
+      return user.getId().toString();
+    }
+    return null;
+  }
+}
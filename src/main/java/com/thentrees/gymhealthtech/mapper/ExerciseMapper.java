@@ -2,11 +2,14 @@ package com.thentrees.gymhealthtech.mapper;
 
 import com.thentrees.gymhealthtech.dto.response.EquipmentTypeResponse;
 import com.thentrees.gymhealthtech.dto.response.ExerciseDetailResponse;
+import com.thentrees.gymhealthtech.dto.response.ExerciseListResponse;
 import com.thentrees.gymhealthtech.dto.response.MuscleResponse;
+import com.thentrees.gymhealthtech.enums.ExerciseLevel;
 import com.thentrees.gymhealthtech.model.Equipment;
 import com.thentrees.gymhealthtech.model.Exercise;
 import com.thentrees.gymhealthtech.model.ExerciseMuscle;
 import com.thentrees.gymhealthtech.model.Muscle;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.mapstruct.*;
@@ -41,4 +44,37 @@ public interface ExerciseMapper {
         .map(Muscle::getName)
         .toList();
   }
+
+  /** List row for an exercise whose muscle links were loaded separately, primary roles first. */
+  default ExerciseListResponse toListResponse(Exercise exercise, List<ExerciseMuscle> muscles) {
+    List<ExerciseMuscle> links = muscles == null ? Collections.emptyList() : muscles;
+    return ExerciseListResponse.builder()
+        .id(exercise.getId())
+        .slug(exercise.getSlug())
+        .name(exercise.getName())
+        .level(ExerciseLevel.fromDifficulty(exercise.getDifficultyLevel()))
+        .primaryMuscle(musclesWithRole(links, "PRIMARY"))
+        .equipment(exercise.getEquipment() != null ? exercise.getEquipment().getName() : null)
+        .instructions(
+            exercise.getInstructions() != null
+                ? Arrays.stream(exercise.getInstructions().split(",")).toList()
+                : Collections.emptyList())
+        .safetyNotes(exercise.getSafetyNotes())
+        .thumbnailUrl(exercise.getThumbnailUrl())
+        .exerciseCategory(
+            exercise.getExerciseCategory() != null ? exercise.getExerciseCategory().getName() : null)
+        .exerciseType(exercise.getExerciseType() != null ? exercise.getExerciseType().name() : null)
+        .bodyPart(exercise.getBodyPart())
+        .secondaryMuscles(musclesWithRole(links, "SECONDARY"))
+        .createdAt(exercise.getCreatedAt())
+        .updatedAt(exercise.getUpdatedAt())
+        .build();
+  }
+
+  private static List<String> musclesWithRole(List<ExerciseMuscle> muscles, String role) {
+    return muscles.stream()
+        .filter(em -> role.equals(em.getRole()))
+        .map(em -> em.getMuscle().getName())
+        .toList();
+  }
 }
@@ -3,6 +3,8 @@ package com.thentrees.gymhealthtech.mapper;
 import com.thentrees.gymhealthtech.dto.request.FoodRequest;
 import com.thentrees.gymhealthtech.dto.response.FoodResponse;
 import com.thentrees.gymhealthtech.model.Food;
+import java.util.Arrays;
+import java.util.List;
 import org.mapstruct.*;
 
 @Mapper(componentModel = "spring")
@@ -13,4 +15,77 @@ public interface FoodMapper {
   @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
   @Mapping(target = "tags", source = "tags", ignore = true)
   void updateFoodFromRequest(FoodRequest request, @MappingTarget Food entity);
+
+  // Shared by create and bulk import so both store the same enhanced description and tags
+  default Food toEntity(FoodRequest dto) {
+    Food food = new Food();
+
+    // Basic info
+    food.setFoodName(dto.getFoodName());
+    food.setFoodNameVi(dto.getFoodNameVi());
+
+    // Nutrition
+    food.setServingWeightGrams(dto.getServingWeightGrams());
+    food.setCalories(dto.getCalories());
+    food.setProtein(dto.getProtein());
+    food.setCarbs(dto.getCarbs());
+    food.setFat(dto.getFat());
+    food.setFiber(dto.getFiber());
+
+    // Vitamins
+    food.setVitaminA(dto.getVitaminA());
+    food.setVitaminC(dto.getVitaminC());
+    food.setVitaminD(dto.getVitaminD());
+
+    // Classification
+    food.setCategory(dto.getCategory());
+    food.setMealTime(dto.getMealTime());
+    food.setImageUrl(dto.getImageUrl());
+
+    // Tags: "trái cây | ít béo" -> ["trái cây", "ít béo"], so they can be filtered one by one
+    food.setTags(splitTags(dto.getTags()));
+
+    // Metadata - Store additional info in JSONB or separate fields
+    // For now, put in description
+    food.setDescription(buildEnhancedDescription(dto));
+    // Detailed Information (NEW)
+    food.setDetailedBenefits(dto.getDetailedBenefits());
+    food.setCommonCombinations(dto.getCommonCombinations());
+    food.setContraindications(dto.getContraindications());
+    food.setAlternativeFoods(dto.getAlternativeFoods());
+
+    food.setIsActive(true);
+
+    return food;
+  }
+
+  default List<String> splitTags(String tags) {
+    if (tags == null) return null;
+    return Arrays.stream(tags.split("\\|"))
+        .map(tag -> tag.trim().toLowerCase())
+        .filter(tag -> !tag.isEmpty())
+        .toList();
+  }
+
+  default String buildEnhancedDescription(FoodRequest dto) {
+    StringBuilder sb = new StringBuilder();
+
+    if (dto.getDescription() != null) {
+      sb.append(dto.getDescription()).append("\n\n");
+    }
+
+    if (dto.getDetailedBenefits() != null) {
+      sb.append("Lợi ích: ").append(dto.getDetailedBenefits()).append("\n\n");
+    }
+
+    if (dto.getCommonCombinations() != null) {
+      sb.append("Kết hợp với: ").append(dto.getCommonCombinations()).append("\n\n");
+    }
+
+    if (dto.getContraindications() != null) {
+      sb.append("Lưu ý: ").append(dto.getContraindications());
+    }
+
+    return sb.toString().trim();
+  }
 }
@@ -20,12 +20,27 @@ public interface PostCommentMapper {
 
   @Mapping(target = "user", expression = "java(toUserSummary(comment.getUser()))")
   @Mapping(target = "replies", expression = "java(toReplyList(comment.getReplies()))")
+  @Mapping(target = "parentCommentId", source = "parentComment.id")
+  @Mapping(target = "hasMoreReplies", ignore = true)
+  @Mapping(target = "repliesCursor", ignore = true)
   PostCommentResponse toDto(PostComment comment);
 
+  // Thread entries: replies are attached by the caller, never loaded through the association
+  @Mapping(target = "user", expression = "java(toUserSummary(comment.getUser()))")
+  @Mapping(target = "replies", expression = "java(new java.util.ArrayList<>())")
+  @Mapping(target = "postId", source = "post.id")
+  @Mapping(target = "parentCommentId", source = "parentComment.id")
+  @Mapping(target = "hasMoreReplies", constant = "false")
+  @Mapping(target = "repliesCursor", ignore = true)
+  PostCommentResponse toThreadDto(PostComment comment);
+
   //  @Mapping(target = "post", expression = "java(mapToPost(dto.getPostId(), postRepository))")
   @Mapping(target = "post", source = "postId", qualifiedByName = "mapPost")
   @Mapping(target = "user", source = "userId", qualifiedByName = "mapUser")
   @Mapping(target = "parentComment", source = "parentCommentId", qualifiedByName = "mapParent")
+  // The service resolves the thread root from the parent; replies are never written from a request
+  @Mapping(target = "rootComment", ignore = true)
+  @Mapping(target = "replies", ignore = true)
   PostComment toEntity(CreateCommentRequest dto, @Context PostRepository postRepository);
 
   default UserSummaryResponse toUserSummary(User user) {
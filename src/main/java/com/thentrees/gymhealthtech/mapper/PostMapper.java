@@ -1,13 +1,11 @@
 package com.thentrees.gymhealthtech.mapper;
 
 import com.thentrees.gymhealthtech.dto.response.PlanSummaryResponse;
-import com.thentrees.gymhealthtech.dto.response.PostCommentResponse;
 import com.thentrees.gymhealthtech.dto.response.PostResponse;
+import com.thentrees.gymhealthtech.dto.response.PostSummaryResponse;
 import com.thentrees.gymhealthtech.dto.response.UserSummaryResponse;
 import com.thentrees.gymhealthtech.model.*;
-import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -17,10 +15,21 @@ public interface PostMapper {
   @Mapping(target = "user", expression = "java(toUserSummary(post.getUser()))")
   @Mapping(target = "planId", source = "plan.id")
   @Mapping(target = "plan", expression = "java(toPlanSummary(post.getPlan()))")
-  @Mapping(target = "comments", expression = "java(toCommentList(post.getComments()))")
+  // Comments are paged through the comment thread API, never embedded in the post
+  @Mapping(target = "comments", ignore = true)
   @Mapping(target = "postId", source = "id")
+  @Mapping(target = "likedByMe", ignore = true)
+  @Mapping(target = "savedByMe", ignore = true)
   PostResponse toResponse(Post post);
 
+  // ======= 3️⃣  Post → PostSummaryResponse (feed) =======
+  @Mapping(target = "user", expression = "java(toUserSummary(post.getUser()))")
+  @Mapping(target = "planId", source = "plan.id")
+  @Mapping(target = "postId", source = "id")
+  @Mapping(target = "likedByMe", ignore = true)
+  @Mapping(target = "savedByMe", ignore = true)
+  PostSummaryResponse toSummaryResponse(Post post);
+
   default UserSummaryResponse toUserSummary(User user) {
     if (user == null) return null;
     String avatarUrl = null;
@@ -66,26 +75,4 @@ public interface PostMapper {
 
     return dto;
   }
-
-  default List<PostCommentResponse> toCommentList(List<PostComment> comments) {
-    if (comments == null) return List.of();
-    return comments.stream()
-        .filter(c -> !c.getIsDeleted()) // chỉ lấy comment is deleted = false
-        .map(
-            c ->
-                PostCommentResponse.builder()
-                    .id(c.getId().toString())
-                    .content(c.getContent())
-                    .user(toUserSummary(c.getUser()))
-                    .likesCount(c.getLikesCount())
-                    .repliesCount(c.getRepliesCount())
-                    .isPinned(c.getIsPinned())
-                    .isActive(c.getIsActive())
-                    .mediaUrl(c.getMediaUrl())
-                    .createdAt(c.getCreatedAt())
-                    .postId(c.getPost() != null ? c.getPost().getId().toString() : null)
-                    .replies(toCommentList(c.getReplies())) // đệ quy an toàn
-                    .build())
-        .toList();
-  }
 }
@@ -9,6 +9,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "meal_plans")
@@ -49,6 +51,7 @@ public class MealPlan extends BaseEntity {
   @Column(name = "ai_reasoning", columnDefinition = "TEXT")
   private String aiReasoning;
 
+  @JdbcTypeCode(SqlTypes.JSON)
   @Column(name = "ai_tips", columnDefinition = "jsonb")
   private List<String> aiTips;
 
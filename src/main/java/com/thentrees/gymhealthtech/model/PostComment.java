@@ -25,6 +25,11 @@ public class PostComment extends BaseEntity {
   @JoinColumn(name = "parent_comment_id")
   private PostComment parentComment;
 
+  // First comment of the thread, null for top-level comments
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "root_comment_id")
+  private PostComment rootComment;
+
   @Column(name = "content", nullable = false, columnDefinition = "TEXT")
   private String content;
 
@@ -20,9 +20,13 @@ public class RefreshToken {
   @JoinColumn(name = "user_id", nullable = false)
   private User user;
 
-  @Column(name = "token_hash", nullable = false)
+  @Column(name = "token_hash", nullable = false, unique = true)
   private String tokenHash;
 
+  // Every token rotated from the same login shares a family, revoked together on reuse
+  @Column(name = "family_id", nullable = false)
+  private UUID familyId;
+
   @Column(name = "issued_at", nullable = false)
   private LocalDateTime issuedAt = LocalDateTime.now();
 
@@ -37,4 +41,8 @@ public class RefreshToken {
 
   @Column(name = "ip")
   private String ip;
+
+  // Plain token, only populated right after creation so it can be handed to the client
+  @Transient
+  private String rawToken;
 }
@@ -0,0 +1,54 @@
+package com.thentrees.gymhealthtech.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Per-user, per-day training rollup. Rows are only written through the additive upsert in
+ * {@link com.thentrees.gymhealthtech.repository.UserTrainingDailyStatsRepository}; the day is the
+ * date the session was started.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "user_training_daily_stats")
+public class UserTrainingDailyStats {
+
+  @EmbeddedId private UserTrainingDailyStatsId id;
+
+  @Column(name = "total_sessions", nullable = false)
+  private Integer totalSessions = 0;
+
+  @Column(name = "completed_sessions", nullable = false)
+  private Integer completedSessions = 0;
+
+  @Column(name = "total_sets", nullable = false)
+  private Integer totalSets = 0;
+
+  @Column(name = "completed_sets", nullable = false)
+  private Integer completedSets = 0;
+
+  @Column(name = "total_volume", nullable = false)
+  private Long totalVolume = 0L;
+
+  @Column(name = "total_duration_minutes", nullable = false)
+  private Integer totalDurationMinutes = 0;
+
+  @Column(name = "completed_duration_minutes", nullable = false)
+  private Integer completedDurationMinutes = 0;
+
+  // Sum of each session's completion percentage, divided by total_sessions when read
+  @Column(name = "completion_pct_sum", nullable = false)
+  private Double completionPctSum = 0.0;
+
+  @Column(name = "rpe_sum", nullable = false)
+  private Integer rpeSum = 0;
+
+  @Column(name = "rpe_count", nullable = false)
+  private Integer rpeCount = 0;
+
+  @Column(name = "updated_at", nullable = false)
+  private LocalDateTime updatedAt = LocalDateTime.now();
+}
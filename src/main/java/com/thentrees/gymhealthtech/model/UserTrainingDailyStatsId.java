@@ -0,0 +1,26 @@
+package com.thentrees.gymhealthtech.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class UserTrainingDailyStatsId implements Serializable {
+  @Column(name = "user_id")
+  private UUID userId;
+
+  @Column(name = "stat_date")
+  private LocalDate statDate;
+}
@@ -25,6 +25,11 @@ public class VerificationToken {
   @Column(name = "type", nullable = false)
   private VerificationType type;
 
+  // Public, indexed half of the token used for lookup
+  @Column(name = "selector", unique = true, length = 32)
+  private String selector;
+
+  // SHA-256 of the secret verifier half
   @Column(name = "token_hash", nullable = false)
   private String tokenHash;
 
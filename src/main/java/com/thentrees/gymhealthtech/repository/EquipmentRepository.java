@@ -18,4 +18,7 @@ public interface EquipmentRepository extends JpaRepository<Equipment, String> {
   List<Equipment> findByName(@Param("name") String name);
 
   Optional<Equipment> findByCode(String codes);
+
+  @Query("SELECT e.code FROM Equipment e")
+  List<String> findAllCodes();
 }
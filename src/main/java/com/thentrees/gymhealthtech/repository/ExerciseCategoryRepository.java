@@ -1,6 +1,7 @@
 package com.thentrees.gymhealthtech.repository;
 
 import com.thentrees.gymhealthtech.model.ExerciseCategory;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -12,4 +13,7 @@ public interface ExerciseCategoryRepository extends JpaRepository<ExerciseCatego
 
   @Query("SELECT c FROM ExerciseCategory c LEFT JOIN FETCH c.exercises WHERE c.name = :name")
   Optional<ExerciseCategory> findByNameWithExercises(@Param("name") String name);
+
+  @Query("SELECT c.code FROM ExerciseCategory c")
+  List<String> findAllCodes();
 }
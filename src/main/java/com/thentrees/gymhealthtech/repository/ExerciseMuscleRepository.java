@@ -2,6 +2,7 @@ package com.thentrees.gymhealthtech.repository;
 
 import com.thentrees.gymhealthtech.model.ExerciseMuscle;
 import com.thentrees.gymhealthtech.model.ExerciseMuscleId;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -16,5 +17,19 @@ public interface ExerciseMuscleRepository extends JpaRepository<ExerciseMuscle,
           + "ORDER BY CASE WHEN em.role = 'PRIMARY' THEN 1 ELSE 2 END, em.muscle.name")
   List<ExerciseMuscle> findByExerciseIdOrderByRole(@Param("exerciseId") UUID exerciseId);
 
+  @Query(
+      "SELECT em FROM ExerciseMuscle em "
+          + "JOIN FETCH em.muscle "
+          + "WHERE em.exercise.id IN :exerciseIds "
+          + "ORDER BY CASE WHEN em.role = 'PRIMARY' THEN 1 ELSE 2 END, em.muscle.name")
+  List<ExerciseMuscle> findByExerciseIdsOrderByRole(
+      @Param("exerciseIds") Collection<UUID> exerciseIds);
+
+  @Query(
+      "SELECT em FROM ExerciseMuscle em "
+          + "JOIN FETCH em.muscle "
+          + "ORDER BY CASE WHEN em.role = 'PRIMARY' THEN 1 ELSE 2 END, em.muscle.name")
+  List<ExerciseMuscle> findAllOrderByRole();
+
   void deleteByExerciseId(UUID exerciseId);
 }
@@ -7,9 +7,12 @@ import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
 public interface ExerciseRepository
-    extends JpaRepository<Exercise, UUID>, JpaSpecificationExecutor<Exercise> {
+    extends JpaRepository<Exercise, UUID>,
+        JpaSpecificationExecutor<Exercise>,
+        ExerciseRepositoryCustom {
 
   Optional<Exercise> findByIdAndIsDeletedFalse(UUID id);
 
@@ -20,4 +23,11 @@ public interface ExerciseRepository
   boolean existsBySlugAndIdNot(String slug, UUID id);
 
   List<Exercise> findByExerciseCategory(ExerciseCategory category);
+
+  @Query(
+      "SELECT e FROM Exercise e "
+          + "LEFT JOIN FETCH e.primaryMuscle "
+          + "LEFT JOIN FETCH e.equipment "
+          + "LEFT JOIN FETCH e.exerciseCategory")
+  List<Exercise> findAllForCatalog();
 }
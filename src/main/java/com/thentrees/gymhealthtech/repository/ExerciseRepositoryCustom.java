@@ -0,0 +1,40 @@
+package com.thentrees.gymhealthtech.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface ExerciseRepositoryCustom {
+
+  /** One exercise of a bulk import, with every reference already resolved to its code. */
+  record ImportRow(
+      String slug,
+      String name,
+      int difficultyLevel,
+      String primaryMuscle,
+      String equipment,
+      String instructions,
+      String safetyNotes,
+      String thumbnailUrl,
+      String bodyPart,
+      String exerciseCategory,
+      String exerciseType,
+      Map<String, String> muscleRoles) {}
+
+  record UpsertedRow(UUID id, String slug, boolean inserted) {}
+
+  /**
+   * Inserts or updates the rows keyed on slug in one statement. Soft-deleted exercises are left
+   * untouched and are not returned. Slugs must be unique within the list.
+   */
+  List<UpsertedRow> upsertAllBySlug(List<ImportRow> rows);
+
+  /**
+   * Makes exercise_muscles of the given exercises match {@code muscleRoles} exactly, in one
+   * statement.
+   */
+  void replaceMuscles(Map<UUID, Map<String, String>> muscleRoles);
+
+  /** Same as {@link #replaceMuscles} for exercise_equipments; a null code removes all links. */
+  void replaceEquipments(Map<UUID, String> equipmentCodes);
+}
@@ -0,0 +1,174 @@
+package com.thentrees.gymhealthtech.repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+public class ExerciseRepositoryCustomImpl implements ExerciseRepositoryCustom {
+
+  // xmax = 0 only for freshly inserted tuples, which tells inserts from updates
+  private static final String UPSERT_SQL =
+      """
+      INSERT INTO exercises (
+          slug, name, difficulty_level, primary_muscle, equipment, instructions,
+          safety_notes, thumbnail_url, body_part, exercise_category, exercise_type)
+      SELECT * FROM unnest(
+          CAST(? AS varchar[]), CAST(? AS varchar[]), CAST(? AS int[]), CAST(? AS varchar[]),
+          CAST(? AS varchar[]), CAST(? AS text[]), CAST(? AS text[]), CAST(? AS text[]),
+          CAST(? AS varchar[]), CAST(? AS varchar[]), CAST(? AS varchar[]))
+      ON CONFLICT (slug) DO UPDATE SET
+          name = EXCLUDED.name,
+          difficulty_level = EXCLUDED.difficulty_level,
+          primary_muscle = EXCLUDED.primary_muscle,
+          equipment = EXCLUDED.equipment,
+          instructions = EXCLUDED.instructions,
+          safety_notes = EXCLUDED.safety_notes,
+          thumbnail_url = EXCLUDED.thumbnail_url,
+          body_part = EXCLUDED.body_part,
+          exercise_category = EXCLUDED.exercise_category,
+          exercise_type = EXCLUDED.exercise_type
+      WHERE exercises.is_deleted = false
+      RETURNING id, slug, (xmax = 0) AS inserted
+      """;
+
+  // Stale links are deleted and incoming ones upserted; the two sets are disjoint, so one
+  // statement is safe regardless of the order PostgreSQL runs the CTE in
+  private static final String REPLACE_MUSCLES_SQL =
+      """
+      WITH incoming AS (
+          SELECT * FROM unnest(CAST(? AS uuid[]), CAST(? AS varchar[]), CAST(? AS varchar[]))
+              AS t(exercise_id, muscle_code, role)
+      ), stale AS (
+          DELETE FROM exercise_muscles em
+          WHERE em.exercise_id = ANY(CAST(? AS uuid[]))
+            AND NOT EXISTS (
+                SELECT 1 FROM incoming i
+                WHERE i.exercise_id = em.exercise_id AND i.muscle_code = em.muscle_code)
+      )
+      INSERT INTO exercise_muscles (exercise_id, muscle_code, role)
+      SELECT exercise_id, muscle_code, CAST(role AS muscle_role) FROM incoming
+      ON CONFLICT (exercise_id, muscle_code) DO UPDATE SET role = EXCLUDED.role
+      """;
+
+  private static final String REPLACE_EQUIPMENTS_SQL =
+      """
+      WITH incoming AS (
+          SELECT * FROM unnest(CAST(? AS uuid[]), CAST(? AS varchar[]))
+              AS t(exercise_id, equipment_code)
+      ), stale AS (
+          DELETE FROM exercise_equipments ee
+          WHERE ee.exercise_id = ANY(CAST(? AS uuid[]))
+            AND NOT EXISTS (
+                SELECT 1 FROM incoming i
+                WHERE i.exercise_id = ee.exercise_id AND i.equipment_code = ee.equipment_code)
+      )
+      INSERT INTO exercise_equipments (exercise_id, equipment_code)
+      SELECT exercise_id, equipment_code FROM incoming
+      ON CONFLICT (exercise_id, equipment_code) DO NOTHING
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public List<UpsertedRow> upsertAllBySlug(List<ImportRow> rows) {
+    if (rows.isEmpty()) {
+      return List.of();
+    }
+    return jdbcTemplate.query(
+        con -> {
+          PreparedStatement ps = con.prepareStatement(UPSERT_SQL);
+          int i = 1;
+          ps.setArray(i++, varchars(con, rows.stream().map(ImportRow::slug).toList()));
+          ps.setArray(i++, varchars(con, rows.stream().map(ImportRow::name).toList()));
+          ps.setArray(
+              i++,
+              con.createArrayOf(
+                  "int4", rows.stream().map(ImportRow::difficultyLevel).toArray(Integer[]::new)));
+          ps.setArray(i++, varchars(con, rows.stream().map(ImportRow::primaryMuscle).toList()));
+          ps.setArray(i++, varchars(con, rows.stream().map(ImportRow::equipment).toList()));
+          ps.setArray(i++, texts(con, rows.stream().map(ImportRow::instructions).toList()));
+          ps.setArray(i++, texts(con, rows.stream().map(ImportRow::safetyNotes).toList()));
+          ps.setArray(i++, texts(con, rows.stream().map(ImportRow::thumbnailUrl).toList()));
+          ps.setArray(i++, varchars(con, rows.stream().map(ImportRow::bodyPart).toList()));
+          ps.setArray(i++, varchars(con, rows.stream().map(ImportRow::exerciseCategory).toList()));
+          ps.setArray(i, varchars(con, rows.stream().map(ImportRow::exerciseType).toList()));
+          return ps;
+        },
+        (rs, rowNum) ->
+            new UpsertedRow(
+                rs.getObject("id", UUID.class), rs.getString("slug"), rs.getBoolean("inserted")));
+  }
+
+  @Override
+  public void replaceMuscles(Map<UUID, Map<String, String>> muscleRoles) {
+    if (muscleRoles.isEmpty()) {
+      return;
+    }
+    List<UUID> exerciseIds = new ArrayList<>();
+    List<String> muscleCodes = new ArrayList<>();
+    List<String> roles = new ArrayList<>();
+    muscleRoles.forEach(
+        (exerciseId, links) ->
+            links.forEach(
+                (muscleCode, role) -> {
+                  exerciseIds.add(exerciseId);
+                  muscleCodes.add(muscleCode);
+                  roles.add(role);
+                }));
+
+    jdbcTemplate.update(
+        con -> {
+          PreparedStatement ps = con.prepareStatement(REPLACE_MUSCLES_SQL);
+          ps.setArray(1, uuids(con, exerciseIds));
+          ps.setArray(2, varchars(con, muscleCodes));
+          ps.setArray(3, varchars(con, roles));
+          ps.setArray(4, uuids(con, muscleRoles.keySet().stream().toList()));
+          return ps;
+        });
+  }
+
+  @Override
+  public void replaceEquipments(Map<UUID, String> equipmentCodes) {
+    if (equipmentCodes.isEmpty()) {
+      return;
+    }
+    List<UUID> exerciseIds = new ArrayList<>();
+    List<String> codes = new ArrayList<>();
+    equipmentCodes.forEach(
+        (exerciseId, code) -> {
+          if (code != null) {
+            exerciseIds.add(exerciseId);
+            codes.add(code);
+          }
+        });
+
+    jdbcTemplate.update(
+        con -> {
+          PreparedStatement ps = con.prepareStatement(REPLACE_EQUIPMENTS_SQL);
+          ps.setArray(1, uuids(con, exerciseIds));
+          ps.setArray(2, varchars(con, codes));
+          ps.setArray(3, uuids(con, equipmentCodes.keySet().stream().toList()));
+          return ps;
+        });
+  }
+
+  private static Array varchars(Connection con, List<String> values) throws SQLException {
+    return con.createArrayOf("varchar", values.toArray());
+  }
+
+  private static Array texts(Connection con, List<String> values) throws SQLException {
+    return con.createArrayOf("text", values.toArray());
+  }
+
+  private static Array uuids(Connection con, List<UUID> values) throws SQLException {
+    return con.createArrayOf("uuid", values.toArray());
+  }
+}
@@ -12,21 +12,64 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface FoodRepository extends JpaRepository<Food, UUID> {
+public interface FoodRepository extends JpaRepository<Food, UUID>, FoodRepositoryCustom {
 
   Page<Food> findAllByIsActiveTrue(Pageable pageable);
 
+  List<Food> findAllByIsActiveTrue();
+
   Optional<Food> findByIdAndIsActiveTrue(UUID id);
   @Query("SELECT f FROM Food f WHERE f.mealTime LIKE %:mealTime% AND f.isActive = true")
   List<Food> findByMealTimeContaining(@Param("mealTime") String mealTime);
 
   List<Food> findByCategoryAndIsActiveTrue(String category);
 
+  // Substring or fuzzy word match on the unaccented names, both served by the trigram index
   @Query(
-      "SELECT f FROM Food f WHERE (LOWER(f.foodNameVi) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND f.isActive = true")
-  Page<Food> findAllByFoodNameVi(@Param("keyword") String keyword, Pageable pageable);
+      value =
+          """
+          SELECT f.* FROM foods f
+          WHERE f.is_deleted = false
+            AND (:activeOnly = false OR f.is_active = true)
+            AND (f.search_name LIKE '%' || immutable_unaccent(lower(:keyword)) || '%'
+                 OR immutable_unaccent(lower(:keyword)) <% f.search_name)
+            AND (CAST(:tags AS text[]) IS NULL OR f.tags && CAST(:tags AS text[]))
+          ORDER BY word_similarity(immutable_unaccent(lower(:keyword)), f.search_name) DESC,
+                   f.food_name_vi, f.id
+          """,
+      countQuery =
+          """
+          SELECT count(*) FROM foods f
+          WHERE f.is_deleted = false
+            AND (:activeOnly = false OR f.is_active = true)
+            AND (f.search_name LIKE '%' || immutable_unaccent(lower(:keyword)) || '%'
+                 OR immutable_unaccent(lower(:keyword)) <% f.search_name)
+            AND (CAST(:tags AS text[]) IS NULL OR f.tags && CAST(:tags AS text[]))
+          """,
+      nativeQuery = true)
+  Page<Food> searchByName(
+      @Param("keyword") String keyword,
+      @Param("tags") String tags,
+      @Param("activeOnly") boolean activeOnly,
+      Pageable pageable);
 
   @Query(
-    "SELECT f FROM Food f WHERE (LOWER(f.foodNameVi) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-  Page<Food> findAllWithFoodNameVi(@Param("keyword") String keyword, Pageable pageable);
+      value =
+          """
+          SELECT f.* FROM foods f
+          WHERE f.is_deleted = false
+            AND (:activeOnly = false OR f.is_active = true)
+            AND f.tags && CAST(:tags AS text[])
+          ORDER BY f.created_at DESC, f.id
+          """,
+      countQuery =
+          """
+          SELECT count(*) FROM foods f
+          WHERE f.is_deleted = false
+            AND (:activeOnly = false OR f.is_active = true)
+            AND f.tags && CAST(:tags AS text[])
+          """,
+      nativeQuery = true)
+  Page<Food> findByAnyTag(
+      @Param("tags") String tags, @Param("activeOnly") boolean activeOnly, Pageable pageable);
 }
@@ -0,0 +1,13 @@
+package com.thentrees.gymhealthtech.repository;
+
+import com.thentrees.gymhealthtech.model.Food;
+import java.util.List;
+
+public interface FoodRepositoryCustom {
+
+  /**
+   * Inserts or updates foods keyed on the case-insensitive food name, as one JDBC batch. Names must
+   * be unique within the list.
+   */
+  void upsertAllByFoodName(List<Food> foods);
+}
@@ -0,0 +1,95 @@
+package com.thentrees.gymhealthtech.repository;
+
+import com.thentrees.gymhealthtech.model.Food;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+public class FoodRepositoryCustomImpl implements FoodRepositoryCustom {
+
+  // Conflict target matches uq_foods_food_name_active; an imported row never clears an uploaded image
+  private static final String UPSERT_SQL =
+      """
+      INSERT INTO foods (
+          id, food_name, food_name_vi, description, serving_weight_grams, calories,
+          protein, carbs, fat, fiber, vitamin_a, vitamin_c, vitamin_d,
+          category, meal_time, image_url, detailed_benefits, common_combinations,
+          contraindications, alternative_foods, tags,
+          is_active, is_deleted, created_at, updated_at, version)
+      VALUES (
+          gen_random_uuid(), ?, ?, ?, ?, ?,
+          COALESCE(?, 0), COALESCE(?, 0), COALESCE(?, 0), ?, ?, ?, ?,
+          ?, ?, ?, ?, ?,
+          ?, ?, ?,
+          true, false, ?, ?, 0)
+      ON CONFLICT (lower(food_name)) WHERE is_deleted = false
+      DO UPDATE SET
+          food_name_vi = EXCLUDED.food_name_vi,
+          description = EXCLUDED.description,
+          serving_weight_grams = EXCLUDED.serving_weight_grams,
+          calories = EXCLUDED.calories,
+          protein = EXCLUDED.protein,
+          carbs = EXCLUDED.carbs,
+          fat = EXCLUDED.fat,
+          fiber = EXCLUDED.fiber,
+          vitamin_a = EXCLUDED.vitamin_a,
+          vitamin_c = EXCLUDED.vitamin_c,
+          vitamin_d = EXCLUDED.vitamin_d,
+          category = EXCLUDED.category,
+          meal_time = EXCLUDED.meal_time,
+          image_url = COALESCE(EXCLUDED.image_url, foods.image_url),
+          detailed_benefits = EXCLUDED.detailed_benefits,
+          common_combinations = EXCLUDED.common_combinations,
+          contraindications = EXCLUDED.contraindications,
+          alternative_foods = EXCLUDED.alternative_foods,
+          tags = EXCLUDED.tags,
+          updated_at = EXCLUDED.updated_at,
+          version = foods.version + 1
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public void upsertAllByFoodName(List<Food> foods) {
+    if (foods.isEmpty()) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    jdbcTemplate.batchUpdate(UPSERT_SQL, foods, foods.size(), (ps, food) -> bind(ps, food, now));
+  }
+
+  private void bind(PreparedStatement ps, Food food, LocalDateTime now) throws SQLException {
+    int i = 1;
+    ps.setString(i++, food.getFoodName());
+    ps.setString(i++, food.getFoodNameVi());
+    ps.setString(i++, food.getDescription());
+    ps.setBigDecimal(i++, food.getServingWeightGrams());
+    ps.setBigDecimal(i++, food.getCalories());
+    ps.setBigDecimal(i++, food.getProtein());
+    ps.setBigDecimal(i++, food.getCarbs());
+    ps.setBigDecimal(i++, food.getFat());
+    ps.setBigDecimal(i++, food.getFiber());
+    ps.setBigDecimal(i++, food.getVitaminA());
+    ps.setBigDecimal(i++, food.getVitaminC());
+    ps.setBigDecimal(i++, food.getVitaminD());
+    ps.setString(i++, food.getCategory());
+    ps.setString(i++, food.getMealTime());
+    ps.setString(i++, food.getImageUrl());
+    ps.setString(i++, food.getDetailedBenefits());
+    ps.setString(i++, food.getCommonCombinations());
+    ps.setString(i++, food.getContraindications());
+    ps.setString(i++, food.getAlternativeFoods());
+    Array tags =
+        food.getTags() == null
+            ? null
+            : ps.getConnection().createArrayOf("text", food.getTags().toArray());
+    ps.setArray(i++, tags);
+    ps.setObject(i++, now);
+    ps.setObject(i, now);
+  }
+}
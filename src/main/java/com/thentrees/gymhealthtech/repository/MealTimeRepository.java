@@ -0,0 +1,9 @@
+package com.thentrees.gymhealthtech.repository;
+
+import com.thentrees.gymhealthtech.model.MealTime;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MealTimeRepository extends JpaRepository<MealTime, UUID> {}
@@ -13,4 +13,7 @@ public interface MuscleRepository extends JpaRepository<Muscle, String> {
   List<Muscle> findByCodes(@Param("codes") List<String> codes);
 
   Muscle findByCode(String code);
+
+  @Query("SELECT m.code FROM Muscle m")
+  List<String> findAllCodes();
 }
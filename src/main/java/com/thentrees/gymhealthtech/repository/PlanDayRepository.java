@@ -1,7 +1,9 @@
 package com.thentrees.gymhealthtech.repository;
 
+import com.thentrees.gymhealthtech.enums.PlanStatusType;
 import com.thentrees.gymhealthtech.model.PlanDay;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -39,5 +41,16 @@ public interface PlanDayRepository extends JpaRepository<PlanDay, UUID> {
       WHERE pd.plan.id = :planId
       """)
   List<PlanDay> findAllByPlanId(@Param("planId") UUID planId);
+
+  // Dates of the first cycle week; later weeks repeat the same weekdays
+  @Query("""
+      SELECT pd.scheduledDate FROM PlanDay pd
+      WHERE pd.plan.user.id = :userId AND pd.plan.status = :status
+        AND pd.plan.endDate >= :date AND pd.scheduledDate IS NOT NULL
+      """)
+  List<LocalDate> findScheduledDatesOfPlans(
+      @Param("userId") UUID userId,
+      @Param("status") PlanStatusType status,
+      @Param("date") LocalDate date);
 }
 
@@ -5,10 +5,16 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface PlanItemRepository extends JpaRepository<PlanItem, UUID> {
   Optional<PlanItem> findByIdAndPlanDayIdAndPlanDayPlanIdAndPlanDayPlanUserId(
       UUID planItemId, UUID planDayId, UUID planId, UUID userId);
 
   List<PlanItem> findByPlanDay_IdOrderByItemIndexAsc(UUID planDayId);
+
+  @Query(
+      "SELECT pi FROM PlanItem pi JOIN FETCH pi.exercise WHERE pi.planDay.id = :planDayId ORDER BY pi.itemIndex ASC")
+  List<PlanItem> findByPlanDayIdWithExercise(@Param("planDayId") UUID planDayId);
 }
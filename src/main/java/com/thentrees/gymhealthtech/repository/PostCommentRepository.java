@@ -2,12 +2,90 @@ package com.thentrees.gymhealthtech.repository;
 
 import com.thentrees.gymhealthtech.model.Post;
 import com.thentrees.gymhealthtech.model.PostComment;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface PostCommentRepository extends JpaRepository<PostComment, UUID> {
   List<PostComment> findByPostAndParentCommentIsNull(Post post); // lấy comment gốc
 
   List<PostComment> findByParentComment(PostComment parent); // lấy reply theo parent
+
+  @Query("""
+      SELECT c FROM PostComment c
+      JOIN FETCH c.user u
+      LEFT JOIN FETCH u.profile
+      WHERE c.post.id = :postId AND c.parentComment IS NULL
+      ORDER BY c.createdAt DESC, c.id DESC
+      """)
+  List<PostComment> findRootCommentsFirstPage(@Param("postId") UUID postId, Pageable pageable);
+
+  @Query("""
+      SELECT c FROM PostComment c
+      JOIN FETCH c.user u
+      LEFT JOIN FETCH u.profile
+      WHERE c.post.id = :postId AND c.parentComment IS NULL
+        AND c.createdAt <= :createdAt
+        AND (c.createdAt < :createdAt OR c.id < :id)
+      ORDER BY c.createdAt DESC, c.id DESC
+      """)
+  List<PostComment> findRootCommentsPageAfter(
+      @Param("postId") UUID postId,
+      @Param("createdAt") LocalDateTime createdAt,
+      @Param("id") UUID id,
+      Pageable pageable);
+
+  // The first :limit replies of every thread, oldest first, in one window-function scan
+  @Query(
+      value =
+          """
+          SELECT t.id FROM (
+            SELECT c.id,
+                   ROW_NUMBER() OVER (PARTITION BY c.root_comment_id ORDER BY c.created_at, c.id) AS rn
+            FROM post_comments c
+            WHERE c.root_comment_id IN (:rootIds) AND c.is_deleted = false
+          ) t
+          WHERE t.rn <= :limit
+          """,
+      nativeQuery = true)
+  List<UUID> findFirstReplyIdsPerRoot(
+      @Param("rootIds") Collection<UUID> rootIds, @Param("limit") int limit);
+
+  @Query("""
+      SELECT c FROM PostComment c
+      JOIN FETCH c.user u
+      LEFT JOIN FETCH u.profile
+      WHERE c.id IN :ids
+      ORDER BY c.createdAt ASC, c.id ASC
+      """)
+  List<PostComment> findAllWithUserByIdIn(@Param("ids") Collection<UUID> ids);
+
+  @Query("""
+      SELECT c FROM PostComment c
+      JOIN FETCH c.user u
+      LEFT JOIN FETCH u.profile
+      WHERE c.rootComment.id = :rootId
+        AND c.createdAt >= :createdAt
+        AND (c.createdAt > :createdAt OR c.id > :id)
+      ORDER BY c.createdAt ASC, c.id ASC
+      """)
+  List<PostComment> findRepliesPageAfter(
+      @Param("rootId") UUID rootId,
+      @Param("createdAt") LocalDateTime createdAt,
+      @Param("id") UUID id,
+      Pageable pageable);
+
+  @Query("""
+      SELECT c FROM PostComment c
+      JOIN FETCH c.user u
+      LEFT JOIN FETCH u.profile
+      WHERE c.rootComment.id = :rootId
+      ORDER BY c.createdAt ASC, c.id ASC
+      """)
+  List<PostComment> findRepliesFirstPage(@Param("rootId") UUID rootId, Pageable pageable);
 }
@@ -1,33 +1,46 @@
 package com.thentrees.gymhealthtech.repository;
 
 import com.thentrees.gymhealthtech.model.Post;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 public interface PostRepository extends JpaRepository<Post, UUID> {
 
-  @EntityGraph(attributePaths = {
-    "user", "user.profile", "plan", "comments", "comments.user", "comments.user.profile"
-  })
+  @EntityGraph(attributePaths = {"user", "user.profile", "plan"})
   Optional<Post> findById(UUID id);
 
   @Query("""
-      SELECT DISTINCT p FROM Post p
-      LEFT JOIN FETCH p.user u
+      SELECT p FROM Post p
+      JOIN FETCH p.user u
       LEFT JOIN FETCH u.profile
-      LEFT JOIN FETCH p.plan
       WHERE p.isDeleted = false
-      ORDER BY p.createdAt DESC
+      ORDER BY p.createdAt DESC, p.id DESC
       """)
-  List<Post> findAllWithRelations();
+  List<Post> findFeedFirstPage(Pageable pageable);
+
+  // Keyset page strictly after (createdAt, id); the leading <= gives the planner an index bound
+  @Query("""
+      SELECT p FROM Post p
+      JOIN FETCH p.user u
+      LEFT JOIN FETCH u.profile
+      WHERE p.isDeleted = false
+        AND p.createdAt <= :createdAt
+        AND (p.createdAt < :createdAt OR p.id < :id)
+      ORDER BY p.createdAt DESC, p.id DESC
+      """)
+  List<Post> findFeedPageAfter(
+      @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable pageable);
 
   @Modifying
   @Transactional
@@ -36,8 +49,14 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
 
   @Modifying
   @Transactional
-  @Query("update Post p set p.likesCount = p.likesCount + 1 where p.id = :id")
-  void incrementLikesCount(@Param("id") UUID id);
+  @Query("update Post p set p.savesCount = p.savesCount + 1 where p.id = :id")
+  void incrementSavesCount(@Param("id") UUID id);
+
+  @Modifying
+  @Transactional
+  @Query(
+      "update Post p set p.savesCount = case when p.savesCount > 0 then p.savesCount - 1 else 0 end where p.id = :id")
+  void decrementSavesCount(@Param("id") UUID id);
 
   @Modifying
   @Transactional
@@ -45,9 +64,42 @@ public interface PostRepository extends JpaRepository<Post, UUID> {
       "update Post p set p.commentsCount = case when p.commentsCount > 0 then p.commentsCount - 1 else 0 end where p.id = :id")
   void decrementCommentsCount(@Param("id") UUID id);
 
+  /**
+   * Applies buffered like deltas to many posts in one statement. Both arguments are Postgres array
+   * literals of the same length, e.g. {@code {id1,id2}} and {@code {3,-1}}. Runs in its own
+   * transaction because it is also called from after-commit listeners.
+   */
+  @Modifying
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  @Query(
+      value =
+          """
+          UPDATE posts p
+          SET like_count = GREATEST(COALESCE(p.like_count, 0) + d.delta, 0)
+          FROM unnest(CAST(:ids AS uuid[]), CAST(:deltas AS integer[])) AS d(id, delta)
+          WHERE p.id = d.id
+          """,
+      nativeQuery = true)
+  int applyLikeDeltas(@Param("ids") String ids, @Param("deltas") String deltas);
+
+  /** Recomputes like_count from post_likes for every post except those in the excluded array. */
   @Modifying
   @Transactional
   @Query(
-      "update Post p set p.likesCount = case when p.likesCount > 0 then p.likesCount - 1 else 0 end where p.id = :id")
-  void decrementLikesCount(@Param("id") UUID id);
+      value =
+          """
+          UPDATE posts p
+          SET like_count = l.cnt
+          FROM (
+            SELECT p2.id, COUNT(pl.id) AS cnt
+            FROM posts p2
+            LEFT JOIN post_likes pl ON pl.post_id = p2.id
+            GROUP BY p2.id
+          ) l
+          WHERE p.id = l.id
+            AND p.like_count IS DISTINCT FROM l.cnt
+            AND NOT (p.id = ANY (CAST(:excluded AS uuid[])))
+          """,
+      nativeQuery = true)
+  int reconcileLikeCounts(@Param("excluded") String excluded);
 }
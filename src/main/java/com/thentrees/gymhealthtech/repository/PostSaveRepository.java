@@ -0,0 +1,76 @@
+package com.thentrees.gymhealthtech.repository;
+
+import com.thentrees.gymhealthtech.model.PostSave;
+import com.thentrees.gymhealthtech.repository.projection.PostMembershipView;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface PostSaveRepository extends JpaRepository<PostSave, UUID> {
+
+  // Both return the affected row count, so callers move the counter only on a real change
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO post_saves (post_id, user_id)
+          VALUES (:postId, :userId)
+          ON CONFLICT (post_id, user_id) DO NOTHING
+          """,
+      nativeQuery = true)
+  int insertIfAbsent(@Param("postId") UUID postId, @Param("userId") UUID userId);
+
+  @Modifying
+  @Query(
+      value = "DELETE FROM post_saves WHERE post_id = :postId AND user_id = :userId",
+      nativeQuery = true)
+  int deleteByPostIdAndUserId(@Param("postId") UUID postId, @Param("userId") UUID userId);
+
+  // Liked and saved flags of a whole page in one round trip, served by the (post_id, user_id) keys
+  @Query(
+      value =
+          """
+          SELECT pl.post_id AS postId, 'LIKE' AS kind
+          FROM post_likes pl
+          WHERE pl.user_id = :userId AND pl.post_id IN (:postIds)
+          UNION ALL
+          SELECT ps.post_id AS postId, 'SAVE' AS kind
+          FROM post_saves ps
+          WHERE ps.user_id = :userId AND ps.post_id IN (:postIds)
+          """,
+      nativeQuery = true)
+  List<PostMembershipView> findMemberships(
+      @Param("userId") UUID userId, @Param("postIds") Collection<UUID> postIds);
+
+  @Query("""
+      SELECT ps FROM PostSave ps
+      JOIN FETCH ps.post p
+      JOIN FETCH p.user u
+      LEFT JOIN FETCH u.profile
+      WHERE ps.user.id = :userId AND p.isDeleted = false
+      ORDER BY ps.createdAt DESC, ps.id DESC
+      """)
+  List<PostSave> findSavedFirstPage(@Param("userId") UUID userId, Pageable pageable);
+
+  @Query("""
+      SELECT ps FROM PostSave ps
+      JOIN FETCH ps.post p
+      JOIN FETCH p.user u
+      LEFT JOIN FETCH u.profile
+      WHERE ps.user.id = :userId AND p.isDeleted = false
+        AND ps.createdAt <= :createdAt
+        AND (ps.createdAt < :createdAt OR ps.id < :id)
+      ORDER BY ps.createdAt DESC, ps.id DESC
+      """)
+  List<PostSave> findSavedPageAfter(
+      @Param("userId") UUID userId,
+      @Param("createdAt") LocalDateTime createdAt,
+      @Param("id") UUID id,
+      Pageable pageable);
+}
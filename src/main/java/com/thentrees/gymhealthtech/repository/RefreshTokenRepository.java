@@ -3,6 +3,7 @@ package com.thentrees.gymhealthtech.repository;
 import com.thentrees.gymhealthtech.model.RefreshToken;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -13,12 +14,13 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
 
-  @Query("SELECT rt FROM RefreshToken rt WHERE rt.revokedAt IS NULL AND rt.expiresAt > :now")
-  List<RefreshToken> findActiveTokens(@Param("now") LocalDateTime now);
+  @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.tokenHash = :tokenHash")
+  Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
 
-  default List<RefreshToken> findActiveTokens() {
-    return findActiveTokens(LocalDateTime.now());
-  }
+  @Modifying
+  @Query(
+      "UPDATE RefreshToken rt SET rt.revokedAt = :now WHERE rt.familyId = :familyId AND rt.revokedAt IS NULL")
+  int revokeAllByFamilyId(@Param("familyId") UUID familyId, @Param("now") LocalDateTime now);
 
   @Modifying
   @Query(
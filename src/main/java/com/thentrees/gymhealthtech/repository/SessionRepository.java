@@ -7,7 +7,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-import com.thentrees.gymhealthtech.model.User;
+import com.thentrees.gymhealthtech.repository.projection.SessionSummaryView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -62,20 +62,40 @@ public interface SessionRepository
   Optional<Session> findByPlanDayIdAndUserIdWithSets(
     @Param("planDayId") UUID planDayId, @Param("userId") UUID userId);
 
-  List<Session> findByUserAndStartedAtBetween(User user, LocalDateTime startedAt, LocalDateTime startedAt2);
-
   List<Session> findByPlanDayPlanIdAndUserId(UUID planId, UUID userId);
 
-  @Query("""
-      SELECT DISTINCT s FROM Session s
-      LEFT JOIN FETCH s.user u
-      LEFT JOIN FETCH u.profile
-      LEFT JOIN FETCH s.planDay pd
-      WHERE s.startedAt BETWEEN :startOfMonth AND :endOfMonth
-        AND s.user.id = :userId
-      """)
-  List<Session> findByUserAndAllSessionsInCurrentMonth(
+  // Same completed / volume rules as SessionMapper, evaluated on the jsonb column in one GROUP BY
+  @Query(
+      value =
+          """
+          SELECT s.id AS id,
+                 s.plan_day_id AS planDayId,
+                 pd.split_name AS planDayName,
+                 s.started_at AS startedAt,
+                 s.ended_at AS endedAt,
+                 CAST(s.status AS text) AS status,
+                 CAST(s.session_rpe AS integer) AS sessionRpe,
+                 s.notes AS notes,
+                 s.created_at AS createdAt,
+                 CAST(FLOOR(EXTRACT(EPOCH FROM (s.ended_at - s.started_at)) / 60) AS integer) AS durationMinutes,
+                 COUNT(ss.id) AS totalSets,
+                 COUNT(ss.id) FILTER (WHERE ss.actual ->> 'completedAt' IS NOT NULL
+                                        AND COALESCE(ss.actual ->> 'isSkipped', 'false') <> 'true') AS completedSets,
+                 CAST(COALESCE(SUM(CASE WHEN ss.actual ->> 'reps' IS NOT NULL AND ss.actual ->> 'weight' IS NOT NULL
+                                        THEN TRUNC(CAST(ss.actual ->> 'reps' AS numeric) * CAST(ss.actual ->> 'weight' AS numeric))
+                                        ELSE 0 END), 0) AS bigint) AS totalVolume
+          FROM sessions s
+          LEFT JOIN plan_days pd ON pd.id = s.plan_day_id
+          LEFT JOIN session_sets ss ON ss.session_id = s.id AND ss.is_deleted = false
+          WHERE s.user_id = :userId
+            AND s.is_deleted = false
+            AND s.started_at >= :from AND s.started_at < :to
+          GROUP BY s.id, pd.split_name
+          ORDER BY s.started_at
+          """,
+      nativeQuery = true)
+  List<SessionSummaryView> findSessionSummaries(
       @Param("userId") UUID userId,
-      @Param("startOfMonth") LocalDateTime startOfMonth,
-      @Param("endOfMonth") LocalDateTime endOfMonth);
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to);
 }
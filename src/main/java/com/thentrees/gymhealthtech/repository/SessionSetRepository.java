@@ -7,4 +7,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface SessionSetRepository extends JpaRepository<SessionSet, UUID> {
   Optional<SessionSet> findByIdAndSessionUserId(UUID sessionSetId, UUID userId);
+
+  long countBySessionId(UUID sessionId);
 }
@@ -0,0 +1,165 @@
+package com.thentrees.gymhealthtech.repository;
+
+import com.thentrees.gymhealthtech.model.UserTrainingDailyStats;
+import com.thentrees.gymhealthtech.model.UserTrainingDailyStatsId;
+import com.thentrees.gymhealthtech.repository.projection.TrainingStatsTotals;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface UserTrainingDailyStatsRepository
+    extends JpaRepository<UserTrainingDailyStats, UserTrainingDailyStatsId> {
+
+  /**
+   * Daily stats recomputed from the raw sessions / session_sets rows for sessions started in
+   * [:from, :to). Mirrors the rules of SessionMapper: a set is completed when it has completedAt
+   * and is not skipped, volume is trunc(reps * weight) per set.
+   */
+  String RAW_DAILY_STATS_SQL =
+      """
+      SELECT s.user_id AS user_id,
+             CAST(s.started_at AS date) AS stat_date,
+             COUNT(*) AS total_sessions,
+             COUNT(*) FILTER (WHERE s.status = 'COMPLETED') AS completed_sessions,
+             COALESCE(SUM(st.total_sets), 0) AS total_sets,
+             COALESCE(SUM(st.completed_sets), 0) AS completed_sets,
+             CAST(COALESCE(SUM(st.volume), 0) AS bigint) AS total_volume,
+             CAST(COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM (s.ended_at - s.started_at)) / 60))
+                        FILTER (WHERE s.ended_at IS NOT NULL), 0) AS integer) AS total_duration_minutes,
+             CAST(COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM (s.ended_at - s.started_at)) / 60))
+                        FILTER (WHERE s.ended_at IS NOT NULL AND s.status = 'COMPLETED'), 0) AS integer) AS completed_duration_minutes,
+             CAST(COALESCE(SUM(CASE WHEN st.total_sets > 0 THEN st.completed_sets * 100.0 / st.total_sets ELSE 0 END), 0)
+                  AS double precision) AS completion_pct_sum,
+             CAST(COALESCE(SUM(s.session_rpe), 0) AS integer) AS rpe_sum,
+             COUNT(s.session_rpe) AS rpe_count
+      FROM sessions s
+      LEFT JOIN (
+        SELECT ss.session_id,
+               COUNT(*) AS total_sets,
+               COUNT(*) FILTER (WHERE ss.actual ->> 'completedAt' IS NOT NULL
+                                  AND COALESCE(ss.actual ->> 'isSkipped', 'false') <> 'true') AS completed_sets,
+               SUM(CASE WHEN ss.actual ->> 'reps' IS NOT NULL AND ss.actual ->> 'weight' IS NOT NULL
+                        THEN TRUNC(CAST(ss.actual ->> 'reps' AS numeric) * CAST(ss.actual ->> 'weight' AS numeric))
+                        ELSE 0 END) AS volume
+        FROM session_sets ss
+        JOIN sessions s2 ON s2.id = ss.session_id
+        WHERE ss.is_deleted = false
+          AND s2.started_at >= :from AND s2.started_at < :to
+        GROUP BY ss.session_id
+      ) st ON st.session_id = s.id
+      WHERE s.is_deleted = false
+        AND s.started_at >= :from AND s.started_at < :to
+      GROUP BY s.user_id, CAST(s.started_at AS date)
+      """;
+
+  String ROLLUP_COLUMNS =
+      """
+      user_id, stat_date, total_sessions, completed_sessions, total_sets, completed_sets,
+      total_volume, total_duration_minutes, completed_duration_minutes, completion_pct_sum,
+      rpe_sum, rpe_count
+      """;
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO user_training_daily_stats (
+            user_id, stat_date, total_sessions, completed_sessions, total_sets, completed_sets,
+            total_volume, total_duration_minutes, completed_duration_minutes, completion_pct_sum,
+            rpe_sum, rpe_count, updated_at)
+          VALUES (:userId, :statDate, :totalSessions, :completedSessions, :totalSets, :completedSets,
+                  :totalVolume, :totalDurationMinutes, :completedDurationMinutes, :completionPctSum,
+                  :rpeSum, :rpeCount, now())
+          ON CONFLICT (user_id, stat_date) DO UPDATE SET
+            total_sessions = user_training_daily_stats.total_sessions + EXCLUDED.total_sessions,
+            completed_sessions = user_training_daily_stats.completed_sessions + EXCLUDED.completed_sessions,
+            total_sets = user_training_daily_stats.total_sets + EXCLUDED.total_sets,
+            completed_sets = user_training_daily_stats.completed_sets + EXCLUDED.completed_sets,
+            total_volume = user_training_daily_stats.total_volume + EXCLUDED.total_volume,
+            total_duration_minutes = user_training_daily_stats.total_duration_minutes + EXCLUDED.total_duration_minutes,
+            completed_duration_minutes = user_training_daily_stats.completed_duration_minutes + EXCLUDED.completed_duration_minutes,
+            completion_pct_sum = user_training_daily_stats.completion_pct_sum + EXCLUDED.completion_pct_sum,
+            rpe_sum = user_training_daily_stats.rpe_sum + EXCLUDED.rpe_sum,
+            rpe_count = user_training_daily_stats.rpe_count + EXCLUDED.rpe_count,
+            updated_at = now()
+          """,
+      nativeQuery = true)
+  void applyDelta(
+      @Param("userId") UUID userId,
+      @Param("statDate") LocalDate statDate,
+      @Param("totalSessions") int totalSessions,
+      @Param("completedSessions") int completedSessions,
+      @Param("totalSets") int totalSets,
+      @Param("completedSets") int completedSets,
+      @Param("totalVolume") long totalVolume,
+      @Param("totalDurationMinutes") int totalDurationMinutes,
+      @Param("completedDurationMinutes") int completedDurationMinutes,
+      @Param("completionPctSum") double completionPctSum,
+      @Param("rpeSum") int rpeSum,
+      @Param("rpeCount") int rpeCount);
+
+  @Query(
+      """
+      SELECT COALESCE(SUM(d.totalSessions), 0) AS totalSessions,
+             COALESCE(SUM(d.completedSessions), 0) AS completedSessions,
+             COALESCE(SUM(d.totalSets), 0) AS totalSets,
+             COALESCE(SUM(d.completedSets), 0) AS completedSets,
+             COALESCE(SUM(d.totalVolume), 0) AS totalVolume,
+             COALESCE(SUM(d.totalDurationMinutes), 0) AS totalDurationMinutes,
+             COALESCE(SUM(d.completedDurationMinutes), 0) AS completedDurationMinutes,
+             COALESCE(SUM(d.completionPctSum), 0) AS completionPctSum,
+             COALESCE(SUM(d.rpeSum), 0) AS rpeSum,
+             COALESCE(SUM(d.rpeCount), 0) AS rpeCount
+      FROM UserTrainingDailyStats d
+      WHERE d.id.userId = :userId AND d.id.statDate BETWEEN :from AND :to
+      """)
+  TrainingStatsTotals sumByUserAndDateRange(
+      @Param("userId") UUID userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM user_training_daily_stats "
+              + "WHERE stat_date >= CAST(:from AS date) AND stat_date < CAST(:to AS date)",
+      nativeQuery = true)
+  int deleteByDateRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO user_training_daily_stats (" + ROLLUP_COLUMNS + ") " + RAW_DAILY_STATS_SQL,
+      nativeQuery = true)
+  int insertFromRawData(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+  /** Number of (user, day) rows where the rollup disagrees with the raw data in [:from, :to). */
+  @Query(
+      value =
+          "WITH raw AS ("
+              + RAW_DAILY_STATS_SQL
+              + "), rollup AS ("
+              + "  SELECT " + ROLLUP_COLUMNS + " FROM user_training_daily_stats"
+              + "  WHERE stat_date >= CAST(:from AS date) AND stat_date < CAST(:to AS date)"
+              + "), diff AS ("
+              + "  (SELECT user_id, stat_date, total_sessions, completed_sessions, total_sets, completed_sets,"
+              + "          total_volume, total_duration_minutes, completed_duration_minutes,"
+              + "          ROUND(CAST(completion_pct_sum AS numeric), 4), rpe_sum, rpe_count FROM raw"
+              + "   EXCEPT"
+              + "   SELECT user_id, stat_date, total_sessions, completed_sessions, total_sets, completed_sets,"
+              + "          total_volume, total_duration_minutes, completed_duration_minutes,"
+              + "          ROUND(CAST(completion_pct_sum AS numeric), 4), rpe_sum, rpe_count FROM rollup)"
+              + "  UNION ALL"
+              + "  (SELECT user_id, stat_date, total_sessions, completed_sessions, total_sets, completed_sets,"
+              + "          total_volume, total_duration_minutes, completed_duration_minutes,"
+              + "          ROUND(CAST(completion_pct_sum AS numeric), 4), rpe_sum, rpe_count FROM rollup"
+              + "   EXCEPT"
+              + "   SELECT user_id, stat_date, total_sessions, completed_sessions, total_sets, completed_sets,"
+              + "          total_volume, total_duration_minutes, completed_duration_minutes,"
+              + "          ROUND(CAST(completion_pct_sum AS numeric), 4), rpe_sum, rpe_count FROM raw)"
+              + ") SELECT COUNT(*) FROM diff",
+      nativeQuery = true)
+  long countInconsistentRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -7,14 +7,19 @@ import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, UUID> {
 
-  Optional<VerificationToken> findByTokenHashAndType(String tokenHash, VerificationType type);
+  @Query(
+      "SELECT vt FROM VerificationToken vt JOIN FETCH vt.user WHERE vt.selector = :selector AND vt.type = :type")
+  Optional<VerificationToken> findBySelectorAndType(
+      @Param("selector") String selector, @Param("type") VerificationType type);
 
   @Query(
       "SELECT vt FROM VerificationToken vt WHERE vt.user.id = :userId AND vt.type = :type AND vt.consumedAt IS NULL AND vt.expiresAt > :now")
@@ -24,4 +29,23 @@ public interface VerificationTokenRepository extends JpaRepository<VerificationT
       @Param("now") LocalDateTime now);
 
   void deleteByUserIdAndType(UUID userId, VerificationType type);
+
+  /** Delete at most {@code batchSize} expired or long-consumed tokens; returns rows deleted. */
+  @Transactional
+  @Modifying
+  @Query(
+      value =
+          """
+          DELETE FROM verification_tokens
+          WHERE id IN (
+            SELECT id FROM verification_tokens
+            WHERE expires_at < :now OR consumed_at < :consumedBefore
+            LIMIT :batchSize
+          )
+          """,
+      nativeQuery = true)
+  int deleteExpiredBatch(
+      @Param("now") LocalDateTime now,
+      @Param("consumedBefore") LocalDateTime consumedBefore,
+      @Param("batchSize") int batchSize);
 }
@@ -0,0 +1,10 @@
+package com.thentrees.gymhealthtech.repository.projection;
+
+import java.util.UUID;
+
+/** One relation between the viewer and a post: kind is {@code LIKE} or {@code SAVE}. */
+public interface PostMembershipView {
+  UUID getPostId();
+
+  String getKind();
+}
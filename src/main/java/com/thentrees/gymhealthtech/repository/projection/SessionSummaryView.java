@@ -0,0 +1,33 @@
+package com.thentrees.gymhealthtech.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** One session with its set counts and volume aggregated in SQL, without loading its sets. */
+public interface SessionSummaryView {
+  UUID getId();
+
+  UUID getPlanDayId();
+
+  String getPlanDayName();
+
+  LocalDateTime getStartedAt();
+
+  LocalDateTime getEndedAt();
+
+  String getStatus();
+
+  Integer getSessionRpe();
+
+  String getNotes();
+
+  LocalDateTime getCreatedAt();
+
+  Integer getDurationMinutes();
+
+  Long getTotalSets();
+
+  Long getCompletedSets();
+
+  Long getTotalVolume();
+}
@@ -0,0 +1,24 @@
+package com.thentrees.gymhealthtech.repository.projection;
+
+/** Training totals summed over a range of daily rollup rows. */
+public interface TrainingStatsTotals {
+  Long getTotalSessions();
+
+  Long getCompletedSessions();
+
+  Long getTotalSets();
+
+  Long getCompletedSets();
+
+  Long getTotalVolume();
+
+  Long getTotalDurationMinutes();
+
+  Long getCompletedDurationMinutes();
+
+  Double getCompletionPctSum();
+
+  Long getRpeSum();
+
+  Long getRpeCount();
+}
@@ -1,32 +1,67 @@
 package com.thentrees.gymhealthtech.repository.spec;
 
 import com.thentrees.gymhealthtech.enums.ExerciseLevel;
+import com.thentrees.gymhealthtech.enums.ExerciseType;
 import com.thentrees.gymhealthtech.model.*;
-import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.Arrays;
 import java.util.List;
 import org.springframework.data.jpa.domain.Specification;
 
 /** Specifications for filtering Exercise entities based on various criteria. */
 public class ExerciseSpecification {
+  /**
+   * Ranked full-text match on name, alternative names, instructions and benefits, served by the GIN
+   * index on {@code exercises.search_vector}. Results are ordered by {@code ts_rank}, then name.
+   */
   public static Specification<Exercise> hasKeyword(String keyword) {
     return (root, query, criteriaBuilder) -> {
-      if (keyword == null || keyword.trim().isEmpty()) {
+      String tsQuery = toPrefixTsQuery(keyword);
+      if (tsQuery == null) {
         return criteriaBuilder.conjunction();
       }
 
-      String likeKeyword = "%" + keyword.toLowerCase() + "%";
-      return criteriaBuilder.or(
-          criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), likeKeyword),
-          criteriaBuilder.like(criteriaBuilder.lower(root.get("instructions")), likeKeyword));
+      // The count query issued for paging must not carry an ORDER BY
+      if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+        query.orderBy(
+            criteriaBuilder.desc(
+                criteriaBuilder.function(
+                    "exercise_fts_rank", Double.class, criteriaBuilder.literal(tsQuery))),
+            criteriaBuilder.asc(root.get("name")));
+      }
+      return criteriaBuilder.isTrue(
+          criteriaBuilder.function(
+              "exercise_fts_match", Boolean.class, criteriaBuilder.literal(tsQuery)));
     };
   }
 
+  /**
+   * Turns free text into a to_tsquery expression where every word must match and the last one is
+   * a prefix, e.g. "bench pre" becomes "bench & pre:*". Returns null when nothing searchable is left.
+   */
+  public static String toPrefixTsQuery(String keyword) {
+    if (keyword == null) {
+      return null;
+    }
+    // Keeping only letters and digits also strips every tsquery operator from user input
+    List<String> terms =
+        Arrays.stream(keyword.trim().split("[^\\p{L}\\p{N}]+"))
+            .filter(term -> !term.isEmpty())
+            .toList();
+    if (terms.isEmpty()) {
+      return null;
+    }
+    return String.join(" & ", terms) + ":*";
+  }
+
   public static Specification<Exercise> hasLevel(ExerciseLevel level) {
     return (root, query, criteriaBuilder) -> {
       if (level == null) {
         return criteriaBuilder.conjunction();
       }
-      return criteriaBuilder.equal(root.get("level"), level);
+      return criteriaBuilder.between(
+          root.get("difficultyLevel"), level.getMinDifficulty(), level.getMaxDifficulty());
     };
   }
 
@@ -48,16 +83,22 @@ public class ExerciseSpecification {
     };
   }
 
+  /** Exercises working any of the given muscles, in any role. */
   public static Specification<Exercise> hasMuscles(List<String> muscleCodes) {
     return (root, query, criteriaBuilder) -> {
       if (muscleCodes == null || muscleCodes.isEmpty()) {
         return criteriaBuilder.conjunction();
       }
 
-      Join<Exercise, ExerciseMuscle> muscleJoin = root.join("exerciseMuscles");
-      Join<ExerciseMuscle, Muscle> muscle = muscleJoin.join("muscle");
-
-      return muscle.get("code").in(muscleCodes);
+      // EXISTS instead of a join so an exercise matching several muscles is listed once
+      Subquery<Integer> subquery = query.subquery(Integer.class);
+      Root<ExerciseMuscle> muscle = subquery.from(ExerciseMuscle.class);
+      subquery
+          .select(criteriaBuilder.literal(1))
+          .where(
+              criteriaBuilder.equal(muscle.get("exercise"), root),
+              muscle.get("muscle").get("code").in(muscleCodes));
+      return criteriaBuilder.exists(subquery);
     };
   }
 
@@ -66,7 +107,20 @@ public class ExerciseSpecification {
       if (exerciseTypeCode == null || exerciseTypeCode.trim().isEmpty()) {
         return criteriaBuilder.conjunction();
       }
-      return criteriaBuilder.equal(root.get("exerciseType"), exerciseTypeCode);
+      ExerciseType exerciseType = ExerciseType.fromCode(exerciseTypeCode);
+      if (exerciseType == null) {
+        return criteriaBuilder.disjunction();
+      }
+      return criteriaBuilder.equal(root.get("exerciseType"), exerciseType);
+    };
+  }
+
+  public static Specification<Exercise> hasCategory(String categoryCode) {
+    return (root, query, criteriaBuilder) -> {
+      if (categoryCode == null || categoryCode.trim().isEmpty()) {
+        return criteriaBuilder.conjunction();
+      }
+      return criteriaBuilder.equal(root.get("exerciseCategory").get("code"), categoryCode);
     };
   }
 }
@@ -3,10 +3,14 @@ package com.thentrees.gymhealthtech.service;
 import com.thentrees.gymhealthtech.dto.request.GeneratorWorkoutPlanRequest;
 import com.thentrees.gymhealthtech.dto.response.GeneratorMealPlanResponse;
 import com.thentrees.gymhealthtech.dto.response.GeneratorWorkoutPlanResponse;
-import org.springframework.security.core.Authentication;
+import java.util.UUID;
 
+/**
+ * Blocking calls to the AI service. They can take tens of seconds, so call them from {@link
+ * AiJobService} workers rather than request threads.
+ */
 public interface AIService {
   GeneratorWorkoutPlanResponse createGeneratorWorkoutPlan(GeneratorWorkoutPlanRequest request);
-  GeneratorMealPlanResponse createGeneratorMealPlan(Authentication authentication);
+  GeneratorMealPlanResponse createGeneratorMealPlan(UUID userId);
 
 }
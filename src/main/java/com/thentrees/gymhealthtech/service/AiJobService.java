@@ -0,0 +1,33 @@
+package com.thentrees.gymhealthtech.service;
+
+import com.thentrees.gymhealthtech.dto.request.GeneratorWorkoutPlanRequest;
+import com.thentrees.gymhealthtech.dto.response.AiJobResponse;
+import java.util.UUID;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Runs AI generations as background jobs. Submitting returns at once; the job's state is kept in
+ * Redis so any node can answer a poll, stream it or cancel it.
+ */
+public interface AiJobService {
+
+  /**
+   * Queues a workout plan generation. An identical request that is still running, or that
+   * succeeded within the result TTL, is answered with that job instead unless {@code regenerate}
+   * is set.
+   */
+  AiJobResponse submitWorkoutPlan(
+      GeneratorWorkoutPlanRequest request, UUID userId, boolean regenerate);
+
+  /** Queues a meal plan generation for today, reusing an identical job like the workout plan. */
+  AiJobResponse submitMealPlan(UUID userId, boolean regenerate);
+
+  /** Current state of one of the user's jobs. */
+  AiJobResponse getJob(UUID jobId, UUID userId);
+
+  /** Sends a "status" event on every state change and completes once the job has finished. */
+  SseEmitter streamJob(UUID jobId, UUID userId);
+
+  /** Cancels a queued or running job; a finished job is returned unchanged. */
+  AiJobResponse cancelJob(UUID jobId, UUID userId);
+}
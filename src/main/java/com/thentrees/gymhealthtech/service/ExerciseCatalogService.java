@@ -0,0 +1,34 @@
+package com.thentrees.gymhealthtech.service;
+
+import com.thentrees.gymhealthtech.dto.request.ExerciseSearchRequest;
+import com.thentrees.gymhealthtech.dto.response.ExerciseFacetResponse;
+import com.thentrees.gymhealthtech.dto.response.ExerciseListResponse;
+import com.thentrees.gymhealthtech.dto.response.PagedResponse;
+import java.util.List;
+
+/**
+ * Immutable in-memory snapshot of the exercise library with one bitset per facet value, used to
+ * answer filtered listings and facet counts without touching the database.
+ */
+public interface ExerciseCatalogService {
+
+  /** Whether the request can be answered from the snapshot (no keyword, supported sort). */
+  boolean supports(ExerciseSearchRequest request);
+
+  PagedResponse<ExerciseListResponse> search(ExerciseSearchRequest request);
+
+  /** Facet counts for the request's filters; the keyword is not applied. */
+  ExerciseFacetResponse facets(ExerciseSearchRequest request);
+
+  /** Every exercise of the snapshot, in library order; the list and its items must not be mutated. */
+  List<ExerciseListResponse> exercises();
+
+  /** Reloads the snapshot on this node and swaps it in once complete. */
+  void rebuild();
+
+  /** Queues {@link #rebuild()} on this node's rebuild thread and returns at once. */
+  void rebuildAsync();
+
+  /** Asks every node to rebuild, after the current transaction commits if there is one. */
+  void requestRebuild();
+}
@@ -13,10 +13,17 @@ import org.springframework.web.multipart.MultipartFile;
 public interface ExerciseLibraryService {
   PagedResponse<ExerciseListResponse> getExercises(ExerciseSearchRequest request);
 
+  /** Per-facet exercise counts for the given filters, served from the in-memory catalog. */
+  ExerciseFacetResponse getExerciseFacets(ExerciseSearchRequest request);
+
   ExerciseDetailResponse createExercise(
       CreateExerciseRequest request);
 
-  int importExercisesFromJson(MultipartFile file) throws IOException;
+  /**
+   * Streams a JSON array of exercises into the library, upserting on slug. Safe to re-run: existing
+   * exercises are updated in place and their muscle and equipment links replaced.
+   */
+  ImportExerciseResponse importExercisesFromJson(MultipartFile file) throws IOException;
 
   ExerciseDetailResponse getExerciseById(UUID id);
 
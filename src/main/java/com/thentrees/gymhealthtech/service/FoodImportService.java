@@ -0,0 +1,17 @@
+package com.thentrees.gymhealthtech.service;
+
+import com.thentrees.gymhealthtech.dto.response.ImportFoodResponse;
+import java.io.IOException;
+import java.util.UUID;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface FoodImportService {
+
+  /**
+   * Queues a nutrition spreadsheet import and returns the job in PENDING state. The workbook is
+   * streamed row by row in the background; poll {@link #getImportStatus(UUID)} for progress.
+   */
+  ImportFoodResponse startImport(MultipartFile file) throws IOException;
+
+  ImportFoodResponse getImportStatus(UUID jobId);
+}
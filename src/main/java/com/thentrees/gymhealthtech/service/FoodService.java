@@ -2,18 +2,20 @@ package com.thentrees.gymhealthtech.service;
 
 import com.thentrees.gymhealthtech.dto.request.FoodRequest;
 import com.thentrees.gymhealthtech.dto.response.FoodResponse;
-import com.thentrees.gymhealthtech.dto.response.ImportFoodResponse;
 import com.thentrees.gymhealthtech.dto.response.PagedResponse;
 import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 public interface FoodService {
-  ImportFoodResponse importDataFood(MultipartFile file) throws IOException;
-
-  PagedResponse<FoodResponse> getAllFoods(String keyword, Pageable pageable);
+  /**
+   * Searches foods by name, ignoring Vietnamese diacritics and tolerating typos, ranked by
+   * similarity. Foods carrying any of {@code tags} are kept when tags are given.
+   */
+  PagedResponse<FoodResponse> getAllFoods(String keyword, List<String> tags, Pageable pageable);
 
   FoodResponse createFood(FoodRequest request, MultipartFile file);
 
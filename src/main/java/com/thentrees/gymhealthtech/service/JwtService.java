@@ -12,6 +12,12 @@ public interface JwtService {
 
   <T> T extractClaim(String token, Function<Claims, T> claimsResolver);
 
+  /**
+   * Parse and verify the token once. The returned claims can be reused for every subsequent check
+   * on the same request.
+   */
+  Claims parseClaims(String token);
+
   String generateToken(UserDetails userDetails);
 
   String generateToken(Map<String, Object> extraClaims, UserDetails userDetails);
@@ -24,5 +30,9 @@ public interface JwtService {
 
   boolean isTokenValid(String token);
 
+  boolean isTokenValid(Claims claims, UserDetails userDetails);
+
   UUID extractUserId(String token);
+
+  UUID extractUserId(Claims claims);
 }
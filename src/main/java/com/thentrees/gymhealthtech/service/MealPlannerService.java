@@ -0,0 +1,21 @@
+package com.thentrees.gymhealthtech.service;
+
+import com.thentrees.gymhealthtech.dto.response.GeneratorMealPlanResponse;
+import java.util.UUID;
+
+/**
+ * In-process meal planner that fills today's breakfast, lunch and dinner from the food catalog so
+ * the day lands on the calorie and macro targets of the user's active goal. It is the fast path
+ * when configured and the fallback when the AI service is down.
+ */
+public interface MealPlannerService {
+
+  /**
+   * Builds and saves today's meal plan, replacing the items of an existing plan for the day. Foods
+   * eaten in the last few days are avoided when an alternative fits as well.
+   *
+   * @throws com.thentrees.gymhealthtech.exception.PlanGenerationException if the user has no active
+   *     goal or no food fits the goal's dietary preferences
+   */
+  GeneratorMealPlanResponse generateMealPlan(UUID userId);
+}
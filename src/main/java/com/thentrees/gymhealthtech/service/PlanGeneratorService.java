@@ -0,0 +1,21 @@
+package com.thentrees.gymhealthtech.service;
+
+import com.thentrees.gymhealthtech.dto.response.GeneratorWorkoutPlanResponse;
+import java.util.UUID;
+
+/**
+ * Rule-based workout plan generator that runs in-process against the exercise catalog. It is the
+ * fast path for requests that need no AI interpretation and the fallback when the AI service is
+ * down.
+ */
+public interface PlanGeneratorService {
+
+  /**
+   * Builds and saves a one-week plan, repeated over the plan cycle, from the user's active goal,
+   * fitness level and available equipment. The same inputs and catalog always give the same plan.
+   *
+   * @throws com.thentrees.gymhealthtech.exception.PlanGenerationException if the user has no active
+   *     goal or no exercise fits the constraints
+   */
+  GeneratorWorkoutPlanResponse generateWorkoutPlan(UUID userId, String notes);
+}
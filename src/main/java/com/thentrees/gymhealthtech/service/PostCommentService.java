@@ -1,8 +1,8 @@
 package com.thentrees.gymhealthtech.service;
 
 import com.thentrees.gymhealthtech.dto.request.CreateCommentRequest;
+import com.thentrees.gymhealthtech.dto.response.CursorPageResponse;
 import com.thentrees.gymhealthtech.dto.response.PostCommentResponse;
-import java.util.List;
 import java.util.UUID;
 
 import org.springframework.security.core.Authentication;
@@ -11,7 +11,17 @@ import org.springframework.web.multipart.MultipartFile;
 public interface PostCommentService {
   PostCommentResponse createPostComment(CreateCommentRequest request, MultipartFile file);
 
-  List<PostCommentResponse> getPostComments(String postId);
+  /**
+   * Returns a page of top-level comments, newest first, each carrying its first replies as a tree.
+   * Threads with more replies expose a cursor for {@link #getCommentReplies}.
+   */
+  CursorPageResponse<PostCommentResponse> getPostComments(String postId, String cursor, Integer size);
+
+  /**
+   * Returns the next replies of a thread, oldest first, as a flat list linked by parentCommentId.
+   */
+  CursorPageResponse<PostCommentResponse> getCommentReplies(
+      UUID rootCommentId, String cursor, Integer size);
 
   void deleteCommentsByUserId(String commentId, Authentication authentication);
 
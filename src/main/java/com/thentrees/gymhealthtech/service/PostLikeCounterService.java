@@ -0,0 +1,43 @@
+package com.thentrees.gymhealthtech.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Buffers like/unlike deltas in Redis and writes them to {@code posts.like_count} in periodic
+ * batches, so a hot post no longer serializes every like on its row lock.
+ */
+public interface PostLikeCounterService {
+
+  /**
+   * Buffers a committed like (+1) or unlike (-1).
+   *
+   * @param postId the liked post
+   * @param delta the change to apply to its counter
+   */
+  void recordDelta(UUID postId, int delta);
+
+  /**
+   * Deltas buffered but not yet written to the database, to be added to the stored counters.
+   *
+   * @param postIds the posts being displayed
+   * @return the pending delta of each post that has one
+   */
+  Map<UUID, Integer> pendingDeltas(Collection<UUID> postIds);
+
+  /**
+   * Writes all buffered deltas to the database in one statement.
+   *
+   * @return the number of posts updated
+   */
+  int flushPendingDeltas();
+
+  /**
+   * Recomputes every counter from {@code post_likes}, skipping posts that still have buffered
+   * deltas.
+   *
+   * @return the number of corrected posts
+   */
+  int reconcileLikeCounts();
+}
@@ -0,0 +1,31 @@
+package com.thentrees.gymhealthtech.service;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/** Resolves whether a viewer liked or saved each post of a page. */
+public interface PostMembershipService {
+
+  /**
+   * Answers liked/saved for every post id with a single query.
+   *
+   * @param userId the viewer, null for anonymous requests
+   * @param postIds the posts of the page
+   */
+  Membership resolve(UUID userId, Collection<UUID> postIds);
+
+  record Membership(Set<UUID> liked, Set<UUID> saved) {
+    public static Membership empty() {
+      return new Membership(Set.of(), Set.of());
+    }
+
+    public boolean isLiked(UUID postId) {
+      return liked.contains(postId);
+    }
+
+    public boolean isSaved(UUID postId) {
+      return saved.contains(postId);
+    }
+  }
+}
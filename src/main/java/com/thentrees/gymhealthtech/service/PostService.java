@@ -1,7 +1,9 @@
 package com.thentrees.gymhealthtech.service;
 
 import com.thentrees.gymhealthtech.dto.request.CreatePostRequest;
+import com.thentrees.gymhealthtech.dto.response.CursorPageResponse;
 import com.thentrees.gymhealthtech.dto.response.PostResponse;
+import com.thentrees.gymhealthtech.dto.response.PostSummaryResponse;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,7 +15,22 @@ public interface PostService {
 
   PostResponse getPostDetail(String postId);
 
-  List<PostResponse> getAllPosts();
+  /**
+   * Returns one page of the community feed, newest first.
+   *
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param size the requested page size, clamped to the configured maximum
+   */
+  CursorPageResponse<PostSummaryResponse> getFeed(String cursor, Integer size);
+
+  /**
+   * Returns the posts saved by the authenticated user, most recently saved first.
+   *
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param size the requested page size, clamped to the configured maximum
+   */
+  CursorPageResponse<PostSummaryResponse> getSavedPosts(
+      String cursor, Integer size, Authentication authentication);
 
   void toggleLike(UUID postId, Authentication authentication);
 
@@ -0,0 +1,15 @@
+package com.thentrees.gymhealthtech.service;
+
+import com.thentrees.gymhealthtech.model.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+public interface PrincipalCacheService {
+
+  /** Resolve the principal for a JWT subject, hitting the database only on a cache miss. */
+  UserDetails loadUser(String username);
+
+  /** Drop the cached principal of this user on every node. */
+  void evict(User user);
+
+  void evict(String username);
+}
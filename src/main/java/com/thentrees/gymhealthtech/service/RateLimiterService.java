@@ -1,7 +1,22 @@
 package com.thentrees.gymhealthtech.service;
 
-import io.github.bucket4j.Bucket;
+import java.time.Duration;
 
 public interface RateLimiterService {
-  boolean tryConsume(String key);
+
+  /**
+   * Consume one token from the bucket identified by {@code key} under {@code policy}. Buckets are
+   * shared across nodes, so the limit holds cluster-wide.
+   */
+  Decision tryConsume(String key, Policy policy);
+
+  /** Token bucket definition: {@code capacity} burst, refilled with {@code refillTokens} per {@code refillPeriod}. */
+  record Policy(String name, long capacity, long refillTokens, Duration refillPeriod) {
+
+    public static Policy perPeriod(String name, long limit, Duration period) {
+      return new Policy(name, limit, limit, period);
+    }
+  }
+
+  record Decision(boolean allowed, long limit, long remaining, long retryAfterSeconds, long resetSeconds) {}
 }
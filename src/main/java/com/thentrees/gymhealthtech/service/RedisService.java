@@ -14,5 +14,16 @@ public interface RedisService {
 
   String getOtpKey(String email);
 
-  void deletePattern(String pattern);
+  /**
+   * Prefixes {@code key} with the current version of {@code namespace}. Build the key before
+   * loading the value so a write committed in between lands in the next version. Entries stored
+   * under it must carry a TTL: nothing deletes them once the version moves on.
+   */
+  String versionedKey(String namespace, String key);
+
+  /**
+   * Orphans every key of the namespace with a single INCR of its version. Inside a transaction the
+   * bump runs after commit, so readers cannot re-cache rows that are about to change.
+   */
+  void invalidateNamespace(String namespace);
 }
@@ -7,12 +7,18 @@ import java.util.Optional;
 public interface RefreshTokenService {
   RefreshToken createRefreshToken(User user, String userAgent, String ipAddress);
 
+  /** Issue a successor in the same token family and revoke the presented token. */
+  RefreshToken rotateRefreshToken(RefreshToken current, String userAgent, String ipAddress);
+
   Optional<RefreshToken> findByToken(String token);
 
   void revokeToken(String token);
 
   void revokeAllUserTokens(User user);
 
+  /** Reuse of an already rotated token means it leaked: kill the whole family. */
+  void revokeTokenFamily(RefreshToken token);
+
   boolean isTokenExpired(RefreshToken token);
 
   boolean isTokenRevoked(RefreshToken token);
@@ -0,0 +1,59 @@
+package com.thentrees.gymhealthtech.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.thentrees.gymhealthtech.model.Session;
+import com.thentrees.gymhealthtech.repository.projection.TrainingStatsTotals;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Maintains the per-user daily training rollups. Every write is an additive upsert executed in the
+ * caller's transaction, so the rollup commits or rolls back together with the session change.
+ */
+public interface TrainingStatsService {
+
+  /**
+   * Counts a newly started session and its planned sets.
+   *
+   * @param session the persisted session
+   * @param totalSets number of sets created for the session
+   */
+  void recordSessionStarted(Session session, int totalSets);
+
+  /**
+   * Applies the difference between a set's actual performance before and after an update.
+   *
+   * @param session the session owning the set
+   * @param actualBefore snapshot of the set's actual node taken before the update
+   * @param actualAfter the set's actual node after the update
+   * @param sessionTotalSets number of sets in the session, used for the completion percentage
+   */
+  void recordSetUpdated(
+      Session session, JsonNode actualBefore, JsonNode actualAfter, int sessionTotalSets);
+
+  /**
+   * Counts the duration, RPE and completion of a session that has just been completed or cancelled.
+   *
+   * @param session the session, already carrying its final status and end time
+   */
+  void recordSessionEnded(Session session);
+
+  /**
+   * Sums the rollups of a user between two dates, both inclusive.
+   */
+  TrainingStatsTotals getTotals(UUID userId, LocalDate from, LocalDate to);
+
+  /**
+   * Recomputes the rollups of [from, to) from the raw sessions and session sets.
+   *
+   * @return the number of rollup rows written
+   */
+  int rebuild(LocalDate from, LocalDate to);
+
+  /**
+   * Compares the rollups of [from, to) against the raw data and rebuilds the window when they drift.
+   *
+   * @return the number of inconsistent rows found
+   */
+  long verifyAndRepair(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,32 @@
+package com.thentrees.gymhealthtech.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for reference data: a bounded in-process L1 in front of Redis (L2), both
+ * scoped by the versioned namespaces of {@link RedisService}.
+ */
+public interface TwoLevelCacheService {
+
+  /**
+   * Returns the cached value for {@code key} in {@code namespace}, loading and storing it on a miss.
+   * Concurrent misses for the same key share one load. Values served from L1 are shared between
+   * callers and must not be mutated.
+   *
+   * <p>Once {@code ttl} has passed the value is still served for a grace period while one node
+   * reloads it in the background, so the loader must not rely on request-thread state such as the
+   * security context. It runs in a read-only transaction when none is active.
+   *
+   * @param ttl how long the value counts as fresh
+   */
+  <T> T get(
+      String namespace, String key, TypeReference<T> type, Duration ttl, Supplier<T> loader);
+
+  /**
+   * Drops the namespace on every node: bumps its Redis version (after commit inside a
+   * transaction) and broadcasts the local eviction.
+   */
+  void invalidate(String namespace);
+}
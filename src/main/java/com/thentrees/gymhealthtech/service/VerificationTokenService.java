@@ -1,6 +1,9 @@
 package com.thentrees.gymhealthtech.service;
 
+import com.thentrees.gymhealthtech.enums.VerificationType;
 import com.thentrees.gymhealthtech.model.User;
+import com.thentrees.gymhealthtech.model.VerificationToken;
+import java.util.Optional;
 
 /**
  * Service for generating and sending verification tokens to users.
@@ -18,5 +21,22 @@ public interface VerificationTokenService {
    * @param user the user to generate and send verification token for
    */
   void generateAndSendVerificationToken(User user);
+
+  /**
+   * Resolves a {@code selector.verifier} token with one indexed lookup on the selector and a
+   * constant-time comparison of the verifier digest.
+   *
+   * @param token the token received from the client
+   * @param type the expected token type
+   * @return the matching token, regardless of its consumed/expired state
+   */
+  Optional<VerificationToken> findByToken(String token, VerificationType type);
+
+  /**
+   * Deletes expired and consumed tokens in bounded batches so the purge never holds long locks.
+   *
+   * @return the total number of deleted tokens
+   */
+  int purgeExpiredTokens();
 }
 
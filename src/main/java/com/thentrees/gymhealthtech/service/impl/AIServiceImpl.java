@@ -5,87 +5,172 @@ import com.thentrees.gymhealthtech.dto.request.GeneratorWorkoutPlanRequest;
 import com.thentrees.gymhealthtech.dto.response.AIServiceWorkoutPlanResponse;
 import com.thentrees.gymhealthtech.dto.response.GeneratorMealPlanResponse;
 import com.thentrees.gymhealthtech.dto.response.GeneratorWorkoutPlanResponse;
+import com.thentrees.gymhealthtech.exception.PlanGenerationException;
 import com.thentrees.gymhealthtech.mapper.AIServiceMapper;
-import com.thentrees.gymhealthtech.model.User;
 import com.thentrees.gymhealthtech.service.AIService;
+import com.thentrees.gymhealthtech.service.MealPlannerService;
+import com.thentrees.gymhealthtech.service.PlanGeneratorService;
+import com.thentrees.gymhealthtech.util.AiClientGuard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.Authentication;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientRequestException;
 import reactor.core.publisher.Mono;
-import reactor.util.retry.Retry;
 
-import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @Slf4j(topic = "AI-SERVICE")
 @RequiredArgsConstructor
 public class AIServiceImpl implements AIService {
+  private static final String UNAVAILABLE_MESSAGE =
+    "Hiện tại AI Service đang tạm ngưng. Vui lòng thử lại sau.";
+
   private final WebClient webClient;
   private final ObjectMapper mapper;
   private final AIServiceMapper aiServiceMapper;
+  private final AiClientGuard aiClientGuard;
+  private final PlanGeneratorService planGeneratorService;
+  private final MealPlannerService mealPlannerService;
+
+  @Value("${app.ai.local-plan.fallback-enabled:true}")
+  private boolean localFallbackEnabled;
+
+  @Value("${app.ai.local-plan.simple-requests:false}")
+  private boolean localForSimpleRequests;
+
+  @Value("${app.ai.local-meal-plan.fallback-enabled:true}")
+  private boolean localMealPlanFallbackEnabled;
+
+  @Value("${app.ai.local-meal-plan.prefer-local:false}")
+  private boolean preferLocalMealPlan;
+
   @Override
   public GeneratorWorkoutPlanResponse createGeneratorWorkoutPlan(GeneratorWorkoutPlanRequest genPlanRequest) {
+    // Without notes the goal is all there is to go on, which the rule-based generator covers
+    if (localForSimpleRequests && !StringUtils.hasText(genPlanRequest.getNotes())) {
+      return generateLocally(genPlanRequest);
+    }
     log.info("Creating workout plan via AI Service ...");
 
-    return webClient.post()
-      .uri("/generate-plan")
-      .bodyValue(genPlanRequest)
-      .retrieve()
-      .bodyToMono(String.class)   // STEP 1: đọc raw response
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    GeneratorWorkoutPlanResponse response = aiClientGuard.execute(() -> webClient.post()
+        .uri("/generate-plan")
+        .bodyValue(genPlanRequest)
+        .retrieve()
+        .bodyToMono(String.class))   // STEP 1: đọc raw response
       .flatMap(raw -> {
         try {
           // Parse JSON vào wrapper class khớp với cấu trúc AI service
           AIServiceWorkoutPlanResponse aiResponse = mapper.readValue(raw, AIServiceWorkoutPlanResponse.class);
 
           // Map từ AIServiceWorkoutPlanResponse sang GeneratorWorkoutPlanResponse using mapper
-          GeneratorWorkoutPlanResponse response = aiServiceMapper.toGeneratorResponse(aiResponse);
-          return Mono.just(response);
+          GeneratorWorkoutPlanResponse mapped = aiServiceMapper.toGeneratorResponse(aiResponse);
+          return Mono.just(mapped);
         } catch (Exception e) {
           log.error("Cannot parse AI response", e);
           return Mono.error(e);
         }
       })
-      .retryWhen(Retry.backoff(3, Duration.ofSeconds(2))
-        .filter(ex -> ex instanceof WebClientRequestException))
       .onErrorResume(ex -> {
         log.error("AI Service fallback triggered due to: {}", ex.getMessage());
-        return Mono.just(
-          GeneratorWorkoutPlanResponse.builder()
-            .status("error")
-            .message("Hiện tại AI Service đang tạm ngưng. Vui lòng thử lại sau.")
-            .build()
-        );
+        failure.set(ex);
+        return Mono.empty();
       })
       .block();
+
+    if (response != null) {
+      return response;
+    }
+    // After a timeout the service may still have saved a plan, and a local one would duplicate it.
+    // The local generator touches the database, so it runs here rather than on the reactor thread
+    if (localFallbackEnabled && AiClientGuard.isNeverSent(failure.get())) {
+      return generateLocally(genPlanRequest);
+    }
+    return unavailableWorkoutPlan(UNAVAILABLE_MESSAGE);
   }
 
 
   @Override
-  public GeneratorMealPlanResponse createGeneratorMealPlan(Authentication authentication) {
+  public GeneratorMealPlanResponse createGeneratorMealPlan(UUID userId) {
+    if (preferLocalMealPlan) {
+      return generateMealPlanLocally(userId);
+    }
     log.info("Creating meal plan via AI Service ...");
-    User user = (User) authentication.getPrincipal();
     GeneratorWorkoutPlanRequest request = new GeneratorWorkoutPlanRequest();
-    request.setUserId(user.getId());
-
-    return webClient.post()
-      .uri("/nutrition/meal-plan/generate")
-      .bodyValue(request)
-      .retrieve()
-      .bodyToMono(GeneratorMealPlanResponse.class)
-      .retryWhen(Retry.backoff(3, Duration.ofSeconds(2)) // Retry up to 3 times with exponential backoff
-        .filter(throwable -> throwable instanceof WebClientRequestException)) // Retry only for network-related exceptions
+    request.setUserId(userId);
+
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    GeneratorMealPlanResponse response = aiClientGuard.execute(() -> webClient.post()
+        .uri("/nutrition/meal-plan/generate")
+        .bodyValue(request)
+        .retrieve()
+        .bodyToMono(GeneratorMealPlanResponse.class))
       .onErrorResume(ex -> {
         log.error("AI Service fallback triggered due to: {}",ex.getMessage());
-        return Mono.just(
-          GeneratorMealPlanResponse.builder()
-            .success(false)
-            .message("Hiện tại AI Service đang tạm ngưng. Vui lòng thử lại sau.")
-            .build()
-        );
+        failure.set(ex);
+        return Mono.empty();
       })
       .block();
+
+    if (response != null) {
+      return response;
+    }
+    // Same rule as the workout plan: the AI service may already have saved a plan otherwise
+    if (localMealPlanFallbackEnabled && AiClientGuard.isNeverSent(failure.get())) {
+      return generateMealPlanLocally(userId);
+    }
+    return unavailableMealPlan(UNAVAILABLE_MESSAGE);
+  }
+
+  private GeneratorWorkoutPlanResponse generateLocally(GeneratorWorkoutPlanRequest request) {
+    log.info("Creating workout plan with the local generator ...");
+    try {
+      return planGeneratorService.generateWorkoutPlan(request.getUserId(), request.getNotes());
+    } catch (PlanGenerationException e) {
+      log.warn("Local plan generation failed: {}", e.getMessage());
+      return unavailableWorkoutPlan(e.getMessage());
+    }
+  }
+
+  private GeneratorMealPlanResponse generateMealPlanLocally(UUID userId) {
+    log.info("Creating meal plan with the local planner ...");
+    try {
+      return mealPlannerService.generateMealPlan(userId);
+    } catch (DataIntegrityViolationException e) {
+      // A concurrent first generation inserted today's plan; the retry finds it and replaces it
+      log.info("Meal plan of user {} was created concurrently, regenerating it", userId);
+      return retryMealPlanLocally(userId);
+    } catch (PlanGenerationException e) {
+      log.warn("Local meal plan generation failed: {}", e.getMessage());
+      return unavailableMealPlan(e.getMessage());
+    }
+  }
+
+  private GeneratorMealPlanResponse retryMealPlanLocally(UUID userId) {
+    try {
+      return mealPlannerService.generateMealPlan(userId);
+    } catch (DataIntegrityViolationException | PlanGenerationException e) {
+      log.warn("Local meal plan generation failed: {}", e.getMessage());
+      return unavailableMealPlan(e.getMessage());
+    }
+  }
+
+  private static GeneratorWorkoutPlanResponse unavailableWorkoutPlan(String message) {
+    return GeneratorWorkoutPlanResponse.builder()
+      .status("error")
+      .message(message)
+      .build();
+  }
+
+  private static GeneratorMealPlanResponse unavailableMealPlan(String message) {
+    return GeneratorMealPlanResponse.builder()
+      .success(false)
+      .message(message)
+      .build();
   }
 }
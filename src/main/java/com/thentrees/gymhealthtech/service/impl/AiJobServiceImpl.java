@@ -0,0 +1,480 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thentrees.gymhealthtech.dto.request.GeneratorWorkoutPlanRequest;
+import com.thentrees.gymhealthtech.dto.response.AiJobResponse;
+import com.thentrees.gymhealthtech.dto.response.GeneratorMealPlanResponse;
+import com.thentrees.gymhealthtech.dto.response.GeneratorWorkoutPlanResponse;
+import com.thentrees.gymhealthtech.enums.AiJobStatus;
+import com.thentrees.gymhealthtech.enums.AiJobType;
+import com.thentrees.gymhealthtech.enums.GoalStatus;
+import com.thentrees.gymhealthtech.exception.RateLimitExceededException;
+import com.thentrees.gymhealthtech.exception.ResourceNotFoundException;
+import com.thentrees.gymhealthtech.repository.GoalRepository;
+import com.thentrees.gymhealthtech.repository.UserProfileRepository;
+import com.thentrees.gymhealthtech.service.AIService;
+import com.thentrees.gymhealthtech.service.AiJobService;
+import com.thentrees.gymhealthtech.service.RedisService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Service
+@Slf4j(topic = "AI-JOB-SERVICE")
+@RequiredArgsConstructor
+public class AiJobServiceImpl implements AiJobService, MessageListener {
+
+  private static final String JOB_KEY_PREFIX = "ai:job:";
+  // Request fingerprint -> id of the job generating (or holding) that result
+  private static final String FINGERPRINT_KEY_PREFIX = "ai:job:fingerprint:";
+  // A cancel may land on a node other than the one running the job
+  private static final String CANCEL_CHANNEL = "ai:job:cancel";
+  // Every saved state change; streams are open on whichever node the client reached
+  private static final String STATUS_CHANNEL = "ai:job:status";
+  // Moves the fingerprint off a job that can no longer answer it, unless another submit did first
+  private static final RedisScript<Long> REPLACE_FINGERPRINT =
+      new DefaultRedisScript<>(
+          "if redis.call('get', KEYS[1]) == ARGV[1] then "
+              + "redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 else return 0 end",
+          Long.class);
+  private static final String UNAVAILABLE_MESSAGE =
+      "Hiện tại AI Service đang tạm ngưng. Vui lòng thử lại sau.";
+
+  private final AIService aiService;
+  private final RedisService redisService;
+  private final ObjectMapper objectMapper;
+  private final ThreadPoolTaskExecutor aiJobExecutor;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisMessageListenerContainer listenerContainer;
+  private final UserProfileRepository userProfileRepository;
+  private final GoalRepository goalRepository;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.ai.jobs.ttl-hours:24}")
+  private long jobTtlHours;
+
+  @Value("${app.ai.jobs.sse-timeout-ms:180000}")
+  private long sseTimeoutMs;
+
+  @Value("${app.ai.jobs.result-ttl-minutes:30}")
+  private long resultTtlMinutes;
+
+  private final Map<UUID, Future<?>> running = new ConcurrentHashMap<>();
+  // Open SSE streams on this node, by job
+  private final Map<UUID, Set<JobStream>> streams = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  void init() {
+    listenerContainer.addMessageListener(
+        this, List.of(new ChannelTopic(CANCEL_CHANNEL), new ChannelTopic(STATUS_CHANNEL)));
+  }
+
+  @Override
+  public AiJobResponse submitWorkoutPlan(
+      GeneratorWorkoutPlanRequest request, UUID userId, boolean regenerate) {
+    // Plans are only generated for the caller, whatever the body says
+    request.setUserId(userId);
+    return submit(
+        AiJobType.WORKOUT_PLAN,
+        userId,
+        request.getNotes(),
+        regenerate,
+        job -> {
+          GeneratorWorkoutPlanResponse plan = aiService.createGeneratorWorkoutPlan(request);
+          boolean failed = plan == null || "error".equalsIgnoreCase(plan.getStatus());
+          job.setStatus(failed ? AiJobStatus.FAILED : AiJobStatus.SUCCEEDED);
+          job.setMessage(plan == null ? UNAVAILABLE_MESSAGE : plan.getMessage());
+          job.setWorkoutPlan(failed ? null : plan);
+        });
+  }
+
+  @Override
+  public AiJobResponse submitMealPlan(UUID userId, boolean regenerate) {
+    return submit(
+        AiJobType.MEAL_PLAN,
+        userId,
+        null,
+        regenerate,
+        job -> {
+          GeneratorMealPlanResponse plan = aiService.createGeneratorMealPlan(userId);
+          boolean failed = plan == null || !plan.isSuccess();
+          job.setStatus(failed ? AiJobStatus.FAILED : AiJobStatus.SUCCEEDED);
+          job.setMessage(plan == null ? UNAVAILABLE_MESSAGE : plan.getMessage());
+          job.setMealPlan(failed ? null : plan);
+        });
+  }
+
+  @Override
+  public AiJobResponse getJob(UUID jobId, UUID userId) {
+    AiJobResponse job = loadJob(jobId);
+    // Someone else's job is reported as missing rather than forbidden
+    if (job == null || !userId.equals(job.getUserId())) {
+      throw new ResourceNotFoundException("AI job", jobId.toString());
+    }
+    return job;
+  }
+
+  @Override
+  public SseEmitter streamJob(UUID jobId, UUID userId) {
+    AiJobResponse initial = getJob(jobId, userId);
+    SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+    JobStream stream = new JobStream(jobId, emitter);
+    stream.push(initial);
+    if (stream.isDone()) {
+      return emitter;
+    }
+
+    // The emitter holds no request thread; state changes arrive on the status channel
+    streams.computeIfAbsent(jobId, id -> ConcurrentHashMap.newKeySet()).add(stream);
+    emitter.onCompletion(stream::close);
+    emitter.onTimeout(stream::finish);
+    emitter.onError(ex -> stream.finish());
+    // A change published before the stream was registered would otherwise be missed
+    stream.push(loadJob(jobId));
+    return emitter;
+  }
+
+  @Override
+  public AiJobResponse cancelJob(UUID jobId, UUID userId) {
+    AiJobResponse job = getJob(jobId, userId);
+    if (job.getStatus().isTerminal()) {
+      return job;
+    }
+
+    job.setStatus(AiJobStatus.CANCELLED);
+    job.setMessage("Cancelled by user");
+    job.setFinishedAt(LocalDateTime.now());
+    saveJob(job);
+
+    if (!interrupt(jobId)) {
+      stringRedisTemplate.convertAndSend(CANCEL_CHANNEL, jobId.toString());
+    }
+    log.info("Cancelled AI job {}", jobId);
+    return job;
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    UUID jobId = UUID.fromString(new String(message.getBody(), StandardCharsets.UTF_8));
+    if (STATUS_CHANNEL.equals(new String(message.getChannel(), StandardCharsets.UTF_8))) {
+      Set<JobStream> listening = streams.get(jobId);
+      if (listening != null && !listening.isEmpty()) {
+        AiJobResponse job = loadJob(jobId);
+        listening.forEach(stream -> stream.push(job));
+      }
+    } else if (interrupt(jobId)) {
+      log.info("Interrupted AI job {} on cancel broadcast", jobId);
+    }
+  }
+
+  private AiJobResponse submit(
+      AiJobType type,
+      UUID userId,
+      String notes,
+      boolean regenerate,
+      Consumer<AiJobResponse> work) {
+    String fingerprintKey = FINGERPRINT_KEY_PREFIX + fingerprint(type, userId, notes);
+    if (!regenerate) {
+      AiJobResponse reused = reuse(type, stringRedisTemplate.opsForValue().get(fingerprintKey));
+      if (reused != null) {
+        return reused;
+      }
+    }
+
+    AiJobResponse job =
+        AiJobResponse.builder()
+            .jobId(UUID.randomUUID())
+            .type(type)
+            .status(AiJobStatus.QUEUED)
+            .userId(userId)
+            .message("Generation queued")
+            .submittedAt(LocalDateTime.now())
+            .build();
+    // Saved before the fingerprint points at it, so an identical submit that loses the race to
+    // claim the fingerprint finds a queued job to share instead of a dangling id
+    saveJob(job);
+    String jobId = job.getJobId().toString();
+    Duration resultTtl = Duration.ofMinutes(resultTtlMinutes);
+    if (regenerate) {
+      stringRedisTemplate.opsForValue().set(fingerprintKey, jobId, resultTtl);
+    } else {
+      AiJobResponse reused = claimFingerprint(type, fingerprintKey, jobId, resultTtl);
+      if (reused != null) {
+        redisService.delete(jobKey(job.getJobId()));
+        return reused;
+      }
+    }
+    countRequest(type, regenerate ? "regenerated" : "generated");
+
+    try {
+      Future<?> future = aiJobExecutor.submit(() -> run(job, fingerprintKey, work));
+      running.put(job.getJobId(), future);
+      // The job may have finished before it was registered
+      if (future.isDone()) {
+        running.remove(job.getJobId());
+      }
+    } catch (TaskRejectedException e) {
+      releaseFingerprint(fingerprintKey, job.getJobId());
+      redisService.delete(jobKey(job.getJobId()));
+      throw new RateLimitExceededException("Too many AI generations in progress", 30);
+    }
+
+    log.info("Queued AI {} job {} for user {}", type, job.getJobId(), userId);
+    // The worker keeps mutating its own instance, hand the caller a snapshot
+    return job.toBuilder().build();
+  }
+
+  private void run(AiJobResponse job, String fingerprintKey, Consumer<AiJobResponse> work) {
+    try {
+      AiJobResponse stored = loadJob(job.getJobId());
+      if (stored == null || stored.getStatus() == AiJobStatus.CANCELLED) {
+        return;
+      }
+      job.setStatus(AiJobStatus.RUNNING);
+      job.setStartedAt(LocalDateTime.now());
+      saveJob(job);
+
+      work.accept(job);
+    } catch (Exception e) {
+      if (Thread.currentThread().isInterrupted() || e.getCause() instanceof InterruptedException) {
+        job.setStatus(AiJobStatus.CANCELLED);
+      } else {
+        log.error("AI job {} failed", job.getJobId(), e);
+        job.setStatus(AiJobStatus.FAILED);
+        job.setMessage(UNAVAILABLE_MESSAGE);
+      }
+    } finally {
+      running.remove(job.getJobId());
+      AiJobResponse stored = loadJob(job.getJobId());
+      // A cancel recorded meanwhile wins over whatever the generation returned
+      boolean cancelled = stored == null || stored.getStatus() == AiJobStatus.CANCELLED;
+      if (!cancelled) {
+        job.setFinishedAt(LocalDateTime.now());
+        saveJob(job);
+      }
+      if (cancelled || job.getStatus() != AiJobStatus.SUCCEEDED) {
+        releaseFingerprint(fingerprintKey, job.getJobId());
+      } else if (job.getJobId()
+          .toString()
+          .equals(stringRedisTemplate.opsForValue().get(fingerprintKey))) {
+        // The result stays reusable for the full TTL from completion
+        stringRedisTemplate.expire(fingerprintKey, Duration.ofMinutes(resultTtlMinutes));
+      }
+    }
+  }
+
+  /**
+   * Points the fingerprint at {@code jobId}, unless it already names a job to reuse, which is
+   * returned instead. A fingerprint left on a failed, cancelled or expired job is taken over by
+   * only one of the submits racing for it.
+   */
+  private AiJobResponse claimFingerprint(
+      AiJobType type, String fingerprintKey, String jobId, Duration resultTtl) {
+    while (!Boolean.TRUE.equals(
+        stringRedisTemplate.opsForValue().setIfAbsent(fingerprintKey, jobId, resultTtl))) {
+      String current = stringRedisTemplate.opsForValue().get(fingerprintKey);
+      if (current == null) {
+        // Expired since, claim it again
+        continue;
+      }
+      AiJobResponse reused = reuse(type, current);
+      if (reused != null) {
+        return reused;
+      }
+      Long replaced =
+          stringRedisTemplate.execute(
+              REPLACE_FINGERPRINT,
+              List.of(fingerprintKey),
+              current,
+              jobId,
+              String.valueOf(resultTtl.toMillis()));
+      if (replaced != null && replaced == 1) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the job {@code jobId} if it can answer its fingerprint: one still queued or running
+   * (coalesced) or one that succeeded within the result TTL (cached). Failed and cancelled jobs
+   * are ignored.
+   */
+  private AiJobResponse reuse(AiJobType type, String jobId) {
+    AiJobResponse job = jobId == null ? null : loadJob(UUID.fromString(jobId));
+    if (job == null) {
+      return null;
+    }
+    switch (job.getStatus()) {
+      case QUEUED, RUNNING -> countRequest(type, "coalesced");
+      case SUCCEEDED -> countRequest(type, "cached");
+      default -> {
+        return null;
+      }
+    }
+    log.info("Reusing AI {} job {} ({})", type, jobId, job.getStatus());
+    return job;
+  }
+
+  private void releaseFingerprint(String fingerprintKey, UUID jobId) {
+    // Not atomic, but losing a race only means the next identical submit generates again
+    if (jobId.toString().equals(stringRedisTemplate.opsForValue().get(fingerprintKey))) {
+      stringRedisTemplate.delete(fingerprintKey);
+    }
+  }
+
+  /**
+   * Canonical digest of everything the AI service generates from. The service reads the profile
+   * and active goal itself, so their ids and versions stand in for them: editing either yields a
+   * new fingerprint. Results are persisted per user, hence the user id is always part of it.
+   */
+  private String fingerprint(AiJobType type, UUID userId, String notes) {
+    StringJoiner canonical = new StringJoiner("|");
+    canonical.add(type.name()).add(userId.toString()).add(normalize(notes));
+    canonical.add(
+        userProfileRepository
+            .findByUserId(userId)
+            .map(profile -> profile.getId() + ":" + profile.getVersion())
+            .orElse("-"));
+    canonical.add(
+        goalRepository
+            .findActiveGoalByUserId(userId, GoalStatus.ACTIVE)
+            .map(goal -> goal.getId() + ":" + goal.getVersion())
+            .orElse("-"));
+    if (type == AiJobType.MEAL_PLAN) {
+      // Meal plans are generated for the current day
+      canonical.add(LocalDate.now().toString());
+    }
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of()
+          .formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private static String normalize(String notes) {
+    if (notes == null) {
+      return "";
+    }
+    return Normalizer.normalize(notes, Normalizer.Form.NFC)
+        .trim()
+        .replaceAll("\\s+", " ")
+        .toLowerCase(Locale.ROOT);
+  }
+
+  private void countRequest(AiJobType type, String outcome) {
+    meterRegistry
+        .counter("ai.jobs.requests", "type", type.name(), "outcome", outcome)
+        .increment();
+  }
+
+  private boolean interrupt(UUID jobId) {
+    Future<?> future = running.remove(jobId);
+    return future != null && future.cancel(true);
+  }
+
+  private boolean send(SseEmitter emitter, AiJobResponse job) {
+    try {
+      emitter.send(SseEmitter.event().name("status").data(job));
+      return true;
+    } catch (IOException | IllegalStateException e) {
+      // Client went away
+      return false;
+    }
+  }
+
+  private AiJobResponse loadJob(UUID jobId) {
+    Object cached = redisService.get(jobKey(jobId));
+    return cached == null ? null : objectMapper.convertValue(cached, AiJobResponse.class);
+  }
+
+  private void saveJob(AiJobResponse job) {
+    redisService.set(jobKey(job.getJobId()), job, Duration.ofHours(jobTtlHours));
+    stringRedisTemplate.convertAndSend(STATUS_CHANNEL, job.getJobId().toString());
+  }
+
+  private static String jobKey(UUID jobId) {
+    return JOB_KEY_PREFIX + jobId;
+  }
+
+  /** One open SSE stream. It sends each new status once and closes on a terminal one. */
+  private final class JobStream {
+    private final UUID jobId;
+    private final SseEmitter emitter;
+    private AiJobStatus lastStatus;
+    private boolean done;
+
+    JobStream(UUID jobId, SseEmitter emitter) {
+      this.jobId = jobId;
+      this.emitter = emitter;
+    }
+
+    synchronized void push(AiJobResponse job) {
+      if (done) {
+        return;
+      }
+      if (job == null) {
+        finish();
+      } else if (job.getStatus() != lastStatus) {
+        lastStatus = job.getStatus();
+        if (!send(emitter, job) || job.getStatus().isTerminal()) {
+          finish();
+        }
+      }
+    }
+
+    synchronized boolean isDone() {
+      return done;
+    }
+
+    synchronized void finish() {
+      if (!done) {
+        emitter.complete();
+      }
+      close();
+    }
+
+    synchronized void close() {
+      done = true;
+      streams.computeIfPresent(
+          jobId,
+          (id, listening) -> {
+            listening.remove(this);
+            return listening.isEmpty() ? null : listening;
+          });
+    }
+  }
+}
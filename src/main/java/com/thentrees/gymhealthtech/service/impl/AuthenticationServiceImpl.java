@@ -19,12 +19,14 @@ import com.thentrees.gymhealthtech.repository.UserRepository;
 import com.thentrees.gymhealthtech.repository.VerificationTokenRepository;
 import com.thentrees.gymhealthtech.service.AuthenticationService;
 import com.thentrees.gymhealthtech.service.JwtService;
+import com.thentrees.gymhealthtech.service.PrincipalCacheService;
 import com.thentrees.gymhealthtech.service.RefreshTokenService;
 import com.thentrees.gymhealthtech.service.VerificationTokenService;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -49,6 +51,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
   private final JwtService jwtService;
   private final RefreshTokenService refreshTokenService;
   private final VerificationTokenService verificationTokenService;
+  private final PrincipalCacheService principalCacheService;
 
   @Value("${app.jwt.expiration}")
   private long jwtExpiration;
@@ -61,19 +64,9 @@ public class AuthenticationServiceImpl implements AuthenticationService {
   @Override
   public void verifyEmail(EmailVerificationRequest request) {
     VerificationToken verificationToken =
-      verificationTokenRepository
-        .findByTokenHashAndType(request.getToken(), VerificationType.EMAIL)
-        .orElse(null);
-
-    // Check if token exists by comparing hashed versions
-    if (verificationToken == null) {
-      verificationToken =
-        verificationTokenRepository.findAll().stream()
-          .filter(token -> token.getType() == VerificationType.EMAIL)
-          .filter(token -> passwordEncoder.matches(request.getToken(), token.getTokenHash()))
-          .findFirst()
-          .orElseThrow(() -> new BusinessException("Invalid verification token"));
-    }
+      verificationTokenService
+        .findByToken(request.getToken(), VerificationType.EMAIL)
+        .orElseThrow(() -> new BusinessException("Invalid verification token"));
 
     if (verificationToken.getConsumedAt() != null) {
       log.error("Token has already been consumed");
@@ -94,6 +87,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     user.setEmailVerified(true);
     user.setStatus(UserStatus.ACTIVE);
     userRepository.save(user);
+    principalCacheService.evict(user);
   }
 
   @Transactional
@@ -112,7 +106,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
       RefreshToken refreshToken =
         refreshTokenService.createRefreshToken(user, userAgent, ipAddress);
       SecurityContextHolder.getContext().setAuthentication(authentication);
-      return buildAuthResponse(user, accessToken, refreshToken.getTokenHash());
+      return buildAuthResponse(user, accessToken, refreshToken.getRawToken());
     } catch (BadCredentialsException e) {
       throw new BusinessException("identifier or password is incorrect");
     } catch (DisabledException e) {
@@ -135,27 +129,26 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     RefreshToken refreshToken = refreshTokenOpt.get();
 
-    if (refreshTokenService.isTokenExpired(refreshToken)) {
-      throw new BusinessException("Refresh token expired");
-    }
-
     if (refreshTokenService.isTokenRevoked(refreshToken)) {
+      // A rotated token presented again means it was leaked - revoke the whole family
+      refreshTokenService.revokeTokenFamily(refreshToken);
       throw new BusinessException("Refresh token revoked");
     }
 
+    if (refreshTokenService.isTokenExpired(refreshToken)) {
+      throw new BusinessException("Refresh token expired");
+    }
+
     User user = refreshToken.getUser();
     validateUserAccount(user);
 
     // Generate new access token
     String newAccessToken = jwtService.generateTokenForUser(user);
 
-    // Generate new refresh token (rotate refresh tokens for security)
+    // Rotate: revoke the presented token and issue its successor in the same family
     RefreshToken newRefreshToken =
-      refreshTokenService.createRefreshToken(user, userAgent, ipAddress);
-
-    // Revoke old refresh token
-    refreshTokenService.revokeToken(request.getRefreshToken());
-    return buildAuthResponse(user, newAccessToken, newRefreshToken.getTokenHash());
+      refreshTokenService.rotateRefreshToken(refreshToken, userAgent, ipAddress);
+    return buildAuthResponse(user, newAccessToken, newRefreshToken.getRawToken());
   }
 
   @Override
@@ -198,11 +191,18 @@ public class AuthenticationServiceImpl implements AuthenticationService {
       refreshTokenService.revokeToken(request.getRefreshToken());
       log.info("Logged out from current device for user: {}", currentUserEmail);
     }
+    principalCacheService.evict(user);
   }
 
+  @Transactional
   @Override
   public void changePassword(ChangePasswordRequest request, Authentication authentication) {
-    User user = (User) authentication.getPrincipal();
+    // The principal is a cached snapshot; write through the entity loaded in this transaction
+    UUID userId = ((User) authentication.getPrincipal()).getId();
+    User user =
+      userRepository
+        .findById(userId)
+        .orElseThrow(() -> new BusinessException("User not found"));
 
     // Verify current password
     if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPasswordHash())) {
@@ -225,6 +225,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
     // Revoke all refresh tokens to force re-login on all devices
     refreshTokenService.revokeAllUserTokens(user);
+    principalCacheService.evict(user);
 
     log.info("Password changed successfully for user: {}", user.getUsername());
   }
@@ -274,7 +275,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
       SecurityContextHolder.getContext().setAuthentication(authentication);
 
       log.info("Google login successful for user: {}", user.getEmail());
-      return buildAuthResponse(user, accessToken, refreshToken.getTokenHash());
+      return buildAuthResponse(user, accessToken, refreshToken.getRawToken());
 
     } catch (Exception e) {
       log.error("Google login failed: {}", e.getMessage(), e);
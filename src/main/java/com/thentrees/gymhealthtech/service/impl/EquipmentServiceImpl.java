@@ -1,7 +1,6 @@
 package com.thentrees.gymhealthtech.service.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.thentrees.gymhealthtech.dto.request.CreateEquipmentRequest;
 import com.thentrees.gymhealthtech.dto.request.UpdateEquipmentRequest;
 import com.thentrees.gymhealthtech.dto.response.EquipmentResponse;
@@ -12,17 +11,20 @@ import com.thentrees.gymhealthtech.model.Equipment;
 import com.thentrees.gymhealthtech.repository.EquipmentRepository;
 import com.thentrees.gymhealthtech.service.EquipmentService;
 
+import java.time.Duration;
 import java.util.List;
 
-import com.thentrees.gymhealthtech.service.RedisService;
+import com.thentrees.gymhealthtech.service.TwoLevelCacheService;
 import com.thentrees.gymhealthtech.util.CacheKeyUtils;
 import com.thentrees.gymhealthtech.util.FileValidator;
 import com.thentrees.gymhealthtech.util.S3Util;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import static com.thentrees.gymhealthtech.constant.CacheConstant.EQUIPMENT_CACHE;
 import static com.thentrees.gymhealthtech.constant.ErrorMessages.EQUIPMENT_ALREADY_EXISTS;
 import static com.thentrees.gymhealthtech.constant.ErrorMessages.UPLOAD_EQUIPMENT_IMAGE_FAILED;
 import static com.thentrees.gymhealthtech.constant.S3Constant.S3_DEVICE_IMAGE_FOLDER;
@@ -35,59 +37,34 @@ public class EquipmentServiceImpl implements EquipmentService {
   private final EquipmentRepository equipmentRepository;
   private final FileValidator fileValidator;
   private final S3Util s3Util;
-  private final RedisService redisService;
+  private final TwoLevelCacheService twoLevelCacheService;
   private final CacheKeyUtils cacheKeyUtils;
-  private final ObjectMapper objectMapper;
   private final EquipmentMapper equipmentMapper;
 
+  @Value("${app.cache.ttl-minutes:60}")
+  private long cacheTtlMinutes;
+
   @Override
   public List<EquipmentResponse> getAllEquipment(String name) {
-    // 1. Chuẩn hóa tên key
-    String safeName = (name == null || name.isBlank()) ? "all" : name.trim().toLowerCase();
-    String cacheKey = cacheKeyUtils.buildKey("equipment:search:", safeName);
-
-    // 2. Đọc cache trước
-    try {
-      Object cached = redisService.get(cacheKey);
-      if (cached != null) {
-        List<EquipmentResponse> cachedResult =
-          objectMapper.convertValue(cached, new TypeReference<List<EquipmentResponse>>() {});
-        if (cachedResult != null && !cachedResult.isEmpty()) {
-          log.debug("Cache hit for key: {}", cacheKey);
-          return cachedResult;
-        }
-      }
-    } catch (Exception e) {
-      log.warn("Failed to read from cache: {}", e.getMessage());
-    }
-
-    // 3. Lấy từ DB
-    List<Equipment> equipments = (name == null || name.isBlank())
-      ? equipmentRepository.findAll()
-      : equipmentRepository.findByName(name);
-
-    List<EquipmentResponse> result = equipments.stream()
-      .map(equipmentMapper::toResponse)
-      .toList();
-
-    // 4. Ghi lại cache (nếu có data)
-    if (!result.isEmpty()) {
-      try {
-        redisService.set(cacheKey, result);
-        log.debug("Cache stored for key: {}", cacheKey);
-      } catch (Exception e) {
-        log.warn("Failed to store cache for key {}: {}", cacheKey, e.getMessage());
-      }
-    }
-
-    return result;
+    // 1. Chuẩn hóa tên key; LIKE phân biệt hoa thường nên key giữ nguyên chữ hoa
+    boolean all = name == null || name.isBlank();
+    String safeName = all ? "all" : name.trim();
+
+    // 2. Đọc cache (L1 rồi Redis), chỉ truy vấn DB khi cả hai đều miss
+    return twoLevelCacheService.get(
+      EQUIPMENT_CACHE,
+      cacheKeyUtils.buildKey("search:", safeName),
+      new TypeReference<>() {},
+      Duration.ofMinutes(cacheTtlMinutes),
+      () -> {
+        List<Equipment> equipments =
+          all ? equipmentRepository.findAll() : equipmentRepository.findByName(safeName);
+        return equipments.stream().map(equipmentMapper::toResponse).toList();
+      });
   }
 
   @Override
   public EquipmentResponse addEquipment(CreateEquipmentRequest request, MultipartFile file) {
-
-    redisService.deletePattern("equipment:*");
-
     fileValidator.validateImage(file);
     String fileUrl= null;
 
@@ -109,14 +86,12 @@ public class EquipmentServiceImpl implements EquipmentService {
       throw new BusinessException(UPLOAD_EQUIPMENT_IMAGE_FAILED, e.getMessage());
     }
     equipmentRepository.save(equipmentExist);
+    twoLevelCacheService.invalidate(EQUIPMENT_CACHE);
     return equipmentMapper.toResponse(equipmentExist);
   }
 
   @Override
   public void uploadImage(String code, MultipartFile file) {
-
-    redisService.deletePattern("equipment:*");
-
     Equipment equipment = equipmentRepository.findById(code)
       .orElseThrow(() -> new ResourceNotFoundException("Equipment", code));
     fileValidator.validateImage(file);
@@ -125,6 +100,7 @@ public class EquipmentServiceImpl implements EquipmentService {
       fileUrl = s3Util.uploadFile(file, S3_DEVICE_IMAGE_FOLDER);
       equipment.setImageUrl(fileUrl);
       equipmentRepository.save(equipment);
+      twoLevelCacheService.invalidate(EQUIPMENT_CACHE);
     } catch (Exception e) {
       log.error(UPLOAD_EQUIPMENT_IMAGE_FAILED+e);
       if (fileUrl != null) s3Util.deleteFileByUrl(fileUrl);
@@ -134,7 +110,6 @@ public class EquipmentServiceImpl implements EquipmentService {
 
   @Override
   public void updateEquipment(String equipmentCode, UpdateEquipmentRequest request) {
-    redisService.deletePattern("equipment:*");
     Equipment equipmentExist =
         equipmentRepository
             .findByCode(equipmentCode)
@@ -143,15 +118,16 @@ public class EquipmentServiceImpl implements EquipmentService {
       equipmentExist.setName(request.getEquipmentName());
     }
     equipmentRepository.save(equipmentExist);
+    twoLevelCacheService.invalidate(EQUIPMENT_CACHE);
   }
 
   @Override
   public void deleteEquipment(String code) {
-    redisService.deletePattern("equipment:*");
     Equipment equipment = equipmentRepository.findById(code).orElseThrow(
       ()-> new ResourceNotFoundException("Equipment", code)
     );
-      equipmentRepository.delete(equipment);
+    equipmentRepository.delete(equipment);
+    twoLevelCacheService.invalidate(EQUIPMENT_CACHE);
   }
 
   @Override
@@ -0,0 +1,377 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import com.thentrees.gymhealthtech.dto.request.ExerciseSearchRequest;
+import com.thentrees.gymhealthtech.dto.response.ExerciseFacetResponse;
+import com.thentrees.gymhealthtech.dto.response.ExerciseListResponse;
+import com.thentrees.gymhealthtech.dto.response.PagedResponse;
+import com.thentrees.gymhealthtech.enums.ExerciseLevel;
+import com.thentrees.gymhealthtech.enums.ExerciseType;
+import com.thentrees.gymhealthtech.mapper.ExerciseMapper;
+import com.thentrees.gymhealthtech.model.Exercise;
+import com.thentrees.gymhealthtech.model.ExerciseMuscle;
+import com.thentrees.gymhealthtech.repository.ExerciseMuscleRepository;
+import com.thentrees.gymhealthtech.repository.ExerciseRepository;
+import com.thentrees.gymhealthtech.repository.spec.ExerciseSpecification;
+import com.thentrees.gymhealthtech.service.ExerciseCatalogService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+@Service
+@Slf4j(topic = "EXERCISE-CATALOG")
+@RequiredArgsConstructor
+public class ExerciseCatalogServiceImpl implements ExerciseCatalogService, MessageListener {
+
+  private static final String REBUILD_CHANNEL = "cache:exercise-catalog:rebuild";
+
+  private static final String MUSCLES = "muscles";
+  private static final String PRIMARY_MUSCLE = "primaryMuscle";
+  private static final String EQUIPMENT = "equipment";
+  private static final String EXERCISE_TYPE = "exerciseType";
+  private static final String LEVEL = "level";
+  private static final String CATEGORY = "category";
+
+  // Sort keys the snapshot keeps a precomputed order for; anything else goes to SQL
+  private static final Map<String, Comparator<Exercise>> SORTS =
+      Map.of(
+          "name", Comparator.comparing(Exercise::getName, String.CASE_INSENSITIVE_ORDER),
+          "slug", Comparator.comparing(Exercise::getSlug),
+          "difficultyLevel", Comparator.comparingInt(Exercise::getDifficultyLevel),
+          // PostgreSQL puts nulls last ascending and first descending, which reversing matches
+          "createdAt",
+              Comparator.comparing(
+                  Exercise::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())),
+          "updatedAt",
+              Comparator.comparing(
+                  Exercise::getUpdatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+
+  private final ExerciseRepository exerciseRepository;
+  private final ExerciseMuscleRepository exerciseMuscleRepository;
+  private final ExerciseMapper exerciseMapper;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisMessageListenerContainer listenerContainer;
+
+  private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+  private final ExecutorService rebuildExecutor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "exercise-catalog-rebuild");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private volatile Snapshot snapshot;
+
+  @PostConstruct
+  void init() {
+    listenerContainer.addMessageListener(this, new ChannelTopic(REBUILD_CHANNEL));
+  }
+
+  @PreDestroy
+  void shutdown() {
+    rebuildExecutor.shutdownNow();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    rebuildAsync();
+  }
+
+  @Override
+  public boolean supports(ExerciseSearchRequest request) {
+    return ExerciseSpecification.toPrefixTsQuery(request.getKeyword()) == null
+        && SORTS.containsKey(request.getSortBy());
+  }
+
+  @Override
+  public PagedResponse<ExerciseListResponse> search(ExerciseSearchRequest request) {
+    Snapshot current = current();
+    BitSet matches = current.filter(request, null);
+
+    int[] order = current.orders.get(request.getSortBy());
+    boolean descending = "DESC".equalsIgnoreCase(request.getSortDirection());
+    long offset = (long) request.getPage() * request.getSize();
+
+    List<ExerciseListResponse> content = new ArrayList<>(request.getSize());
+    int seen = 0;
+    for (int i = 0; i < order.length && content.size() < request.getSize(); i++) {
+      int index = order[descending ? order.length - 1 - i : i];
+      if (matches.get(index) && seen++ >= offset) {
+        content.add(current.items.get(index));
+      }
+    }
+
+    return PagedResponse.of(
+        new PageImpl<>(
+            content,
+            PageRequest.of(request.getPage(), request.getSize()),
+            matches.cardinality()));
+  }
+
+  @Override
+  public ExerciseFacetResponse facets(ExerciseSearchRequest request) {
+    Snapshot current = current();
+    return ExerciseFacetResponse.builder()
+        .totalElements(current.filter(request, null).cardinality())
+        .muscles(current.counts(MUSCLES, request))
+        .primaryMuscles(current.counts(PRIMARY_MUSCLE, request))
+        .equipment(current.counts(EQUIPMENT, request))
+        .exerciseTypes(current.counts(EXERCISE_TYPE, request))
+        .levels(current.counts(LEVEL, request))
+        .categories(current.counts(CATEGORY, request))
+        .build();
+  }
+
+  @Override
+  public List<ExerciseListResponse> exercises() {
+    return current().items;
+  }
+
+  @Override
+  public synchronized void rebuild() {
+    long start = System.currentTimeMillis();
+
+    // Two reads outside one transaction may straddle a write, but that write queues another rebuild
+    List<Exercise> exercises = exerciseRepository.findAllForCatalog();
+    Map<UUID, List<ExerciseMuscle>> musclesByExercise =
+        exerciseMuscleRepository.findAllOrderByRole().stream()
+            .collect(Collectors.groupingBy(em -> em.getId().getExerciseId()));
+
+    this.snapshot = Snapshot.build(exercises, musclesByExercise, exerciseMapper);
+    log.info(
+        "Exercise catalog rebuilt: {} exercises in {} ms",
+        exercises.size(),
+        System.currentTimeMillis() - start);
+  }
+
+  @Override
+  public void requestRebuild() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              publish();
+            }
+          });
+    } else {
+      publish();
+    }
+  }
+
+  @Override
+  public void rebuildAsync() {
+    // A burst of signals collapses into one rebuild; a signal during a rebuild queues one more
+    if (!rebuildQueued.compareAndSet(false, true)) {
+      return;
+    }
+    rebuildExecutor.execute(
+        () -> {
+          rebuildQueued.set(false);
+          try {
+            rebuild();
+          } catch (Exception e) {
+            log.error("Exercise catalog rebuild failed, keeping the previous snapshot", e);
+          }
+        });
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    log.debug(
+        "Exercise catalog rebuild requested by {}",
+        new String(message.getBody(), StandardCharsets.UTF_8));
+    rebuildAsync();
+  }
+
+  private void publish() {
+    try {
+      // This node is subscribed too, so it rebuilds through the same broadcast
+      stringRedisTemplate.convertAndSend(REBUILD_CHANNEL, String.valueOf(System.currentTimeMillis()));
+    } catch (Exception e) {
+      // Other nodes still converge through the periodic refresh
+      log.error("Failed to broadcast exercise catalog rebuild", e);
+      rebuildAsync();
+    }
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot;
+    if (current != null) {
+      return current;
+    }
+    synchronized (this) {
+      if (snapshot == null) {
+        rebuild();
+      }
+      return snapshot;
+    }
+  }
+
+  /** Read-only view of the library; never mutated after {@link #build}. */
+  private static final class Snapshot {
+    private final List<ExerciseListResponse> items;
+    private final BitSet all;
+    private final Map<String, Map<String, BitSet>> facets;
+    private final Map<String, int[]> orders;
+
+    private Snapshot(
+        List<ExerciseListResponse> items,
+        Map<String, Map<String, BitSet>> facets,
+        Map<String, int[]> orders) {
+      this.items = items;
+      this.facets = facets;
+      this.orders = orders;
+      this.all = new BitSet(items.size());
+      this.all.set(0, items.size());
+    }
+
+    static Snapshot build(
+        List<Exercise> exercises,
+        Map<UUID, List<ExerciseMuscle>> musclesByExercise,
+        ExerciseMapper exerciseMapper) {
+      List<ExerciseListResponse> items = new ArrayList<>(exercises.size());
+      Map<String, Map<String, BitSet>> facets = new HashMap<>();
+      for (String facet :
+          List.of(MUSCLES, PRIMARY_MUSCLE, EQUIPMENT, EXERCISE_TYPE, LEVEL, CATEGORY)) {
+        facets.put(facet, new HashMap<>());
+      }
+
+      for (int i = 0; i < exercises.size(); i++) {
+        Exercise exercise = exercises.get(i);
+        List<ExerciseMuscle> muscles =
+            musclesByExercise.getOrDefault(exercise.getId(), List.of());
+        items.add(exerciseMapper.toListResponse(exercise, muscles));
+
+        for (ExerciseMuscle muscle : muscles) {
+          mark(facets.get(MUSCLES), muscle.getId().getMuscleCode(), i);
+        }
+        if (exercise.getPrimaryMuscle() != null) {
+          mark(facets.get(PRIMARY_MUSCLE), exercise.getPrimaryMuscle().getCode(), i);
+        }
+        if (exercise.getEquipment() != null) {
+          mark(facets.get(EQUIPMENT), exercise.getEquipment().getCode(), i);
+        }
+        if (exercise.getExerciseType() != null) {
+          mark(facets.get(EXERCISE_TYPE), exercise.getExerciseType().name(), i);
+        }
+        ExerciseLevel level = ExerciseLevel.fromDifficulty(exercise.getDifficultyLevel());
+        if (level != null) {
+          mark(facets.get(LEVEL), level.name(), i);
+        }
+        if (exercise.getExerciseCategory() != null) {
+          mark(facets.get(CATEGORY), exercise.getExerciseCategory().getCode(), i);
+        }
+      }
+
+      Map<String, int[]> orders = new HashMap<>();
+      SORTS.forEach(
+          (sortBy, comparator) -> {
+            // Ties are broken by id so paging is stable
+            Comparator<Integer> byIndex =
+                Comparator.comparing((Integer i) -> exercises.get(i), comparator)
+                    .thenComparing(i -> exercises.get(i).getId());
+            orders.put(
+                sortBy,
+                IntStream.range(0, exercises.size())
+                    .boxed()
+                    .sorted(byIndex)
+                    .mapToInt(Integer::intValue)
+                    .toArray());
+          });
+
+      return new Snapshot(List.copyOf(items), facets, orders);
+    }
+
+    private static void mark(Map<String, BitSet> facet, String value, int index) {
+      facet.computeIfAbsent(value, key -> new BitSet()).set(index);
+    }
+
+    /**
+     * Exercises matching every filter of the request except {@code skipFacet}, with the same
+     * semantics as {@link ExerciseSpecification}.
+     */
+    BitSet filter(ExerciseSearchRequest request, String skipFacet) {
+      BitSet result = (BitSet) all.clone();
+
+      List<String> muscleCodes = request.getMusclesCodes();
+      if (!MUSCLES.equals(skipFacet) && muscleCodes != null && !muscleCodes.isEmpty()) {
+        BitSet anyMuscle = new BitSet();
+        for (String code : muscleCodes) {
+          BitSet bits = facets.get(MUSCLES).get(code);
+          if (bits != null) {
+            anyMuscle.or(bits);
+          }
+        }
+        result.and(anyMuscle);
+      }
+      if (StringUtils.hasText(request.getPrimaryMuscle())) {
+        restrict(result, skipFacet, PRIMARY_MUSCLE, request.getPrimaryMuscle());
+      }
+      if (StringUtils.hasText(request.getEquipmentType())) {
+        restrict(result, skipFacet, EQUIPMENT, request.getEquipmentType());
+      }
+      if (StringUtils.hasText(request.getExerciseType())) {
+        ExerciseType type = ExerciseType.fromCode(request.getExerciseType());
+        restrict(result, skipFacet, EXERCISE_TYPE, type == null ? "" : type.name());
+      }
+      if (request.getLevel() != null) {
+        restrict(result, skipFacet, LEVEL, request.getLevel().name());
+      }
+      if (StringUtils.hasText(request.getExerciseCategory())) {
+        restrict(result, skipFacet, CATEGORY, request.getExerciseCategory());
+      }
+      return result;
+    }
+
+    private void restrict(BitSet result, String skipFacet, String facet, String value) {
+      if (facet.equals(skipFacet)) {
+        return;
+      }
+      BitSet bits = facets.get(facet).get(value);
+      if (bits == null) {
+        result.clear();
+      } else {
+        result.and(bits);
+      }
+    }
+
+    Map<String, Integer> counts(String facet, ExerciseSearchRequest request) {
+      BitSet base = filter(request, facet);
+      Map<String, Integer> counts = new TreeMap<>();
+      facets
+          .get(facet)
+          .forEach(
+              (value, bits) -> {
+                BitSet hits = (BitSet) bits.clone();
+                hits.and(base);
+                int count = hits.cardinality();
+                if (count > 0) {
+                  counts.put(value, count);
+                }
+              });
+      return counts;
+    }
+  }
+}
@@ -1,24 +1,32 @@
 package com.thentrees.gymhealthtech.service.impl;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.thentrees.gymhealthtech.dto.request.*;
 import com.thentrees.gymhealthtech.dto.response.*;
 import com.thentrees.gymhealthtech.enums.ExerciseType;
+import com.thentrees.gymhealthtech.exception.BusinessException;
 import com.thentrees.gymhealthtech.exception.ResourceNotFoundException;
 import com.thentrees.gymhealthtech.mapper.ExerciseMapper;
 import com.thentrees.gymhealthtech.mapper.MuscleMapper;
 import com.thentrees.gymhealthtech.model.*;
 import com.thentrees.gymhealthtech.repository.*;
 import com.thentrees.gymhealthtech.repository.spec.ExerciseSpecification;
+import com.thentrees.gymhealthtech.service.ExerciseCatalogService;
 import com.thentrees.gymhealthtech.service.ExerciseLibraryService;
-import com.thentrees.gymhealthtech.service.RedisService;
+import com.thentrees.gymhealthtech.service.TwoLevelCacheService;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import com.thentrees.gymhealthtech.util.CacheKeyUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -29,11 +37,19 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import static com.thentrees.gymhealthtech.constant.CacheConstant.EXERCISE_CACHE;
+
 @Service
 @Slf4j(topic = "EXERCISE-SERVICE")
 @RequiredArgsConstructor
 public class ExerciseLibraryServiceImpl implements ExerciseLibraryService {
 
+  // Strongest role first
+  private static final List<String> IMPORT_MUSCLE_ROLES =
+      List.of("PRIMARY", "SECONDARY", "STABILIZER");
+  private static final int MAX_BODY_PART_LENGTH = 32;
+  private static final int MAX_IMPORT_SKIPPED_REASONS = 50;
+
   private final ExerciseRepository exerciseRepository;
   private final ExerciseMuscleRepository exerciseMuscleRepository;
   private final ExerciseMapper exerciseMapper;
@@ -42,47 +58,35 @@ public class ExerciseLibraryServiceImpl implements ExerciseLibraryService {
   private final ExerciseCategoryRepository exerciseCategoryRepository;
   private final ObjectMapper objectMapper;
   private final MuscleMapper muscleMapper;
-  private final ExerciseEquipmentRepository exerciseEquipmentRepository;
-  private final RedisService redisService;
+  private final TwoLevelCacheService twoLevelCacheService;
   private final CacheKeyUtils cacheKeyUtils;
+  private final ExerciseCatalogService exerciseCatalogService;
 
-  @Transactional(readOnly = true)
-  @Override
-  public PagedResponse<ExerciseListResponse> getExercises(ExerciseSearchRequest request) {
+  @Value("${app.cache.ttl-minutes:60}")
+  private long cacheTtlMinutes;
 
-    String cacheKey = cacheKeyUtils.buildKey("exercise:search:", request);
+  @Value("${app.import.exercise.batch-size:200}")
+  private int importBatchSize;
 
-    try {
-      Object cached = redisService.get(cacheKey);
-      if (cached != null) {
-        PagedResponse<ExerciseListResponse> cachedResponse =
-          objectMapper.convertValue(cached, new TypeReference<>() {});
-        if (cachedResponse != null) {
-          log.debug("Cache HIT for key: {}", cacheKey);
-          return cachedResponse;
-        }
-      }
-      log.debug("Cache MISS for key: {}", cacheKey);
-    } catch (Exception e) {
-      log.warn("Failed to read cache for key {}: {}", cacheKey, e.getMessage());
+  // No transaction here: cache hits never touch the database, and the cache runs loads in one
+  @Override
+  public PagedResponse<ExerciseListResponse> getExercises(ExerciseSearchRequest request) {
+    // Filter-only listings are answered from the in-memory catalog; keyword search stays in SQL
+    if (exerciseCatalogService.supports(request)) {
+      return exerciseCatalogService.search(request);
     }
 
-    Specification<Exercise> spec = buildSearchSpecification(request);
-
-    Pageable pageable =
-      PageRequest.of(
-        request.getPage(),
-        request.getSize(),
-        Sort.Direction.fromString(request.getSortDirection()),
-        request.getSortBy());
-
-    Page<Exercise> exercises = exerciseRepository.findAll(spec, pageable);
-    Page<ExerciseListResponse> exerciseListResponsePage = exercises.map(this::mapToListResponse);
-    PagedResponse<ExerciseListResponse> response = PagedResponse.of(exerciseListResponsePage);
-
-    redisService.set(cacheKey, response);
+    return twoLevelCacheService.get(
+      EXERCISE_CACHE,
+      cacheKeyUtils.buildKey("search:", request),
+      new TypeReference<>() {},
+      Duration.ofMinutes(cacheTtlMinutes),
+      () -> searchExercises(request));
+  }
 
-    return response;
+  @Override
+  public ExerciseFacetResponse getExerciseFacets(ExerciseSearchRequest request) {
+    return exerciseCatalogService.facets(request);
   }
 
   @Transactional(readOnly = true)
@@ -97,7 +101,6 @@ public class ExerciseLibraryServiceImpl implements ExerciseLibraryService {
   @Override
   @Transactional
   public ExerciseDetailResponse createExercise(CreateExerciseRequest request) {
-    redisService.deletePattern("exercise:*");
     String slug = request.getName().trim().toLowerCase().replace(" ", "-");
     // Validate slug uniqueness
     if (exerciseRepository.existsBySlug(slug)) {
@@ -129,64 +132,57 @@ public class ExerciseLibraryServiceImpl implements ExerciseLibraryService {
     if (request.getMuscles() != null && !request.getMuscles().isEmpty()) {
       saveMusclesForExercise(savedExercise, request.getMuscles());
     }
+    twoLevelCacheService.invalidate(EXERCISE_CACHE);
+    exerciseCatalogService.requestRebuild();
     return mapToDetailResponse(savedExercise);
   }
 
   @Override
   @Transactional
-  public int importExercisesFromJson(MultipartFile file) throws IOException {
-
-    redisService.deletePattern("exercise:*");
-
-    // đọc mảng ExerciseDTO từ JSON upload
-    List<CreateExerciseRequest> dtos =
-      objectMapper.readValue(
-        file.getInputStream(), new TypeReference<List<CreateExerciseRequest>>() {});
-
-    int imported = 0;
-    for (CreateExerciseRequest dto : dtos) {
-      if (dto.getName() == null || dto.getName().isBlank()) continue;
-      log.info("name exercise: {}", dto.getName());
-      String slug = generateSlug(dto.getName());
-
-      Exercise ex = exerciseRepository.findBySlug(slug).orElseGet(Exercise::new);
-      ex.setSlug(slug);
-      ex.setName(dto.getName().trim());
-      ex.setBodyPart(dto.getBodyParts().toString().replace("[", "").replace("]", ""));
-      Equipment equipment = null;
-      if (StringUtils.hasText(dto.getEquipmentTypeCode())) {
-        equipment = getOrCreateEquipment(dto.getEquipmentTypeCode());
-      }
-
-      ex.setEquipment(equipment);
-
-      ExerciseCategory exerciseCategory = getOrCreateCategory(dto.getExerciseCategory());
-
-      ex.setDifficultyLevel(dto.getDifficultyLevel());
-      ex.setExerciseCategory(exerciseCategory);
-      ex.setExerciseType(ExerciseType.valueOf(dto.getExerciseType().toUpperCase()));
-      ex.setInstructions(dto.getInstructions().toString());
-      ex.setSafetyNotes(dto.getSafetyNotes());
-      ex.setThumbnailUrl(dto.getThumbnailUrl());
-      ex.setPrimaryMuscle(
-        dto.getMuscles().stream()
-          .filter(muscle -> muscle.getRole().equals("PRIMARY"))
-          .findFirst()
-          .map(ExerciseMuscleRequest::toMuscle)
-          .orElse(null));
-      Exercise savedExercise = exerciseRepository.save(ex);
-      // Add muscles
-      if (dto.getMuscles() != null && !dto.getMuscles().isEmpty()) {
-        saveMusclesForExercise(savedExercise, dto.getMuscles());
+  public ImportExerciseResponse importExercisesFromJson(MultipartFile file) throws IOException {
+    // Reference codes are resolved in memory instead of one lookup per row
+    Set<String> muscleCodes = new HashSet<>(muscleRepository.findAllCodes());
+    Map<String, String> equipmentCodes = codesByLowerCase(equipmentRepository.findAllCodes());
+    Map<String, String> categoryCodes = codesByLowerCase(exerciseCategoryRepository.findAllCodes());
+
+    ImportExerciseResponse result = new ImportExerciseResponse();
+    Map<String, ExerciseRepositoryCustom.ImportRow> batch = new LinkedHashMap<>();
+
+    // Stream the array element by element so the file is never held in memory as a whole
+    try (InputStream in = file.getInputStream();
+        JsonParser parser = objectMapper.getFactory().createParser(in)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw new BusinessException("Exercise import file must contain a JSON array");
       }
-
-      if (dto.getEquipmentTypeCode() != null) {
-        saveEquipmentForExercise(savedExercise, dto.getEquipmentTypeCode());
+      while (parser.nextToken() == JsonToken.START_OBJECT) {
+        CreateExerciseRequest dto = objectMapper.readValue(parser, CreateExerciseRequest.class);
+        result.setTotalRows(result.getTotalRows() + 1);
+
+        ExerciseRepositoryCustom.ImportRow row =
+            toImportRow(dto, muscleCodes, equipmentCodes, categoryCodes, result);
+        if (row == null) {
+          continue;
+        }
+        if (batch.put(row.slug(), row) != null) {
+          skipImportRow(result, row.name(), "duplicate name in file, the later row is kept");
+        }
+        if (batch.size() >= importBatchSize) {
+          flushImportBatch(batch, result);
+        }
       }
-      log.info("imported: {}", imported);
-      imported++;
     }
-    return imported;
+    flushImportBatch(batch, result);
+
+    twoLevelCacheService.invalidate(EXERCISE_CACHE);
+    exerciseCatalogService.requestRebuild();
+
+    log.info(
+        "Exercise import: {} rows, {} inserted, {} updated, {} skipped",
+        result.getTotalRows(),
+        result.getInsertedCount(),
+        result.getUpdatedCount(),
+        result.getSkippedCount());
+    return result;
   }
 
   @Override
@@ -198,7 +194,6 @@ public class ExerciseLibraryServiceImpl implements ExerciseLibraryService {
   @Transactional
   @Override
   public void updateExercise(UUID exerciseId, UpdateExerciseRequest request) {
-    redisService.deletePattern("exercise:*");
     Exercise exercise = exerciseRepository.findByIdAndIsDeletedFalse(exerciseId).orElseThrow(
       () -> new ResourceNotFoundException("Exercise", exerciseId.toString())
     );
@@ -221,6 +216,8 @@ public class ExerciseLibraryServiceImpl implements ExerciseLibraryService {
       exercise.setInstructions(request.getInstructions());
     }
     exercise.setExerciseType(ExerciseType.valueOf(request.getExerciseType()));
+    twoLevelCacheService.invalidate(EXERCISE_CACHE);
+    exerciseCatalogService.requestRebuild();
   }
 
   @Transactional
@@ -229,46 +226,41 @@ public class ExerciseLibraryServiceImpl implements ExerciseLibraryService {
     Exercise exercise = exerciseRepository.findByIdAndIsDeletedFalse(exerciseId).orElseThrow(
       () -> new ResourceNotFoundException("Exercise", exerciseId.toString()));
     exercise.markAsDeleted();
-    redisService.deletePattern("exercise:*");
+    twoLevelCacheService.invalidate(EXERCISE_CACHE);
+    exerciseCatalogService.requestRebuild();
   }
 
-  private ExerciseListResponse mapToListResponse(Exercise exercise) {
-    // Get secondary muscles
-    List<ExerciseMuscle> muscles =
-      exerciseMuscleRepository.findByExerciseIdOrderByRole(exercise.getId());
+  private PagedResponse<ExerciseListResponse> searchExercises(ExerciseSearchRequest request) {
+    Specification<Exercise> spec = buildSearchSpecification(request);
 
-    List<String> primaryMuscles =
-      muscles.stream()
-        .filter(em -> "PRIMARY".equals(em.getRole()))
-        .map(em -> em.getMuscle().getName())
-        .toList();
+    // Keyword searches are ordered by relevance inside the specification; an explicit sort
+    // would replace that ordering
+    Pageable pageable =
+      ExerciseSpecification.toPrefixTsQuery(request.getKeyword()) != null
+        ? PageRequest.of(request.getPage(), request.getSize())
+        : PageRequest.of(
+          request.getPage(),
+          request.getSize(),
+          Sort.Direction.fromString(request.getSortDirection()),
+          request.getSortBy());
 
-    List<String> secondaryMuscles =
-      muscles.stream()
-        .filter(em -> "SECONDARY".equals(em.getRole()))
-        .map(em -> em.getMuscle().getName())
-        .toList();
+    Page<Exercise> exercises = exerciseRepository.findAll(spec, pageable);
+    return PagedResponse.of(mapToListResponses(exercises));
+  }
 
-    return ExerciseListResponse.builder()
-      .id(exercise.getId())
-      .slug(exercise.getSlug())
-      .name(exercise.getName())
-      .level(null)
-      .primaryMuscle(primaryMuscles)
-      .equipment(
-        exercise.getEquipment() != null
-          ? exerciseMapper.toEquipmentTypeResponse(exercise.getEquipment()).getName()
-          : null)
-      .instructions(Arrays.stream(exercise.getInstructions().split(",")).toList())
-      .safetyNotes(exercise.getSafetyNotes())
-      .thumbnailUrl(exercise.getThumbnailUrl())
-      .exerciseCategory(exercise.getExerciseCategory().getName())
-      .exerciseType(exercise.getExerciseType().toString())
-      .bodyPart(exercise.getBodyPart())
-      .secondaryMuscles(secondaryMuscles)
-      .createdAt(exercise.getCreatedAt())
-      .updatedAt(exercise.getUpdatedAt())
-      .build();
+  private Page<ExerciseListResponse> mapToListResponses(Page<Exercise> exercises) {
+    // One query for the muscles of the whole page instead of one per exercise
+    List<UUID> ids = exercises.getContent().stream().map(Exercise::getId).toList();
+    Map<UUID, List<ExerciseMuscle>> musclesByExercise =
+      ids.isEmpty()
+        ? Map.of()
+        : exerciseMuscleRepository.findByExerciseIdsOrderByRole(ids).stream()
+          .collect(Collectors.groupingBy(em -> em.getId().getExerciseId()));
+
+    return exercises.map(
+      exercise ->
+        exerciseMapper.toListResponse(
+          exercise, musclesByExercise.getOrDefault(exercise.getId(), List.of())));
   }
 
   private ExerciseDetailResponse mapToDetailResponse(Exercise exercise) {
@@ -319,13 +311,14 @@ public class ExerciseLibraryServiceImpl implements ExerciseLibraryService {
       .build();
   }
 
-  private Specification<Exercise> buildSearchSpecification(ExerciseSearchRequest request) {
+  static Specification<Exercise> buildSearchSpecification(ExerciseSearchRequest request) {
     return ExerciseSpecification.hasKeyword(request.getKeyword())
       .and(ExerciseSpecification.hasLevel(request.getLevel()))
       .and(ExerciseSpecification.hasPrimaryMuscle(request.getPrimaryMuscle()))
       .and(ExerciseSpecification.hasEquipment(request.getEquipmentType()))
       .and(ExerciseSpecification.hasMuscles(request.getMusclesCodes()))
-      .and(ExerciseSpecification.hasExerciseType(request.getExerciseType()));
+      .and(ExerciseSpecification.hasExerciseType(request.getExerciseType()))
+      .and(ExerciseSpecification.hasCategory(request.getExerciseCategory()));
   }
 
   // Private helper methods
@@ -362,27 +355,6 @@ public class ExerciseLibraryServiceImpl implements ExerciseLibraryService {
       exerciseMuscleRepository.save(exerciseMuscle);
     }
   }
-  // Private helper methods
-  private void saveEquipmentForExercise(Exercise exercise, String exerciseEquipment) {
-
-    Equipment equipment =
-      equipmentRepository
-        .findById(exerciseEquipment)
-        .orElseThrow(() -> new ResourceNotFoundException("Equipment not found"));
-
-    ExerciseEquipment exerciseEquipmentEntity = new ExerciseEquipment();
-
-    ExerciseEquipmentId id = new ExerciseEquipmentId();
-    id.setExerciseId(exercise.getId());
-    id.setEquipmentTypeCode(equipment.getCode());
-
-    exerciseEquipmentEntity.setId(id);
-    exerciseEquipmentEntity.setExercise(exercise);
-    exerciseEquipmentEntity.setEquipment(equipment);
-
-    exerciseEquipmentRepository.save(exerciseEquipmentEntity);
-  }
-
   private ExerciseCategory getOrCreateCategory(String categoryCode) {
     if (!StringUtils.hasText(categoryCode)) {
       categoryCode = "General";
@@ -411,6 +383,160 @@ public class ExerciseLibraryServiceImpl implements ExerciseLibraryService {
         });
   }
 
+  private ExerciseRepositoryCustom.ImportRow toImportRow(
+      CreateExerciseRequest dto,
+      Set<String> muscleCodes,
+      Map<String, String> equipmentCodes,
+      Map<String, String> categoryCodes,
+      ImportExerciseResponse result) {
+    String name = dto.getName() == null ? null : dto.getName().trim();
+    if (!StringUtils.hasText(name)) {
+      skipImportRow(result, null, "name is required");
+      return null;
+    }
+    String slug = generateSlug(name);
+    if (name.length() > 120 || slug.length() > 80) {
+      skipImportRow(result, name, "name is too long");
+      return null;
+    }
+
+    // 0 means the field was absent, which the column defaults to 2
+    int difficultyLevel = dto.getDifficultyLevel() == 0 ? 2 : dto.getDifficultyLevel();
+    if (difficultyLevel < 1 || difficultyLevel > 5) {
+      skipImportRow(result, name, "difficultyLevel must be between 1 and 5");
+      return null;
+    }
+
+    String exerciseType = null;
+    if (StringUtils.hasText(dto.getExerciseType())) {
+      try {
+        exerciseType = ExerciseType.valueOf(dto.getExerciseType().trim().toUpperCase()).name();
+      } catch (IllegalArgumentException e) {
+        skipImportRow(result, name, "unknown exercise type " + dto.getExerciseType());
+        return null;
+      }
+    }
+
+    Map<String, String> muscleRoles = new LinkedHashMap<>();
+    String primaryMuscle = null;
+    if (dto.getMuscles() != null) {
+      for (ExerciseMuscleRequest muscle : dto.getMuscles()) {
+        String code = muscle.getMuscleCode();
+        if (code == null || !muscleCodes.contains(code)) {
+          skipImportRow(result, name, "unknown muscle code " + code);
+          return null;
+        }
+        String role = muscle.getRole() == null ? "SECONDARY" : muscle.getRole().toUpperCase();
+        if (!IMPORT_MUSCLE_ROLES.contains(role)) {
+          skipImportRow(result, name, "unknown muscle role " + muscle.getRole());
+          return null;
+        }
+        // A muscle listed twice keeps its strongest role
+        muscleRoles.merge(
+            code,
+            role,
+            (current, next) ->
+                IMPORT_MUSCLE_ROLES.indexOf(current) <= IMPORT_MUSCLE_ROLES.indexOf(next)
+                    ? current
+                    : next);
+        if ("PRIMARY".equals(role) && primaryMuscle == null) {
+          primaryMuscle = code;
+        }
+      }
+    }
+
+    String bodyPart = dto.getBodyParts() == null ? null : String.join(", ", dto.getBodyParts());
+    if (bodyPart != null && bodyPart.length() > MAX_BODY_PART_LENGTH) {
+      skipImportRow(result, name, "bodyParts is too long");
+      return null;
+    }
+
+    String equipment = null;
+    if (StringUtils.hasText(dto.getEquipmentTypeCode())) {
+      equipment = resolveImportEquipment(dto.getEquipmentTypeCode().trim(), equipmentCodes);
+    }
+
+    return new ExerciseRepositoryCustom.ImportRow(
+        slug,
+        name,
+        difficultyLevel,
+        primaryMuscle,
+        equipment,
+        dto.getInstructions() == null ? null : dto.getInstructions().toString(),
+        dto.getSafetyNotes(),
+        dto.getThumbnailUrl(),
+        bodyPart,
+        resolveImportCategory(dto.getExerciseCategory(), categoryCodes),
+        exerciseType,
+        muscleRoles);
+  }
+
+  private void flushImportBatch(
+      Map<String, ExerciseRepositoryCustom.ImportRow> batch, ImportExerciseResponse result) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    List<ExerciseRepositoryCustom.UpsertedRow> upserted =
+        exerciseRepository.upsertAllBySlug(new ArrayList<>(batch.values()));
+
+    Map<UUID, Map<String, String>> muscles = new HashMap<>();
+    Map<UUID, String> equipments = new HashMap<>();
+    for (ExerciseRepositoryCustom.UpsertedRow exercise : upserted) {
+      ExerciseRepositoryCustom.ImportRow row = batch.remove(exercise.slug());
+      if (exercise.inserted()) {
+        result.setInsertedCount(result.getInsertedCount() + 1);
+      } else {
+        result.setUpdatedCount(result.getUpdatedCount() + 1);
+      }
+      muscles.put(exercise.id(), row.muscleRoles());
+      equipments.put(exercise.id(), row.equipment());
+    }
+    // Whatever was not returned matched a soft-deleted exercise, which an import must not revive
+    batch.values().forEach(row -> skipImportRow(result, row.name(), "exercise was deleted"));
+    batch.clear();
+
+    exerciseRepository.replaceMuscles(muscles);
+    exerciseRepository.replaceEquipments(equipments);
+  }
+
+  private void skipImportRow(ImportExerciseResponse result, String name, String reason) {
+    result.setSkippedCount(result.getSkippedCount() + 1);
+    if (result.getSkipped().size() < MAX_IMPORT_SKIPPED_REASONS) {
+      result.getSkipped().add(name == null ? reason : name + ": " + reason);
+    }
+  }
+
+  private String resolveImportEquipment(String code, Map<String, String> equipmentCodes) {
+    return equipmentCodes.computeIfAbsent(
+        code.toLowerCase(),
+        lower -> {
+          Equipment equipment = new Equipment();
+          equipment.setCode(lower);
+          equipment.setName(StringUtils.capitalize(lower));
+          // Flush now: the bulk upsert goes through JDBC and must see the new row
+          return equipmentRepository.saveAndFlush(equipment).getCode();
+        });
+  }
+
+  private String resolveImportCategory(String code, Map<String, String> categoryCodes) {
+    String categoryCode = StringUtils.hasText(code) ? code.trim() : "General";
+    return categoryCodes.computeIfAbsent(
+        categoryCode.toLowerCase(),
+        lower -> {
+          ExerciseCategory category = new ExerciseCategory();
+          category.setCode(categoryCode);
+          category.setName(StringUtils.capitalize(lower));
+          return exerciseCategoryRepository.saveAndFlush(category).getCode();
+        });
+  }
+
+  private static Map<String, String> codesByLowerCase(List<String> codes) {
+    Map<String, String> byLowerCase = new HashMap<>();
+    codes.forEach(code -> byLowerCase.putIfAbsent(code.toLowerCase(), code));
+    return byLowerCase;
+  }
+
   private String generateSlug(String name) {
     return name.trim().toLowerCase().replace(" ", "-");
   }
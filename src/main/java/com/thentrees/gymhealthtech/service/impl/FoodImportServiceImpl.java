@@ -0,0 +1,344 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static com.thentrees.gymhealthtech.constant.CacheConstant.FOOD_CACHE;
+import static com.thentrees.gymhealthtech.constant.S3Constant.S3_IMPORT_REPORT_FOLDER;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thentrees.gymhealthtech.dto.request.FoodRequest;
+import com.thentrees.gymhealthtech.dto.response.ImportFoodResponse;
+import com.thentrees.gymhealthtech.enums.ImportJobStatus;
+import com.thentrees.gymhealthtech.exception.BusinessException;
+import com.thentrees.gymhealthtech.exception.ResourceNotFoundException;
+import com.thentrees.gymhealthtech.mapper.FoodMapper;
+import com.thentrees.gymhealthtech.model.Food;
+import com.thentrees.gymhealthtech.repository.FoodRepository;
+import com.thentrees.gymhealthtech.service.FoodImportService;
+import com.thentrees.gymhealthtech.service.RedisService;
+import com.thentrees.gymhealthtech.service.TwoLevelCacheService;
+import com.thentrees.gymhealthtech.util.S3Util;
+import com.thentrees.gymhealthtech.util.XlsxRowReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.util.CellReference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+@Slf4j(topic = "FOOD-IMPORT-SERVICE")
+@Service
+@RequiredArgsConstructor
+public class FoodImportServiceImpl implements FoodImportService {
+
+  private static final String JOB_KEY_PREFIX = "import:food:";
+  private static final int MAX_INLINE_ERRORS = 20;
+
+  // Column layout of nutrition_data.xlsx
+  private static final int COL_FOOD_NAME_VI = 0;
+  private static final int COL_FOOD_NAME = 1;
+  private static final int COL_SERVING_WEIGHT = 2;
+  private static final int COL_CALORIES = 3;
+  private static final int COL_PROTEIN = 4;
+  private static final int COL_CARBS = 5;
+  private static final int COL_FAT = 6;
+  private static final int COL_IMAGE_URL = 7;
+  private static final int COL_MEAL_TIME = 8;
+  private static final int COL_VITAMIN_A = 9;
+  private static final int COL_VITAMIN_C = 10;
+  private static final int COL_VITAMIN_D = 11;
+  private static final int COL_CATEGORY = 12;
+  private static final int COL_FIBER = 13;
+  private static final int COL_DESCRIPTION = 14;
+  private static final int COL_DETAILED_BENEFITS = 15;
+  private static final int COL_COMMON_COMBINATIONS = 16;
+  private static final int COL_CONTRAINDICATIONS = 17;
+  private static final int COL_ALTERNATIVE_FOODS = 18;
+  private static final int COL_TAGS = 19;
+  private static final int COL_MEAL_TIME_OVERRIDE = 20;
+
+  private final FoodRepository foodRepository;
+  private final FoodMapper foodMapper;
+  private final RedisService redisService;
+  private final TwoLevelCacheService twoLevelCacheService;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final S3Util s3Util;
+  private final Executor importExecutor;
+
+  @Value("${app.import.food.batch-size:500}")
+  private int batchSize;
+
+  @Value("${app.import.job-ttl-hours:24}")
+  private long jobTtlHours;
+
+  @Override
+  public ImportFoodResponse startImport(MultipartFile file) throws IOException {
+    // The multipart temp file is removed when the request ends, so keep our own copy
+    Path workbook = Files.createTempFile("food-import-", ".xlsx");
+    file.transferTo(workbook);
+
+    ImportFoodResponse job =
+        ImportFoodResponse.builder()
+            .jobId(UUID.randomUUID())
+            .status(ImportJobStatus.PENDING)
+            .success(true)
+            .message("Import queued")
+            .processedRows(0)
+            .successCount(0)
+            .failCount(0)
+            .errors(new ArrayList<>())
+            .build();
+    saveJob(job);
+
+    try {
+      importExecutor.execute(() -> runImport(job, workbook));
+    } catch (RejectedExecutionException e) {
+      Files.deleteIfExists(workbook);
+      redisService.delete(jobKey(job.getJobId()));
+      throw new BusinessException("Too many imports in progress, please retry later");
+    }
+
+    log.info("Queued food import job {}", job.getJobId());
+    // The worker keeps mutating its own instance, hand the caller a snapshot
+    return job.toBuilder().errors(List.of()).build();
+  }
+
+  @Override
+  public ImportFoodResponse getImportStatus(UUID jobId) {
+    Object cached = redisService.get(jobKey(jobId));
+    if (cached == null) {
+      throw new ResourceNotFoundException("Import job", jobId.toString());
+    }
+    return objectMapper.convertValue(cached, ImportFoodResponse.class);
+  }
+
+  private void runImport(ImportFoodResponse job, Path workbook) {
+    job.setStatus(ImportJobStatus.RUNNING);
+    job.setStartedAt(LocalDateTime.now());
+    saveJob(job);
+
+    Path report = null;
+    try {
+      report = Files.createTempFile("food-import-errors-", ".csv");
+      try (BufferedWriter reportWriter = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+        reportWriter.write("row,food_name,error");
+        reportWriter.newLine();
+
+        ImportRun run = new ImportRun(job, reportWriter);
+        XlsxRowReader.read(workbook, run::onRow);
+        run.flush();
+      }
+
+      if (job.getFailCount() > 0) {
+        String key = s3Util.uploadFile(report, S3_IMPORT_REPORT_FOLDER, "text/csv");
+        job.setErrorReportUrl(s3Util.getFileUrl(key));
+      }
+      if (job.getSuccessCount() > 0) {
+        twoLevelCacheService.invalidate(FOOD_CACHE);
+      }
+
+      job.setStatus(ImportJobStatus.COMPLETED);
+      job.setTotalRows(job.getProcessedRows());
+      job.setMessage(
+          String.format(
+              "Imported %d/%d foods successfully", job.getSuccessCount(), job.getTotalRows()));
+      log.info(
+          "Food import {} completed: {} success, {} failed out of {} rows",
+          job.getJobId(),
+          job.getSuccessCount(),
+          job.getFailCount(),
+          job.getTotalRows());
+    } catch (Exception e) {
+      log.error("Food import {} failed", job.getJobId(), e);
+      job.setStatus(ImportJobStatus.FAILED);
+      job.setSuccess(false);
+      job.setMessage("Error reading file: " + e.getMessage());
+    } finally {
+      job.setFinishedAt(LocalDateTime.now());
+      saveJob(job);
+      deleteQuietly(workbook);
+      deleteQuietly(report);
+    }
+  }
+
+  private void saveJob(ImportFoodResponse job) {
+    redisService.set(jobKey(job.getJobId()), job, Duration.ofHours(jobTtlHours));
+  }
+
+  private String jobKey(UUID jobId) {
+    return JOB_KEY_PREFIX + jobId;
+  }
+
+  private void deleteQuietly(Path path) {
+    if (path == null) return;
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      log.warn("Could not delete temp file {}", path, e);
+    }
+  }
+
+  private static String naturalKey(String foodName) {
+    return foodName.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /** State of one import: the pending batch keyed on the natural key, plus counters. */
+  private final class ImportRun {
+
+    private final ImportFoodResponse job;
+    private final BufferedWriter reportWriter;
+    private final Map<String, PendingRow> batch = new LinkedHashMap<>();
+
+    private ImportRun(ImportFoodResponse job, BufferedWriter reportWriter) {
+      this.job = job;
+      this.reportWriter = reportWriter;
+    }
+
+    void onRow(int rowNum, List<String> cells) {
+      // Skip header row and blank rows
+      if (rowNum == 0 || cells.stream().allMatch(c -> c == null || c.isBlank())) {
+        return;
+      }
+      job.setProcessedRows(job.getProcessedRows() + 1);
+
+      List<String> errors = new ArrayList<>();
+      FoodRequest request = parseRow(cells, errors);
+      for (ConstraintViolation<FoodRequest> violation : validator.validate(request)) {
+        errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+      }
+      if (!errors.isEmpty()) {
+        recordError(rowNum, request.getFoodName(), String.join("; ", errors));
+        return;
+      }
+
+      Food food = foodMapper.toEntity(request);
+      food.setFoodName(food.getFoodName().trim());
+      // A name repeated inside the file keeps its last row, as a re-import would
+      PendingRow previous = batch.put(naturalKey(food.getFoodName()), new PendingRow(rowNum, food));
+      if (previous != null) {
+        job.setSuccessCount(job.getSuccessCount() + 1);
+      }
+      if (batch.size() >= batchSize) {
+        flush();
+      }
+    }
+
+    void flush() {
+      if (batch.isEmpty()) {
+        return;
+      }
+      List<PendingRow> rows = new ArrayList<>(batch.values());
+      batch.clear();
+      try {
+        foodRepository.upsertAllByFoodName(rows.stream().map(PendingRow::food).toList());
+        job.setSuccessCount(job.getSuccessCount() + rows.size());
+      } catch (DataAccessException e) {
+        // Upserts are idempotent, so replaying row by row isolates the bad rows safely
+        log.warn("Batch upsert failed, retrying {} rows one by one", rows.size());
+        for (PendingRow row : rows) {
+          try {
+            foodRepository.upsertAllByFoodName(List.of(row.food()));
+            job.setSuccessCount(job.getSuccessCount() + 1);
+          } catch (DataAccessException ex) {
+            recordError(row.rowNum(), row.food().getFoodName(), ex.getMostSpecificCause().getMessage());
+          }
+        }
+      }
+      saveJob(job);
+    }
+
+    private void recordError(int rowNum, String foodName, String message) {
+      job.setFailCount(job.getFailCount() + 1);
+      // Excel shows rows 1-based
+      String line = String.format("Row %d (%s): %s", rowNum + 1, foodName, message);
+      if (job.getErrors().size() < MAX_INLINE_ERRORS) {
+        job.getErrors().add(line);
+      }
+      try {
+        reportWriter.write(
+            String.join(",", String.valueOf(rowNum + 1), csv(foodName), csv(message)));
+        reportWriter.newLine();
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not write import error report", e);
+      }
+    }
+  }
+
+  private record PendingRow(int rowNum, Food food) {}
+
+  private FoodRequest parseRow(List<String> cells, List<String> errors) {
+    FoodRequest food = new FoodRequest();
+
+    food.setFoodNameVi(text(cells, COL_FOOD_NAME_VI));
+    food.setFoodName(text(cells, COL_FOOD_NAME));
+    food.setServingWeightGrams(decimal(cells, COL_SERVING_WEIGHT, errors));
+    food.setCalories(decimal(cells, COL_CALORIES, errors));
+    food.setProtein(decimal(cells, COL_PROTEIN, errors));
+    food.setCarbs(decimal(cells, COL_CARBS, errors));
+    food.setFat(decimal(cells, COL_FAT, errors));
+    food.setImageUrl(text(cells, COL_IMAGE_URL));
+    food.setVitaminA(decimal(cells, COL_VITAMIN_A, errors));
+    food.setVitaminC(decimal(cells, COL_VITAMIN_C, errors));
+    food.setVitaminD(decimal(cells, COL_VITAMIN_D, errors));
+    food.setCategory(text(cells, COL_CATEGORY));
+    food.setFiber(decimal(cells, COL_FIBER, errors));
+    food.setDescription(text(cells, COL_DESCRIPTION));
+    food.setDetailedBenefits(text(cells, COL_DETAILED_BENEFITS));
+    food.setCommonCombinations(text(cells, COL_COMMON_COMBINATIONS));
+    food.setContraindications(text(cells, COL_CONTRAINDICATIONS));
+    food.setAlternativeFoods(text(cells, COL_ALTERNATIVE_FOODS));
+    food.setTags(text(cells, COL_TAGS));
+    // Column U overrides column I when both are filled
+    String mealTime = text(cells, COL_MEAL_TIME_OVERRIDE);
+    food.setMealTime(mealTime != null ? mealTime : text(cells, COL_MEAL_TIME));
+
+    // NOT NULL columns that FoodRequest does not validate
+    if (food.getServingWeightGrams() == null) errors.add("servingWeightGrams: is required");
+    if (food.getCalories() == null) errors.add("calories: is required");
+    if (food.getMealTime() == null) errors.add("mealTime: is required");
+
+    return food;
+  }
+
+  private static String text(List<String> cells, int column) {
+    if (column >= cells.size()) return null;
+    String value = cells.get(column);
+    return value == null || value.isBlank() ? null : value.trim();
+  }
+
+  private static BigDecimal decimal(List<String> cells, int column, List<String> errors) {
+    String value = text(cells, column);
+    if (value == null) return null;
+    try {
+      return new BigDecimal(value.replace(",", ""));
+    } catch (NumberFormatException e) {
+      errors.add(
+          String.format(
+              "column %s: '%s' is not a number", CellReference.convertNumToColString(column), value));
+      return null;
+    }
+  }
+
+  private static String csv(String value) {
+    if (value == null) return "";
+    return "\"" + value.replace("\"", "\"\"") + "\"";
+  }
+}
@@ -1,12 +1,10 @@
 package com.thentrees.gymhealthtech.service.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.thentrees.gymhealthtech.dto.request.FoodImportRequest;
 import com.thentrees.gymhealthtech.dto.request.FoodRequest;
 import com.thentrees.gymhealthtech.dto.response.ExerciseListResponse;
 import com.thentrees.gymhealthtech.dto.response.FoodResponse;
-import com.thentrees.gymhealthtech.dto.response.ImportFoodResponse;
 import com.thentrees.gymhealthtech.dto.response.PagedResponse;
 import com.thentrees.gymhealthtech.enums.UserRole;
 import com.thentrees.gymhealthtech.exception.BusinessException;
@@ -17,32 +15,29 @@ import com.thentrees.gymhealthtech.model.User;
 import com.thentrees.gymhealthtech.model.UserProfile;
 import com.thentrees.gymhealthtech.repository.FoodRepository;
 import com.thentrees.gymhealthtech.service.FoodService;
-import java.io.IOException;
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
-import com.thentrees.gymhealthtech.service.RedisService;
+import com.thentrees.gymhealthtech.service.TwoLevelCacheService;
 import com.thentrees.gymhealthtech.util.CacheKeyUtils;
 import com.thentrees.gymhealthtech.util.FileValidator;
 import com.thentrees.gymhealthtech.util.S3Util;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import static com.thentrees.gymhealthtech.constant.CacheConstant.FOOD_CACHE;
 import static com.thentrees.gymhealthtech.constant.S3Constant.S3_AVATAR_FOLDER;
 import static com.thentrees.gymhealthtech.constant.S3Constant.S3_FOOD_IMAGE_FOLDER;
 
@@ -56,113 +51,70 @@ public class FoodServiceImpl implements FoodService {
   private final FileValidator fileValidator;
   private final S3Util s3Util;
   private final CacheKeyUtils cacheKeyUtils;
-  private final RedisService redisService;
-  private final ObjectMapper objectMapper;
+  private final TwoLevelCacheService twoLevelCacheService;
 
-  public List<FoodRequest> parseExcel(MultipartFile file) throws IOException {
-    List<FoodRequest> foods = new ArrayList<>();
-
-    try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-      Sheet sheet = workbook.getSheetAt(0);
-
-      // Skip header row
-      for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-        Row row = sheet.getRow(i);
-        if (row == null) continue;
-
-        try {
-          FoodRequest food = parseRow(row);
-          foods.add(food);
-        } catch (Exception e) {
-          log.error("Error parsing row {}: {}", i, e.getMessage());
-        }
-      }
-    }
-
-    log.info("Parsed {} foods from Excel", foods.size());
-    return foods;
-  }
-
-  @Transactional
-  @Override
-  public ImportFoodResponse importDataFood(MultipartFile file) throws IOException {
-
-    redisService.deletePattern("food:*");
-
-    // Parse Excel
-    List<FoodRequest> dtos = parseExcel(file);
-
-    int successCount = 0;
-    int failCount = 0;
-    List<String> errors = new ArrayList<>();
-
-    for (FoodRequest dto : dtos) {
-      try {
-        Food food = mapToEntity(dto);
-        foodRepository.save(food);
-        successCount++;
-
-        log.debug("Imported: {}", dto.getFoodName());
-      } catch (Exception e) {
-        failCount++;
-        errors.add(String.format("%s: %s", dto.getFoodName(), e.getMessage()));
-        log.error("Failed to import {}: {}", dto.getFoodName(), e.getMessage());
-      }
-    }
-
-    return ImportFoodResponse.builder()
-        .totalRows(dtos.size())
-        .successCount(successCount)
-        .failCount(failCount)
-        .errors(errors)
-        .build();
-  }
+  @Value("${app.cache.food-search-ttl-minutes:10}")
+  private long searchCacheTtlMinutes;
 
   @Override
-  public PagedResponse<FoodResponse> getAllFoods(String keyword, Pageable pageable) {
-    String normalizedKeyword = (keyword == null) ? "" : keyword.trim().toLowerCase();
+  public PagedResponse<FoodResponse> getAllFoods(
+      String keyword, List<String> tags, Pageable pageable) {
+    // LIKE wildcards typed by the user would otherwise match everything
+    String normalizedKeyword =
+        keyword == null ? "" : keyword.trim().toLowerCase().replaceAll("[%_\\\\]", "");
+    List<String> normalizedTags =
+        tags == null
+            ? List.of()
+            : tags.stream()
+                .filter(StringUtils::hasText)
+                .map(tag -> tag.trim().toLowerCase())
+                .distinct()
+                .sorted()
+                .toList();
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
     User user = (User) authentication.getPrincipal();
-    String cacheKey = "";
-    if (user.getRole() == UserRole.USER) {
-       cacheKey = cacheKeyUtils.buildKey("food:search:user:", normalizedKeyword);
-    }else {
-       cacheKey = cacheKeyUtils.buildKey("food:search:admin:", normalizedKeyword);
-    }
-    // Check cache
-    Object cached = redisService.get(cacheKey);
-    if (cached != null) {
-      PagedResponse<FoodResponse> cachedResponse =
-        objectMapper.convertValue(cached, new TypeReference<>() {});
-      if (cachedResponse != null) {
-        log.debug("Cache HIT for key: {}", cacheKey);
-        return cachedResponse;
-      }
-    }
+    boolean activeOnly = user.getRole() == UserRole.USER;
+
+    // Every parameter that changes the result is part of the key, including the page
+    String cacheKey =
+        cacheKeyUtils.buildKey(
+            activeOnly ? "search:user:" : "search:admin:",
+            new FoodSearchCacheKey(
+                normalizedKeyword,
+                normalizedTags,
+                pageable.getPageNumber(),
+                pageable.getPageSize(),
+                pageable.getSort().toString()));
+    return twoLevelCacheService.get(
+        FOOD_CACHE,
+        cacheKey,
+        new TypeReference<>() {},
+        Duration.ofMinutes(searchCacheTtlMinutes),
+        () -> searchFoods(normalizedKeyword, normalizedTags, activeOnly, pageable));
+  }
+
+  private PagedResponse<FoodResponse> searchFoods(
+      String normalizedKeyword, List<String> normalizedTags, boolean activeOnly, Pageable pageable) {
+    // Keyword results are ordered by similarity, so the request sort only applies without one
+    Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+    String tagsParam = normalizedTags.isEmpty() ? null : toTextArrayLiteral(normalizedTags);
     Page<Food> foodsPage;
-    if (user.getRole() == UserRole.USER) {
-      foodsPage = normalizedKeyword.isEmpty()
-        ? foodRepository.findAllByIsActiveTrue(pageable)
-        : foodRepository.findAllByFoodNameVi(normalizedKeyword, pageable);
-    }else{
-      foodsPage = normalizedKeyword.isEmpty()
-        ? foodRepository.findAll(pageable)
-        : foodRepository.findAllWithFoodNameVi(normalizedKeyword, pageable);
+    if (!normalizedKeyword.isEmpty()) {
+      foodsPage = foodRepository.searchByName(normalizedKeyword, tagsParam, activeOnly, unsorted);
+    } else if (tagsParam != null) {
+      foodsPage = foodRepository.findByAnyTag(tagsParam, activeOnly, unsorted);
+    } else {
+      foodsPage =
+          activeOnly
+              ? foodRepository.findAllByIsActiveTrue(pageable)
+              : foodRepository.findAll(pageable);
     }
 
-    Page<FoodResponse> foodResponses = foodsPage.map(foodMapper::toResponse);
-    PagedResponse<FoodResponse> response = PagedResponse.of(foodResponses);
-
-    // Cache result
-    redisService.set(cacheKey, response);
-    log.debug("Cache SET for key: {}", cacheKey);
-
-    return response;
+    return PagedResponse.of(foodsPage.map(foodMapper::toResponse));
   }
 
   @Override
   public FoodResponse createFood(FoodRequest request, MultipartFile file) {
-    redisService.deletePattern("food:*");
     fileValidator.validateImage(file);
     String fileUrl = null;
     try {
@@ -172,9 +124,10 @@ public class FoodServiceImpl implements FoodService {
       if (fileUrl != null) s3Util.deleteFileByUrl(fileUrl);
       throw new BusinessException("Failed to upload food image", e.getMessage());
     }
-    Food food = mapToEntity(request);
+    Food food = foodMapper.toEntity(request);
     food.setImageUrl(fileUrl);
     Food savedFood = foodRepository.save(food);
+    twoLevelCacheService.invalidate(FOOD_CACHE);
     return foodMapper.toResponse(savedFood);
   }
 
@@ -190,31 +143,26 @@ public class FoodServiceImpl implements FoodService {
   @Transactional
   @Override
   public void updateFood(UUID foodId, FoodRequest request) {
-
-    redisService.deletePattern("food:*");
-
     Food existingFood =
         foodRepository
             .findByIdAndIsActiveTrue(foodId)
             .orElseThrow(() -> new ResourceNotFoundException("Food", foodId.toString()));
     foodMapper.updateFoodFromRequest(request, existingFood);
+    twoLevelCacheService.invalidate(FOOD_CACHE);
   }
 
   @Override
   public void deleteFoodById(UUID foodId) {
-    redisService.deletePattern("food:*");
     Food existsFood = foodRepository.findByIdAndIsActiveTrue(foodId).orElseThrow(() -> new ResourceNotFoundException("Food", foodId.toString()));
     existsFood.markAsDeleted();
     existsFood.setIsActive(false);
     foodRepository.save(existsFood);
+    twoLevelCacheService.invalidate(FOOD_CACHE);
     log.info("Deleted food has ID: {}", foodId);
   }
 
   @Override
   public String uploadImage(UUID foodId, MultipartFile file) {
-
-    redisService.deletePattern("food:*");
-
     Food food = foodRepository.findByIdAndIsActiveTrue(foodId)
       .orElseThrow(() -> new ResourceNotFoundException("Food", foodId.toString()));
 
@@ -224,6 +172,7 @@ public class FoodServiceImpl implements FoodService {
       fileUrl = s3Util.uploadFile(file, S3_FOOD_IMAGE_FOLDER);
       food.setImageUrl(fileUrl);
       foodRepository.save(food);
+      twoLevelCacheService.invalidate(FOOD_CACHE);
       return fileUrl;
     } catch (Exception e) {
       log.error("Error uploading profile image", e);
@@ -240,129 +189,16 @@ public class FoodServiceImpl implements FoodService {
     food.setIsActive(true);
     food.restore();
     foodRepository.save(food);
-    redisService.deletePattern("food:*");
-  }
-
-
-  private Food mapToEntity(FoodRequest dto) {
-    Food food = new Food();
-
-    // Basic info
-    food.setFoodName(dto.getFoodName());
-    food.setFoodNameVi(dto.getFoodNameVi());
-    food.setDescription(dto.getDescription());
-
-    // Nutrition
-    food.setServingWeightGrams(dto.getServingWeightGrams());
-    food.setCalories(dto.getCalories());
-    food.setProtein(dto.getProtein());
-    food.setCarbs(dto.getCarbs());
-    food.setFat(dto.getFat());
-    food.setFiber(dto.getFiber());
-
-    // Vitamins
-    food.setVitaminA(dto.getVitaminA());
-    food.setVitaminC(dto.getVitaminC());
-    food.setVitaminD(dto.getVitaminD());
-
-    // Classification
-    food.setCategory(dto.getCategory());
-    food.setMealTime(dto.getMealTime());
-    food.setImageUrl(dto.getImageUrl());
-
-    // Tags
-    food.setTags(Collections.singletonList(dto.getTags()));
-
-    // Metadata - Store additional info in JSONB or separate fields
-    // For now, put in description
-    String enhancedDesc = buildEnhancedDescription(dto);
-    food.setDescription(enhancedDesc);
-    // Detailed Information (NEW)
-    food.setDetailedBenefits(dto.getDetailedBenefits());
-    food.setCommonCombinations(dto.getCommonCombinations());
-    food.setContraindications(dto.getContraindications());
-    food.setAlternativeFoods(dto.getAlternativeFoods());
-
-    food.setIsActive(true);
-
-    return food;
-  }
-
-  private FoodRequest parseRow(Row row) {
-    FoodRequest food = new FoodRequest();
-
-    // Column mapping từ Excel
-    food.setFoodNameVi(getCellValueAsString(row, 0)); // A
-    food.setFoodName(getCellValueAsString(row, 1)); // B
-    food.setServingWeightGrams(getCellValueAsBigDecimal(row, 2)); // C
-    food.setCalories(getCellValueAsBigDecimal(row, 3)); // D
-    food.setProtein(getCellValueAsBigDecimal(row, 4)); // E
-    food.setCarbs(getCellValueAsBigDecimal(row, 5)); // F
-    food.setFat(getCellValueAsBigDecimal(row, 6)); // G
-    food.setImageUrl(getCellValueAsString(row, 7)); // H
-    food.setMealTime(getCellValueAsString(row, 8)); // I
-    food.setVitaminA(getCellValueAsBigDecimal(row, 9)); // J
-    food.setVitaminC(getCellValueAsBigDecimal(row, 10)); // K
-    food.setVitaminD(getCellValueAsBigDecimal(row, 11)); // L
-    food.setCategory(getCellValueAsString(row, 12)); // M
-    food.setFiber(getCellValueAsBigDecimal(row, 13)); // N
-    food.setDescription(getCellValueAsString(row, 14)); // O
-    food.setDetailedBenefits(getCellValueAsString(row, 15)); // P
-    food.setCommonCombinations(getCellValueAsString(row, 16)); // R
-    food.setContraindications(getCellValueAsString(row, 17)); // S
-    food.setAlternativeFoods(getCellValueAsString(row, 18)); // T
-    food.setTags(getCellValueAsString(row, 19)); // U
-    food.setMealTime(getCellValueAsString(row, 20)); // U
-
-    return food;
-  }
-
-  private String buildEnhancedDescription(FoodRequest dto) {
-    StringBuilder sb = new StringBuilder();
-
-    if (dto.getDescription() != null) {
-      sb.append(dto.getDescription()).append("\n\n");
-    }
-
-    if (dto.getDetailedBenefits() != null) {
-      sb.append("Lợi ích: ").append(dto.getDetailedBenefits()).append("\n\n");
-    }
-
-    if (dto.getCommonCombinations() != null) {
-      sb.append("Kết hợp với: ").append(dto.getCommonCombinations()).append("\n\n");
-    }
-
-    if (dto.getContraindications() != null) {
-      sb.append("Lưu ý: ").append(dto.getContraindications());
-    }
-
-    return sb.toString().trim();
+    twoLevelCacheService.invalidate(FOOD_CACHE);
   }
 
-  private String getCellValueAsString(Row row, int cellIndex) {
-    Cell cell = row.getCell(cellIndex);
-    if (cell == null) return null;
-
-    return switch (cell.getCellType()) {
-      case STRING -> cell.getStringCellValue();
-      case NUMERIC -> String.valueOf((int) cell.getNumericCellValue());
-      case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-      default -> null;
-    };
+  // PostgreSQL array literal, each element quoted so spaces and commas inside tags survive
+  private static String toTextArrayLiteral(List<String> values) {
+    return values.stream()
+        .map(value -> "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"")
+        .collect(Collectors.joining(",", "{", "}"));
   }
 
-  private BigDecimal getCellValueAsBigDecimal(Row row, int cellIndex) {
-    Cell cell = row.getCell(cellIndex);
-    if (cell == null) return null;
-
-    try {
-      return switch (cell.getCellType()) {
-        case NUMERIC -> BigDecimal.valueOf(cell.getNumericCellValue());
-        case STRING -> new BigDecimal(cell.getStringCellValue());
-        default -> null;
-      };
-    } catch (Exception e) {
-      return null;
-    }
-  }
+  private record FoodSearchCacheKey(
+      String keyword, List<String> tags, int page, int size, String sort) {}
 }
@@ -4,11 +4,13 @@ import com.thentrees.gymhealthtech.model.User;
 import com.thentrees.gymhealthtech.service.JwtService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import java.security.Key;
+import jakarta.annotation.PostConstruct;
+import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -33,6 +35,17 @@ public class JwtServiceImpl implements JwtService {
   @Value("${app.jwt.refresh-expiration:604800000}") // 7 days default
   private long refreshExpiration;
 
+  // Built once at startup: decoding the secret and building the parser on every call is wasted work
+  private SecretKey signInKey;
+  private JwtParser jwtParser;
+
+  @PostConstruct
+  void init() {
+    byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
+    this.signInKey = Keys.hmacShaKeyFor(keyBytes);
+    this.jwtParser = Jwts.parser().setSigningKey(signInKey).build();
+  }
+
   public String extractUsername(String token) {
     return extractClaim(token, Claims::getSubject);
   }
@@ -42,6 +55,11 @@ public class JwtServiceImpl implements JwtService {
     return claimsResolver.apply(claims);
   }
 
+  @Override
+  public Claims parseClaims(String token) {
+    return extractAllClaims(token);
+  }
+
   public String generateToken(UserDetails userDetails) {
     return generateToken(new HashMap<>(), userDetails);
   }
@@ -72,7 +90,7 @@ public class JwtServiceImpl implements JwtService {
           .setSubject(user.getEmail())
           .setIssuedAt(new Date())
           .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-          .signWith(getSignInKey(), SignatureAlgorithm.HS256) // ✅ Key trước, alg sau
+          .signWith(signInKey, SignatureAlgorithm.HS256) // ✅ Key trước, alg sau
           .compact();
     } catch (Exception e) {
       log.error("Error generating token for user {}: {}", user.getEmail(), e.getMessage());
@@ -87,58 +105,63 @@ public class JwtServiceImpl implements JwtService {
         .setSubject(userDetails.getUsername())
         .setIssuedAt(new Date())
         .setExpiration(new Date(System.currentTimeMillis() + expiration))
-        .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+        .signWith(signInKey, SignatureAlgorithm.HS256)
         .compact();
   }
 
   public boolean isTokenValid(String token, UserDetails userDetails) {
-    final String username = extractUsername(token);
-    return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    try {
+      return isTokenValid(extractAllClaims(token), userDetails);
+    } catch (JwtException e) {
+      log.error("Invalid JWT token: {}", e.getMessage());
+      return false;
+    }
   }
 
   public boolean isTokenValid(String token) {
     try {
-      extractAllClaims(token);
-      return !isTokenExpired(token);
+      return !isExpired(extractAllClaims(token));
     } catch (JwtException | IllegalArgumentException e) {
       log.error("Invalid JWT token: {}", e.getMessage());
       return false;
     }
   }
 
+  @Override
+  public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+    String username = claims.getSubject();
+    return username != null && username.equals(userDetails.getUsername()) && !isExpired(claims);
+  }
+
   @Override
   public UUID extractUserId(String token) {
     try {
-      Claims claims = extractAllClaims(token);
-      String userIdStr = claims.get("userId", String.class);
-      if (userIdStr != null) {
-        return UUID.fromString(userIdStr);
-      }
+      return extractUserId(extractAllClaims(token));
     } catch (Exception e) {
       log.error("Error extracting userId from token: {}", e.getMessage());
     }
     return null;
   }
 
-  private boolean isTokenExpired(String token) {
+  @Override
+  public UUID extractUserId(Claims claims) {
     try {
-      return extractExpiration(token).before(new Date());
-    } catch (JwtException e) {
-      log.error("Error checking token expiration: {}", e.getMessage());
-      return true;
+      String userIdStr = claims.get("userId", String.class);
+      if (userIdStr != null) {
+        return UUID.fromString(userIdStr);
+      }
+    } catch (Exception e) {
+      log.error("Error extracting userId from claims: {}", e.getMessage());
     }
+    return null;
   }
 
-  private Date extractExpiration(String token) {
-    return extractClaim(token, Claims::getExpiration);
+  private boolean isExpired(Claims claims) {
+    Date expiration = claims.getExpiration();
+    return expiration == null || expiration.before(new Date());
   }
 
   private Claims extractAllClaims(String token) {
-    return Jwts.parser().setSigningKey(getSignInKey()).build().parseClaimsJws(token).getBody();
-  }
-
-  private Key getSignInKey() {
-    byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-    return Keys.hmacShaKeyFor(keyBytes);
+    return jwtParser.parseClaimsJws(token).getBody();
   }
 }
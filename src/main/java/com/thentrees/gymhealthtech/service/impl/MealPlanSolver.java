@@ -0,0 +1,322 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import com.thentrees.gymhealthtech.model.Food;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Picks the portions of one day's meals, one meal at a time. Starting from an empty meal, each
+ * round applies the single move that most lowers the cost: add a portion, resize or swap one, or
+ * drop one. It stops when no move helps or after a bounded number of rounds, and is repeated from
+ * a few promising first portions to get out of local optima. The cost is the weighted squared
+ * relative error against the meal's targets plus small penalties for foods eaten recently and for
+ * repeating a category within the meal.
+ *
+ * <p>Not thread-safe; use one instance per plan.
+ */
+final class MealPlanSolver {
+
+  static final double[] SERVING_STEPS = {0.5, 1, 1.5, 2, 2.5, 3};
+  static final int MAX_PORTIONS = 3;
+  private static final int MAX_ROUNDS = 24;
+  private static final int RESTARTS = 4;
+
+  // Calories matter most; floors keep small targets from dominating the relative error
+  private static final double[] WEIGHTS = {4, 2, 1, 1};
+  private static final double[] FLOORS = {100, 10, 10, 5};
+
+  private static final double RECENT_PENALTY = 0.15;
+  private static final double SAME_CATEGORY_PENALTY = 0.05;
+  // Seeded by user and day so near-equal choices vary between days but not between retries
+  private static final double TIE_BREAK_RANGE = 0.02;
+
+  private final List<FoodOption> foods;
+  private final Map<UUID, Double> penalties = new HashMap<>();
+  private final Set<UUID> usedToday = new HashSet<>();
+
+  // The meal without the portion a move changes; reused so evaluating a move allocates nothing
+  private final double[] rest = new double[4];
+  private double restPenalty;
+
+  MealPlanSolver(List<FoodOption> foods, Set<UUID> recent, int seed) {
+    this.foods = foods;
+    for (FoodOption food : foods) {
+      double tieBreak = (Objects.hash(food.id(), seed) & 0xffff) / 65535.0 * TIE_BREAK_RANGE;
+      penalties.put(food.id(), tieBreak + (recent.contains(food.id()) ? RECENT_PENALTY : 0));
+    }
+  }
+
+  /**
+   * Portions for the meal served at {@code mealCode}, aiming at {@code target} (calories, protein,
+   * carbs and fat). A food is used at most once per day across all meals of this solver.
+   */
+  List<Portion> solveMeal(String mealCode, double[] target) {
+    List<FoodOption> candidates =
+        foods.stream()
+            .filter(food -> !usedToday.contains(food.id()) && food.mealTimes().contains(mealCode))
+            .toList();
+    if (candidates.isEmpty()) {
+      candidates = foods.stream().filter(food -> !usedToday.contains(food.id())).toList();
+    }
+
+    List<Portion> best = search(new ArrayList<>(), candidates, target);
+    double bestCost = mealCost(best, target);
+    // Single moves can stall in a local optimum, so also search from other promising first foods
+    for (Portion start : bestStarts(candidates, target)) {
+      List<Portion> portions = search(new ArrayList<>(List.of(start)), candidates, target);
+      double cost = mealCost(portions, target);
+      if (cost < bestCost) {
+        best = portions;
+        bestCost = cost;
+      }
+    }
+    best.forEach(portion -> usedToday.add(portion.food().id()));
+    return best;
+  }
+
+  private List<Portion> search(
+      List<Portion> portions, List<FoodOption> candidates, double[] target) {
+    for (int round = 0; round < MAX_ROUNDS; round++) {
+      if (!applyBestMove(portions, candidates, target)) {
+        break;
+      }
+    }
+    return portions;
+  }
+
+  /** The best single portions of {@code RESTARTS} different foods, best first. */
+  private List<Portion> bestStarts(List<FoodOption> candidates, double[] target) {
+    exclude(List.of(), -1);
+    Portion[] starts = new Portion[RESTARTS];
+    double[] costs = new double[RESTARTS];
+    Arrays.fill(costs, Double.MAX_VALUE);
+    for (FoodOption food : candidates) {
+      double foodPenalty = penalties.getOrDefault(food.id(), 0.0);
+      double bestCost = Double.MAX_VALUE;
+      double bestServings = 0;
+      for (double servings : SERVING_STEPS) {
+        double cost = cost(food, servings, foodPenalty, target);
+        if (cost < bestCost) {
+          bestCost = cost;
+          bestServings = servings;
+        }
+      }
+      // Insertion into the short sorted array
+      for (int k = 0; k < RESTARTS; k++) {
+        if (bestCost < costs[k]) {
+          System.arraycopy(costs, k, costs, k + 1, RESTARTS - k - 1);
+          System.arraycopy(starts, k, starts, k + 1, RESTARTS - k - 1);
+          costs[k] = bestCost;
+          starts[k] = new Portion(food, bestServings);
+          break;
+        }
+      }
+    }
+    return Arrays.stream(starts).filter(Objects::nonNull).toList();
+  }
+
+  private double mealCost(List<Portion> portions, double[] target) {
+    exclude(portions, -1);
+    return cost(null, 0, 0, target);
+  }
+
+  private boolean applyBestMove(
+      List<Portion> portions, List<FoodOption> candidates, double[] target) {
+    int size = portions.size();
+    exclude(portions, -1);
+    double best = cost(null, 0, 0, target);
+    int bestIndex = -1;
+    FoodOption bestFood = null;
+    double bestServings = 0;
+
+    // Index i replaces or drops portion i; index size appends a new one
+    int lastIndex = size < MAX_PORTIONS ? size : size - 1;
+    for (int i = 0; i <= lastIndex; i++) {
+      exclude(portions, i);
+      Portion current = i < size ? portions.get(i) : null;
+      if (current != null && size > 1) {
+        double cost = cost(null, 0, 0, target);
+        if (cost < best) {
+          best = cost;
+          bestIndex = i;
+          bestFood = null;
+        }
+      }
+      for (FoodOption food : candidates) {
+        if (inMeal(portions, food, i)) {
+          continue;
+        }
+        double foodPenalty = foodPenalty(portions, food, i);
+        for (double servings : SERVING_STEPS) {
+          if (current != null && current.food() == food && current.servings() == servings) {
+            continue;
+          }
+          double cost = cost(food, servings, foodPenalty, target);
+          if (cost < best) {
+            best = cost;
+            bestIndex = i;
+            bestFood = food;
+            bestServings = servings;
+          }
+        }
+      }
+    }
+
+    if (bestIndex < 0) {
+      return false;
+    }
+    if (bestFood == null) {
+      portions.remove(bestIndex);
+    } else if (bestIndex == size) {
+      portions.add(new Portion(bestFood, bestServings));
+    } else {
+      portions.set(bestIndex, new Portion(bestFood, bestServings));
+    }
+    return true;
+  }
+
+  /** Loads the totals and penalty of the meal without portion {@code skip} into the rest fields. */
+  private void exclude(List<Portion> portions, int skip) {
+    Arrays.fill(rest, 0);
+    restPenalty = 0;
+    for (int i = 0; i < portions.size(); i++) {
+      if (i == skip) {
+        continue;
+      }
+      Portion portion = portions.get(i);
+      for (int m = 0; m < rest.length; m++) {
+        rest[m] += portion.amount(m);
+      }
+      restPenalty += penalties.getOrDefault(portion.food().id(), 0.0);
+      if (sameCategoryBefore(portions, portion.food().category(), i, skip)) {
+        restPenalty += SAME_CATEGORY_PENALTY;
+      }
+    }
+  }
+
+  private double foodPenalty(List<Portion> portions, FoodOption food, int skip) {
+    double penalty = penalties.getOrDefault(food.id(), 0.0);
+    if (sameCategoryBefore(portions, food.category(), portions.size(), skip)) {
+      penalty += SAME_CATEGORY_PENALTY;
+    }
+    return penalty;
+  }
+
+  /** Cost of the rest of the meal plus {@code servings} of {@code food}, or nothing if null. */
+  private double cost(FoodOption food, double servings, double foodPenalty, double[] target) {
+    double error = 0;
+    for (int m = 0; m < rest.length; m++) {
+      double total = food == null ? rest[m] : rest[m] + food.macro(m) * servings;
+      double relative = (total - target[m]) / Math.max(target[m], FLOORS[m]);
+      error += WEIGHTS[m] * relative * relative;
+    }
+    return error + restPenalty + foodPenalty;
+  }
+
+  private static boolean sameCategoryBefore(
+      List<Portion> portions, String category, int before, int skip) {
+    if (category == null) {
+      return false;
+    }
+    for (int i = 0; i < before && i < portions.size(); i++) {
+      if (i != skip && category.equals(portions.get(i).food().category())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean inMeal(List<Portion> portions, FoodOption food, int skip) {
+    for (int i = 0; i < portions.size(); i++) {
+      if (i != skip && portions.get(i).food().id().equals(food.id())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** The per-serving facts the planner needs, small enough to cache for the whole catalog. */
+  record FoodOption(
+      UUID id,
+      String name,
+      String nameVi,
+      String description,
+      String commonCombinations,
+      String category,
+      String imageUrl,
+      String benefits,
+      String contraindications,
+      List<String> mealTimes,
+      List<String> tags,
+      double calories,
+      double protein,
+      double carbs,
+      double fat,
+      double fiber) {
+
+    static FoodOption of(Food food) {
+      List<String> mealTimes = new ArrayList<>();
+      if (food.getMealTime() != null) {
+        for (String code : food.getMealTime().split(",")) {
+          if (!code.isBlank()) {
+            mealTimes.add(normalize(code));
+          }
+        }
+      }
+      List<String> tags =
+          food.getTags() == null
+              ? List.of()
+              : food.getTags().stream().map(MealPlanSolver::normalize).toList();
+      return new FoodOption(
+          food.getId(),
+          food.getFoodName(),
+          food.getFoodNameVi(),
+          food.getDescription(),
+          food.getCommonCombinations(),
+          food.getCategory(),
+          food.getImageUrl(),
+          food.getDetailedBenefits(),
+          food.getContraindications(),
+          mealTimes,
+          tags,
+          orZero(food.getCalories()),
+          orZero(food.getProtein()),
+          orZero(food.getCarbs()),
+          orZero(food.getFat()),
+          orZero(food.getFiber()));
+    }
+
+    /** Calories, protein, carbs or fat per serving, by index 0-3. */
+    double macro(int index) {
+      return switch (index) {
+        case 0 -> calories;
+        case 1 -> protein;
+        case 2 -> carbs;
+        default -> fat;
+      };
+    }
+  }
+
+  record Portion(FoodOption food, double servings) {
+    double amount(int index) {
+      return food.macro(index) * servings;
+    }
+  }
+
+  static String normalize(String value) {
+    return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static double orZero(BigDecimal value) {
+    return value == null ? 0 : value.doubleValue();
+  }
+}
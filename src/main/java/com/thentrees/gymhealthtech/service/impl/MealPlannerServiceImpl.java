@@ -0,0 +1,444 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static com.thentrees.gymhealthtech.constant.CacheConstant.FOOD_CACHE;
+import static com.thentrees.gymhealthtech.service.impl.MealPlanSolver.normalize;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.thentrees.gymhealthtech.dto.response.GeneratorMealPlanResponse;
+import com.thentrees.gymhealthtech.dto.response.GeneratorMealPlanResponse.MealData;
+import com.thentrees.gymhealthtech.enums.GenderType;
+import com.thentrees.gymhealthtech.enums.GoalStatus;
+import com.thentrees.gymhealthtech.enums.ObjectiveType;
+import com.thentrees.gymhealthtech.enums.PlanStatusType;
+import com.thentrees.gymhealthtech.exception.PlanGenerationException;
+import com.thentrees.gymhealthtech.model.Goal;
+import com.thentrees.gymhealthtech.model.MealPlan;
+import com.thentrees.gymhealthtech.model.MealPlanItem;
+import com.thentrees.gymhealthtech.model.MealTime;
+import com.thentrees.gymhealthtech.model.UserProfile;
+import com.thentrees.gymhealthtech.repository.FoodRepository;
+import com.thentrees.gymhealthtech.repository.GoalRepository;
+import com.thentrees.gymhealthtech.repository.MealPlanItemRepository;
+import com.thentrees.gymhealthtech.repository.MealPlanRepository;
+import com.thentrees.gymhealthtech.repository.MealTimeRepository;
+import com.thentrees.gymhealthtech.repository.PlanDayRepository;
+import com.thentrees.gymhealthtech.repository.UserProfileRepository;
+import com.thentrees.gymhealthtech.repository.UserRepository;
+import com.thentrees.gymhealthtech.service.MealPlannerService;
+import com.thentrees.gymhealthtech.service.TwoLevelCacheService;
+import com.thentrees.gymhealthtech.service.impl.MealPlanSolver.FoodOption;
+import com.thentrees.gymhealthtech.service.impl.MealPlanSolver.Portion;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Slf4j(topic = "MEAL-PLANNER")
+@RequiredArgsConstructor
+public class MealPlannerServiceImpl implements MealPlannerService {
+
+  private static final String FOOD_OPTIONS_KEY = "meal-planner:foods";
+  private static final List<String> MEAL_CODES = List.of("breakfast", "lunch", "dinner");
+  private static final int VARIETY_DAYS = 3;
+
+  private static final double ACTIVITY_FACTOR = 1.2;
+  private static final double FAT_CALORIE_SHARE = 0.25;
+  private static final int CALORIES_PER_TRAINING_MINUTE = 7;
+
+  private final FoodRepository foodRepository;
+  private final MealTimeRepository mealTimeRepository;
+  private final MealPlanRepository mealPlanRepository;
+  private final MealPlanItemRepository mealPlanItemRepository;
+  private final GoalRepository goalRepository;
+  private final UserProfileRepository userProfileRepository;
+  private final UserRepository userRepository;
+  private final PlanDayRepository planDayRepository;
+  private final TwoLevelCacheService twoLevelCacheService;
+
+  @Value("${app.cache.ttl-minutes:60}")
+  private long cacheTtlMinutes;
+
+  @Override
+  @Transactional
+  public GeneratorMealPlanResponse generateMealPlan(UUID userId) {
+    long start = System.nanoTime();
+    LocalDate today = LocalDate.now();
+    Goal goal =
+        goalRepository
+            .findActiveGoalByUserId(userId, GoalStatus.ACTIVE)
+            .orElseThrow(
+                () ->
+                    new PlanGenerationException(
+                        "An active goal is required to generate a meal plan"));
+    UserProfile profile = userProfileRepository.findByUserId(userId).orElse(null);
+    boolean trainingDay = isTrainingDay(userId, today);
+    Targets targets = Targets.of(goal, profile, trainingDay);
+
+    List<MealTime> mealTimes =
+        mealTimeRepository.findAll().stream()
+            .filter(mealTime -> MEAL_CODES.contains(mealTime.getCode()))
+            .sorted(Comparator.comparing(MealTime::getDisplay_order))
+            .toList();
+    if (mealTimes.isEmpty()) {
+      throw new PlanGenerationException("No meal times are configured");
+    }
+    List<FoodOption> foods = eligibleFoods(goal.getPreferences());
+    if (foods.isEmpty()) {
+      throw new PlanGenerationException("No food matches the goal's dietary preferences");
+    }
+
+    MealPlanSolver solver =
+        new MealPlanSolver(foods, recentFoodIds(userId, today), Objects.hash(userId, today));
+    double percentageSum =
+        mealTimes.stream().mapToDouble(MealPlannerServiceImpl::calorieShare).sum();
+    Map<MealTime, List<Portion>> meals = new LinkedHashMap<>();
+    for (MealTime mealTime : mealTimes) {
+      double share =
+          percentageSum > 0 ? calorieShare(mealTime) / percentageSum : 1.0 / mealTimes.size();
+      meals.put(mealTime, solver.solveMeal(mealTime.getCode(), targets.scaled(share)));
+    }
+
+    MealPlan plan = savePlan(userId, today, targets, meals);
+    log.info(
+        "Generated local meal plan {} for user {}: {} kcal of {} target in {} ms",
+        plan.getId(),
+        userId,
+        plan.getTotalCalories(),
+        Math.round(targets.calories()),
+        (System.nanoTime() - start) / 1_000_000);
+    return toResponse(plan, targets, meals);
+  }
+
+  private boolean isTrainingDay(UUID userId, LocalDate today) {
+    // Active plans schedule their first week; every later week repeats the same weekdays
+    return planDayRepository
+        .findScheduledDatesOfPlans(userId, PlanStatusType.ACTIVE, today)
+        .stream()
+        .anyMatch(
+            date ->
+                date.equals(today)
+                    || (date.isBefore(today) && date.getDayOfWeek() == today.getDayOfWeek()));
+  }
+
+  private List<FoodOption> eligibleFoods(JsonNode preferences) {
+    List<FoodOption> foods =
+        twoLevelCacheService.get(
+            FOOD_CACHE,
+            FOOD_OPTIONS_KEY,
+            new TypeReference<>() {},
+            Duration.ofMinutes(cacheTtlMinutes),
+            () -> foodRepository.findAllByIsActiveTrue().stream().map(FoodOption::of).toList());
+
+    String approach =
+        preferences == null ? "" : normalize(preferences.path("dietaryApproach").asText(""));
+    // A diet is only enforced once the catalog tags foods with it
+    if (!approach.isEmpty() && foods.stream().anyMatch(food -> food.tags().contains(approach))) {
+      foods = foods.stream().filter(food -> food.tags().contains(approach)).toList();
+    }
+
+    List<String> conditions = new ArrayList<>();
+    JsonNode listed = preferences == null ? null : preferences.get("healthConditions");
+    if (listed != null && listed.isArray()) {
+      listed.forEach(node -> conditions.add(normalize(node.asText(""))));
+    }
+    conditions.removeIf(String::isEmpty);
+    if (conditions.isEmpty()) {
+      return foods;
+    }
+    return foods.stream()
+        .filter(
+            food -> {
+              String contraindications = normalize(food.contraindications());
+              return conditions.stream().noneMatch(contraindications::contains);
+            })
+        .toList();
+  }
+
+  private Set<UUID> recentFoodIds(UUID userId, LocalDate today) {
+    Set<UUID> recent = new HashSet<>();
+    for (MealPlan plan :
+        mealPlanRepository.findByUserIdAndPlanDateBetween(
+            userId, today.minusDays(VARIETY_DAYS), today.minusDays(1))) {
+      for (MealPlanItem item : plan.getItems()) {
+        if (item.getFood() != null) {
+          recent.add(item.getFood().getId());
+        }
+      }
+    }
+    return recent;
+  }
+
+  private MealPlan savePlan(
+      UUID userId, LocalDate today, Targets targets, Map<MealTime, List<Portion>> meals) {
+    // One plan per user and day, so regenerating replaces the items of today's plan
+    MealPlan plan =
+        mealPlanRepository
+            .findByUserIdAndPlanDate(userId, today)
+            .orElseGet(
+                () -> {
+                  MealPlan created = new MealPlan();
+                  created.setUser(userRepository.getReferenceById(userId));
+                  created.setPlanDate(today);
+                  return created;
+                });
+    List<MealPlanItem> previous = new ArrayList<>(plan.getItems());
+    plan.getItems().clear();
+    mealPlanItemRepository.deleteAll(previous);
+
+    double[] totals = new double[4];
+    meals.forEach(
+        (mealTime, portions) -> {
+          for (int i = 0; i < portions.size(); i++) {
+            Portion portion = portions.get(i);
+            FoodOption food = portion.food();
+            MealPlanItem item = new MealPlanItem();
+            item.setMealPlan(plan);
+            item.setMealTime(mealTime);
+            item.setFood(foodRepository.getReferenceById(food.id()));
+            item.setFoodName(food.nameVi() != null ? food.nameVi() : food.name());
+            item.setServings(decimal(portion.servings()));
+            item.setCalories(decimal(portion.amount(0)));
+            item.setProtein(decimal(portion.amount(1)));
+            item.setCarbs(decimal(portion.amount(2)));
+            item.setFat(decimal(portion.amount(3)));
+            item.setDisplayOrder(i);
+            plan.getItems().add(item);
+            for (int m = 0; m < totals.length; m++) {
+              totals[m] += portion.amount(m);
+            }
+          }
+        });
+
+    plan.setTotalCalories((int) Math.round(totals[0]));
+    plan.setTotalProtein(decimal(totals[1]));
+    plan.setTotalCarbs(decimal(totals[2]));
+    plan.setTotalFat(decimal(totals[3]));
+    plan.setIsTrainingDay(targets.trainingDay());
+    plan.setBaseCalories(targets.baseCalories());
+    plan.setWorkoutAdjustment(targets.workoutAdjustment());
+    plan.setAiReasoning(reasoning(targets, totals));
+    plan.setAiTips(tips(targets));
+    plan.setStatus("generated");
+    // Flush so the new items have ids for the response
+    return mealPlanRepository.saveAndFlush(plan);
+  }
+
+  private static String reasoning(Targets targets, double[] totals) {
+    return String.format(
+        Locale.ROOT,
+        "Thực đơn được lập tự động theo mục tiêu: %.0f/%.0f kcal, đạm %.0f/%.0f g,"
+            + " tinh bột %.0f/%.0f g, chất béo %.0f/%.0f g.",
+        totals[0],
+        targets.calories(),
+        totals[1],
+        targets.protein(),
+        totals[2],
+        targets.carbs(),
+        totals[3],
+        targets.fat());
+  }
+
+  private static List<String> tips(Targets targets) {
+    List<String> tips = new ArrayList<>();
+    tips.add("Uống đủ 2-3 lít nước mỗi ngày.");
+    if (targets.trainingDay()) {
+      tips.add("Hôm nay có buổi tập: ăn bữa giàu tinh bột 1-2 giờ trước khi tập.");
+      tips.add("Bổ sung đạm trong vòng 2 giờ sau buổi tập.");
+    } else {
+      tips.add("Ngày nghỉ: ưu tiên rau xanh và ngủ đủ giấc để cơ thể phục hồi.");
+    }
+    return tips;
+  }
+
+  private GeneratorMealPlanResponse toResponse(
+      MealPlan plan, Targets targets, Map<MealTime, List<Portion>> meals) {
+    Map<UUID, List<MealPlanItem>> itemsByMealTime = new HashMap<>();
+    for (MealPlanItem item : plan.getItems()) {
+      itemsByMealTime
+          .computeIfAbsent(item.getMealTime().getId(), id -> new ArrayList<>())
+          .add(item);
+    }
+
+    Map<String, List<MealData.FoodInfo>> byCode = new HashMap<>();
+    Map<String, Double> caloriesByCode = new HashMap<>();
+    meals.forEach(
+        (mealTime, portions) -> {
+          List<MealPlanItem> items = itemsByMealTime.getOrDefault(mealTime.getId(), List.of());
+          List<MealData.FoodInfo> infos = new ArrayList<>();
+          for (int i = 0; i < portions.size(); i++) {
+            infos.add(toFoodInfo(items.get(i), portions.get(i)));
+          }
+          byCode.put(mealTime.getCode(), infos);
+          caloriesByCode.put(
+              mealTime.getCode(), portions.stream().mapToDouble(p -> p.amount(0)).sum());
+        });
+
+    MealData data = new MealData();
+    data.setMealPlanId(plan.getId().toString());
+    data.setPlanDate(plan.getPlanDate().toString());
+    data.setTrainingDay(targets.trainingDay());
+    data.setMeals(
+        new MealData.Meals(
+            byCode.getOrDefault("breakfast", List.of()),
+            byCode.getOrDefault("lunch", List.of()),
+            byCode.getOrDefault("dinner", List.of())));
+    data.setActualNutrition(
+        new MealData.ActualNutrition(
+            String.valueOf(plan.getTotalCalories()),
+            plan.getTotalProtein().toPlainString(),
+            plan.getTotalCarbs().toPlainString(),
+            plan.getTotalFat().toPlainString()));
+    data.setTargetNutrition(
+        new MealData.TargetNutrition(
+            format(targets.calories()),
+            format(targets.protein()),
+            format(targets.carbs()),
+            format(targets.fat()),
+            format(caloriesByCode.getOrDefault("breakfast", 0.0)),
+            format(caloriesByCode.getOrDefault("lunch", 0.0)),
+            format(caloriesByCode.getOrDefault("dinner", 0.0))));
+
+    return GeneratorMealPlanResponse.builder()
+        .success(true)
+        .message("Meal plan generated")
+        .data(data)
+        .build();
+  }
+
+  private static MealData.FoodInfo toFoodInfo(MealPlanItem item, Portion portion) {
+    FoodOption food = portion.food();
+    return new MealData.FoodInfo(
+        item.getId().toString(),
+        item.getMealTime().getId().toString(),
+        item.getServings().toPlainString(),
+        false,
+        item.getDisplayOrder(),
+        new MealData.Nutrition(
+            item.getCalories().toPlainString(),
+            item.getProtein().toPlainString(),
+            item.getCarbs().toPlainString(),
+            item.getFat().toPlainString()),
+        new MealData.Food(
+            food.id().toString(),
+            food.name(),
+            food.nameVi(),
+            food.description(),
+            food.commonCombinations(),
+            format(food.calories()),
+            format(food.protein()),
+            format(food.carbs()),
+            format(food.fat()),
+            format(food.fiber()),
+            food.category(),
+            food.imageUrl(),
+            food.benefits()));
+  }
+
+  private static double calorieShare(MealTime mealTime) {
+    BigDecimal percentage = mealTime.getDefault_calorie_percentage();
+    return percentage == null ? 0 : percentage.doubleValue();
+  }
+
+  private static BigDecimal decimal(double value) {
+    return BigDecimal.valueOf(value).setScale(1, RoundingMode.HALF_UP);
+  }
+
+  private static String format(double value) {
+    return decimal(value).toPlainString();
+  }
+
+  /** Daily calorie and macro targets; calories, protein, carbs and fat in that order. */
+  record Targets(
+      double calories,
+      double protein,
+      double carbs,
+      double fat,
+      int baseCalories,
+      int workoutAdjustment,
+      boolean trainingDay) {
+
+    static Targets of(Goal goal, UserProfile profile, boolean trainingDay) {
+      double weight = 70;
+      double height = 170;
+      int age = 30;
+      GenderType gender = null;
+      if (profile != null) {
+        weight = profile.getWeightKg() != null ? profile.getWeightKg().doubleValue() : weight;
+        height = profile.getHeightCm() != null ? profile.getHeightCm().doubleValue() : height;
+        age = profile.getAge() != null ? profile.getAge() : age;
+        gender = profile.getGender();
+      }
+      // Mifflin-St Jeor, with the midpoint of the male and female offsets when unknown
+      double bmr = 10 * weight + 6.25 * height - 5 * age;
+      if (gender == GenderType.MALE) {
+        bmr += 5;
+      } else if (gender == GenderType.FEMALE) {
+        bmr -= 161;
+      } else {
+        bmr -= 78;
+      }
+
+      ObjectiveType objective = goal.getObjective();
+      int base = (int) Math.round(bmr * ACTIVITY_FACTOR * calorieFactor(objective));
+      int workout = 0;
+      if (trainingDay) {
+        if (goal.getEstimatedCaloriesPerSession() != null) {
+          workout = goal.getEstimatedCaloriesPerSession();
+        } else if (goal.getSessionMinutes() != null) {
+          workout = goal.getSessionMinutes() * CALORIES_PER_TRAINING_MINUTE;
+        }
+      }
+      double calories = base + workout;
+      double protein = weight * proteinPerKg(objective);
+      double fat = calories * FAT_CALORIE_SHARE / 9;
+      double carbs = Math.max(0, (calories - protein * 4 - fat * 9) / 4);
+      return new Targets(calories, protein, carbs, fat, base, workout, trainingDay);
+    }
+
+    private static double calorieFactor(ObjectiveType objective) {
+      if (objective == null) {
+        return 1.0;
+      }
+      return switch (objective) {
+        case LOSE_FAT -> 0.8;
+        case GAIN_MUSCLE -> 1.1;
+        case ENDURANCE -> 1.05;
+        case MAINTAIN -> 1.0;
+      };
+    }
+
+    private static double proteinPerKg(ObjectiveType objective) {
+      if (objective == null) {
+        return 1.6;
+      }
+      return switch (objective) {
+        case LOSE_FAT -> 2.0;
+        case GAIN_MUSCLE -> 1.8;
+        case ENDURANCE -> 1.4;
+        case MAINTAIN -> 1.6;
+      };
+    }
+
+    double[] scaled(double share) {
+      return new double[] {calories * share, protein * share, carbs * share, fat * share};
+    }
+  }
+}
@@ -0,0 +1,284 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import com.thentrees.gymhealthtech.dto.request.CreateCustomPlanItemRequest.PlanItemPrescription;
+import com.thentrees.gymhealthtech.dto.response.ExerciseListResponse;
+import com.thentrees.gymhealthtech.dto.response.GeneratorWorkoutPlanResponse;
+import com.thentrees.gymhealthtech.enums.ExerciseType;
+import com.thentrees.gymhealthtech.enums.FitnessLevel;
+import com.thentrees.gymhealthtech.enums.GoalStatus;
+import com.thentrees.gymhealthtech.enums.PlanSourceType;
+import com.thentrees.gymhealthtech.enums.PlanStatusType;
+import com.thentrees.gymhealthtech.exception.PlanGenerationException;
+import com.thentrees.gymhealthtech.mapper.common.PrescriptionMapper;
+import com.thentrees.gymhealthtech.model.Exercise;
+import com.thentrees.gymhealthtech.model.Goal;
+import com.thentrees.gymhealthtech.model.Plan;
+import com.thentrees.gymhealthtech.model.PlanDay;
+import com.thentrees.gymhealthtech.model.PlanItem;
+import com.thentrees.gymhealthtech.model.UserProfile;
+import com.thentrees.gymhealthtech.repository.ExerciseRepository;
+import com.thentrees.gymhealthtech.repository.GoalRepository;
+import com.thentrees.gymhealthtech.repository.PlanDayRepository;
+import com.thentrees.gymhealthtech.repository.PlanRepository;
+import com.thentrees.gymhealthtech.repository.UserProfileRepository;
+import com.thentrees.gymhealthtech.repository.UserRepository;
+import com.thentrees.gymhealthtech.service.ExerciseCatalogService;
+import com.thentrees.gymhealthtech.service.PlanGeneratorService;
+import com.thentrees.gymhealthtech.service.impl.WorkoutPlanRules.DayTemplate;
+import com.thentrees.gymhealthtech.service.impl.WorkoutPlanRules.Dose;
+import com.thentrees.gymhealthtech.service.impl.WorkoutPlanRules.Selector;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Slf4j(topic = "PLAN-GENERATOR")
+@RequiredArgsConstructor
+public class PlanGeneratorServiceImpl implements PlanGeneratorService {
+
+  private final ExerciseCatalogService exerciseCatalogService;
+  private final GoalRepository goalRepository;
+  private final UserProfileRepository userProfileRepository;
+  private final UserRepository userRepository;
+  private final ExerciseRepository exerciseRepository;
+  private final PlanRepository planRepository;
+  private final PlanDayRepository planDayRepository;
+  private final PrescriptionMapper prescriptionMapper;
+
+  @Value("${app.ai.local-plan.cycle-weeks:4}")
+  private int cycleWeeks;
+
+  @Override
+  @Transactional
+  public GeneratorWorkoutPlanResponse generateWorkoutPlan(UUID userId, String notes) {
+    long start = System.nanoTime();
+    Goal goal =
+        goalRepository
+            .findActiveGoalByUserId(userId, GoalStatus.ACTIVE)
+            .orElseThrow(
+                () -> new PlanGenerationException("An active goal is required to generate a plan"));
+    FitnessLevel fitnessLevel =
+        userProfileRepository
+            .findByUserId(userId)
+            .map(UserProfile::getFitnessLevel)
+            .orElse(FitnessLevel.BEGINNER);
+    if (fitnessLevel == null) {
+      fitnessLevel = FitnessLevel.BEGINNER;
+    }
+
+    int sessions = Math.max(1, Math.min(7, goal.getSessionsPerWeek()));
+    Dose dose = Dose.of(goal.getObjective(), fitnessLevel);
+    int perSession = WorkoutPlanRules.exercisesPerSession(goal.getSessionMinutes(), dose);
+    Selector selector =
+        new Selector(
+            WorkoutPlanRules.eligibleExercises(
+                exerciseCatalogService.exercises(),
+                fitnessLevel,
+                WorkoutPlanRules.availableEquipment(goal.getPreferences())),
+            Objects.hash(userId, goal.getId(), goal.getVersion()));
+
+    // One week of sessions; the plan repeats it for the whole cycle
+    List<DayDraft> week = new ArrayList<>();
+    List<DayTemplate> split = DayTemplate.splitFor(sessions);
+    for (int i = 0; i < sessions; i++) {
+      DayTemplate template = split.get(i);
+      List<ExerciseListResponse> exercises = selector.pickDay(template.slots, perSession);
+      ExerciseListResponse finisher =
+          dose.cardioFinisher() ? selector.pickFinisher(exercises) : null;
+      if (exercises.isEmpty() && finisher == null) {
+        continue;
+      }
+      week.add(new DayDraft(template.splitName, i * 7 / sessions, exercises, finisher));
+    }
+    if (week.isEmpty()) {
+      throw new PlanGenerationException("No exercise matches the goal's equipment and level");
+    }
+
+    Plan plan = savePlan(userId, goal, notes, fitnessLevel, dose, week);
+    long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+    log.info(
+        "Generated local plan {} for user {}: {} days in {} ms",
+        plan.getId(),
+        userId,
+        week.size(),
+        elapsedMs);
+    return toResponse(plan, goal, userId, dose, week, elapsedMs);
+  }
+
+  private Plan savePlan(
+      UUID userId,
+      Goal goal,
+      String notes,
+      FitnessLevel fitnessLevel,
+      Dose dose,
+      List<DayDraft> week) {
+    LocalDate today = LocalDate.now();
+    Plan plan = new Plan();
+    plan.setUser(userRepository.getReferenceById(userId));
+    plan.setGoal(goal);
+    plan.setTitle(title(goal, week.size()));
+    plan.setDescription(description(goal, fitnessLevel, dose));
+    plan.setSource(PlanSourceType.AI);
+    plan.setCycleWeeks(cycleWeeks);
+    plan.setStatus(PlanStatusType.DRAFT);
+    plan.setEndDate(today.plusWeeks(cycleWeeks));
+    plan.setNotes(notes);
+    plan = planRepository.save(plan);
+
+    List<PlanDay> planDays = new ArrayList<>();
+    for (int dayIndex = 0; dayIndex < week.size(); dayIndex++) {
+      DayDraft draft = week.get(dayIndex);
+      PlanDay planDay = new PlanDay();
+      planDay.setPlan(plan);
+      planDay.setDayIndex(dayIndex);
+      planDay.setSplitName(draft.splitName);
+      planDay.setScheduledDate(today.plusDays(draft.weekdayOffset));
+
+      List<PlanItem> dayItems = new ArrayList<>();
+      for (ItemDraft item : draft.items(dose)) {
+        PlanItem planItem = new PlanItem();
+        planItem.setPlanDay(planDay);
+        planItem.setExercise(exerciseRepository.getReferenceById(item.exercise.getId()));
+        planItem.setItemIndex(dayItems.size());
+        planItem.setPrescription(prescriptionMapper.toJsonNode(item.prescription));
+        dayItems.add(planItem);
+      }
+      planDay.setPlanItems(dayItems);
+      planDays.add(planDay);
+    }
+    // Items cascade from their day; one flush inserts everything in JDBC batches
+    planDayRepository.saveAll(planDays);
+    plan.setPlanDays(planDays);
+    return plan;
+  }
+
+  private GeneratorWorkoutPlanResponse toResponse(
+      Plan plan, Goal goal, UUID userId, Dose dose, List<DayDraft> week, long elapsedMs) {
+    GeneratorWorkoutPlanResponse.Metadata.WorkoutPlan workoutPlan =
+        new GeneratorWorkoutPlanResponse.Metadata.WorkoutPlan();
+    workoutPlan.setId(plan.getId().toString());
+    workoutPlan.setUserId(userId.toString());
+    workoutPlan.setGoalId(goal.getId().toString());
+    workoutPlan.setTitle(plan.getTitle());
+    workoutPlan.setDescription(plan.getDescription());
+    workoutPlan.setTotalWeeks(plan.getCycleWeeks());
+    workoutPlan.setTotalDays(week.size());
+    workoutPlan.setCreatedAt(LocalDateTime.now().toString());
+    workoutPlan.setEndDate(plan.getEndDate().toString());
+
+    // Detached copies: the saved entities point back to their plan and would not serialize
+    List<GeneratorWorkoutPlanResponse.Metadata.WorkoutPlan.PlanDay> days = new ArrayList<>();
+    int totalExercises = 0;
+    int totalMinutes = 0;
+    for (PlanDay planDay : plan.getPlanDays()) {
+      GeneratorWorkoutPlanResponse.Metadata.WorkoutPlan.PlanDay day =
+          new GeneratorWorkoutPlanResponse.Metadata.WorkoutPlan.PlanDay();
+      day.setDayIndex(planDay.getDayIndex());
+      day.setSplitName(planDay.getSplitName());
+      day.setScheduledDate(planDay.getScheduledDate().toString());
+
+      DayDraft draft = week.get(planDay.getDayIndex());
+      List<ItemDraft> drafts = draft.items(dose);
+      List<PlanItem> items = new ArrayList<>();
+      for (int i = 0; i < planDay.getPlanItems().size(); i++) {
+        PlanItem saved = planDay.getPlanItems().get(i);
+        items.add(
+            PlanItem.builder()
+                .id(saved.getId())
+                .itemIndex(saved.getItemIndex())
+                .prescription(saved.getPrescription())
+                .exercise(exerciseView(drafts.get(i).exercise))
+                .build());
+      }
+      day.setPlanItems(items);
+      days.add(day);
+      totalExercises += items.size();
+      totalMinutes += draft.minutes(dose);
+    }
+    workoutPlan.setPlanDays(days);
+
+    GeneratorWorkoutPlanResponse.Metadata metadata = new GeneratorWorkoutPlanResponse.Metadata();
+    metadata.setWorkoutPlan(workoutPlan);
+    metadata.setStartTime(LocalDateTime.now().toString());
+    metadata.setGenerationTime(String.valueOf(elapsedMs / 1000.0));
+    metadata.setTotalExercises(totalExercises);
+    metadata.setAvgSessionDuration(totalMinutes / week.size());
+
+    return GeneratorWorkoutPlanResponse.builder()
+        .status("success")
+        .message("Workout plan generated")
+        .metadata(metadata)
+        .build();
+  }
+
+  private static String title(Goal goal, int days) {
+    String objective =
+        switch (goal.getObjective()) {
+          case LOSE_FAT -> "Fat Loss";
+          case GAIN_MUSCLE -> "Muscle Gain";
+          case ENDURANCE -> "Endurance";
+          case MAINTAIN -> "Maintenance";
+        };
+    return objective + " Plan - " + days + " days/week";
+  }
+
+  private static String description(Goal goal, FitnessLevel fitnessLevel, Dose dose) {
+    return String.format(
+        "Rule-based plan for a %s level: %d x %s reps, %ds rest, about %d minutes per session.",
+        fitnessLevel.name().toLowerCase(Locale.ROOT),
+        dose.sets(),
+        dose.reps(),
+        dose.restSeconds(),
+        goal.getSessionMinutes());
+  }
+
+  private static Exercise exerciseView(ExerciseListResponse source) {
+    Exercise exercise = new Exercise();
+    exercise.setId(source.getId());
+    exercise.setSlug(source.getSlug());
+    exercise.setName(source.getName());
+    exercise.setBodyPart(source.getBodyPart());
+    exercise.setThumbnailUrl(source.getThumbnailUrl());
+    exercise.setSafetyNotes(source.getSafetyNotes());
+    exercise.setExerciseType(ExerciseType.fromCode(source.getExerciseType()));
+    if (source.getLevel() != null) {
+      exercise.setDifficultyLevel(source.getLevel().getMinDifficulty());
+    }
+    return exercise;
+  }
+
+  private record ItemDraft(ExerciseListResponse exercise, PlanItemPrescription prescription) {}
+
+  private record DayDraft(
+      String splitName,
+      int weekdayOffset,
+      List<ExerciseListResponse> exercises,
+      ExerciseListResponse finisher) {
+
+    List<ItemDraft> items(Dose dose) {
+      List<ItemDraft> items = new ArrayList<>();
+      for (ExerciseListResponse exercise : exercises) {
+        items.add(new ItemDraft(exercise, dose.strength()));
+      }
+      if (finisher != null) {
+        items.add(new ItemDraft(finisher, Dose.finisher()));
+      }
+      return items;
+    }
+
+    int minutes(Dose dose) {
+      return WorkoutPlanRules.WARM_UP_MINUTES
+          + exercises.size() * dose.minutesPerExercise()
+          + (finisher == null ? 0 : WorkoutPlanRules.FINISHER_MINUTES);
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.thentrees.gymhealthtech.service.impl;
 
 import com.thentrees.gymhealthtech.constant.S3Constant;
 import com.thentrees.gymhealthtech.dto.request.CreateCommentRequest;
+import com.thentrees.gymhealthtech.dto.response.CursorPageResponse;
 import com.thentrees.gymhealthtech.dto.response.PostCommentResponse;
 import com.thentrees.gymhealthtech.event.CommentCreatedEvent;
 import com.thentrees.gymhealthtech.event.CommentDeletedEvent;
@@ -15,15 +16,23 @@ import com.thentrees.gymhealthtech.repository.PostCommentRepository;
 import com.thentrees.gymhealthtech.repository.PostRepository;
 import com.thentrees.gymhealthtech.service.PostCommentService;
 import com.thentrees.gymhealthtech.util.FileValidator;
+import com.thentrees.gymhealthtech.util.KeysetCursor;
 import com.thentrees.gymhealthtech.util.S3Util;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
@@ -42,6 +51,15 @@ public class PostCommentServiceImpl implements PostCommentService {
   private final FileValidator fileValidator;
   private final S3Util s3Util;
 
+  @Value("${app.community.comments.page-size:20}")
+  private int commentPageSize;
+
+  @Value("${app.community.comments.max-page-size:50}")
+  private int commentMaxPageSize;
+
+  @Value("${app.community.comments.replies-per-thread:3}")
+  private int repliesPerThread;
+
   @Transactional
   @Override
   public PostCommentResponse createPostComment(CreateCommentRequest request, MultipartFile file) {
@@ -59,6 +77,7 @@ public class PostCommentServiceImpl implements PostCommentService {
               .orElseThrow(
                   () -> new ResourceNotFoundException("PostComment", request.getParentCommentId().toString()));
       comment.setParentComment(parent);
+      comment.setRootComment(parent.getRootComment() != null ? parent.getRootComment() : parent);
     }
     comment.setLikesCount(0);
     comment.setRepliesCount(0);
@@ -95,13 +114,58 @@ public class PostCommentServiceImpl implements PostCommentService {
 
   @Transactional(readOnly = true)
   @Override
-  public List<PostCommentResponse> getPostComments(String postId) {
-    Post post =
-        postRepository
-            .findById(UUID.fromString(postId))
-            .orElseThrow(() -> new RuntimeException("Post not found"));
-    List<PostComment> comments = commentRepository.findByPostAndParentCommentIsNull(post);
-    return comments.stream().map(postCommentMapper::toDto).toList();
+  public CursorPageResponse<PostCommentResponse> getPostComments(
+      String postId, String cursor, Integer size) {
+    UUID id = UUID.fromString(postId);
+    if (!postRepository.existsById(id)) {
+      throw new ResourceNotFoundException("Post", postId);
+    }
+
+    int pageSize = resolvePageSize(size);
+    KeysetCursor after = KeysetCursor.decode(cursor);
+    Pageable limit = PageRequest.of(0, pageSize + 1);
+    List<PostComment> roots =
+        after == null
+            ? commentRepository.findRootCommentsFirstPage(id, limit)
+            : commentRepository.findRootCommentsPageAfter(id, after.createdAt(), after.id(), limit);
+
+    boolean hasNext = roots.size() > pageSize;
+    List<PostComment> page = hasNext ? roots.subList(0, pageSize) : roots;
+
+    return CursorPageResponse.<PostCommentResponse>builder()
+        .content(buildThreads(page))
+        .size(pageSize)
+        .hasNext(hasNext)
+        .nextCursor(hasNext ? cursorOf(page.get(page.size() - 1)) : null)
+        .build();
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public CursorPageResponse<PostCommentResponse> getCommentReplies(
+      UUID rootCommentId, String cursor, Integer size) {
+    if (!commentRepository.existsById(rootCommentId)) {
+      throw new ResourceNotFoundException("PostComment", rootCommentId.toString());
+    }
+
+    int pageSize = resolvePageSize(size);
+    KeysetCursor after = KeysetCursor.decode(cursor);
+    Pageable limit = PageRequest.of(0, pageSize + 1);
+    List<PostComment> replies =
+        after == null
+            ? commentRepository.findRepliesFirstPage(rootCommentId, limit)
+            : commentRepository.findRepliesPageAfter(
+                rootCommentId, after.createdAt(), after.id(), limit);
+
+    boolean hasNext = replies.size() > pageSize;
+    List<PostComment> page = hasNext ? replies.subList(0, pageSize) : replies;
+
+    return CursorPageResponse.<PostCommentResponse>builder()
+        .content(page.stream().map(postCommentMapper::toThreadDto).toList())
+        .size(pageSize)
+        .hasNext(hasNext)
+        .nextCursor(hasNext ? cursorOf(page.get(page.size() - 1)) : null)
+        .build();
   }
 
   @Transactional
@@ -127,6 +191,68 @@ public class PostCommentServiceImpl implements PostCommentService {
     log.info("Comment with id: {} marked as deleted", commentId);
   }
 
+  /**
+   * Attaches the first replies of every root in two queries (reply ids per thread, then the replies
+   * with their authors) and nests each reply under its parent. Replies are ordered oldest first, so
+   * a parent is always placed before its children.
+   */
+  private List<PostCommentResponse> buildThreads(List<PostComment> roots) {
+    if (roots.isEmpty()) {
+      return List.of();
+    }
+
+    Map<UUID, PostCommentResponse> responsesById = new HashMap<>();
+    List<PostCommentResponse> threads = new ArrayList<>(roots.size());
+    for (PostComment root : roots) {
+      PostCommentResponse response = postCommentMapper.toThreadDto(root);
+      responsesById.put(root.getId(), response);
+      threads.add(response);
+    }
+
+    // One extra reply per thread tells whether a "load more" cursor is needed
+    List<UUID> replyIds =
+        commentRepository.findFirstReplyIdsPerRoot(responsesById.keySet(), repliesPerThread + 1);
+    if (replyIds.isEmpty()) {
+      return threads;
+    }
+
+    Map<UUID, List<PostComment>> repliesByRoot = new LinkedHashMap<>();
+    for (PostComment reply : commentRepository.findAllWithUserByIdIn(replyIds)) {
+      repliesByRoot
+          .computeIfAbsent(reply.getRootComment().getId(), key -> new ArrayList<>())
+          .add(reply);
+    }
+
+    repliesByRoot.forEach(
+        (rootId, replies) -> {
+          PostCommentResponse root = responsesById.get(rootId);
+          List<PostComment> visible =
+              replies.size() > repliesPerThread ? replies.subList(0, repliesPerThread) : replies;
+
+          for (PostComment reply : visible) {
+            PostCommentResponse response = postCommentMapper.toThreadDto(reply);
+            PostCommentResponse parent =
+                responsesById.getOrDefault(reply.getParentComment().getId(), root);
+            parent.getReplies().add(response);
+            responsesById.put(reply.getId(), response);
+          }
+
+          if (replies.size() > repliesPerThread) {
+            root.setHasMoreReplies(true);
+            root.setRepliesCursor(cursorOf(visible.get(visible.size() - 1)));
+          }
+        });
+    return threads;
+  }
+
+  private int resolvePageSize(Integer size) {
+    return size == null || size <= 0 ? commentPageSize : Math.min(size, commentMaxPageSize);
+  }
+
+  private String cursorOf(PostComment comment) {
+    return KeysetCursor.of(comment.getCreatedAt(), comment.getId()).encode();
+  }
+
   @Override
   public void deleteCommentMedia(String mediaUrl, UUID commentId, Authentication authentication) {
     PostComment comment =
@@ -0,0 +1,182 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import com.thentrees.gymhealthtech.repository.PostRepository;
+import com.thentrees.gymhealthtech.service.PostLikeCounterService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Deltas accumulate with HINCRBY in one Redis hash shared by every node. A flush takes a lease and
+ * renames that hash to a processing hash in one Lua script, applies it with a single UPDATE and
+ * deletes the processing hash only after the UPDATE has committed. A failed UPDATE, or a node dying
+ * mid-flush, leaves the processing hash to be applied by the next flush once the lease is free.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j(topic = "POST-LIKE-COUNTER")
+public class PostLikeCounterServiceImpl implements PostLikeCounterService {
+
+  private static final String PENDING_KEY = "post:like-delta";
+  private static final String PROCESSING_KEY = "post:like-delta:processing";
+  private static final String OWNER_KEY = "post:like-delta:owner";
+  private static final RedisScript<List> CLAIM_HASH_SCRIPT =
+      loadScript("scripts/claim_hash.lua", List.class);
+  private static final RedisScript<Long> RELEASE_HASH_SCRIPT =
+      loadScript("scripts/release_hash.lua", Long.class);
+  private static final RedisScript<List> SUM_HASH_FIELDS_SCRIPT =
+      loadScript("scripts/sum_hash_fields.lua", List.class);
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final PostRepository postRepository;
+
+  @Value("${app.community.likes.flush-lease-ms:60000}")
+  private long flushLeaseMs;
+
+  @Override
+  public void recordDelta(UUID postId, int delta) {
+    try {
+      stringRedisTemplate.opsForHash().increment(PENDING_KEY, postId.toString(), delta);
+    } catch (Exception e) {
+      // Without Redis fall back to the direct row update; reconciliation covers a failure here too
+      log.error("Cannot buffer like delta for post {}, updating directly", postId, e);
+      postRepository.applyLikeDeltas(toArray(List.of(postId)), toArray(List.of(delta)));
+    }
+  }
+
+  @Override
+  public Map<UUID, Integer> pendingDeltas(Collection<UUID> postIds) {
+    if (postIds.isEmpty()) {
+      return Map.of();
+    }
+
+    List<UUID> ids = new ArrayList<>(postIds);
+    try {
+      // Deltas being flushed are not in the stored counters yet either, until the flush releases
+      List<?> sums =
+          stringRedisTemplate.execute(
+              SUM_HASH_FIELDS_SCRIPT,
+              List.of(PENDING_KEY, PROCESSING_KEY),
+              ids.stream().map(UUID::toString).toArray());
+      Map<UUID, Integer> deltas = new HashMap<>();
+      for (int i = 0; i < ids.size(); i++) {
+        int delta = ((Number) sums.get(i)).intValue();
+        if (delta != 0) {
+          deltas.put(ids.get(i), delta);
+        }
+      }
+      return deltas;
+    } catch (Exception e) {
+      log.warn("Cannot read pending like deltas, showing stored counters: {}", e.getMessage());
+      return Map.of();
+    }
+  }
+
+  @Override
+  public int flushPendingDeltas() {
+    String token = UUID.randomUUID().toString();
+    Map<UUID, Integer> deltas = claimPendingDeltas(token);
+    if (deltas == null) {
+      return 0;
+    }
+
+    boolean applied = false;
+    try {
+      // applyLikeDeltas runs in its own transaction, so it has committed once it returns
+      int updated =
+          deltas.isEmpty()
+              ? 0
+              : postRepository.applyLikeDeltas(toArray(deltas.keySet()), toArray(deltas.values()));
+      applied = true;
+      if (updated > 0) {
+        log.debug("Flushed like deltas for {} posts", updated);
+      }
+      return updated;
+    } catch (Exception e) {
+      log.error("Failed to flush like deltas for {} posts, retrying next flush", deltas.size(), e);
+      return 0;
+    } finally {
+      releaseClaim(token, applied);
+    }
+  }
+
+  @Override
+  public int reconcileLikeCounts() {
+    flushPendingDeltas();
+
+    // Posts liked since the flush already have their like rows but not their delta; skip them
+    Set<Object> pending = new HashSet<>(stringRedisTemplate.opsForHash().keys(PENDING_KEY));
+    pending.addAll(stringRedisTemplate.opsForHash().keys(PROCESSING_KEY));
+    List<String> excluded = pending.stream().map(Object::toString).toList();
+    int corrected = postRepository.reconcileLikeCounts(toArray(excluded));
+    if (corrected > 0) {
+      log.warn("Reconciled like counters of {} posts from post_likes", corrected);
+    }
+    return corrected;
+  }
+
+  /** The deltas to apply, or null when another node holds the lease. */
+  private Map<UUID, Integer> claimPendingDeltas(String token) {
+    List<?> entries =
+        stringRedisTemplate.execute(
+            CLAIM_HASH_SCRIPT,
+            List.of(PENDING_KEY, PROCESSING_KEY, OWNER_KEY),
+            token,
+            String.valueOf(flushLeaseMs));
+    if (entries == null) {
+      return null;
+    }
+
+    Map<UUID, Integer> deltas = new LinkedHashMap<>();
+    for (int i = 0; i + 1 < entries.size(); i += 2) {
+      int delta = Integer.parseInt(entries.get(i + 1).toString());
+      if (delta != 0) {
+        deltas.put(UUID.fromString(entries.get(i).toString()), delta);
+      }
+    }
+    return deltas;
+  }
+
+  private void releaseClaim(String token, boolean applied) {
+    try {
+      Long released =
+          stringRedisTemplate.execute(
+              RELEASE_HASH_SCRIPT, List.of(PROCESSING_KEY, OWNER_KEY), token, applied ? "1" : "0");
+      if (applied && (released == null || released == 0)) {
+        // Another node took over the processing hash and will apply it again; reconcile fixes it
+        log.warn("Like flush outlived its {} ms lease, deltas may be applied twice", flushLeaseMs);
+      }
+    } catch (Exception e) {
+      // The lease expires on its own; the processing hash is then applied again
+      log.error("Cannot release the like flush lease", e);
+    }
+  }
+
+  // Postgres array literal, e.g. {a,b,c}; values are UUIDs or integers so no quoting is needed
+  private String toArray(Collection<?> values) {
+    return values.stream().map(Object::toString).collect(Collectors.joining(",", "{", "}"));
+  }
+
+  private static <T> RedisScript<T> loadScript(String path, Class<T> resultType) {
+    DefaultRedisScript<T> script = new DefaultRedisScript<>();
+    script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+    script.setResultType(resultType);
+    return script;
+  }
+}
@@ -0,0 +1,36 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import com.thentrees.gymhealthtech.repository.PostSaveRepository;
+import com.thentrees.gymhealthtech.repository.projection.PostMembershipView;
+import com.thentrees.gymhealthtech.service.PostMembershipService;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class PostMembershipServiceImpl implements PostMembershipService {
+
+  private static final String KIND_LIKE = "LIKE";
+
+  private final PostSaveRepository postSaveRepository;
+
+  @Override
+  @Transactional(readOnly = true)
+  public Membership resolve(UUID userId, Collection<UUID> postIds) {
+    if (userId == null || postIds.isEmpty()) {
+      return Membership.empty();
+    }
+
+    Set<UUID> liked = new HashSet<>();
+    Set<UUID> saved = new HashSet<>();
+    for (PostMembershipView row : postSaveRepository.findMemberships(userId, postIds)) {
+      (KIND_LIKE.equals(row.getKind()) ? liked : saved).add(row.getPostId());
+    }
+    return new Membership(liked, saved);
+  }
+}
@@ -3,7 +3,9 @@ package com.thentrees.gymhealthtech.service.impl;
 import com.thentrees.gymhealthtech.constant.ErrorMessages;
 import com.thentrees.gymhealthtech.constant.S3Constant;
 import com.thentrees.gymhealthtech.dto.request.CreatePostRequest;
+import com.thentrees.gymhealthtech.dto.response.CursorPageResponse;
 import com.thentrees.gymhealthtech.dto.response.PostResponse;
+import com.thentrees.gymhealthtech.dto.response.PostSummaryResponse;
 import com.thentrees.gymhealthtech.enums.PlanSourceType;
 import com.thentrees.gymhealthtech.enums.PlanStatusType;
 import com.thentrees.gymhealthtech.event.LikeEvent;
@@ -17,16 +19,23 @@ import com.thentrees.gymhealthtech.repository.PlanItemRepository;
 import com.thentrees.gymhealthtech.repository.PlanRepository;
 import com.thentrees.gymhealthtech.repository.PostLikeRepository;
 import com.thentrees.gymhealthtech.repository.PostRepository;
+import com.thentrees.gymhealthtech.repository.PostSaveRepository;
+import com.thentrees.gymhealthtech.service.PostLikeCounterService;
+import com.thentrees.gymhealthtech.service.PostMembershipService;
 import com.thentrees.gymhealthtech.service.PostService;
 import com.thentrees.gymhealthtech.service.UserService;
 import com.thentrees.gymhealthtech.util.FileValidator;
+import com.thentrees.gymhealthtech.util.KeysetCursor;
 import com.thentrees.gymhealthtech.util.S3Util;
 import java.time.LocalDate;
 import java.util.*;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -46,10 +55,19 @@ public class PostServiceImpl implements PostService {
   private final PostRepository postRepository;
   private final PostMapper postMapper;
   private final PostLikeRepository postLikeRepository;
+  private final PostLikeCounterService postLikeCounterService;
+  private final PostMembershipService postMembershipService;
+  private final PostSaveRepository postSaveRepository;
   private final ApplicationEventPublisher eventPublisher;
   private final S3Util s3Util;
   private final FileValidator fileValidator;
 
+  @Value("${app.community.feed.default-page-size:20}")
+  private int feedDefaultPageSize;
+
+  @Value("${app.community.feed.max-page-size:50}")
+  private int feedMaxPageSize;
+
   @Transactional
   @Override
   public PostResponse createPost(CreatePostRequest request, List<MultipartFile> files) {
@@ -76,14 +94,68 @@ public class PostServiceImpl implements PostService {
         postRepository
             .findById(UUID.fromString(postId))
             .orElseThrow(() -> new ResourceNotFoundException("Post", postId));
-    return postMapper.toResponse(post);
+    return toDetailResponse(post);
+  }
+
+  @Transactional(readOnly = true)
+  @Override
+  public CursorPageResponse<PostSummaryResponse> getFeed(String cursor, Integer size) {
+    int pageSize = size == null || size <= 0 ? feedDefaultPageSize : Math.min(size, feedMaxPageSize);
+    KeysetCursor after = KeysetCursor.decode(cursor);
+
+    // Fetch one extra row to know whether another page exists without a COUNT query
+    Pageable limit = PageRequest.of(0, pageSize + 1);
+    List<Post> posts =
+        after == null
+            ? postRepository.findFeedFirstPage(limit)
+            : postRepository.findFeedPageAfter(after.createdAt(), after.id(), limit);
+
+    boolean hasNext = posts.size() > pageSize;
+    List<Post> page = hasNext ? posts.subList(0, pageSize) : posts;
+    String nextCursor = null;
+    if (hasNext) {
+      Post last = page.get(page.size() - 1);
+      nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+    }
+
+    return CursorPageResponse.<PostSummaryResponse>builder()
+        .content(toSummaryResponses(page))
+        .size(pageSize)
+        .hasNext(hasNext)
+        .nextCursor(nextCursor)
+        .build();
   }
 
   @Transactional(readOnly = true)
   @Override
-  public List<PostResponse> getAllPosts() {
-    List<Post> posts = postRepository.findAllWithRelations();
-    return posts.stream().map(postMapper::toResponse).toList();
+  public CursorPageResponse<PostSummaryResponse> getSavedPosts(
+      String cursor, Integer size, Authentication authentication) {
+    User user = (User) authentication.getPrincipal();
+    int pageSize = size == null || size <= 0 ? feedDefaultPageSize : Math.min(size, feedMaxPageSize);
+    KeysetCursor after = KeysetCursor.decode(cursor);
+
+    // The cursor is the position of the save, so the list follows when posts were saved
+    Pageable limit = PageRequest.of(0, pageSize + 1);
+    List<PostSave> saves =
+        after == null
+            ? postSaveRepository.findSavedFirstPage(user.getId(), limit)
+            : postSaveRepository.findSavedPageAfter(
+                user.getId(), after.createdAt(), after.id(), limit);
+
+    boolean hasNext = saves.size() > pageSize;
+    List<PostSave> page = hasNext ? saves.subList(0, pageSize) : saves;
+    String nextCursor = null;
+    if (hasNext) {
+      PostSave last = page.get(page.size() - 1);
+      nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+    }
+
+    return CursorPageResponse.<PostSummaryResponse>builder()
+        .content(toSummaryResponses(page.stream().map(PostSave::getPost).toList()))
+        .size(pageSize)
+        .hasNext(hasNext)
+        .nextCursor(nextCursor)
+        .build();
   }
 
   @Transactional
@@ -112,23 +184,28 @@ public class PostServiceImpl implements PostService {
   @Transactional
   @Override
   public PostResponse toggleSave(UUID postId) {
+    User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
     Post post =
         postRepository
             .findById(postId)
             .orElseThrow(() -> new ResourceNotFoundException("Post", postId.toString()));
 
-    // TODO: Implement proper save tracking with PostSave entity
-    // For now, just increment/decrement the counter
-    int currentSaves = post.getSavesCount();
-    if (currentSaves % 2 == 0) {
-      post.setSavesCount(currentSaves + 1);
-    } else {
-      post.setSavesCount(Math.max(0, currentSaves - 1));
+    // Concurrent toggles race on UNIQUE(post_id, user_id), so the row changes are single statements
+    // and the counter moves only when one of them changed a row. The counter moves with an atomic
+    // UPDATE, so the loaded entity is left untouched
+    int delta = 0;
+    if (postSaveRepository.deleteByPostIdAndUserId(postId, user.getId()) > 0) {
+      postRepository.decrementSavesCount(postId);
+      delta = -1;
+    } else if (postSaveRepository.insertIfAbsent(postId, user.getId()) > 0) {
+      postRepository.incrementSavesCount(postId);
+      delta = 1;
     }
 
-    Post saved = postRepository.save(post);
-    return postMapper.toResponse(saved);
+    PostResponse response = toDetailResponse(post);
+    response.setSavesCount(Math.max(0, post.getSavesCount() + delta));
+    return response;
   }
 
   @Transactional
@@ -237,6 +314,46 @@ public class PostServiceImpl implements PostService {
     return response;
   }
 
+  // Detail response with the buffered like delta and the viewer's liked/saved flags applied
+  private PostResponse toDetailResponse(Post post) {
+    PostResponse response = postMapper.toResponse(post);
+    int pendingLikes =
+        postLikeCounterService.pendingDeltas(List.of(post.getId())).getOrDefault(post.getId(), 0);
+    response.setLikesCount(Math.max(0, response.getLikesCount() + pendingLikes));
+
+    PostMembershipService.Membership membership =
+        postMembershipService.resolve(currentUserId(), List.of(post.getId()));
+    response.setLikedByMe(membership.isLiked(post.getId()));
+    response.setSavedByMe(membership.isSaved(post.getId()));
+    return response;
+  }
+
+  private List<PostSummaryResponse> toSummaryResponses(List<Post> posts) {
+    List<UUID> postIds = posts.stream().map(Post::getId).toList();
+    // Stored counters lag the buffered like deltas by at most one flush interval
+    Map<UUID, Integer> pendingLikes = postLikeCounterService.pendingDeltas(postIds);
+    PostMembershipService.Membership membership =
+        postMembershipService.resolve(currentUserId(), postIds);
+
+    List<PostSummaryResponse> content = new ArrayList<>(posts.size());
+    for (Post post : posts) {
+      PostSummaryResponse summary = postMapper.toSummaryResponse(post);
+      summary.setLikesCount(
+          Math.max(0, summary.getLikesCount() + pendingLikes.getOrDefault(post.getId(), 0)));
+      summary.setLikedByMe(membership.isLiked(post.getId()));
+      summary.setSavedByMe(membership.isSaved(post.getId()));
+      content.add(summary);
+    }
+    return content;
+  }
+
+  private UUID currentUserId() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication != null && authentication.getPrincipal() instanceof User user
+        ? user.getId()
+        : null;
+  }
+
   private Post mapToPostEntity(CreatePostRequest request, User user, Plan plan) {
     Post post = new Post();
     post.setUser(user);
@@ -0,0 +1,196 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thentrees.gymhealthtech.enums.UserRole;
+import com.thentrees.gymhealthtech.enums.UserStatus;
+import com.thentrees.gymhealthtech.model.User;
+import com.thentrees.gymhealthtech.model.UserProfile;
+import com.thentrees.gymhealthtech.service.PrincipalCacheService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j(topic = "PRINCIPAL-CACHE")
+public class PrincipalCacheServiceImpl implements PrincipalCacheService, MessageListener {
+
+  private static final String INVALIDATION_CHANNEL = "cache:principal:invalidate";
+
+  private final UserDetailsService userDetailsService;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisMessageListenerContainer listenerContainer;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.jwt.expiration}")
+  private long jwtExpiration;
+
+  @Value("${app.security.principal-cache.ttl-seconds:60}")
+  private long ttlSeconds;
+
+  @Value("${app.security.principal-cache.max-size:10000}")
+  private long maxSize;
+
+  private Cache<String, PrincipalSnapshot> cache;
+
+  @PostConstruct
+  void init() {
+    // TTL must stay below the access token lifetime so a disabled account cannot outlive its token
+    Duration ttl = Duration.ofSeconds(ttlSeconds);
+    Duration tokenLifetime = Duration.ofMillis(jwtExpiration);
+    if (ttl.compareTo(tokenLifetime) >= 0) {
+      ttl = tokenLifetime.dividedBy(2);
+      log.warn("Principal cache TTL clamped to {}s (token lifetime {}s)", ttl.toSeconds(), tokenLifetime.toSeconds());
+    }
+
+    this.cache = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "principal");
+    listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+  }
+
+  @Override
+  public UserDetails loadUser(String username) {
+    // Every request gets its own detached copy; the cached snapshot itself is never shared
+    return cache.get(username, this::loadSnapshot).toUser();
+  }
+
+  @Override
+  public void evict(User user) {
+    if (user == null) return;
+    evict(user.getEmail());
+    evict(user.getPhone());
+  }
+
+  @Override
+  public void evict(String username) {
+    if (username == null || username.isBlank()) return;
+
+    cache.invalidate(username);
+    publish(username);
+
+    // A concurrent request may re-cache the old row before commit, so evict again once committed
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              cache.invalidate(username);
+              publish(username);
+            }
+          });
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String username = new String(message.getBody(), StandardCharsets.UTF_8);
+    cache.invalidate(username);
+    log.debug("Evicted principal {} on invalidation broadcast", username);
+  }
+
+  private PrincipalSnapshot loadSnapshot(String username) {
+    UserDetails details = userDetailsService.loadUserByUsername(username);
+    if (!(details instanceof User user)) {
+      throw new IllegalStateException("Unexpected principal type " + details.getClass());
+    }
+    return PrincipalSnapshot.of(user);
+  }
+
+  private void publish(String username) {
+    try {
+      stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, username);
+    } catch (Exception e) {
+      // Other nodes still converge through the TTL
+      log.error("Failed to broadcast principal invalidation for {}", username, e);
+    }
+  }
+
+  /**
+   * Immutable copy of the columns authentication and authorization read, plus the name and avatar
+   * that author summaries show. Only those profile columns come back, on a detached profile, so
+   * code that needs more of it or writes the user must load the entity in its own transaction.
+   */
+  private record PrincipalSnapshot(
+      UUID id,
+      Long version,
+      LocalDateTime createdAt,
+      LocalDateTime updatedAt,
+      String email,
+      String phone,
+      String passwordHash,
+      UserStatus status,
+      UserRole role,
+      Boolean emailVerified,
+      Boolean profileCompleted,
+      Boolean isPremium,
+      LocalDateTime premiumExpiresAt,
+      ProfileSummary profile) {
+
+    static PrincipalSnapshot of(User user) {
+      UserProfile profile = user.getProfile();
+      return new PrincipalSnapshot(
+          user.getId(),
+          user.getVersion(),
+          user.getCreatedAt(),
+          user.getUpdatedAt(),
+          user.getEmail(),
+          user.getPhone(),
+          user.getPasswordHash(),
+          user.getStatus(),
+          user.getRole(),
+          user.getEmailVerified(),
+          user.getProfileCompleted(),
+          user.getIsPremium(),
+          user.getPremiumExpiresAt(),
+          profile == null
+              ? null
+              : new ProfileSummary(profile.getFullName(), profile.getAvatarUrl()));
+    }
+
+    User toUser() {
+      User user = new User();
+      user.setId(id);
+      user.setVersion(version);
+      user.setCreatedAt(createdAt);
+      user.setUpdatedAt(updatedAt);
+      user.setEmail(email);
+      user.setPhone(phone);
+      user.setPasswordHash(passwordHash);
+      user.setStatus(status);
+      user.setRole(role);
+      user.setEmailVerified(emailVerified);
+      user.setProfileCompleted(profileCompleted);
+      user.setIsPremium(isPremium);
+      user.setPremiumExpiresAt(premiumExpiresAt);
+      if (profile != null) {
+        UserProfile detached = new UserProfile();
+        detached.setId(id);
+        detached.setUser(user);
+        detached.setFullName(profile.fullName());
+        detached.setAvatarUrl(profile.avatarUrl());
+        user.setProfile(detached);
+      }
+      return user;
+    }
+  }
+
+  private record ProfileSummary(String fullName, String avatarUrl) {}
+}
@@ -1,31 +1,122 @@
 package com.thentrees.gymhealthtech.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.thentrees.gymhealthtech.service.RateLimiterService;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.ConsumptionProbe;
 import io.github.bucket4j.Refill;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
+/**
+ * Token buckets live in Redis and are updated by one atomic Lua script, so N replicas share one
+ * limit. Two bounded local caches sit in front: one remembers keys that were just denied (no Redis
+ * round trip until the retry window passes) and one holds per-node fallback buckets used only
+ * while Redis is unreachable.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j(topic = "RATE_LIMITER-SERVICE")
 public class RateLimiterServiceImpl implements RateLimiterService {
-  private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+
+  private static final String KEY_PREFIX = "rate-limit:";
+  private static final RedisScript<List> TOKEN_BUCKET_SCRIPT = loadScript();
+
+  private final StringRedisTemplate stringRedisTemplate;
+
+  @Value("${app.rate-limit.local-cache-size:100000}")
+  private long localCacheSize;
+
+  private Cache<String, Long> deniedUntil;
+  private Cache<String, Bucket> fallbackBuckets;
+
+  @PostConstruct
+  void init() {
+    this.deniedUntil =
+        Caffeine.newBuilder().maximumSize(localCacheSize).expireAfterWrite(Duration.ofMinutes(15)).build();
+    this.fallbackBuckets =
+        Caffeine.newBuilder().maximumSize(localCacheSize).expireAfterAccess(Duration.ofMinutes(15)).build();
+  }
 
   @Override
-  public boolean tryConsume(String key) {
-    Bucket bucket = cache.computeIfAbsent(key, this::newBucket);
-    return bucket.tryConsume(1);
+  public Decision tryConsume(String key, Policy policy) {
+    String bucketKey = KEY_PREFIX + policy.name() + ":" + key;
+    long now = System.currentTimeMillis();
+
+    Long blockedUntil = deniedUntil.getIfPresent(bucketKey);
+    if (blockedUntil != null && blockedUntil > now) {
+      long retryAfter = toSeconds(blockedUntil - now);
+      return new Decision(false, policy.capacity(), 0, retryAfter, retryAfter);
+    }
+
+    try {
+      Decision decision = consumeShared(bucketKey, policy);
+      if (!decision.allowed()) {
+        deniedUntil.put(bucketKey, now + TimeUnit.SECONDS.toMillis(decision.retryAfterSeconds()));
+      }
+      return decision;
+    } catch (Exception e) {
+      log.error("Redis rate limiter unavailable, using local bucket for {}", bucketKey, e);
+      return consumeLocal(bucketKey, policy);
+    }
+  }
+
+  private Decision consumeShared(String bucketKey, Policy policy) {
+    List<?> result =
+        stringRedisTemplate.execute(
+            TOKEN_BUCKET_SCRIPT,
+            List.of(bucketKey),
+            String.valueOf(policy.capacity()),
+            String.valueOf(policy.refillTokens()),
+            String.valueOf(policy.refillPeriod().toMillis()));
+
+    if (result == null || result.size() < 4) {
+      throw new IllegalStateException("Unexpected rate limit script result: " + result);
+    }
+    boolean allowed = ((Number) result.get(0)).longValue() == 1L;
+    long remaining = ((Number) result.get(1)).longValue();
+    long retryAfterMillis = ((Number) result.get(2)).longValue();
+    long resetMillis = ((Number) result.get(3)).longValue();
+    return new Decision(allowed, policy.capacity(), remaining, toSeconds(retryAfterMillis), toSeconds(resetMillis));
+  }
+
+  private Decision consumeLocal(String bucketKey, Policy policy) {
+    Bucket bucket =
+        fallbackBuckets.get(
+            bucketKey,
+            k ->
+                Bucket.builder()
+                    .addLimit(
+                        Bandwidth.classic(
+                            policy.capacity(), Refill.greedy(policy.refillTokens(), policy.refillPeriod())))
+                    .build());
+
+    ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+    long retryAfter = toSeconds(TimeUnit.NANOSECONDS.toMillis(probe.getNanosToWaitForRefill()));
+    return new Decision(probe.isConsumed(), policy.capacity(), probe.getRemainingTokens(), retryAfter, retryAfter);
+  }
+
+  private static long toSeconds(long millis) {
+    return millis <= 0 ? 0 : (millis + 999) / 1000;
   }
 
-  private Bucket newBucket(String key) {
-    Bandwidth limit = Bandwidth.classic(5, Refill.greedy(500, Duration.ofSeconds(10)));
-    // 5 request mỗi 10 giây
-    return Bucket4j.builder().addLimit(limit).build();
+  private static RedisScript<List> loadScript() {
+    DefaultRedisScript<List> script = new DefaultRedisScript<>();
+    script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/token_bucket.lua")));
+    script.setResultType(List.class);
+    return script;
   }
 }
@@ -1,23 +1,26 @@
 package com.thentrees.gymhealthtech.service.impl;
 
+import static com.thentrees.gymhealthtech.constant.CacheConstant.NAMESPACE_INVALIDATION_CHANNEL;
+
 import com.thentrees.gymhealthtech.exception.InfraRedisException;
 import com.thentrees.gymhealthtech.service.RedisService;
 import java.time.Duration;
-import java.util.concurrent.atomic.AtomicInteger;
-
-import io.lettuce.core.RedisException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j(topic = "REDIS-SERVICE")
 public class RedisServiceImpl implements RedisService {
 
+  private static final String NAMESPACE_VERSION_PREFIX = "cache:version:";
+
   private final RedisTemplate<String, Object> redisTemplate;
+  private final StringRedisTemplate stringRedisTemplate;
 
   @Override
   public void set(String key, Object value, Duration timeout) {
@@ -64,31 +67,65 @@ public class RedisServiceImpl implements RedisService {
   }
 
   @Override
-  public void deletePattern(String pattern) {
+  public String versionedKey(String namespace, String key) {
     try {
-      ScanOptions options = ScanOptions.scanOptions().match(pattern).count(100).build();
-      AtomicInteger deletedCount = new AtomicInteger();
+      return namespace + ":v" + namespaceVersion(namespace) + ":" + key;
+    } catch (Exception e) {
+      log.error("Error reading version of cache namespace: {}", namespace, e);
+      throw new InfraRedisException("Lỗi đọc phiên bản cache Redis", e);
+    }
+  }
 
-      redisTemplate.execute((RedisCallback<Object>) connection -> {
-        try (Cursor<byte[]> cursor = connection.scan(options)) {
-          while (cursor.hasNext()) {
-            byte[] keyBytes = cursor.next();
-            String key = redisTemplate.getStringSerializer().deserialize(keyBytes);
-            if (key != null) {
-              redisTemplate.delete(key);
-              deletedCount.getAndIncrement();
+  @Override
+  public void invalidateNamespace(String namespace) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              try {
+                bumpNamespaceVersion(namespace);
+              } catch (Exception e) {
+                // The data is already committed; entries converge through their TTL
+                log.error("Error invalidating cache namespace: {} after commit", namespace, e);
+              }
             }
-          }
-        }
-        return null;
-      });
-
-      log.info("Deleted {} keys matching pattern: {}", deletedCount, pattern);
-
+          });
+      return;
+    }
+    try {
+      bumpNamespaceVersion(namespace);
     } catch (Exception e) {
-      log.error("Error deleting keys with pattern: {} from Redis", pattern, e);
-      throw new InfraRedisException("Lỗi xóa dữ liệu Redis theo pattern", e);
+      log.error("Error invalidating cache namespace: {}", namespace, e);
+      throw new InfraRedisException("Lỗi làm mới cache Redis", e);
+    }
+  }
+
+  private String namespaceVersion(String namespace) {
+    String versionKey = NAMESPACE_VERSION_PREFIX + namespace;
+    String version = stringRedisTemplate.opsForValue().get(versionKey);
+    if (version != null) {
+      return version;
     }
+    seedNamespaceVersion(versionKey);
+    return stringRedisTemplate.opsForValue().get(versionKey);
+  }
+
+  private void bumpNamespaceVersion(String namespace) {
+    String versionKey = NAMESPACE_VERSION_PREFIX + namespace;
+    seedNamespaceVersion(versionKey);
+    Long version = stringRedisTemplate.opsForValue().increment(versionKey);
+    // Published only after the bump, so a node reloading on receipt reads the new version
+    stringRedisTemplate.convertAndSend(NAMESPACE_INVALIDATION_CHANNEL, namespace);
+    log.info("Invalidated cache namespace: {} (version {})", namespace, version);
+  }
+
+  // Seeding from the clock keeps an evicted version key from falling back onto a generation whose
+  // entries are still alive
+  private void seedNamespaceVersion(String versionKey) {
+    stringRedisTemplate
+        .opsForValue()
+        .setIfAbsent(versionKey, String.valueOf(System.currentTimeMillis()));
   }
 
   @Override
@@ -7,14 +7,16 @@ import com.thentrees.gymhealthtech.service.RefreshTokenService;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.Optional;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -23,10 +25,9 @@ import org.springframework.transaction.annotation.Transactional;
 public class RefreshTokenServiceImpl implements RefreshTokenService {
 
   private final RefreshTokenRepository refreshTokenRepository;
-  private final PasswordEncoder passwordEncoder;
   private final SecureRandom secureRandom = new SecureRandom();
 
-  @Value("${app.jwt.expiration:604800000}") // 7 days
+  @Value("${app.jwt.refresh-expiration:604800000}") // 7 days
   private long refreshTokenExpiration;
 
   @Transactional
@@ -36,26 +37,8 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
       // Revoke existing refresh tokens for this user
       refreshTokenRepository.revokeAllByUserId(user.getId());
 
-      // Generate new refresh token
-      byte[] tokenBytes = new byte[64];
-      secureRandom.nextBytes(tokenBytes);
-      String token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
-
-      String tokenHash = hashToken(token);
-
-      RefreshToken refreshToken = new RefreshToken();
-      refreshToken.setUser(user);
-      refreshToken.setTokenHash(tokenHash);
-      log.info("Generated new refresh token hash for user: {}", LocalDateTime.now());
-      refreshToken.setExpiresAt(LocalDateTime.now());
-      refreshToken.setUserAgent(userAgent);
-      refreshToken.setIp(ipAddress);
-
-      RefreshToken saved = refreshTokenRepository.save(refreshToken);
+      RefreshToken saved = issueToken(user, UUID.randomUUID(), userAgent, ipAddress);
       log.info("Created refresh token for user: {}", user.getEmail());
-
-      // Store the plain token temporarily for returning to client
-      saved.setTokenHash(token); // This is a bit hacky but works for this use case
       return saved;
     } catch (Exception e) {
       log.error("Error creating refresh token for user: {}", user.getEmail(), e);
@@ -63,24 +46,46 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     }
   }
 
+  @Transactional
+  @Override
+  public RefreshToken rotateRefreshToken(RefreshToken current, String userAgent, String ipAddress) {
+    current.setRevokedAt(LocalDateTime.now());
+    refreshTokenRepository.save(current);
+
+    RefreshToken next = issueToken(current.getUser(), current.getFamilyId(), userAgent, ipAddress);
+    log.info("Rotated refresh token for user: {}", current.getUser().getEmail());
+    return next;
+  }
+
   @Transactional
   @Override
   public Optional<RefreshToken> findByToken(String token) {
-    return refreshTokenRepository.findActiveTokens().stream()
-        .filter(rt -> passwordEncoder.matches(token, rt.getTokenHash()))
-        .findFirst();
+    if (token == null || token.isBlank()) {
+      return Optional.empty();
+    }
+    String tokenHash = hashToken(token);
+    // Lookup is by unique index on the digest; re-check in constant time before trusting the row
+    return refreshTokenRepository
+        .findByTokenHash(tokenHash)
+        .filter(
+            rt ->
+                MessageDigest.isEqual(
+                    tokenHash.getBytes(StandardCharsets.UTF_8),
+                    rt.getTokenHash().getBytes(StandardCharsets.UTF_8)));
   }
 
   @Transactional
   @Override
   public void revokeToken(String token) {
     Optional<RefreshToken> refreshToken = findByToken(token);
-    refreshToken.ifPresent(
-        rt -> {
-          rt.setRevokedAt(LocalDateTime.now());
-          refreshTokenRepository.save(rt);
-          log.info("Revoked refresh token for user: {}", rt.getUser().getEmail());
-        });
+    refreshToken
+        .filter(rt -> rt.getRevokedAt() == null)
+        .ifPresent(
+            rt -> {
+              rt.setRevokedAt(LocalDateTime.now());
+              refreshTokenRepository.save(rt);
+              log.info("Revoked refresh token for user: {}", rt.getUser().getEmail());
+            });
   }
 
   @Transactional
@@ -90,6 +95,18 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     log.info("Revoked all refresh tokens for user: {}", user.getEmail());
   }
 
+  // Runs in its own transaction so the revocation survives the caller rolling back on the error
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  @Override
+  public void revokeTokenFamily(RefreshToken token) {
+    int revoked = refreshTokenRepository.revokeAllByFamilyId(token.getFamilyId(), LocalDateTime.now());
+    log.warn(
+        "Refresh token reuse detected for user {}: revoked {} tokens in family {}",
+        token.getUser().getEmail(),
+        revoked,
+        token.getFamilyId());
+  }
+
   @Override
   public boolean isTokenExpired(RefreshToken token) {
     return token.getExpiresAt().isBefore(LocalDateTime.now());
@@ -100,6 +117,27 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     return token.getRevokedAt() != null;
   }
 
+  private RefreshToken issueToken(User user, UUID familyId, String userAgent, String ipAddress) {
+    byte[] tokenBytes = new byte[64];
+    secureRandom.nextBytes(tokenBytes);
+    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+
+    LocalDateTime now = LocalDateTime.now();
+    RefreshToken refreshToken = new RefreshToken();
+    refreshToken.setUser(user);
+    refreshToken.setTokenHash(hashToken(token));
+    refreshToken.setFamilyId(familyId);
+    refreshToken.setIssuedAt(now);
+    refreshToken.setExpiresAt(now.plus(Duration.ofMillis(refreshTokenExpiration)));
+    refreshToken.setUserAgent(userAgent);
+    refreshToken.setIp(ipAddress);
+
+    RefreshToken saved = refreshTokenRepository.save(refreshToken);
+    // Only the digest is persisted; the plain value is returned once to the client
+    saved.setRawToken(token);
+    return saved;
+  }
+
   private String hashToken(String token) {
     try {
       MessageDigest digest = MessageDigest.getInstance("SHA-256");
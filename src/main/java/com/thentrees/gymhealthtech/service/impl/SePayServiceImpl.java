@@ -8,6 +8,7 @@ import com.thentrees.gymhealthtech.model.Payment;
 import com.thentrees.gymhealthtech.model.User;
 import com.thentrees.gymhealthtech.repository.PaymentRepository;
 import com.thentrees.gymhealthtech.repository.UserRepository;
+import com.thentrees.gymhealthtech.service.PrincipalCacheService;
 import com.thentrees.gymhealthtech.service.SePayService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +28,7 @@ public class SePayServiceImpl implements SePayService {
   private final PaymentRepository paymentRepository;
   private final UserRepository userRepository;
   private final ObjectMapper objectMapper;
+  private final PrincipalCacheService principalCacheService;
 
   @Value("${app.sepay.bankAccount:0938749250}")
   private String bankAccount;
@@ -136,6 +138,7 @@ public class SePayServiceImpl implements SePayService {
       user.setIsPremium(true);
       user.setPremiumExpiresAt(newExpiry);
       userRepository.save(user);
+      principalCacheService.evict(user);
     });
   }
 
@@ -16,9 +16,12 @@ import com.thentrees.gymhealthtech.exception.ValidationException;
 import com.thentrees.gymhealthtech.model.*;
 import com.thentrees.gymhealthtech.mapper.SessionMapper;
 import com.thentrees.gymhealthtech.repository.*;
+import com.thentrees.gymhealthtech.repository.projection.SessionSummaryView;
+import com.thentrees.gymhealthtech.repository.projection.TrainingStatsTotals;
 import com.thentrees.gymhealthtech.repository.spec.SessionSpecification;
 import com.thentrees.gymhealthtech.service.RedisService;
 import com.thentrees.gymhealthtech.service.SessionManagementService;
+import com.thentrees.gymhealthtech.service.TrainingStatsService;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -33,6 +36,7 @@ import java.util.stream.Collectors;
 import com.thentrees.gymhealthtech.util.CacheKeyUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -55,6 +59,7 @@ public class SessionManagementServiceImpl implements SessionManagementService {
   private final ObjectMapper objectMapper;
   private final PlanRepository planRepository;
   private final SessionMapper sessionMapper;
+  private final TrainingStatsService trainingStatsService;
 
   @Transactional(readOnly = true)
   public SessionResponse getSessionDetails(UUID sessionId) {
@@ -117,15 +122,27 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     }
 
     Session session = createSessionEntity(user, planDay, request);
-    Session sessionSaved = sessionRepository.save(session);
+    Session sessionSaved;
+    try {
+      // Flush now: the partial unique index on (user_id) WHERE status = 'IN_PROGRESS' rejects a
+      // concurrent start before any set is written
+      sessionSaved = sessionRepository.saveAndFlush(session);
+    } catch (DataIntegrityViolationException e) {
+      log.error("Concurrent session start rejected for user {}", user.getId());
+      throw new ValidationException(
+          "You already have an active workout session. Complete it first.");
+    }
+
     // Create session sets based on plan items
-    List<PlanItem> planItems =
-        planItemRepository.findByPlanDay_IdOrderByItemIndexAsc(planDay.getId());
+    List<PlanItem> planItems = planItemRepository.findByPlanDayIdWithExercise(planDay.getId());
 
+    // Build every set in memory, then persist them in one JDBC batch (ids are client-side)
     List<SessionSet> sessionSets = new ArrayList<>();
     for (PlanItem planItem : planItems) {
       JsonNode prescription = planItem.getPrescription();
       int plannedSets = prescription.get("sets").asInt();
+      int restSeconds = prescription.path("restSeconds").asInt(0);
+      JsonNode weight = prescription.get("weight");
 
       // Create individual session sets for each planned set
       for (int setIndex = 1; setIndex <= plannedSets; setIndex++) {
@@ -133,25 +150,23 @@ public class SessionManagementServiceImpl implements SessionManagementService {
         sessionSet.setSession(sessionSaved);
         sessionSet.setExercise(planItem.getExercise());
         sessionSet.setSetIndex(setIndex);
+        // Each set owns its copy: adjusting one set's plan must not change its siblings
         sessionSet.setPlanned(prescription.deepCopy());
         sessionSet.setPlanItem(planItem);
 
         // Initialize actual with planned values (user can modify during workout)
-        ObjectNode actualNode =
-            objectMapper
-                .createObjectNode()
-                .put("restSeconds", prescription.path("restSeconds").asInt(0));
-        if (prescription.has("weight")) {
-          actualNode.put("weight", prescription.get("weight").asDouble());
+        ObjectNode actualNode = objectMapper.createObjectNode().put("restSeconds", restSeconds);
+        if (weight != null) {
+          actualNode.put("weight", weight.asDouble());
         }
         sessionSet.setActual(actualNode);
 
-        SessionSet sessionSetSaved = sessionSetRepository.save(sessionSet);
-
-        sessionSets.add(sessionSetSaved);
+        sessionSets.add(sessionSet);
       }
     }
+    sessionSets = sessionSetRepository.saveAll(sessionSets);
     session.setSessionSets(sessionSets);
+    trainingStatsService.recordSessionStarted(sessionSaved, sessionSets.size());
 
     return sessionMapper.toResponse(session, true);
   }
@@ -204,6 +219,7 @@ public class SessionManagementServiceImpl implements SessionManagementService {
 
     session.setNotes(completedNotes);
     session = sessionRepository.save(session);
+    trainingStatsService.recordSessionEnded(session);
 
     // Update plan progression (could trigger notifications, plan adjustments, etc.)
     updatePlanProgression(session);
@@ -226,8 +242,9 @@ public class SessionManagementServiceImpl implements SessionManagementService {
       throw new ValidationException("Cannot update sets in a non-active session");
     }
 
-    // Update actual performance
+    // Update actual performance (the node is mutated in place, keep a copy for the stats delta)
     ObjectNode actualNode = (ObjectNode) sessionSet.getActual();
+    JsonNode actualBefore = actualNode.deepCopy();
     actualNode.put("reps", request.getActualReps());
 
     if (request.getActualWeight() != null) {
@@ -254,6 +271,11 @@ public class SessionManagementServiceImpl implements SessionManagementService {
 
     sessionSet.setActual(actualNode);
     sessionSet = sessionSetRepository.save(sessionSet);
+    trainingStatsService.recordSetUpdated(
+        sessionSet.getSession(),
+        actualBefore,
+        actualNode,
+        (int) sessionSetRepository.countBySessionId(sessionSet.getSession().getId()));
 
     log.info("Successfully updated session set: {}", sessionSetId);
     return sessionMapper.toSessionSetResponseWithComputed(sessionSet);
@@ -272,6 +294,9 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     if (session.getStatus() == SessionStatus.COMPLETED) {
       throw new ValidationException("Cannot cancel a completed session");
     }
+    if (session.getStatus() == SessionStatus.CANCELLED) {
+      throw new ValidationException("Session is already cancelled");
+    }
 
     session.setStatus(SessionStatus.CANCELLED);
     session.setEndedAt(LocalDateTime.now());
@@ -285,6 +310,7 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     session.setNotes(currentNotes + (currentNotes.isEmpty() ? "" : "\n") + cancelNote);
 
     sessionRepository.save(session);
+    trainingStatsService.recordSessionEnded(session);
 
     log.info("Successfully cancelled session: {}", sessionId);
   }
@@ -330,11 +356,25 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     if (session.getStatus() != SessionStatus.PAUSED) {
       throw new ValidationException("Can only resume a paused session");
     }
+    if (sessionRepository
+        .findByUserIdAndStatus(user.getId(), SessionStatus.IN_PROGRESS)
+        .isPresent()) {
+      log.error("Cannot resume session {}, user {} has another active one", sessionId, user.getId());
+      throw new ValidationException(
+          "You already have an active workout session. Complete it first.");
+    }
     session.setStatus(SessionStatus.IN_PROGRESS);
     String resumeNote = "Session resumed at " + LocalDateTime.now();
     String currentNotes = session.getNotes() != null ? session.getNotes() : "";
     session.setNotes(currentNotes + (currentNotes.isEmpty() ? "" : "\n") + resumeNote);
-    session = sessionRepository.save(session);
+    try {
+      // Flush now so the partial unique index rejects a session started concurrently
+      session = sessionRepository.saveAndFlush(session);
+    } catch (DataIntegrityViolationException e) {
+      log.error("Concurrent session resume rejected for user {}", user.getId());
+      throw new ValidationException(
+          "You already have an active workout session. Complete it first.");
+    }
     log.info("Successfully resumed session: {}", sessionId);
     return sessionMapper.toResponse(session, true);
   }
@@ -368,18 +408,16 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     LocalDate startOfWeek = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
     LocalDate endOfWeek = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
 
-    List<Session> sessions =
-        sessionRepository.findByUserAndStartedAtBetween(
-            user,
-            startOfWeek.atStartOfDay(),
-            endOfWeek.plusDays(1).atStartOfDay().minusSeconds(1));
-
-    if (sessions.isEmpty()) {
+    // Totals come from the daily rollups, the per-session rows from one aggregated query
+    SessionStatistics statistics =
+        toSessionStatistics(trainingStatsService.getTotals(user.getId(), startOfWeek, endOfWeek));
+    if (statistics.totalSessions() == 0) {
       return buildEmptyWeeklySummary(startOfWeek, endOfWeek);
     }
 
-    List<SessionResponse> sessionResponses = buildSessionResponses(sessions, true);
-    SessionStatistics statistics = computeSessionStatistics(sessionResponses);
+    List<SessionResponse> sessionResponses =
+        findSessionSummaries(
+            user.getId(), startOfWeek.atStartOfDay(), endOfWeek.plusDays(1).atStartOfDay());
 
     String mostTrainedDayName =
         sessionResponses.stream()
@@ -400,29 +438,29 @@ public class SessionManagementServiceImpl implements SessionManagementService {
       .totalVolume(statistics.totalVolume())
       .totalDurationMinutes(statistics.totalDurationMinutes())
       .mostTrainedDayName(mostTrainedDayName)
-      .dailySummaries(sessionResponses.stream().map(this::mapToDailySummary).toList())
+      .dailySummaries(sessionResponses)
       .build();
 
     return response;
   }
 
-  @Transactional
+  @Transactional(readOnly = true)
   @Override
   public MonthlySummaryResponse getSummaryMonthSessions() {
     User user = getCurrentUser();
     LocalDateTime startOfMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
     LocalDateTime endOfMonth = startOfMonth.plusMonths(1).minusNanos(1);
 
-    List<Session> sessions = sessionRepository.findByUserAndAllSessionsInCurrentMonth(
-      user.getId(), startOfMonth, endOfMonth
-    );
-
-    if (sessions.isEmpty()) {
+    SessionStatistics statistics =
+        toSessionStatistics(
+            trainingStatsService.getTotals(
+                user.getId(), startOfMonth.toLocalDate(), endOfMonth.toLocalDate()));
+    if (statistics.totalSessions() == 0) {
       return buildEmptyMonthlySummary();
     }
 
-    List<SessionResponse> sessionResponses = buildSessionResponses(sessions, true);
-    SessionStatistics statistics = computeSessionStatistics(sessionResponses);
+    List<SessionResponse> sessionResponses =
+        findSessionSummaries(user.getId(), startOfMonth, startOfMonth.plusMonths(1));
 
     double completionRate = statistics.completionRate();
     double avgCompletionPercentage = statistics.avgCompletionPercentage();
@@ -446,7 +484,7 @@ public class SessionManagementServiceImpl implements SessionManagementService {
       .totalDurationMinutes(statistics.totalDurationMinutes())
       .avgDurationPerSession(avgDurationPerSession)
       .avgRpe(avgRpe)
-      .weeklySummaries(sessionResponses.stream().map(this::mapToDailySummary).toList())
+      .weeklySummaries(sessionResponses)
       .feedback(feedback)
       .build();
 
@@ -648,9 +686,10 @@ public class SessionManagementServiceImpl implements SessionManagementService {
     return summary;
   }
 
-  private List<SessionResponse> buildSessionResponses(List<Session> sessions, boolean includeSessionSets) {
-    return sessions.stream()
-        .map(session -> sessionMapper.toResponse(session, includeSessionSets))
+  private List<SessionResponse> findSessionSummaries(
+      UUID userId, LocalDateTime from, LocalDateTime to) {
+    return sessionRepository.findSessionSummaries(userId, from, to).stream()
+        .map(this::mapToDailySummary)
         .toList();
   }
 
@@ -688,24 +727,26 @@ public class SessionManagementServiceImpl implements SessionManagementService {
         .build();
   }
 
-  private SessionResponse mapToDailySummary(SessionResponse sessionResponse) {
+  private SessionResponse mapToDailySummary(SessionSummaryView view) {
+    int totalSets = view.getTotalSets().intValue();
+    int completedSets = view.getCompletedSets().intValue();
+
     SessionResponse summary = new SessionResponse();
-    summary.setId(sessionResponse.getId());
-    summary.setPlanDayId(sessionResponse.getPlanDayId());
-    summary.setPlanDayName(sessionResponse.getPlanDayName());
-    summary.setStartedAt(sessionResponse.getStartedAt());
-    summary.setEndedAt(sessionResponse.getEndedAt());
-    summary.setStatus(sessionResponse.getStatus());
-    summary.setSessionRpe(sessionResponse.getSessionRpe());
-    summary.setNotes(sessionResponse.getNotes());
-    summary.setCreatedAt(sessionResponse.getCreatedAt());
-    summary.setDurationMinutes(sessionResponse.getDurationMinutes());
-    summary.setTotalSets(sessionResponse.getTotalSets());
-    summary.setCompletedSets(sessionResponse.getCompletedSets());
-    summary.setCompletionPercentage(sessionResponse.getCompletionPercentage());
-    summary.setTotalVolume(sessionResponse.getTotalVolume());
-    summary.setSessionSets(sessionResponse.getSessionSets());
-    summary.setPlannedItems(sessionResponse.getPlannedItems());
+    summary.setId(view.getId());
+    summary.setPlanDayId(view.getPlanDayId());
+    summary.setPlanDayName(view.getPlanDayName());
+    summary.setStartedAt(view.getStartedAt());
+    summary.setEndedAt(view.getEndedAt());
+    summary.setStatus(SessionStatus.valueOf(view.getStatus()));
+    summary.setSessionRpe(view.getSessionRpe());
+    summary.setNotes(view.getNotes());
+    summary.setCreatedAt(view.getCreatedAt());
+    summary.setDurationMinutes(view.getDurationMinutes());
+    summary.setTotalSets(totalSets);
+    summary.setCompletedSets(completedSets);
+    summary.setCompletionPercentage(
+        totalSets > 0 ? (double) completedSets / totalSets * 100 : 0.0);
+    summary.setTotalVolume(view.getTotalVolume().intValue());
     return summary;
   }
 
@@ -743,77 +784,29 @@ public class SessionManagementServiceImpl implements SessionManagementService {
   }
 
 
-  private SessionStatistics computeSessionStatistics(List<SessionResponse> sessionResponses) {
-    int totalSessions = sessionResponses.size();
-    int completedSessions =
-        (int)
-            sessionResponses.stream()
-                .filter(s -> s.getStatus() == SessionStatus.COMPLETED)
-                .count();
-
-    int totalSets =
-        sessionResponses.stream()
-            .map(SessionResponse::getTotalSets)
-            .filter(Objects::nonNull)
-            .mapToInt(Integer::intValue)
-            .sum();
-
-    int completedSets =
-        sessionResponses.stream()
-            .map(SessionResponse::getCompletedSets)
-            .filter(Objects::nonNull)
-            .mapToInt(Integer::intValue)
-            .sum();
-
-    int totalVolume =
-        sessionResponses.stream()
-            .map(SessionResponse::getTotalVolume)
-            .filter(Objects::nonNull)
-            .mapToInt(Integer::intValue)
-            .sum();
-
-    int totalDurationMinutes =
-        sessionResponses.stream()
-            .map(SessionResponse::getDurationMinutes)
-            .filter(Objects::nonNull)
-            .mapToInt(Integer::intValue)
-            .sum();
+  private SessionStatistics toSessionStatistics(TrainingStatsTotals totals) {
+    int totalSessions = totals.getTotalSessions().intValue();
+    int completedSessions = totals.getCompletedSessions().intValue();
+    int totalVolume = totals.getTotalVolume().intValue();
+    long rpeCount = totals.getRpeCount();
 
     double avgCompletionPercentage =
-        sessionResponses.stream()
-            .map(SessionResponse::getCompletionPercentage)
-            .filter(Objects::nonNull)
-            .mapToDouble(Double::doubleValue)
-            .average()
-            .orElse(0.0);
-
-    double avgRpe =
-        sessionResponses.stream()
-            .map(SessionResponse::getSessionRpe)
-            .filter(Objects::nonNull)
-            .mapToInt(Integer::intValue)
-            .average()
-            .orElse(0.0);
-
+        totalSessions == 0 ? 0.0 : totals.getCompletionPctSum() / totalSessions;
+    double avgRpe = rpeCount == 0 ? 0.0 : (double) totals.getRpeSum() / rpeCount;
     double avgVolumePerCompletedSession =
         completedSessions == 0 ? 0.0 : (double) totalVolume / completedSessions;
-
     double avgDurationPerCompletedSession =
-        sessionResponses.stream()
-                    .filter(s -> s.getStatus() == SessionStatus.COMPLETED)
-                    .map(SessionResponse::getDurationMinutes)
-                    .filter(Objects::nonNull)
-                    .mapToInt(Integer::intValue)
-                    .average()
-                    .orElse(0.0);
+        completedSessions == 0
+            ? 0.0
+            : (double) totals.getCompletedDurationMinutes() / completedSessions;
 
     return new SessionStatistics(
         totalSessions,
         completedSessions,
-        totalSets,
-        completedSets,
+        totals.getTotalSets().intValue(),
+        totals.getCompletedSets().intValue(),
         totalVolume,
-        totalDurationMinutes,
+        totals.getTotalDurationMinutes().intValue(),
         avgCompletionPercentage,
         avgRpe,
         avgVolumePerCompletedSession,
@@ -1,7 +1,6 @@
 package com.thentrees.gymhealthtech.service.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.thentrees.gymhealthtech.dto.request.*;
 import com.thentrees.gymhealthtech.dto.response.TemplateItemResponse;
 import com.thentrees.gymhealthtech.dto.response.TemplateWorkoutDayResponse;
@@ -15,14 +14,15 @@ import com.thentrees.gymhealthtech.model.*;
 import com.thentrees.gymhealthtech.mapper.TemplateWorkoutMapper;
 import com.thentrees.gymhealthtech.mapper.common.PrescriptionMapper;
 import com.thentrees.gymhealthtech.repository.*;
-import com.thentrees.gymhealthtech.service.RedisService;
 import com.thentrees.gymhealthtech.service.TemplateWorkoutService;
+import com.thentrees.gymhealthtech.service.TwoLevelCacheService;
 import com.thentrees.gymhealthtech.service.UserService;
 import com.thentrees.gymhealthtech.util.CacheKeyUtils;
 import com.thentrees.gymhealthtech.util.FileValidator;
 import com.thentrees.gymhealthtech.util.S3Util;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -30,11 +30,13 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 
+import static com.thentrees.gymhealthtech.constant.CacheConstant.TEMPLATE_CACHE;
 import static com.thentrees.gymhealthtech.constant.S3Constant.S3_IMAGE_POST_FOLDER;
 
 @Service
@@ -48,19 +50,19 @@ public class TemplateWorkoutServiceImpl implements TemplateWorkoutService {
   private final FileValidator fileValidator;
   private final TemplateDayRepository templateDayRepository;
   private final TemplateItemRepository templateItemRepository;
-  private final ObjectMapper objectMapper;
   private final PrescriptionMapper prescriptionMapper;
   private final TemplateWorkoutMapper templateWorkoutMapper;
   private final PlanRepository planRepository;
   private final SessionRepository sessionRepository;
-  private final RedisService redisService;
+  private final TwoLevelCacheService twoLevelCacheService;
   private final CacheKeyUtils cacheKeyUtils;
 
+  @Value("${app.cache.ttl-minutes:60}")
+  private long cacheTtlMinutes;
+
   @Transactional
   @Override
   public TemplateWorkoutResponse createTemplateWorkout(CreateTemplateRequest request, MultipartFile file) {
-    redisService.deletePattern("template:*");
-
     log.info("Create template workout: {}", request.toString());
 
     String fileUrl = this.uploadImageBanner(file);
@@ -98,60 +100,37 @@ public class TemplateWorkoutServiceImpl implements TemplateWorkoutService {
     workoutTemplate.setTemplateDays(templateDays);
 
     WorkoutTemplate saved = templateWorkoutRepository.save(workoutTemplate);
+    twoLevelCacheService.invalidate(TEMPLATE_CACHE);
 
     return templateWorkoutMapper.toResponse(saved);
   }
 
-  @Transactional(readOnly = true)
   @Override
   public TemplateWorkoutResponse getTemplateWorkoutById(UUID id) {
-
-    String cacheKey = cacheKeyUtils.buildKey("template:", id);
-    Object cached = redisService.get(cacheKey);
-    if (cached != null) {
-      TemplateWorkoutResponse result = objectMapper.convertValue(cached, TemplateWorkoutResponse.class);
-      if (result != null)
-        return result;
-    }
-    WorkoutTemplate workoutTemplate = templateWorkoutRepository.findByIdAndIsActiveTrue(id).orElseThrow(
-      ()-> new ResourceNotFoundException("TemplateWorkout", id.toString()));
-
-    TemplateWorkoutResponse res = templateWorkoutMapper.toResponse(workoutTemplate);
-
-    redisService.set(cacheKey, res);
-
-    return res;
+    return twoLevelCacheService.get(
+      TEMPLATE_CACHE,
+      cacheKeyUtils.buildKey("", id),
+      new TypeReference<>() {},
+      Duration.ofMinutes(cacheTtlMinutes),
+      () -> {
+        WorkoutTemplate workoutTemplate = templateWorkoutRepository.findByIdAndIsActiveTrue(id).orElseThrow(
+          ()-> new ResourceNotFoundException("TemplateWorkout", id.toString()));
+        return templateWorkoutMapper.toResponse(workoutTemplate);
+      });
   }
 
-  @Transactional(readOnly = true)
   @Override
   public List<TemplateWorkoutResponse> getTemplateWorkouts() {
-
-    String cacheKey = cacheKeyUtils.buildKey("template:", "all");
-
-    Object cached = redisService.get(cacheKey);
-
-    if (cached != null) {
-      List<TemplateWorkoutResponse> result = objectMapper.convertValue(cached, new TypeReference<List<TemplateWorkoutResponse>>() {
-      });
-      if (result != null)
-        return result;
-    }
-
-    List<WorkoutTemplate> templateWorkouts = templateWorkoutRepository.findAll();
-
-    List<TemplateWorkoutResponse> res = templateWorkouts.stream().map(templateWorkoutMapper::toResponse).toList();
-
-    redisService.set(cacheKey, res);
-
-    return res;
+    return twoLevelCacheService.get(
+      TEMPLATE_CACHE,
+      cacheKeyUtils.buildKey("", "all"),
+      new TypeReference<>() {},
+      Duration.ofMinutes(cacheTtlMinutes),
+      () -> templateWorkoutRepository.findAll().stream().map(templateWorkoutMapper::toResponse).toList());
   }
 
   @Override
   public TemplateWorkoutResponse updateTemplateWorkout(UUID id, CreateTemplateRequest request, MultipartFile file) {
-
-    redisService.deletePattern("template:*");
-
     WorkoutTemplate workoutTemplate = templateWorkoutRepository.findByIdAndIsActiveTrue(id).orElseThrow(
       () -> new ResourceNotFoundException("TemplateWorkout", id.toString())
     );
@@ -167,43 +146,37 @@ public class TemplateWorkoutServiceImpl implements TemplateWorkoutService {
     workoutTemplate.setSessionsPerWeek(request.getSessionsPerWeek());
 
     WorkoutTemplate saved = templateWorkoutRepository.save(workoutTemplate);
+    twoLevelCacheService.invalidate(TEMPLATE_CACHE);
 
     return templateWorkoutMapper.toResponse(saved);
   }
 
   @Override
   public void deleteTemplateWorkoutById(UUID id) {
-
-    redisService.deletePattern("template:*");
-
     WorkoutTemplate workoutTemplate = templateWorkoutRepository.findByIdAndIsActiveTrue(id).orElseThrow(
       () -> new ResourceNotFoundException("TemplateWorkout", id.toString())
     );
     workoutTemplate.setIsActive(false);
     workoutTemplate.markAsDeleted();
     templateWorkoutRepository.save(workoutTemplate);
+    twoLevelCacheService.invalidate(TEMPLATE_CACHE);
     log.info("Del Template workout has id : {}", workoutTemplate.getId());
   }
 
   @Override
   public void activeTemplateWorkoutById(UUID id) {
-
-    redisService.deletePattern("template:*");
-
     WorkoutTemplate workoutTemplate = templateWorkoutRepository.findById(id).orElseThrow(
       () -> new ResourceNotFoundException("TemplateWorkout", id.toString())
     );
     workoutTemplate.setIsActive(true);
     workoutTemplate.restore();
     templateWorkoutRepository.save(workoutTemplate);
+    twoLevelCacheService.invalidate(TEMPLATE_CACHE);
   }
 
   @Transactional
   @Override
   public TemplateWorkoutResponse addTemplateDayToTemplate(UUID templateId, CreateTemplateDayRequest request) {
-
-    redisService.deletePattern("template:*");
-
     WorkoutTemplate workoutTemplate = templateWorkoutRepository.findByIdAndIsActiveTrue(templateId).orElseThrow(
       ()-> new ResourceNotFoundException("TemplateWorkout", templateId.toString()));
 
@@ -219,6 +192,7 @@ public class TemplateWorkoutServiceImpl implements TemplateWorkoutService {
 
     workoutTemplate.getTemplateDays().add(templateDay);
     templateWorkoutRepository.save(workoutTemplate);
+    twoLevelCacheService.invalidate(TEMPLATE_CACHE);
     return mapToTemplateWorkoutResponse(workoutTemplate);
   }
 
@@ -231,17 +205,16 @@ public class TemplateWorkoutServiceImpl implements TemplateWorkoutService {
     templateItem.setTemplateDay(templateDay);
     templateDay.getTemplateItems().add(templateItem);
     templateDayRepository.save(templateDay);
+    twoLevelCacheService.invalidate(TEMPLATE_CACHE);
     return templateWorkoutMapper.toTemplateDayResponse(templateDay);
   }
 
   @Override
   public void removeTemplateItem(UUID templateItemId) {
-
-    redisService.deletePattern("template:*");
-
     TemplateItem item = templateItemRepository.findById(templateItemId).orElseThrow(
       ()->new ResourceNotFoundException("TemplateItem", templateItemId.toString()));
     templateItemRepository.delete(item);
+    twoLevelCacheService.invalidate(TEMPLATE_CACHE);
     log.info("Remove template item: {} successfully!", templateItemId);
   }
 
@@ -251,6 +224,7 @@ public class TemplateWorkoutServiceImpl implements TemplateWorkoutService {
       ()-> new ResourceNotFoundException("TemplateDay", templateDayId.toString())
     );
     templateDayRepository.delete(templateDay);
+    twoLevelCacheService.invalidate(TEMPLATE_CACHE);
     log.info("Remove template day: {} successfully!", templateDayId);
   }
 
@@ -0,0 +1,145 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.thentrees.gymhealthtech.enums.SessionStatus;
+import com.thentrees.gymhealthtech.model.Session;
+import com.thentrees.gymhealthtech.repository.UserTrainingDailyStatsRepository;
+import com.thentrees.gymhealthtech.repository.projection.TrainingStatsTotals;
+import com.thentrees.gymhealthtech.service.TrainingStatsService;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j(topic = "TRAINING-STATS-SERVICE")
+public class TrainingStatsServiceImpl implements TrainingStatsService {
+
+  private final UserTrainingDailyStatsRepository dailyStatsRepository;
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordSessionStarted(Session session, int totalSets) {
+    applyDelta(session, 1, 0, totalSets, 0, 0L, 0, 0, 0.0, 0, 0);
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordSetUpdated(
+      Session session, JsonNode actualBefore, JsonNode actualAfter, int sessionTotalSets) {
+    int completedDelta = (isCompleted(actualAfter) ? 1 : 0) - (isCompleted(actualBefore) ? 1 : 0);
+    long volumeDelta = (long) volumeOf(actualAfter) - volumeOf(actualBefore);
+    if (completedDelta == 0 && volumeDelta == 0) {
+      return;
+    }
+
+    double completionPctDelta =
+        sessionTotalSets > 0 ? completedDelta * 100.0 / sessionTotalSets : 0.0;
+    applyDelta(session, 0, 0, 0, completedDelta, volumeDelta, 0, 0, completionPctDelta, 0, 0);
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordSessionEnded(Session session) {
+    boolean completed = session.getStatus() == SessionStatus.COMPLETED;
+    int durationMinutes = 0;
+    if (session.getStartedAt() != null && session.getEndedAt() != null) {
+      durationMinutes =
+          (int) Duration.between(session.getStartedAt(), session.getEndedAt()).toMinutes();
+    }
+    Integer rpe = session.getSessionRpe();
+
+    applyDelta(
+        session,
+        0,
+        completed ? 1 : 0,
+        0,
+        0,
+        0L,
+        durationMinutes,
+        completed ? durationMinutes : 0,
+        0.0,
+        rpe != null ? rpe : 0,
+        rpe != null ? 1 : 0);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public TrainingStatsTotals getTotals(UUID userId, LocalDate from, LocalDate to) {
+    return dailyStatsRepository.sumByUserAndDateRange(userId, from, to);
+  }
+
+  @Override
+  @Transactional
+  public int rebuild(LocalDate from, LocalDate to) {
+    LocalDateTime start = from.atStartOfDay();
+    LocalDateTime end = to.atStartOfDay();
+    dailyStatsRepository.deleteByDateRange(start, end);
+    int rows = dailyStatsRepository.insertFromRawData(start, end);
+    log.info("Rebuilt {} training stats rows for [{}, {})", rows, from, to);
+    return rows;
+  }
+
+  @Override
+  @Transactional
+  public long verifyAndRepair(LocalDate from, LocalDate to) {
+    long inconsistent =
+        dailyStatsRepository.countInconsistentRows(from.atStartOfDay(), to.atStartOfDay());
+    if (inconsistent > 0) {
+      log.warn(
+          "Found {} inconsistent training stats rows for [{}, {}), rebuilding",
+          inconsistent,
+          from,
+          to);
+      rebuild(from, to);
+    }
+    return inconsistent;
+  }
+
+  private void applyDelta(
+      Session session,
+      int totalSessions,
+      int completedSessions,
+      int totalSets,
+      int completedSets,
+      long totalVolume,
+      int totalDurationMinutes,
+      int completedDurationMinutes,
+      double completionPctSum,
+      int rpeSum,
+      int rpeCount) {
+    dailyStatsRepository.applyDelta(
+        session.getUser().getId(),
+        session.getStartedAt().toLocalDate(),
+        totalSessions,
+        completedSessions,
+        totalSets,
+        completedSets,
+        totalVolume,
+        totalDurationMinutes,
+        completedDurationMinutes,
+        completionPctSum,
+        rpeSum,
+        rpeCount);
+  }
+
+  // Same rules as SessionMapper: completed when it has completedAt and was not skipped
+  private boolean isCompleted(JsonNode actual) {
+    return actual != null
+        && actual.hasNonNull("completedAt")
+        && !(actual.has("isSkipped") && actual.get("isSkipped").asBoolean());
+  }
+
+  private int volumeOf(JsonNode actual) {
+    if (actual == null || !actual.hasNonNull("reps") || !actual.hasNonNull("weight")) {
+      return 0;
+    }
+    return (int) (actual.get("reps").asInt() * actual.get("weight").asDouble());
+  }
+}
@@ -0,0 +1,408 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static com.thentrees.gymhealthtech.constant.CacheConstant.NAMESPACE_INVALIDATION_CHANNEL;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thentrees.gymhealthtech.service.RedisService;
+import com.thentrees.gymhealthtech.service.TwoLevelCacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+@Slf4j(topic = "TWO-LEVEL-CACHE")
+@RequiredArgsConstructor
+public class TwoLevelCacheServiceImpl implements TwoLevelCacheService, MessageListener {
+
+  // Deletes the lease only while it still carries our token, so an expired lease taken over by
+  // another node is left alone
+  private static final RedisScript<Long> RELEASE_LEASE =
+      new DefaultRedisScript<>(
+          "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) "
+              + "else return 0 end",
+          Long.class);
+
+  private final RedisService redisService;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisMessageListenerContainer listenerContainer;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+  private final PlatformTransactionManager transactionManager;
+  private final Executor cacheRefreshExecutor;
+
+  @Value("${app.cache.local.ttl-seconds:30}")
+  private long localTtlSeconds;
+
+  @Value("${app.cache.local.max-size:1000}")
+  private long localMaxSize;
+
+  @Value("${app.cache.stale-ratio:0.5}")
+  private double staleRatio;
+
+  @Value("${app.cache.early-refresh-beta:1.0}")
+  private double earlyRefreshBeta;
+
+  @Value("${app.cache.lease.enabled:true}")
+  private boolean leaseEnabled;
+
+  @Value("${app.cache.lease.ttl-ms:10000}")
+  private long leaseTtlMs;
+
+  @Value("${app.cache.lease.wait-ms:1000}")
+  private long leaseWaitMs;
+
+  @Value("${app.cache.lease.poll-ms:50}")
+  private long leasePollMs;
+
+  private final String nodeToken = UUID.randomUUID().toString();
+  private final Map<String, LocalNamespace> namespaces = new ConcurrentHashMap<>();
+  private TransactionTemplate readOnlyTransaction;
+
+  @PostConstruct
+  void init() {
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setReadOnly(true);
+    listenerContainer.addMessageListener(this, new ChannelTopic(NAMESPACE_INVALIDATION_CHANNEL));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(
+      String namespace, String key, TypeReference<T> type, Duration ttl, Supplier<T> loader) {
+    LocalNamespace local = namespaces.computeIfAbsent(namespace, this::createNamespace);
+
+    Object localValue = local.entries.getIfPresent(key);
+    if (localValue != null) {
+      local.counter("l1_hit").increment();
+      return (T) localValue;
+    }
+
+    // Captured before loading: an invalidation arriving meanwhile must win over this load
+    long generation = local.generation.get();
+
+    // Single flight: concurrent misses for the same key and generation wait for one load
+    String flightKey = key + "#" + generation;
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    CompletableFuture<Object> leader = local.inFlight.putIfAbsent(flightKey, flight);
+    if (leader != null) {
+      local.counter("coalesced").increment();
+      return (T) await(leader);
+    }
+
+    try {
+      T value = readThroughRedis(namespace, key, type, ttl, loader, local, generation);
+      putLocal(local, key, value, generation);
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      local.inFlight.remove(flightKey, flight);
+    }
+  }
+
+  @Override
+  public void invalidate(String namespace) {
+    // Every node, this one included, evicts its local copy on the broadcast sent after the bump
+    redisService.invalidateNamespace(namespace);
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String namespace = new String(message.getBody(), StandardCharsets.UTF_8);
+    LocalNamespace local = namespaces.get(namespace);
+    if (local != null) {
+      local.generation.incrementAndGet();
+      local.entries.invalidateAll();
+      log.debug("Evicted local cache namespace {} on invalidation broadcast", namespace);
+    }
+  }
+
+  private <T> T readThroughRedis(
+      String namespace,
+      String key,
+      TypeReference<T> type,
+      Duration ttl,
+      Supplier<T> loader,
+      LocalNamespace local,
+      long generation) {
+    String redisKey = null;
+    JavaType envelopeType =
+        objectMapper
+            .getTypeFactory()
+            .constructParametricType(Envelope.class, objectMapper.constructType(type));
+    try {
+      redisKey = redisService.versionedKey(namespace, key);
+      Envelope<T> envelope = readEnvelope(redisKey, envelopeType);
+      if (envelope != null) {
+        long now = System.currentTimeMillis();
+        if (now >= envelope.softExpiresAt()) {
+          local.counter("l2_stale_hit").increment();
+          refreshInBackground(key, redisKey, ttl, loader, local, generation);
+        } else {
+          local.counter("l2_hit").increment();
+          if (expiresEarly(envelope, now)) {
+            refreshInBackground(key, redisKey, ttl, loader, local, generation);
+          }
+        }
+        return envelope.value();
+      }
+    } catch (Exception e) {
+      // Redis being unavailable only costs the database read below
+      log.warn("Failed to read cache for key {}: {}", redisKey, e.getMessage());
+    }
+
+    local.counter("miss").increment();
+    if (redisKey == null) {
+      return load(loader);
+    }
+    if (!leaseEnabled) {
+      return loadAndStore(redisKey, ttl, loader);
+    }
+
+    // Only one node loads a missing key; the others wait briefly for its result
+    if (tryAcquireLease(redisKey)) {
+      try {
+        return loadAndStore(redisKey, ttl, loader);
+      } finally {
+        releaseLease(redisKey);
+      }
+    }
+    Envelope<T> loadedElsewhere = awaitLeaseHolder(redisKey, envelopeType);
+    if (loadedElsewhere != null) {
+      local.counter("l2_lease_wait_hit").increment();
+      return loadedElsewhere.value();
+    }
+    // The holder is slow or gone; loading twice beats failing the request
+    return loadAndStore(redisKey, ttl, loader);
+  }
+
+  /**
+   * XFetch: the closer the entry is to its soft expiry and the longer it took to compute, the
+   * likelier a read refreshes it early, spreading reloads of a hot key over time.
+   */
+  private boolean expiresEarly(Envelope<?> envelope, long now) {
+    if (earlyRefreshBeta <= 0) {
+      return false;
+    }
+    double gap =
+        -envelope.computeMillis()
+            * earlyRefreshBeta
+            * Math.log(ThreadLocalRandom.current().nextDouble(Double.MIN_VALUE, 1.0));
+    return now + gap >= envelope.softExpiresAt();
+  }
+
+  private <T> void refreshInBackground(
+      String key,
+      String redisKey,
+      Duration ttl,
+      Supplier<T> loader,
+      LocalNamespace local,
+      long generation) {
+    if (!local.refreshing.add(redisKey)) {
+      return;
+    }
+    try {
+      cacheRefreshExecutor.execute(
+          () -> {
+            try {
+              // Another node already refreshing this key makes our reload redundant
+              if (leaseEnabled && !tryAcquireLease(redisKey)) {
+                return;
+              }
+              try {
+                T value = loadAndStore(redisKey, ttl, loader);
+                putLocal(local, key, value, generation);
+                local.counter("background_refresh").increment();
+              } finally {
+                if (leaseEnabled) {
+                  releaseLease(redisKey);
+                }
+              }
+            } catch (Exception e) {
+              log.warn("Background refresh of {} failed: {}", redisKey, e.getMessage());
+            } finally {
+              local.refreshing.remove(redisKey);
+            }
+          });
+    } catch (TaskRejectedException e) {
+      // Queue full: keep serving the stale value until a later read retries
+      local.refreshing.remove(redisKey);
+    }
+  }
+
+  private <T> T loadAndStore(String redisKey, Duration ttl, Supplier<T> loader) {
+    long start = System.currentTimeMillis();
+    T value = load(loader);
+    long now = System.currentTimeMillis();
+    if (value == null) {
+      return null;
+    }
+
+    // Redis keeps the entry past its soft expiry so it can be served while it reloads
+    Duration grace = Duration.ofMillis((long) (ttl.toMillis() * staleRatio));
+    try {
+      String json =
+          objectMapper.writeValueAsString(
+              new Envelope<>(value, now + ttl.toMillis(), now - start));
+      stringRedisTemplate.opsForValue().set(redisKey, json, ttl.plus(grace));
+    } catch (Exception e) {
+      log.warn("Failed to store cache for key {}: {}", redisKey, e.getMessage());
+    }
+    return value;
+  }
+
+  private <T> T load(Supplier<T> loader) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return loader.get();
+    }
+    return readOnlyTransaction.execute(status -> loader.get());
+  }
+
+  private <T> Envelope<T> readEnvelope(String redisKey, JavaType envelopeType) throws Exception {
+    String json = stringRedisTemplate.opsForValue().get(redisKey);
+    return json == null ? null : objectMapper.readValue(json, envelopeType);
+  }
+
+  private <T> Envelope<T> awaitLeaseHolder(String redisKey, JavaType envelopeType) {
+    long deadline = System.currentTimeMillis() + leaseWaitMs;
+    try {
+      while (System.currentTimeMillis() < deadline) {
+        Thread.sleep(leasePollMs);
+        Envelope<T> envelope = readEnvelope(redisKey, envelopeType);
+        if (envelope != null) {
+          return envelope;
+        }
+        if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(leaseKey(redisKey)))) {
+          return readEnvelope(redisKey, envelopeType);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      log.warn("Failed waiting for cache lease on {}: {}", redisKey, e.getMessage());
+    }
+    return null;
+  }
+
+  private boolean tryAcquireLease(String redisKey) {
+    try {
+      return Boolean.TRUE.equals(
+          stringRedisTemplate
+              .opsForValue()
+              .setIfAbsent(leaseKey(redisKey), nodeToken, Duration.ofMillis(leaseTtlMs)));
+    } catch (Exception e) {
+      // Without Redis there is nobody to coordinate with
+      return true;
+    }
+  }
+
+  private void releaseLease(String redisKey) {
+    try {
+      stringRedisTemplate.execute(RELEASE_LEASE, List.of(leaseKey(redisKey)), nodeToken);
+    } catch (Exception e) {
+      log.warn("Failed to release cache lease on {}: {}", redisKey, e.getMessage());
+    }
+  }
+
+  private static String leaseKey(String redisKey) {
+    return redisKey + ":lease";
+  }
+
+  private static void putLocal(LocalNamespace local, String key, Object value, long generation) {
+    if (value == null) {
+      return;
+    }
+    local.entries.put(key, value);
+    if (local.generation.get() != generation) {
+      local.entries.invalidate(key);
+    }
+  }
+
+  private static Object await(CompletableFuture<Object> leader) {
+    try {
+      return leader.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private LocalNamespace createNamespace(String namespace) {
+    Cache<String, Object> entries =
+        Caffeine.newBuilder()
+            .maximumSize(localMaxSize)
+            // Bounds staleness when an invalidation broadcast is lost
+            .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, entries, namespace + "-local");
+    return new LocalNamespace(namespace, entries, meterRegistry);
+  }
+
+  /** What L2 stores: the value plus the soft expiry and load cost used for early refresh. */
+  record Envelope<T>(T value, long softExpiresAt, long computeMillis) {}
+
+  private static final class LocalNamespace {
+    private final String name;
+    private final Cache<String, Object> entries;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private LocalNamespace(String name, Cache<String, Object> entries, MeterRegistry meterRegistry) {
+      this.name = name;
+      this.entries = entries;
+      this.meterRegistry = meterRegistry;
+    }
+
+    private Counter counter(String result) {
+      return counters.computeIfAbsent(
+          result,
+          r ->
+              Counter.builder("cache.two_level.lookups")
+                  .description("Two-level cache lookups by how they were answered")
+                  .tag("cache", name)
+                  .tag("result", r)
+                  .register(meterRegistry));
+    }
+  }
+}
@@ -12,6 +12,7 @@ import com.thentrees.gymhealthtech.model.User;
 import com.thentrees.gymhealthtech.model.UserProfile;
 import com.thentrees.gymhealthtech.repository.UserProfileRepository;
 import com.thentrees.gymhealthtech.repository.UserRepository;
+import com.thentrees.gymhealthtech.service.PrincipalCacheService;
 import com.thentrees.gymhealthtech.service.UserProfileService;
 import com.thentrees.gymhealthtech.util.FileValidator;
 import com.thentrees.gymhealthtech.util.S3Util;
@@ -36,6 +37,7 @@ public class UserProfileServiceImpl implements UserProfileService {
   private final S3Util s3Util;
   private final FileValidator fileValidator;
   private final UserProfileMapper userProfileMapper;
+  private final PrincipalCacheService principalCacheService;
 
   @Override
   public UserProfileResponse getUserProfile() {
@@ -74,6 +76,7 @@ public class UserProfileServiceImpl implements UserProfileService {
 
     userRepository.save(userExist);
     userProfileRepository.save(userProfile);
+    principalCacheService.evict(userExist);
     log.info("UserProfile with userId {} has been deleted", userId);
   }
 
@@ -100,6 +103,7 @@ public class UserProfileServiceImpl implements UserProfileService {
 
     userRepository.save(userExist);
     userProfileRepository.save(userProfile);
+    principalCacheService.evict(userExist);
   }
 
   @Override
@@ -156,6 +160,7 @@ public class UserProfileServiceImpl implements UserProfileService {
     }
 
     UserProfile savedProfile = userProfileRepository.save(profile);
+    principalCacheService.evict(user);
 
     return userProfileMapper.toResponse(savedProfile);
   }
@@ -177,6 +182,7 @@ public class UserProfileServiceImpl implements UserProfileService {
 
       profile.setAvatarUrl(fileUrl);
       userProfileRepository.save(profile);
+      principalCacheService.evict(user);
 
       return fileUrl;
     } catch (Exception e) {
@@ -11,6 +11,7 @@ import com.thentrees.gymhealthtech.exception.ResourceNotFoundException;
 import com.thentrees.gymhealthtech.model.User;
 import com.thentrees.gymhealthtech.repository.UserRepository;
 import com.thentrees.gymhealthtech.service.EmailService;
+import com.thentrees.gymhealthtech.service.PrincipalCacheService;
 import com.thentrees.gymhealthtech.service.RedisService;
 import com.thentrees.gymhealthtech.service.UserService;
 import com.thentrees.gymhealthtech.util.RateLimitService;
@@ -37,6 +38,7 @@ public class UserServiceImpl implements UserService {
   private final RedisService redisService;
   private final EmailService emailService;
   private final PasswordEncoder passwordEncoder;
+  private final PrincipalCacheService principalCacheService;
 
   @Value("${app.verification.forgot-password.expiration:36000}")
   private int otpExpirySeconds;
@@ -157,6 +159,7 @@ public class UserServiceImpl implements UserService {
     String hashedPassword = passwordEncoder.encode(newPassword);
     user.setPasswordHash(hashedPassword);
     userRepository.save(user);
+    principalCacheService.evict(user);
 
     log.info("Password reset successfully for email: {}", email);
   }
@@ -8,35 +8,50 @@ import com.thentrees.gymhealthtech.service.EmailService;
 import com.thentrees.gymhealthtech.service.VerificationTokenService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.Base64;
+import java.util.Optional;
 
 /**
  * Service implementation for generating and sending verification tokens.
+ *
+ * <p>Tokens have the form {@code selector.verifier}. Only the selector and the SHA-256 digest of
+ * the verifier are stored, so a lookup is a single indexed query.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j(topic = "VERIFICATION-TOKEN-SERVICE")
 public class VerificationTokenServiceImpl implements VerificationTokenService {
 
+  private static final int SELECTOR_BYTES = 12;
+  private static final int VERIFIER_BYTES = 32;
+  private static final String SEPARATOR = ".";
+
   private final VerificationTokenRepository verificationTokenRepository;
-  private final PasswordEncoder passwordEncoder;
   private final EmailService emailService;
   private final SecureRandom secureRandom = new SecureRandom();
 
+  @Value("${app.verification.purge.batch-size:1000}")
+  private int purgeBatchSize;
+
+  @Value("${app.verification.purge.consumed-retention-hours:24}")
+  private long consumedRetentionHours;
+
   @Transactional
   @Override
   public void generateAndSendVerificationToken(User user) {
     // Generate secure token
-    byte[] tokenBytes = new byte[32];
-    secureRandom.nextBytes(tokenBytes);
-    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
-    String tokenHash = passwordEncoder.encode(token);
+    String selector = randomToken(SELECTOR_BYTES);
+    String verifier = randomToken(VERIFIER_BYTES);
+    String token = selector + SEPARATOR + verifier;
 
     // Delete existing verification tokens for this user to prevent multiple active tokens
     verificationTokenRepository.deleteByUserIdAndType(user.getId(), VerificationType.EMAIL);
@@ -45,7 +60,8 @@ public class VerificationTokenServiceImpl implements VerificationTokenService {
     VerificationToken verificationToken = new VerificationToken();
     verificationToken.setUser(user);
     verificationToken.setType(VerificationType.EMAIL);
-    verificationToken.setTokenHash(tokenHash);
+    verificationToken.setSelector(selector);
+    verificationToken.setTokenHash(hashVerifier(verifier));
     verificationToken.setExpiresAt(LocalDateTime.now().plusHours(24)); // 24 hours expiry
 
     verificationTokenRepository.save(verificationToken);
@@ -60,5 +76,55 @@ public class VerificationTokenServiceImpl implements VerificationTokenService {
       // Don't fail the operation if email fails - token is already saved
     }
   }
-}
 
+  @Override
+  public Optional<VerificationToken> findByToken(String token, VerificationType type) {
+    if (token == null) {
+      return Optional.empty();
+    }
+    int separatorIndex = token.indexOf(SEPARATOR);
+    if (separatorIndex <= 0 || separatorIndex == token.length() - 1) {
+      return Optional.empty();
+    }
+
+    String selector = token.substring(0, separatorIndex);
+    byte[] expected = hashVerifier(token.substring(separatorIndex + 1)).getBytes(StandardCharsets.UTF_8);
+
+    return verificationTokenRepository
+        .findBySelectorAndType(selector, type)
+        .filter(vt -> MessageDigest.isEqual(expected, vt.getTokenHash().getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Override
+  public int purgeExpiredTokens() {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime consumedBefore = now.minusHours(consumedRetentionHours);
+
+    // Each batch commits on its own, keeping lock time and WAL per statement bounded
+    int total = 0;
+    int deleted;
+    do {
+      deleted = verificationTokenRepository.deleteExpiredBatch(now, consumedBefore, purgeBatchSize);
+      total += deleted;
+    } while (deleted == purgeBatchSize);
+
+    log.info("Purged {} expired or consumed verification tokens", total);
+    return total;
+  }
+
+  private String randomToken(int numBytes) {
+    byte[] bytes = new byte[numBytes];
+    secureRandom.nextBytes(bytes);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  private String hashVerifier(String verifier) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(verifier.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
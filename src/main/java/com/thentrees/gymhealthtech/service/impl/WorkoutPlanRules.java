@@ -0,0 +1,290 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.thentrees.gymhealthtech.dto.request.CreateCustomPlanItemRequest.PlanItemPrescription;
+import com.thentrees.gymhealthtech.dto.response.ExerciseListResponse;
+import com.thentrees.gymhealthtech.enums.ExerciseLevel;
+import com.thentrees.gymhealthtech.enums.ExerciseType;
+import com.thentrees.gymhealthtech.enums.FitnessLevel;
+import com.thentrees.gymhealthtech.enums.ObjectiveType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The pure part of the rule-based workout generator: which exercises a user may get, how a week is
+ * split, the dose per exercise and the deterministic picker. Nothing here touches the database.
+ */
+final class WorkoutPlanRules {
+
+  static final int WARM_UP_MINUTES = 10;
+  static final int FINISHER_MINUTES = 10;
+  static final int MIN_EXERCISES = 3;
+  static final int MAX_EXERCISES = 10;
+  private static final String BODY_WEIGHT = "body weight";
+
+  private WorkoutPlanRules() {}
+
+  /** Exercises within the level's difficulty cap that need only the available equipment. */
+  static List<ExerciseListResponse> eligibleExercises(
+      List<ExerciseListResponse> catalog,
+      FitnessLevel fitnessLevel,
+      Set<String> availableEquipment) {
+    int maxDifficulty =
+        switch (fitnessLevel) {
+          case BEGINNER -> ExerciseLevel.BEGINNER.getMaxDifficulty();
+          case INTERMEDIATE -> ExerciseLevel.INTERMEDIATE.getMaxDifficulty();
+          case ADVANCED -> ExerciseLevel.EXPERT.getMaxDifficulty();
+        };
+    List<ExerciseListResponse> eligible = new ArrayList<>();
+    for (ExerciseListResponse exercise : catalog) {
+      if (exercise.getLevel() != null && exercise.getLevel().getMaxDifficulty() > maxDifficulty) {
+        continue;
+      }
+      String equipment = exercise.getEquipment() == null ? null : normalize(exercise.getEquipment());
+      // Body weight needs nothing; no list on the goal means a full gym
+      if (equipment != null
+          && !BODY_WEIGHT.equals(equipment)
+          && !availableEquipment.isEmpty()
+          && !availableEquipment.contains(equipment)) {
+        continue;
+      }
+      eligible.add(exercise);
+    }
+    return eligible;
+  }
+
+  /** Equipment listed in the goal preferences, by code or name, normalized to the display name. */
+  static Set<String> availableEquipment(JsonNode preferences) {
+    Set<String> equipment = new HashSet<>();
+    JsonNode listed = preferences == null ? null : preferences.get("availableEquipment");
+    if (listed != null && listed.isArray()) {
+      for (JsonNode value : listed) {
+        if (value.isTextual() && !value.asText().isBlank()) {
+          equipment.add(normalize(value.asText()));
+        }
+      }
+    }
+    return equipment;
+  }
+
+  static String normalize(String name) {
+    // Codes are snake_case versions of the names: smith_machine / Smith Machine
+    return name.trim().replace('_', ' ').toLowerCase(Locale.ROOT);
+  }
+
+  static int exercisesPerSession(Integer sessionMinutes, Dose dose) {
+    int minutes = sessionMinutes == null ? 60 : sessionMinutes;
+    int available = minutes - WARM_UP_MINUTES - (dose.cardioFinisher() ? FINISHER_MINUTES : 0);
+    return Math.max(MIN_EXERCISES, Math.min(MAX_EXERCISES, available / dose.minutesPerExercise()));
+  }
+
+  /** Movement groups used to balance sessions, derived from the exercise's body part. */
+  enum Movement {
+    PUSH,
+    PULL,
+    LEGS,
+    LOWER_LEGS,
+    ARMS,
+    CORE,
+    CARDIO;
+
+    static Movement of(ExerciseListResponse exercise) {
+      ExerciseType type = ExerciseType.fromCode(exercise.getExerciseType());
+      if (type == ExerciseType.STRETCH) {
+        return null;
+      }
+      if (type == ExerciseType.CARDIO) {
+        return CARDIO;
+      }
+      String bodyPart =
+          exercise.getBodyPart() == null ? "" : exercise.getBodyPart().toLowerCase(Locale.ROOT);
+      return switch (bodyPart) {
+        case "chest", "shoulders" -> PUSH;
+        case "back" -> PULL;
+        case "upper_legs", "glutes" -> LEGS;
+        case "lower_legs", "calves" -> LOWER_LEGS;
+        case "upper_arms", "lower_arms" -> ARMS;
+        case "waist" -> CORE;
+        case "cardio" -> CARDIO;
+        default -> null;
+      };
+    }
+  }
+
+  /** Slot order of a session; big compound groups come first, the list is cycled if too short. */
+  enum DayTemplate {
+    FULL_BODY(
+        "Full Body",
+        Movement.LEGS,
+        Movement.PUSH,
+        Movement.PULL,
+        Movement.CORE,
+        Movement.ARMS,
+        Movement.LEGS,
+        Movement.PUSH,
+        Movement.PULL,
+        Movement.LOWER_LEGS,
+        Movement.CORE),
+    UPPER(
+        "Upper Body",
+        Movement.PUSH,
+        Movement.PULL,
+        Movement.PUSH,
+        Movement.PULL,
+        Movement.ARMS,
+        Movement.ARMS,
+        Movement.CORE),
+    LOWER(
+        "Lower Body",
+        Movement.LEGS,
+        Movement.LEGS,
+        Movement.LOWER_LEGS,
+        Movement.CORE,
+        Movement.LEGS,
+        Movement.CORE),
+    PUSH("Push", Movement.PUSH, Movement.PUSH, Movement.PUSH, Movement.ARMS, Movement.CORE),
+    PULL("Pull", Movement.PULL, Movement.PULL, Movement.PULL, Movement.ARMS, Movement.CORE),
+    LEGS("Legs", Movement.LEGS, Movement.LEGS, Movement.LOWER_LEGS, Movement.LEGS, Movement.CORE),
+    CONDITIONING("Conditioning", Movement.CARDIO, Movement.CORE, Movement.CARDIO, Movement.CORE);
+
+    final String splitName;
+    final List<Movement> slots;
+
+    DayTemplate(String splitName, Movement... slots) {
+      this.splitName = splitName;
+      this.slots = List.of(slots);
+    }
+
+    static List<DayTemplate> splitFor(int sessions) {
+      return switch (sessions) {
+        case 1, 2, 3 -> List.of(FULL_BODY, FULL_BODY, FULL_BODY);
+        case 4 -> List.of(UPPER, LOWER, UPPER, LOWER);
+        case 5 -> List.of(UPPER, LOWER, PUSH, PULL, LEGS);
+        case 6 -> List.of(PUSH, PULL, LEGS, PUSH, PULL, LEGS);
+        default -> List.of(PUSH, PULL, LEGS, PUSH, PULL, LEGS, CONDITIONING);
+      };
+    }
+  }
+
+  /** Per-exercise prescription for the objective, adjusted to the fitness level. */
+  record Dose(int sets, String reps, int restSeconds, boolean cardioFinisher) {
+
+    static Dose of(ObjectiveType objective, FitnessLevel fitnessLevel) {
+      Dose base =
+          switch (objective) {
+            case GAIN_MUSCLE -> new Dose(4, "8-12", 90, false);
+            case LOSE_FAT -> new Dose(3, "12-15", 45, true);
+            case ENDURANCE -> new Dose(3, "15-20", 30, true);
+            case MAINTAIN -> new Dose(3, "10-12", 60, false);
+          };
+      int sets =
+          switch (fitnessLevel) {
+            case BEGINNER -> Math.max(2, base.sets - 1);
+            case INTERMEDIATE -> base.sets;
+            case ADVANCED -> Math.min(5, base.sets + 1);
+          };
+      return new Dose(sets, base.reps, base.restSeconds, base.cardioFinisher);
+    }
+
+    /** About 40 seconds of work per set, the rests in between and a minute to set up. */
+    int minutesPerExercise() {
+      int seconds = sets * 40 + (sets - 1) * restSeconds;
+      return (seconds + 59) / 60 + 1;
+    }
+
+    PlanItemPrescription strength() {
+      return PlanItemPrescription.builder().sets(sets).reps(reps).restSeconds(restSeconds).build();
+    }
+
+    static PlanItemPrescription finisher() {
+      return PlanItemPrescription.builder()
+          .sets(1)
+          .reps(FINISHER_MINUTES + " minutes")
+          .restSeconds(0)
+          .build();
+    }
+  }
+
+  /**
+   * Deterministic picker. Candidates of each movement are ordered compound first, then by id, and
+   * a per-movement cursor walks them from a seeded offset so the week rotates through the pool
+   * before repeating an exercise. An exercise never appears twice in one session.
+   */
+  static final class Selector {
+    private static final Comparator<ExerciseListResponse> ORDER =
+        Comparator.comparing(
+                (ExerciseListResponse e) ->
+                    ExerciseType.fromCode(e.getExerciseType()) == ExerciseType.COMPOUND ? 0 : 1)
+            .thenComparing(ExerciseListResponse::getId);
+
+    private final Map<Movement, List<ExerciseListResponse>> candidates =
+        new EnumMap<>(Movement.class);
+    private final Map<Movement, Integer> cursors = new EnumMap<>(Movement.class);
+
+    Selector(List<ExerciseListResponse> exercises, int seed) {
+      for (ExerciseListResponse exercise : exercises) {
+        Movement movement = Movement.of(exercise);
+        if (movement != null) {
+          candidates.computeIfAbsent(movement, m -> new ArrayList<>()).add(exercise);
+        }
+      }
+      candidates.forEach(
+          (movement, list) -> {
+            list.sort(ORDER);
+            cursors.put(movement, Math.floorMod(seed + movement.ordinal() * 31, list.size()));
+          });
+    }
+
+    List<ExerciseListResponse> pickDay(List<Movement> slots, int count) {
+      List<ExerciseListResponse> picked = new ArrayList<>();
+      Set<UUID> used = new HashSet<>();
+      // Cycle the template until the session is full or no slot can be filled any more
+      boolean progress = true;
+      while (picked.size() < count && progress) {
+        progress = false;
+        for (Movement slot : slots) {
+          if (picked.size() >= count) {
+            break;
+          }
+          ExerciseListResponse next = next(slot, used);
+          if (next != null) {
+            picked.add(next);
+            used.add(next.getId());
+            progress = true;
+          }
+        }
+      }
+      return picked;
+    }
+
+    /** A cardio exercise not already among {@code day}, the exercises picked for the session. */
+    ExerciseListResponse pickFinisher(List<ExerciseListResponse> day) {
+      Set<UUID> used = new HashSet<>();
+      day.forEach(exercise -> used.add(exercise.getId()));
+      return next(Movement.CARDIO, used);
+    }
+
+    private ExerciseListResponse next(Movement movement, Set<UUID> used) {
+      List<ExerciseListResponse> list = candidates.get(movement);
+      if (list == null) {
+        return null;
+      }
+      int cursor = cursors.get(movement);
+      for (int i = 0; i < list.size(); i++) {
+        ExerciseListResponse candidate = list.get((cursor + i) % list.size());
+        if (!used.contains(candidate.getId())) {
+          cursors.put(movement, (cursor + i + 1) % list.size());
+          return candidate;
+        }
+      }
+      return null;
+    }
+  }
+}
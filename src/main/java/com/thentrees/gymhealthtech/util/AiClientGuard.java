@@ -0,0 +1,270 @@
+package com.thentrees.gymhealthtech.util;
+
+import com.thentrees.gymhealthtech.exception.AiServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+/**
+ * Wraps calls to the AI service so an upstream brownout stays contained. Each call runs through
+ * these steps:
+ *
+ * <ul>
+ *   <li>a bulkhead, which caps concurrent upstream requests and rejects instead of queueing;
+ *   <li>a circuit breaker, which stops calling a failing upstream and probes it again after a
+ *       pause;
+ *   <li>retries of failures where the request never reached the service (connect errors, pool
+ *       timeouts) or was refused with a 502 or 503, only while a backed-off attempt still fits
+ *       the call's deadline;
+ *   <li>an optional hedge: a second request once the first is slower than the hedge delay, with
+ *       the first response winning.
+ * </ul>
+ */
+@Component
+@Slf4j(topic = "AI-CLIENT-GUARD")
+@RequiredArgsConstructor
+public class AiClientGuard {
+
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.ai.client.deadline-seconds:90}")
+  private long deadlineSeconds;
+
+  @Value("${app.ai.client.retry.max-attempts:3}")
+  private int maxAttempts;
+
+  @Value("${app.ai.client.retry.backoff-ms:1000}")
+  private long backoffMs;
+
+  @Value("${app.ai.client.retry.min-attempt-ms:5000}")
+  private long minAttemptMs;
+
+  @Value("${app.ai.client.bulkhead.max-concurrent:8}")
+  private int bulkheadPermits;
+
+  @Value("${app.ai.client.circuit.window-size:20}")
+  private int windowSize;
+
+  @Value("${app.ai.client.circuit.minimum-calls:10}")
+  private int minimumCalls;
+
+  @Value("${app.ai.client.circuit.failure-rate-threshold:50}")
+  private double failureRateThreshold;
+
+  @Value("${app.ai.client.circuit.open-seconds:30}")
+  private long openSeconds;
+
+  @Value("${app.ai.client.circuit.half-open-probes:2}")
+  private int halfOpenProbes;
+
+  @Value("${app.ai.client.hedge.enabled:false}")
+  private boolean hedgeEnabled;
+
+  @Value("${app.ai.client.hedge.delay-ms:15000}")
+  private long hedgeDelayMs;
+
+  private Semaphore bulkhead;
+  private CircuitBreaker circuitBreaker;
+
+  @PostConstruct
+  void init() {
+    bulkhead = new Semaphore(bulkheadPermits);
+    circuitBreaker =
+        new CircuitBreaker(
+            windowSize,
+            minimumCalls,
+            failureRateThreshold,
+            Duration.ofSeconds(openSeconds),
+            halfOpenProbes);
+
+    Gauge.builder("ai.client.bulkhead.available", bulkhead, Semaphore::availablePermits)
+        .description("Free AI call slots")
+        .register(meterRegistry);
+    Gauge.builder("ai.client.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+        .description("0 = closed, 1 = half-open, 2 = open")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Runs {@code request} under the guard. The supplier is invoked once per attempt, so it must
+   * build a fresh request each time. Local rejections fail with {@link
+   * AiServiceUnavailableException}.
+   */
+  public <T> Mono<T> execute(Supplier<Mono<T>> request) {
+    return Mono.defer(
+        () -> {
+          Duration deadline = Duration.ofSeconds(deadlineSeconds);
+          long deadlineAt = System.nanoTime() + deadline.toNanos();
+          // Set before the timeout cancels the attempt, so the breaker counts it as a failure
+          AtomicBoolean deadlineExpired = new AtomicBoolean();
+          Mono<Long> deadlineTimer =
+              Mono.delay(deadline).doOnNext(tick -> deadlineExpired.set(true));
+          return hedged(request, deadlineExpired)
+              .retryWhen(
+                  Retry.from(
+                      signals -> signals.concatMap(signal -> retryDelay(signal, deadlineAt))))
+              .timeout(deadlineTimer);
+        });
+  }
+
+  private <T> Mono<T> hedged(Supplier<Mono<T>> request, AtomicBoolean deadlineExpired) {
+    if (!hedgeEnabled) {
+      return guarded(request, "primary", deadlineExpired);
+    }
+    return Mono.defer(
+        () -> {
+          // The hedge only fires while the primary is still pending
+          Sinks.One<Boolean> primaryDone = Sinks.one();
+          Mono<T> primary =
+              guarded(request, "primary", deadlineExpired).doFinally(signal -> primaryDone.tryEmitValue(true));
+          Mono<T> hedge =
+              Mono.delay(Duration.ofMillis(hedgeDelayMs))
+                  .takeUntilOther(primaryDone.asMono())
+                  .flatMap(tick -> guarded(request, "hedge", deadlineExpired));
+          return Mono.firstWithValue(primary, hedge).onErrorMap(AiClientGuard::unwrapHedgeFailure);
+        });
+  }
+
+  private <T> Mono<T> guarded(
+      Supplier<Mono<T>> request, String attempt, AtomicBoolean deadlineExpired) {
+    return Mono.defer(
+        () -> {
+          if (!bulkhead.tryAcquire()) {
+            count(attempt, "rejected_bulkhead");
+            return Mono.error(new AiServiceUnavailableException("AI call bulkhead is full"));
+          }
+          CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+          if (permit == null) {
+            bulkhead.release();
+            count(attempt, "rejected_circuit");
+            return Mono.error(new AiServiceUnavailableException("AI circuit breaker is open"));
+          }
+          return request
+              .get()
+              .doOnSuccess(
+                  value -> {
+                    circuitBreaker.onResult(permit, true);
+                    count(attempt, "success");
+                  })
+              .doOnError(
+                  ex -> {
+                    // A 4xx is the caller's problem, not a sign of an unhealthy upstream
+                    boolean upstreamFailure = isUpstreamFailure(ex);
+                    circuitBreaker.onResult(permit, !upstreamFailure);
+                    count(attempt, upstreamFailure ? "failure" : "client_error");
+                  })
+              .doOnCancel(
+                  () -> {
+                    if (deadlineExpired.get()) {
+                      // A hung upstream is what the breaker exists to catch
+                      circuitBreaker.onResult(permit, false);
+                      count(attempt, "deadline_exceeded");
+                    } else {
+                      // Cancelled by the caller or by a faster hedge
+                      circuitBreaker.release(permit);
+                      count(attempt, "cancelled");
+                    }
+                  })
+              .doFinally(signal -> bulkhead.release());
+        });
+  }
+
+  private Mono<Long> retryDelay(Retry.RetrySignal signal, long deadlineAt) {
+    Throwable failure = signal.failure();
+    if (signal.totalRetries() + 1 >= maxAttempts || !isRetryable(failure)) {
+      return Mono.error(failure);
+    }
+    // Exponential backoff with jitter: half fixed, half random
+    long ceiling = backoffMs << Math.min(signal.totalRetries(), 10);
+    long delayMs = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    long remainingMs = Duration.ofNanos(deadlineAt - System.nanoTime()).toMillis();
+    if (delayMs + minAttemptMs > remainingMs) {
+      log.warn("Not retrying AI call, {} ms left of its deadline", remainingMs);
+      return Mono.error(failure);
+    }
+    log.warn(
+        "Retrying AI call in {} ms after attempt {} failed: {}",
+        delayMs,
+        signal.totalRetries() + 1,
+        failure.getMessage());
+    return Mono.delay(Duration.ofMillis(delayMs));
+  }
+
+  private static boolean isUpstreamFailure(Throwable ex) {
+    if (ex instanceof WebClientResponseException responseException) {
+      return responseException.getStatusCode().is5xxServerError();
+    }
+    return ex instanceof WebClientRequestException || ex instanceof TimeoutException;
+  }
+
+  /**
+   * Whether the call failed before any request reached the AI service: rejected by the guard, or
+   * no connection could be made. The service saves what it generates, so only these failures
+   * leave nothing behind upstream.
+   */
+  public static boolean isNeverSent(Throwable ex) {
+    return ex instanceof AiServiceUnavailableException || isConnectFailure(ex);
+  }
+
+  private static boolean isRetryable(Throwable ex) {
+    // A 502 or 503 means the request was refused before being processed; a 504 or a read
+    // timeout may hide a plan the service went on to save
+    if (ex instanceof WebClientResponseException responseException) {
+      int status = responseException.getStatusCode().value();
+      return status == 502 || status == 503;
+    }
+    return isConnectFailure(ex);
+  }
+
+  private static boolean isConnectFailure(Throwable ex) {
+    if (!(ex instanceof WebClientRequestException)) {
+      return false;
+    }
+    for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+      // The pool exceptions are shaded inside reactor-netty, so match them by name
+      String name = cause.getClass().getSimpleName();
+      if (cause instanceof ConnectException
+          || cause instanceof UnknownHostException
+          || name.equals("PoolAcquireTimeoutException")
+          || name.equals("PoolAcquirePendingLimitException")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Throwable unwrapHedgeFailure(Throwable ex) {
+    // firstWithValue reports "no value" with each source's error suppressed, primary first
+    if (!(ex instanceof NoSuchElementException) || ex.getSuppressed().length == 0) {
+      return ex;
+    }
+    for (Throwable suppressed : ex.getSuppressed()) {
+      if (!(suppressed instanceof AiServiceUnavailableException)) {
+        return suppressed;
+      }
+    }
+    return ex.getSuppressed()[0];
+  }
+
+  private void count(String attempt, String outcome) {
+    meterRegistry.counter("ai.client.calls", "attempt", attempt, "outcome", outcome).increment();
+  }
+}
@@ -0,0 +1,133 @@
+package com.thentrees.gymhealthtech.util;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker. It opens once the failure rate over the last {@code windowSize}
+ * calls reaches the threshold. After {@code openDuration} it lets {@code halfOpenProbes} calls
+ * through and closes only if all of them succeed.
+ *
+ * <p>Every call takes a {@link Permit} and settles it exactly once, with {@link #onResult} or, if
+ * the call was abandoned without an outcome, {@link #release}. Results of permits issued before
+ * the last state change are ignored.
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    HALF_OPEN,
+    OPEN
+  }
+
+  public record Permit(long epoch, boolean probe) {}
+
+  private final int windowSize;
+  private final int minimumCalls;
+  private final double failureRateThreshold;
+  private final long openNanos;
+  private final int halfOpenProbes;
+
+  // Ring buffer of the last outcomes while closed, true = failure
+  private final boolean[] window;
+  private int windowIndex;
+  private int recorded;
+  private int failures;
+
+  private State state = State.CLOSED;
+  private long epoch;
+  private long openedAt;
+  private int probesInFlight;
+  private int probeSuccesses;
+
+  /**
+   * @param failureRateThreshold percentage of failed calls, 1-100
+   */
+  public CircuitBreaker(
+      int windowSize,
+      int minimumCalls,
+      double failureRateThreshold,
+      Duration openDuration,
+      int halfOpenProbes) {
+    this.windowSize = windowSize;
+    this.minimumCalls = Math.min(minimumCalls, windowSize);
+    this.failureRateThreshold = failureRateThreshold;
+    this.openNanos = openDuration.toNanos();
+    this.halfOpenProbes = halfOpenProbes;
+    this.window = new boolean[windowSize];
+  }
+
+  /** Returns a permit for one call, or {@code null} while the circuit rejects calls. */
+  public synchronized Permit tryAcquire() {
+    if (state == State.OPEN) {
+      if (System.nanoTime() - openedAt < openNanos) {
+        return null;
+      }
+      transition(State.HALF_OPEN);
+    }
+    if (state == State.HALF_OPEN) {
+      if (probesInFlight >= halfOpenProbes) {
+        return null;
+      }
+      probesInFlight++;
+      return new Permit(epoch, true);
+    }
+    return new Permit(epoch, false);
+  }
+
+  public synchronized void onResult(Permit permit, boolean success) {
+    if (permit.epoch() != epoch) {
+      return;
+    }
+    if (permit.probe()) {
+      probesInFlight--;
+      if (!success) {
+        transition(State.OPEN);
+      } else if (++probeSuccesses >= halfOpenProbes) {
+        transition(State.CLOSED);
+      }
+      return;
+    }
+
+    if (recorded == windowSize && window[windowIndex]) {
+      failures--;
+    }
+    window[windowIndex] = !success;
+    if (!success) {
+      failures++;
+    }
+    windowIndex = (windowIndex + 1) % windowSize;
+    recorded = Math.min(recorded + 1, windowSize);
+    if (recorded >= minimumCalls && failures * 100.0 >= failureRateThreshold * recorded) {
+      transition(State.OPEN);
+    }
+  }
+
+  /** Settles a permit whose call was cancelled before it produced an outcome. */
+  public synchronized void release(Permit permit) {
+    if (permit.epoch() == epoch && permit.probe()) {
+      probesInFlight--;
+    }
+  }
+
+  public synchronized State getState() {
+    // Report a half-open circuit as soon as it would admit a probe
+    if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+      return State.HALF_OPEN;
+    }
+    return state;
+  }
+
+  private void transition(State next) {
+    state = next;
+    epoch++;
+    probesInFlight = 0;
+    probeSuccesses = 0;
+    if (next == State.OPEN) {
+      openedAt = System.nanoTime();
+    } else if (next == State.CLOSED) {
+      windowIndex = 0;
+      recorded = 0;
+      failures = 0;
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.thentrees.gymhealthtech.util;
+
+import com.thentrees.gymhealthtech.service.ExerciseCatalogService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ExerciseCatalogScheduler {
+
+  private final ExerciseCatalogService exerciseCatalogService;
+
+  // nạp lại catalog định kỳ phòng khi node bỏ lỡ tín hiệu rebuild qua Redis
+  @Scheduled(
+      fixedDelayString = "${app.catalog.exercise.refresh-interval-ms:900000}",
+      initialDelayString = "${app.catalog.exercise.refresh-interval-ms:900000}")
+  public void refreshCatalog() {
+    // rebuild() chạy trên thread rebuild riêng, không giữ thread của scheduler
+    exerciseCatalogService.rebuildAsync();
+  }
+}
@@ -0,0 +1,48 @@
+package com.thentrees.gymhealthtech.util;
+
+import com.thentrees.gymhealthtech.exception.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque (createdAt, id) position used for keyset pagination. The id breaks ties between rows
+ * created in the same instant, so a page boundary never skips or repeats a row.
+ */
+public record KeysetCursor(LocalDateTime createdAt, UUID id) {
+
+  private static final String SEPARATOR = "|";
+
+  public static KeysetCursor of(LocalDateTime createdAt, UUID id) {
+    return new KeysetCursor(createdAt, id);
+  }
+
+  /**
+   * Decodes a cursor previously returned to the client.
+   *
+   * @param value the base64url cursor, may be null or blank for the first page
+   * @return the decoded cursor, or null for the first page
+   */
+  public static KeysetCursor decode(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+      int separator = raw.indexOf(SEPARATOR);
+      return new KeysetCursor(
+          LocalDateTime.parse(raw.substring(0, separator)),
+          UUID.fromString(raw.substring(separator + 1)));
+    } catch (RuntimeException e) {
+      throw new ValidationException("Invalid cursor");
+    }
+  }
+
+  public String encode() {
+    String raw = createdAt + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,25 @@
+package com.thentrees.gymhealthtech.util;
+
+import com.thentrees.gymhealthtech.service.PostLikeCounterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class PostLikeCounterScheduler {
+
+  private final PostLikeCounterService postLikeCounterService;
+
+  // ghi các delta like đang chờ xuống posts.like_count theo lô
+  @Scheduled(fixedDelayString = "${app.community.likes.flush-interval-ms:5000}")
+  public void flushLikeCounters() {
+    postLikeCounterService.flushPendingDeltas();
+  }
+
+  // tính lại like_count từ post_likes để sửa các lệch còn sót
+  @Scheduled(cron = "${app.cron.reconcile-post-likes-schedule}")
+  public void reconcileLikeCounters() {
+    postLikeCounterService.reconcileLikeCounts();
+  }
+}
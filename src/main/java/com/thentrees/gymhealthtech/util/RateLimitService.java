@@ -1,10 +1,8 @@
 package com.thentrees.gymhealthtech.util;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import com.thentrees.gymhealthtech.service.RateLimiterService;
+import com.thentrees.gymhealthtech.service.RateLimiterService.Policy;
 import java.time.Duration;
-import java.util.concurrent.ConcurrentHashMap;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -12,6 +10,8 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 public class RateLimitService {
+  private final RateLimiterService rateLimiterService;
+
   @Value("${app.rate-limit.otp-requests:3}")
   private int otpRequestsLimit;
 
@@ -21,24 +21,14 @@ public class RateLimitService {
   @Value("${app.rate-limit.window-minutes:15}")
   private int windowMinutes;
 
-  private final ConcurrentHashMap<String, Bucket> otpBuckets = new ConcurrentHashMap<>();
-  private final ConcurrentHashMap<String, Bucket> verifyBuckets = new ConcurrentHashMap<>();
-
   public boolean allowOtpRequest(String email) {
-    return getBucket(otpBuckets, email, otpRequestsLimit).tryConsume(1);
+    Policy policy = Policy.perPeriod("otp", otpRequestsLimit, Duration.ofMinutes(windowMinutes));
+    return rateLimiterService.tryConsume(email, policy).allowed();
   }
 
   public boolean allowVerifyAttempt(String email) {
-    return getBucket(verifyBuckets, email, verifyAttemptsLimit).tryConsume(1);
-  }
-
-  private Bucket getBucket(ConcurrentHashMap<String, Bucket> buckets, String key, int limit) {
-    return buckets.computeIfAbsent(
-        key,
-        k -> {
-          Bandwidth bandwidth =
-              Bandwidth.classic(limit, Refill.intervally(limit, Duration.ofMinutes(windowMinutes)));
-          return Bucket.builder().addLimit(bandwidth).build();
-        });
+    Policy policy =
+        Policy.perPeriod("otp-verify", verifyAttemptsLimit, Duration.ofMinutes(windowMinutes));
+    return rateLimiterService.tryConsume(email, policy).allowed();
   }
 }
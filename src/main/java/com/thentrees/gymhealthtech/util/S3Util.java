@@ -5,6 +5,7 @@ import static com.thentrees.gymhealthtech.constant.S3Constant.*;
 import com.thentrees.gymhealthtech.exception.BusinessException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -55,6 +56,27 @@ public class S3Util {
     }
   }
 
+  /** Upload file cục bộ (vd: báo cáo lỗi import) lên S3 và trả về key */
+  public String uploadFile(Path path, String directory, String contentType) {
+    String s3Key = generateFileName(path.getFileName().toString(), directory);
+    try {
+      PutObjectRequest putObjectRequest =
+          PutObjectRequest.builder()
+              .bucket(bucketName)
+              .key(s3Key)
+              .contentType(contentType)
+              .build();
+      s3Client.putObject(putObjectRequest, RequestBody.fromFile(path));
+      return s3Key;
+    } catch (S3Exception e) {
+      log.error("AWS S3 error: {}", e.awsErrorDetails().errorMessage());
+      throw new BusinessException("Failed to upload file to S3");
+    } catch (Exception e) {
+      log.error("Error uploading file to S3: {}", e.getMessage(), e);
+      throw new BusinessException("Failed to upload file to S3", e.getMessage());
+    }
+  }
+
   /** Xóa file khỏi S3 bằng URL hoặc key */
   public void deleteFileByUrl(String fileUrl) {
     if (fileUrl == null || !fileUrl.contains(bucketName)) {
@@ -0,0 +1,25 @@
+package com.thentrees.gymhealthtech.util;
+
+import com.thentrees.gymhealthtech.service.TrainingStatsService;
+import java.time.LocalDate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class TrainingStatsScheduler {
+
+  private final TrainingStatsService trainingStatsService;
+
+  @Value("${app.training-stats.verify-days:7}")
+  private int verifyDays;
+
+  // đối chiếu rollup với dữ liệu gốc của các ngày gần đây, tự rebuild nếu lệch
+  @Scheduled(cron = "${app.cron.verify-training-stats-schedule}")
+  public void verifyRecentTrainingStats() {
+    LocalDate to = LocalDate.now().plusDays(1);
+    trainingStatsService.verifyAndRepair(to.minusDays(verifyDays), to);
+  }
+}
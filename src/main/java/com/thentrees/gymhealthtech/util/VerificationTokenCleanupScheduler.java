@@ -0,0 +1,19 @@
+package com.thentrees.gymhealthtech.util;
+
+import com.thentrees.gymhealthtech.service.VerificationTokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class VerificationTokenCleanupScheduler {
+
+  private final VerificationTokenService verificationTokenService;
+
+  // dọn token hết hạn / đã dùng mỗi ngày lúc 3h sáng
+  @Scheduled(cron = "${app.cron.purge-verification-tokens-schedule}")
+  public void purgeExpiredVerificationTokens() {
+    verificationTokenService.purgeExpiredTokens();
+  }
+}
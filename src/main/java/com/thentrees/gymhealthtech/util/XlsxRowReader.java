@@ -0,0 +1,92 @@
+package com.thentrees.gymhealthtech.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.parsers.ParserConfigurationException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Reads the first sheet of an .xlsx file row by row with POI's SAX event model, so only the
+ * current row and the shared strings table are held in memory, never the workbook DOM.
+ */
+public final class XlsxRowReader {
+
+  @FunctionalInterface
+  public interface RowHandler {
+    /**
+     * @param rowNum zero-based row index as stored in the sheet
+     * @param cells formatted cell values by column index, null for empty cells
+     */
+    void handle(int rowNum, List<String> cells);
+  }
+
+  private XlsxRowReader() {}
+
+  public static void read(Path file, RowHandler handler) throws IOException {
+    try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+      XSSFReader reader = new XSSFReader(pkg);
+      ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+      StylesTable styles = reader.getStylesTable();
+
+      XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+      if (!sheets.hasNext()) {
+        return;
+      }
+      try (InputStream sheet = sheets.next()) {
+        XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(
+            new XSSFSheetXMLHandler(
+                styles, null, strings, new RowCollector(handler), new DataFormatter(), false));
+        parser.parse(new InputSource(sheet));
+      }
+    } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+      throw new IOException("Invalid xlsx file: " + e.getMessage(), e);
+    }
+  }
+
+  private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+    private final RowHandler handler;
+    private final List<String> cells = new ArrayList<>();
+
+    private RowCollector(RowHandler handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public void startRow(int rowNum) {
+      cells.clear();
+    }
+
+    @Override
+    public void endRow(int rowNum) {
+      handler.handle(rowNum, cells);
+    }
+
+    @Override
+    public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+      // Empty cells are not reported, so place each value by its column reference
+      int column = cellReference != null ? new CellReference(cellReference).getCol() : cells.size();
+      while (cells.size() <= column) {
+        cells.add(null);
+      }
+      cells.set(column, formattedValue);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+-- Refresh token được lưu dưới dạng SHA-256 (deterministic) để tra cứu bằng index thay vì quét BCrypt
+
+-- 1️⃣ Token family: mọi token sinh ra từ cùng một lần đăng nhập dùng chung family_id
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS family_id UUID;
+UPDATE refresh_tokens SET family_id = gen_random_uuid() WHERE family_id IS NULL;
+ALTER TABLE refresh_tokens ALTER COLUMN family_id SET NOT NULL;
+
+-- 2️⃣ Token cũ bị ghi đè bằng giá trị plain (base64url 64 bytes) -> chuyển sang SHA-256 base64
+UPDATE refresh_tokens
+SET token_hash = encode(digest(token_hash, 'sha256'), 'base64')
+WHERE length(token_hash) = 86 AND token_hash !~ '[+/=$]';
+
+-- 3️⃣ Token lưu bằng BCrypt không thể tra cứu theo digest -> thu hồi, người dùng đăng nhập lại
+UPDATE refresh_tokens
+SET revoked_at = now()
+WHERE token_hash LIKE '$2%' AND revoked_at IS NULL;
+
+-- 4️⃣ Indexes
+CREATE UNIQUE INDEX IF NOT EXISTS uq_refresh_tokens_token_hash ON refresh_tokens(token_hash);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family ON refresh_tokens(family_id) WHERE revoked_at IS NULL;
@@ -0,0 +1,9 @@
+-- Token xác thực email dạng selector.verifier: selector tra cứu bằng index, verifier so sánh SHA-256
+
+-- 1️⃣ Cột selector (NULL với token BCrypt cũ - các token này sẽ hết hạn và bị dọn dẹp)
+ALTER TABLE verification_tokens ADD COLUMN IF NOT EXISTS selector VARCHAR(32);
+
+-- 2️⃣ Indexes
+CREATE UNIQUE INDEX IF NOT EXISTS uq_verification_tokens_selector ON verification_tokens(selector);
+CREATE INDEX IF NOT EXISTS idx_verification_tokens_consumed_at ON verification_tokens(consumed_at)
+  WHERE consumed_at IS NOT NULL;
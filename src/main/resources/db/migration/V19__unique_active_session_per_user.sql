@@ -0,0 +1,18 @@
+-- Mỗi user chỉ có tối đa một session IN_PROGRESS, được đảm bảo bởi DB thay vì check-then-insert
+
+-- 1️⃣ Hủy các session IN_PROGRESS trùng lặp, giữ lại session bắt đầu gần nhất
+UPDATE sessions s
+SET status = 'CANCELLED', ended_at = GREATEST(s.started_at, now())
+WHERE s.status = 'IN_PROGRESS'
+  AND s.is_deleted = false
+  AND EXISTS (
+    SELECT 1 FROM sessions newer
+    WHERE newer.user_id = s.user_id
+      AND newer.status = 'IN_PROGRESS'
+      AND newer.is_deleted = false
+      AND (newer.started_at, newer.id) > (s.started_at, s.id)
+  );
+
+-- 2️⃣ Partial unique index
+CREATE UNIQUE INDEX IF NOT EXISTS uq_sessions_user_in_progress
+  ON sessions(user_id) WHERE status = 'IN_PROGRESS' AND is_deleted = false;
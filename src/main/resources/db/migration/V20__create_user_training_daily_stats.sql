@@ -0,0 +1,56 @@
+-- Rollup thống kê tập luyện theo ngày cho mỗi user, cập nhật tăng dần khi log set / hoàn thành / hủy session
+CREATE TABLE IF NOT EXISTS user_training_daily_stats (
+                                                       user_id                    UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+                                                       stat_date                  DATE NOT NULL,
+
+                                                       total_sessions             INTEGER NOT NULL DEFAULT 0,
+                                                       completed_sessions         INTEGER NOT NULL DEFAULT 0,
+                                                       total_sets                 INTEGER NOT NULL DEFAULT 0,
+                                                       completed_sets             INTEGER NOT NULL DEFAULT 0,
+                                                       total_volume               BIGINT NOT NULL DEFAULT 0,
+                                                       total_duration_minutes     INTEGER NOT NULL DEFAULT 0,
+                                                       completed_duration_minutes INTEGER NOT NULL DEFAULT 0,
+                                                       completion_pct_sum         DOUBLE PRECISION NOT NULL DEFAULT 0,
+                                                       rpe_sum                    INTEGER NOT NULL DEFAULT 0,
+                                                       rpe_count                  INTEGER NOT NULL DEFAULT 0,
+
+                                                       updated_at                 TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                                       PRIMARY KEY (user_id, stat_date)
+);
+
+-- Backfill toàn bộ lịch sử từ sessions / session_sets (cùng quy tắc với SessionMapper)
+INSERT INTO user_training_daily_stats (
+  user_id, stat_date, total_sessions, completed_sessions, total_sets, completed_sets,
+  total_volume, total_duration_minutes, completed_duration_minutes, completion_pct_sum,
+  rpe_sum, rpe_count
+)
+SELECT s.user_id,
+       CAST(s.started_at AS date),
+       COUNT(*),
+       COUNT(*) FILTER (WHERE s.status = 'COMPLETED'),
+       COALESCE(SUM(st.total_sets), 0),
+       COALESCE(SUM(st.completed_sets), 0),
+       CAST(COALESCE(SUM(st.volume), 0) AS bigint),
+       CAST(COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM (s.ended_at - s.started_at)) / 60))
+                       FILTER (WHERE s.ended_at IS NOT NULL), 0) AS integer),
+       CAST(COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM (s.ended_at - s.started_at)) / 60))
+                       FILTER (WHERE s.ended_at IS NOT NULL AND s.status = 'COMPLETED'), 0) AS integer),
+       CAST(COALESCE(SUM(CASE WHEN st.total_sets > 0 THEN st.completed_sets * 100.0 / st.total_sets ELSE 0 END), 0)
+            AS double precision),
+       CAST(COALESCE(SUM(s.session_rpe), 0) AS integer),
+       COUNT(s.session_rpe)
+FROM sessions s
+LEFT JOIN (
+  SELECT ss.session_id,
+         COUNT(*) AS total_sets,
+         COUNT(*) FILTER (WHERE ss.actual ->> 'completedAt' IS NOT NULL
+                            AND COALESCE(ss.actual ->> 'isSkipped', 'false') <> 'true') AS completed_sets,
+         SUM(CASE WHEN ss.actual ->> 'reps' IS NOT NULL AND ss.actual ->> 'weight' IS NOT NULL
+                  THEN TRUNC(CAST(ss.actual ->> 'reps' AS numeric) * CAST(ss.actual ->> 'weight' AS numeric))
+                  ELSE 0 END) AS volume
+  FROM session_sets ss
+  WHERE ss.is_deleted = false
+  GROUP BY ss.session_id
+) st ON st.session_id = s.id
+WHERE s.is_deleted = false
+GROUP BY s.user_id, CAST(s.started_at AS date);
@@ -0,0 +1,2 @@
+-- Index cho feed cộng đồng phân trang theo keyset (created_at, id) giảm dần
+CREATE INDEX IF NOT EXISTS idx_posts_created_id ON posts(created_at DESC, id DESC);
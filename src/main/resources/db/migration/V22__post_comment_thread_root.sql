@@ -0,0 +1,27 @@
+-- Lưu comment gốc của mỗi thread để tải replies của nhiều thread trong một truy vấn
+
+-- 1️⃣ Cột root_comment_id (NULL với comment gốc)
+ALTER TABLE post_comments
+  ADD COLUMN IF NOT EXISTS root_comment_id UUID NULL REFERENCES post_comments(id) ON DELETE CASCADE;
+
+-- 2️⃣ Backfill bằng recursive CTE từ parent_comment_id
+WITH RECURSIVE thread AS (
+  SELECT id, id AS root_id
+  FROM post_comments
+  WHERE parent_comment_id IS NULL
+  UNION ALL
+  SELECT c.id, t.root_id
+  FROM post_comments c
+  JOIN thread t ON c.parent_comment_id = t.id
+)
+UPDATE post_comments pc
+SET root_comment_id = thread.root_id
+FROM thread
+WHERE pc.id = thread.id
+  AND pc.parent_comment_id IS NOT NULL;
+
+-- 3️⃣ Indexes: trang comment gốc theo post, replies theo thread
+CREATE INDEX IF NOT EXISTS idx_comments_post_root_created
+  ON post_comments(post_id, created_at DESC, id DESC) WHERE parent_comment_id IS NULL;
+CREATE INDEX IF NOT EXISTS idx_comments_root_created
+  ON post_comments(root_comment_id, created_at, id);
@@ -0,0 +1,16 @@
+-- Lưu bài viết theo từng user, thay cho bộ đếm save_count giả lập trước đây
+
+-- 1️⃣ Post Saves
+CREATE TABLE IF NOT EXISTS post_saves (
+                                        id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+                                        post_id UUID NOT NULL REFERENCES posts(id) ON DELETE CASCADE,
+                                        user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+                                        created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                        UNIQUE (post_id, user_id)
+);
+
+-- 2️⃣ Indexes: danh sách bài đã lưu của user theo keyset (created_at, id)
+CREATE INDEX IF NOT EXISTS idx_saves_user_created ON post_saves(user_id, created_at DESC, id DESC);
+
+-- 3️⃣ save_count cũ chỉ là bộ đếm chẵn/lẻ, không có dữ liệu thật phía sau
+UPDATE posts SET save_count = 0 WHERE save_count IS DISTINCT FROM 0;
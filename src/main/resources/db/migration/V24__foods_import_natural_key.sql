@@ -0,0 +1,22 @@
+-- Khóa tự nhiên cho import món ăn: mỗi tên món (không phân biệt hoa thường) chỉ có một bản ghi còn hiệu lực
+
+-- 1️⃣ Gộp các bản ghi trùng tên do import lặp lại trước đây: giữ bản ghi tạo sớm nhất
+WITH ranked AS (
+  SELECT id,
+         ROW_NUMBER() OVER (PARTITION BY lower(trim(food_name)) ORDER BY created_at, id) AS rn
+  FROM foods
+  WHERE is_deleted = false
+)
+UPDATE foods f
+SET is_deleted = true,
+    is_active = false
+FROM ranked r
+WHERE f.id = r.id
+  AND r.rn > 1;
+
+UPDATE foods SET food_name = trim(food_name) WHERE food_name <> trim(food_name);
+
+-- 2️⃣ Unique index dùng cho INSERT ... ON CONFLICT khi import
+CREATE UNIQUE INDEX IF NOT EXISTS uq_foods_food_name_active
+  ON foods (lower(food_name))
+  WHERE is_deleted = false;
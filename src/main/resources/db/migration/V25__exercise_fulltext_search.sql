@@ -0,0 +1,32 @@
+-- Tìm kiếm full-text cho exercises: xếp hạng theo ts_rank, tìm theo tiền tố, bỏ dấu tiếng Việt
+
+-- 1️⃣ unaccent chỉ là STABLE, bọc lại thành IMMUTABLE để dùng trong generated column và index
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+CREATE OR REPLACE FUNCTION immutable_unaccent(text)
+  RETURNS text
+  LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$;
+
+-- 2️⃣ Tài liệu tìm kiếm có trọng số: tên (A) > tên khác (B) > hướng dẫn (C) > lợi ích (D)
+--    'english' để khớp từ gốc (push/pushing), 'simple' để khớp nguyên văn tên và tên tiếng Việt
+CREATE OR REPLACE FUNCTION exercise_search_vector(
+  p_name text, p_alternative_names text[], p_instructions text, p_benefits text)
+  RETURNS tsvector
+  LANGUAGE sql IMMUTABLE PARALLEL SAFE
+AS $$
+SELECT setweight(to_tsvector('english', immutable_unaccent(coalesce(p_name, ''))), 'A')
+         || setweight(to_tsvector('simple', immutable_unaccent(coalesce(p_name, ''))), 'A')
+         || setweight(to_tsvector('simple', immutable_unaccent(coalesce(array_to_string(p_alternative_names, ' '), ''))), 'B')
+         || setweight(to_tsvector('english', immutable_unaccent(coalesce(p_instructions, ''))), 'C')
+         || setweight(to_tsvector('english', immutable_unaccent(coalesce(p_benefits, ''))), 'D')
+$$;
+
+ALTER TABLE exercises
+  ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (exercise_search_vector(name, alternative_names, instructions, benefits)) STORED;
+
+-- 3️⃣ GIN index trên vector đã lưu; index biểu thức cũ không bỏ dấu, không trọng số và chưa từng được dùng
+CREATE INDEX IF NOT EXISTS idx_exercises_search_vector ON exercises USING GIN (search_vector);
+
+DROP INDEX IF EXISTS idx_exercises_fulltext;
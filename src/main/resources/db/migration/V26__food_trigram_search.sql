@@ -0,0 +1,23 @@
+-- Tìm món ăn không dấu, chịu lỗi gõ sai bằng pg_trgm, và lọc theo tags
+
+-- 1️⃣ Cột tìm kiếm: tên tiếng Việt + tiếng Anh, chữ thường, bỏ dấu (immutable_unaccent từ V25)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE foods
+  ADD COLUMN IF NOT EXISTS search_name text
+    GENERATED ALWAYS AS (
+      immutable_unaccent(lower(coalesce(food_name_vi, '') || ' ' || coalesce(food_name, '')))
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_foods_search_name_trgm ON foods USING GIN (search_name gin_trgm_ops);
+
+-- 2️⃣ Tags trước đây được lưu thành một phần tử duy nhất "a | b | c", tách ra từng tag
+UPDATE foods
+SET tags = ARRAY(
+  SELECT lower(btrim(tag))
+  FROM unnest(string_to_array(array_to_string(tags, '|'), '|')) AS tag
+  WHERE btrim(tag) <> ''
+)
+WHERE tags IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_foods_tags_gin ON foods USING GIN (tags);
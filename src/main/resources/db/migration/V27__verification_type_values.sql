@@ -0,0 +1,4 @@
+-- Bổ sung giá trị enum verification_type khớp với VerificationType (ứng dụng lưu EMAIL, không phải EMAIL_VERIFY)
+ALTER TYPE verification_type ADD VALUE IF NOT EXISTS 'EMAIL';
+ALTER TYPE verification_type ADD VALUE IF NOT EXISTS 'PHONE';
+ALTER TYPE verification_type ADD VALUE IF NOT EXISTS 'TWO_FACTOR_AUTHENTICATION';
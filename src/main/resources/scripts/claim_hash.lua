@@ -0,0 +1,13 @@
+-- Nhận các delta đang chờ để flush. Delta được chuyển sang hash processing và chỉ bị xóa sau khi
+-- UPDATE đã commit (release_hash.lua), nên node chết giữa chừng không làm mất delta.
+-- KEYS[1] = pending hash, KEYS[2] = processing hash, KEYS[3] = owner key
+-- ARGV[1] = token của lần flush, ARGV[2] = thời hạn lease (ms)
+-- Trả về danh sách phẳng {field1, value1, ...}; nil nếu node khác đang giữ lease
+if not redis.call('SET', KEYS[3], ARGV[1], 'NX', 'PX', ARGV[2]) then
+  return false
+end
+-- processing còn sót lại từ lần flush lỗi trước thì xử lý lại nó trước
+if redis.call('EXISTS', KEYS[2]) == 0 and redis.call('EXISTS', KEYS[1]) == 1 then
+  redis.call('RENAME', KEYS[1], KEYS[2])
+end
+return redis.call('HGETALL', KEYS[2])
@@ -0,0 +1,12 @@
+-- Kết thúc một lần flush nếu lease vẫn thuộc về nó.
+-- KEYS[1] = processing hash, KEYS[2] = owner key
+-- ARGV[1] = token của lần flush, ARGV[2] = 1 nếu UPDATE đã commit (xóa processing), 0 nếu lỗi
+-- Trả về 1 nếu đã giải phóng lease, 0 nếu lease đã hết hạn và thuộc về node khác
+if redis.call('GET', KEYS[2]) ~= ARGV[1] then
+  return 0
+end
+if ARGV[2] == '1' then
+  redis.call('DEL', KEYS[1])
+end
+redis.call('DEL', KEYS[2])
+return 1
@@ -0,0 +1,12 @@
+-- Đọc delta chưa ghi xuống DB của các post: cả delta đang chờ lẫn delta đang được flush, trong
+-- một lần chạy nên không thấy cùng một delta hai lần khi claim_hash.lua RENAME giữa chừng.
+-- KEYS[1] = pending hash, KEYS[2] = processing hash
+-- ARGV = các field (post id)
+-- Trả về tổng của từng field theo thứ tự ARGV, 0 nếu không có
+local pending = redis.call('HMGET', KEYS[1], unpack(ARGV))
+local processing = redis.call('HMGET', KEYS[2], unpack(ARGV))
+local sums = {}
+for i = 1, #ARGV do
+  sums[i] = (tonumber(pending[i]) or 0) + (tonumber(processing[i]) or 0)
+end
+return sums
@@ -0,0 +1,37 @@
+-- Token bucket dùng chung giữa các node.
+-- KEYS[1] = bucket key
+-- ARGV[1] = capacity, ARGV[2] = refill tokens, ARGV[3] = refill period (ms)
+-- Trả về {allowed, remaining, retryAfterMs, resetMs}
+local key = KEYS[1]
+local capacity = tonumber(ARGV[1])
+local refillTokens = tonumber(ARGV[2])
+local refillMillis = tonumber(ARGV[3])
+
+local t = redis.call('TIME')
+local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+
+local state = redis.call('HMGET', key, 'tokens', 'ts')
+local tokens = tonumber(state[1])
+local ts = tonumber(state[2])
+if tokens == nil or ts == nil then
+  tokens = capacity
+  ts = now
+end
+
+local rate = refillTokens / refillMillis
+tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate)
+
+local allowed = 0
+local retryAfter = 0
+if tokens >= 1 then
+  tokens = tokens - 1
+  allowed = 1
+else
+  retryAfter = math.ceil((1 - tokens) / rate)
+end
+
+redis.call('HSET', key, 'tokens', tostring(tokens), 'ts', tostring(now))
+-- bucket đầy lại thì không cần giữ key nữa
+redis.call('PEXPIRE', key, math.ceil(capacity / rate) + 1000)
+
+return {allowed, math.floor(tokens), retryAfter, math.ceil((capacity - tokens) / rate)}
@@ -0,0 +1,209 @@
+package com.thentrees.gymhealthtech.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.thentrees.gymhealthtech.enums.UserRole;
+import com.thentrees.gymhealthtech.enums.UserStatus;
+import com.thentrees.gymhealthtech.model.User;
+import com.thentrees.gymhealthtech.service.JwtService;
+import com.thentrees.gymhealthtech.service.PrincipalCacheService;
+import com.thentrees.gymhealthtech.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import java.security.Key;
+import java.util.Date;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * The filter verifies each token once and reuses its claims. The timed test replays the previous
+ * path, which parsed the token four times and rebuilt the key and parser for each parse.
+ */
+@Slf4j(topic = "JWT-FILTER-TEST")
+class JwtAuthenticationFilterTest {
+
+  private static final String SECRET =
+      Encoders.BASE64.encode(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+  private static final int WARMUP = 5_000;
+  private static final int REQUESTS = 20_000;
+
+  private final PrincipalCacheService principalCache = mock(PrincipalCacheService.class);
+  private JwtService jwtService;
+  private JwtAuthenticationFilter filter;
+  private User user;
+  private String token;
+
+  @BeforeEach
+  void setUp() {
+    JwtServiceImpl service = new JwtServiceImpl();
+    ReflectionTestUtils.setField(service, "jwtSecret", SECRET);
+    ReflectionTestUtils.setField(service, "jwtExpiration", 900_000L);
+    ReflectionTestUtils.invokeMethod(service, "init");
+    jwtService = spy(service);
+    filter = new JwtAuthenticationFilter(jwtService, principalCache);
+
+    user = new User();
+    user.setId(UUID.randomUUID());
+    user.setEmail("an@example.com");
+    user.setPasswordHash("hash");
+    user.setStatus(UserStatus.ACTIVE);
+    user.setRole(UserRole.USER);
+    when(principalCache.loadUser(user.getEmail())).thenReturn(user);
+    token = jwtService.generateTokenForUser(user);
+  }
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+    MDC.clear();
+  }
+
+  @Test
+  void validTokenIsVerifiedOnceAndAuthenticatesTheRequest() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(request(token), response, chain);
+
+    assertThat(chain.getRequest()).isNotNull();
+    assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+        .isSameAs(user);
+    assertThat(MDC.get("userId")).isEqualTo(user.getId().toString());
+    verify(jwtService, times(1)).parseClaims(token);
+    verify(jwtService, never()).extractUsername(anyString());
+    verify(jwtService, never()).isTokenValid(anyString(), any());
+    verify(jwtService, never()).extractUserId(anyString());
+  }
+
+  @Test
+  void expiredTokenIsRejected() throws Exception {
+    String expired =
+        Jwts.builder()
+            .setSubject(user.getEmail())
+            .setIssuedAt(new Date(System.currentTimeMillis() - 120_000))
+            .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+            .signWith(key(), SignatureAlgorithm.HS256)
+            .compact();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(request(expired), response, chain);
+
+    assertThat(response.getStatus()).isEqualTo(401);
+    assertThat(response.getContentAsString()).contains("JWT_EXPIRED");
+    assertThat(chain.getRequest()).isNull();
+  }
+
+  @Test
+  void tamperedTokenIsRejected() throws Exception {
+    String other =
+        Jwts.builder()
+            .setSubject(user.getEmail())
+            .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+            .signWith(Keys.secretKeyFor(SignatureAlgorithm.HS256))
+            .compact();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(request(other), response, chain);
+
+    assertThat(response.getStatus()).isEqualTo(401);
+    assertThat(response.getContentAsString()).contains("JWT_INVALID");
+    assertThat(chain.getRequest()).isNull();
+  }
+
+  @Test
+  void parsingOnceIsFasterThanThePreviousPath() throws Exception {
+    // The spy records every call; time the plain service, as the application runs it
+    JwtServiceImpl service = new JwtServiceImpl();
+    ReflectionTestUtils.setField(service, "jwtSecret", SECRET);
+    ReflectionTestUtils.setField(service, "jwtExpiration", 900_000L);
+    ReflectionTestUtils.invokeMethod(service, "init");
+    JwtAuthenticationFilter timedFilter = new JwtAuthenticationFilter(service, principalCache);
+    MockHttpServletRequest request = request(token);
+
+    LongSupplier parseOnce =
+        () -> {
+          try {
+            SecurityContextHolder.clearContext();
+            timedFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication() != null ? 1 : 0;
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+        };
+    LongSupplier previous = () -> previousPath(token) ? 1 : 0;
+
+    long previousNanos = nanosPerRequest(previous);
+    long parseOnceNanos = nanosPerRequest(parseOnce);
+
+    log.info(
+        "Per request: parse once through the filter {} us, previous path {} us",
+        parseOnceNanos / 1_000.0,
+        previousNanos / 1_000.0);
+    assertThat(parseOnceNanos).isLessThan(previousNanos);
+  }
+
+  /**
+   * The checks the filter made before: subject, then subject and expiry for validation, then the
+   * user id, each a separate parse with a freshly decoded key and a freshly built parser.
+   */
+  private boolean previousPath(String rawToken) {
+    String email = previousParse(rawToken).getSubject();
+    boolean valid =
+        previousParse(rawToken).getSubject().equals(email)
+            && !previousParse(rawToken).getExpiration().before(new Date());
+    String userId = previousParse(rawToken).get("userId", String.class);
+    return valid && userId != null;
+  }
+
+  private static Claims previousParse(String rawToken) {
+    return Jwts.parser().setSigningKey(key()).build().parseClaimsJws(rawToken).getBody();
+  }
+
+  private static Key key() {
+    return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+  }
+
+  private static long nanosPerRequest(LongSupplier request) {
+    long ok = 0;
+    for (int i = 0; i < WARMUP; i++) {
+      ok += request.getAsLong();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < REQUESTS; i++) {
+      ok += request.getAsLong();
+    }
+    long elapsed = System.nanoTime() - start;
+    assertThat(ok).isEqualTo(WARMUP + REQUESTS);
+    return elapsed / REQUESTS;
+  }
+
+  private static MockHttpServletRequest request(String rawToken) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/posts");
+    request.addHeader("Authorization", "Bearer " + rawToken);
+    return request;
+  }
+}
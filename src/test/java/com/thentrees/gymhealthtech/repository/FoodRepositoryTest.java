@@ -0,0 +1,91 @@
+package com.thentrees.gymhealthtech.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.thentrees.gymhealthtech.model.Food;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/** Name search over the unaccented trigram column: accents and small typos still find the food. */
+@DataJpaTest(properties = "spring.profiles.active=test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class FoodRepositoryTest {
+
+  // The migrations need the vector extension
+  @Container @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>(
+          DockerImageName.parse("pgvector/pgvector:pg16").asCompatibleSubstituteFor("postgres"));
+
+  @Autowired private FoodRepository foodRepository;
+
+  @BeforeEach
+  void seed() {
+    foodRepository.saveAllAndFlush(
+        List.of(
+            food("Ức gà luộc", "Boiled chicken breast", true),
+            food("Phở bò", "Beef noodle soup", true),
+            food("Bánh mì", "Vietnamese baguette", true),
+            food("Cơm tấm", "Broken rice", true),
+            food("Bò lúc lắc", "Shaking beef", false)));
+  }
+
+  @Test
+  void keywordWithoutAccentsFindsAccentedNames() {
+    assertThat(names(foodRepository.searchByName("pho bo", null, true, PageRequest.of(0, 10))))
+        .containsExactly("Phở bò");
+    assertThat(names(foodRepository.searchByName("uc ga", null, true, PageRequest.of(0, 10))))
+        .containsExactly("Ức gà luộc");
+    // The keyword is unaccented too, so typing the accents still matches
+    assertThat(names(foodRepository.searchByName("cơm tấm", null, true, PageRequest.of(0, 10))))
+        .containsExactly("Cơm tấm");
+  }
+
+  @Test
+  void keywordWithTypoFindsTheClosestName() {
+    assertThat(names(foodRepository.searchByName("chickn", null, true, PageRequest.of(0, 10))))
+        .containsExactly("Ức gà luộc");
+    assertThat(names(foodRepository.searchByName("baguete", null, true, PageRequest.of(0, 10))))
+        .containsExactly("Bánh mì");
+  }
+
+  @Test
+  void inactiveFoodsOnlyShowWhenNotRestricted() {
+    assertThat(names(foodRepository.searchByName("beef", null, true, PageRequest.of(0, 10))))
+        .containsExactly("Phở bò");
+    assertThat(names(foodRepository.searchByName("beef", null, false, PageRequest.of(0, 10))))
+        .containsExactlyInAnyOrder("Phở bò", "Bò lúc lắc");
+  }
+
+  private static List<String> names(Page<Food> page) {
+    return page.getContent().stream().map(Food::getFoodNameVi).toList();
+  }
+
+  private static Food food(String nameVi, String name, boolean active) {
+    Food food = new Food();
+    food.setFoodNameVi(nameVi);
+    food.setFoodName(name);
+    food.setServingWeightGrams(BigDecimal.valueOf(100));
+    food.setCalories(BigDecimal.valueOf(200));
+    food.setProtein(BigDecimal.valueOf(20));
+    food.setCarbs(BigDecimal.valueOf(10));
+    food.setFat(BigDecimal.valueOf(5));
+    food.setCategory("main");
+    food.setMealTime("lunch");
+    food.setIsActive(active);
+    return food;
+  }
+}
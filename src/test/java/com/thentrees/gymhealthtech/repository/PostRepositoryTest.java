@@ -0,0 +1,168 @@
+package com.thentrees.gymhealthtech.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.thentrees.gymhealthtech.enums.UserRole;
+import com.thentrees.gymhealthtech.enums.UserStatus;
+import com.thentrees.gymhealthtech.model.BaseEntity;
+import com.thentrees.gymhealthtech.model.Post;
+import com.thentrees.gymhealthtech.model.User;
+import com.thentrees.gymhealthtech.util.KeysetCursor;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Keyset pages of the community feed: boundaries inside a run of equal timestamps neither skip nor
+ * repeat a post, deleted posts stay out, and a deep page costs no more than the first one.
+ */
+@Slf4j(topic = "POST-REPOSITORY-TEST")
+@DataJpaTest(properties = "spring.profiles.active=test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class PostRepositoryTest {
+
+  // The migrations need the vector extension
+  @Container @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>(
+          DockerImageName.parse("pgvector/pgvector:pg16").asCompatibleSubstituteFor("postgres"));
+
+  private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+  @Autowired private PostRepository postRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private User author;
+
+  @BeforeEach
+  void setUp() {
+    author = new User();
+    author.setEmail("author-" + UUID.randomUUID() + "@example.com");
+    author.setPasswordHash("hash");
+    author.setStatus(UserStatus.ACTIVE);
+    author.setRole(UserRole.USER);
+    author = userRepository.saveAndFlush(author);
+  }
+
+  @Test
+  void pagesSplitRunsOfEqualTimestampsWithoutSkippingOrRepeating() {
+    // 60 posts in groups of 4 sharing one timestamp; every fifth one is deleted
+    seed(60, 4, 5);
+    List<UUID> expected =
+        jdbcTemplate.queryForList(
+            """
+            SELECT id FROM posts WHERE is_deleted = false
+            ORDER BY created_at DESC, id DESC
+            """,
+            UUID.class);
+    assertThat(expected).hasSize(48);
+
+    // A page size of 7 puts most boundaries inside a group
+    List<UUID> walked = new ArrayList<>();
+    List<Post> page = postRepository.findFeedFirstPage(PageRequest.of(0, 7));
+    while (!page.isEmpty()) {
+      page.forEach(post -> walked.add(post.getId()));
+      Post last = page.get(page.size() - 1);
+      // Round-trip the cursor as the client does
+      String token = KeysetCursor.of(last.getCreatedAt(), last.getId()).encode();
+      KeysetCursor cursor = KeysetCursor.decode(token);
+      page =
+          postRepository.findFeedPageAfter(cursor.createdAt(), cursor.id(), PageRequest.of(0, 7));
+    }
+
+    assertThat(walked).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void deletedPostsAreLeftOutOfEveryPage() {
+    seed(10, 1, 2);
+
+    List<Post> first = postRepository.findFeedFirstPage(PageRequest.of(0, 20));
+    Post middle = first.get(1);
+    List<Post> after =
+        postRepository.findFeedPageAfter(
+            middle.getCreatedAt(), middle.getId(), PageRequest.of(0, 20));
+
+    assertThat(first).hasSize(5).extracting(BaseEntity::getIsDeleted).containsOnly(false);
+    assertThat(after).hasSize(3).extracting(BaseEntity::getIsDeleted).containsOnly(false);
+  }
+
+  @Test
+  void deepKeysetPageOf100kPostsIsAsCheapAsTheFirst() {
+    seed(100_000, 3, 0);
+    jdbcTemplate.execute("ANALYZE posts");
+    PageRequest limit = PageRequest.of(0, 21);
+    // The 90,000th post: where page 4500 starts at 20 posts per page
+    Post boundary = postRepository.findFeedFirstPage(PageRequest.of(89_999, 1)).get(0);
+
+    long firstPage = medianMicros(() -> postRepository.findFeedFirstPage(limit));
+    long keyset =
+        medianMicros(
+            () ->
+                postRepository.findFeedPageAfter(
+                    boundary.getCreatedAt(), boundary.getId(), limit));
+    long offset = medianMicros(() -> postRepository.findFeedFirstPage(PageRequest.of(4_500, 20)));
+
+    log.info(
+        "100k posts, median page: first {} us, keyset at 90k {} us, offset at 90k {} us",
+        firstPage,
+        keyset,
+        offset);
+    assertThat(postRepository.findFeedPageAfter(boundary.getCreatedAt(), boundary.getId(), limit))
+        .hasSize(21);
+    assertThat(keyset).isLessThan(offset);
+    assertThat(keyset).isLessThan(Math.max(firstPage, 1_000) * 5);
+  }
+
+  /**
+   * Inserts posts newest last, {@code perTimestamp} of them sharing each created_at. When {@code
+   * deletedEvery} is positive, every n-th post is soft-deleted.
+   */
+  private void seed(int count, int perTimestamp, int deletedEvery) {
+    jdbcTemplate.update(
+        """
+        INSERT INTO posts (id, user_id, content, created_at, updated_at, is_deleted, version)
+        SELECT gen_random_uuid(), ?, 'post ' || g,
+               ? + ((g - 1) / ?) * interval '1 second', now(),
+               ? > 0 AND g % GREATEST(?, 1) = 0, 0
+        FROM generate_series(1, ?) AS g
+        """,
+        author.getId(),
+        START,
+        perTimestamp,
+        deletedEvery,
+        deletedEvery,
+        count);
+  }
+
+  private static long medianMicros(Runnable query) {
+    for (int i = 0; i < 5; i++) {
+      query.run();
+    }
+    long[] samples = new long[15];
+    for (int i = 0; i < samples.length; i++) {
+      long start = System.nanoTime();
+      query.run();
+      samples[i] = (System.nanoTime() - start) / 1_000;
+    }
+    Arrays.sort(samples);
+    return samples[samples.length / 2];
+  }
+}
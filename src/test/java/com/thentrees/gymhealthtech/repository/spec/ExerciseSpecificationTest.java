@@ -0,0 +1,243 @@
+package com.thentrees.gymhealthtech.repository.spec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.thentrees.gymhealthtech.enums.ExerciseLevel;
+import com.thentrees.gymhealthtech.model.Exercise;
+import com.thentrees.gymhealthtech.repository.ExerciseRepository;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Keyword search on 50k exercises: the plans of the SQL Hibernate generates must go through the
+ * GIN index on search_vector, and the search must beat the LIKE scan it replaced.
+ */
+@Slf4j(topic = "EXERCISE-SEARCH-TEST")
+@DataJpaTest(
+    properties = {
+      "spring.profiles.active=test",
+      "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+          + "com.thentrees.gymhealthtech.repository.spec.ExerciseSpecificationTest$SqlCapture"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// The exercises are seeded and analyzed once, committed, for every test
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Testcontainers(disabledWithoutDocker = true)
+class ExerciseSpecificationTest {
+
+  // The migrations need the vector extension
+  @Container @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>(
+          DockerImageName.parse("pgvector/pgvector:pg16").asCompatibleSubstituteFor("postgres"));
+
+  private static final int EXERCISES = 50_000;
+  private static final List<String> MOVEMENTS =
+      List.of(
+          "bench press", "squat", "deadlift", "barbell row", "biceps curl", "lunge", "plank",
+          "push up", "pull up", "dip", "shoulder press", "lateral raise", "leg press", "calf raise",
+          "hip thrust", "crunch", "face pull", "shrug", "skull crusher", "chest fly", "leg curl",
+          "leg extension", "good morning", "farmer walk", "burpee", "mountain climber",
+          "kettlebell swing", "box jump", "step up", "glute bridge", "russian twist", "chin up",
+          "hammer curl", "pullover", "hack squat", "front raise", "reverse fly", "lat pulldown",
+          "cable crossover", "wall sit");
+  private static final List<String> MODIFIERS =
+      List.of(
+          "incline", "decline", "seated", "standing", "single arm", "wide grip", "close grip",
+          "tempo", "paused", "banded");
+  private static final List<String> FILLER =
+      List.of(
+          "keep", "your", "core", "tight", "and", "breathe", "out", "slowly", "control", "the",
+          "weight", "through", "full", "range", "of", "motion", "with", "neutral", "spine");
+
+  @Autowired private ExerciseRepository exerciseRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  void seed() {
+    String category =
+        jdbcTemplate.queryForObject(
+            "SELECT code FROM exercise_categories ORDER BY code LIMIT 1", String.class);
+    Random random = new Random(15);
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < EXERCISES; i++) {
+      String movement = MOVEMENTS.get(random.nextInt(MOVEMENTS.size()));
+      String name = MODIFIERS.get(random.nextInt(MODIFIERS.size())) + " " + movement + " " + i;
+      StringBuilder instructions = new StringBuilder();
+      for (int w = 0; w < 60; w++) {
+        instructions.append(FILLER.get(random.nextInt(FILLER.size()))).append(' ');
+      }
+      String[] alternativeNames =
+          movement.equals("bench press") ? new String[] {"đẩy ngực"} : new String[] {};
+      rows.add(
+          new Object[] {
+            UUID.randomUUID(),
+            "exercise-" + i,
+            name,
+            instructions.toString(),
+            alternativeNames,
+            category,
+            1 + random.nextInt(5)
+          });
+    }
+    jdbcTemplate.batchUpdate(
+        """
+        INSERT INTO exercises (id, slug, name, instructions, alternative_names, exercise_category,
+                               difficulty_level)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        """,
+        rows,
+        1000,
+        (PreparedStatement ps, Object[] row) -> {
+          ps.setObject(1, row[0]);
+          ps.setString(2, (String) row[1]);
+          ps.setString(3, (String) row[2]);
+          ps.setString(4, (String) row[3]);
+          ps.setArray(5, ps.getConnection().createArrayOf("text", (Object[]) row[4]));
+          ps.setString(6, (String) row[5]);
+          ps.setInt(7, (Integer) row[6]);
+        });
+    jdbcTemplate.execute("ANALYZE exercises");
+  }
+
+  @Test
+  void keywordSearchPlansUseTheSearchVectorIndex() {
+    // Bind values in SQL order: the page's offset and size, after any filter values
+    assertPlansUseIndex(ExerciseSpecification.hasKeyword("bench press"), 0, 20);
+    // Type-ahead: the last word is a prefix
+    assertPlansUseIndex(ExerciseSpecification.hasKeyword("kettlebell sw"), 0, 20);
+    // Combined with a filter, as the search endpoint does
+    assertPlansUseIndex(
+        ExerciseSpecification.hasKeyword("bench")
+            .and(ExerciseSpecification.hasLevel(ExerciseLevel.INTERMEDIATE)),
+        3,
+        3,
+        0,
+        20);
+  }
+
+  @Test
+  void vietnameseWithoutAccentsMatchesAccentedNames() {
+    Page<Exercise> page =
+        exerciseRepository.findAll(
+            ExerciseSpecification.hasKeyword("day nguc"), PageRequest.of(0, 5));
+
+    assertThat(page.getTotalElements()).isPositive();
+    assertThat(page.getContent()).allMatch(exercise -> exercise.getName().contains("bench press"));
+  }
+
+  @Test
+  void fullTextSearchIsFasterThanTheLikeScan() {
+    Pageable page = PageRequest.of(0, 20);
+    Pageable byName = PageRequest.of(0, 20, Sort.by("name"));
+    // Same hits on the name for both: every "bench press" exercise
+    Specification<Exercise> fullTextSpec = ExerciseSpecification.hasKeyword("bench press");
+    Specification<Exercise> likeSpec = likeKeyword("bench press");
+    long fullText = medianMillis(() -> exerciseRepository.findAll(fullTextSpec, page));
+    long like = medianMillis(() -> exerciseRepository.findAll(likeSpec, byName));
+
+    log.info("50k exercises, median page + count: full-text {} ms, LIKE {} ms", fullText, like);
+    assertThat(fullText).isLessThan(like);
+  }
+
+  /** The search before full-text: a case-insensitive substring match on name or instructions. */
+  private static Specification<Exercise> likeKeyword(String keyword) {
+    return (root, query, cb) -> {
+      String pattern = "%" + keyword.toLowerCase() + "%";
+      return cb.or(
+          cb.like(cb.lower(root.get("name")), pattern),
+          cb.like(cb.lower(root.get("instructions")), pattern));
+    };
+  }
+
+  private static long medianMillis(Runnable query) {
+    for (int i = 0; i < 5; i++) {
+      query.run();
+    }
+    long[] samples = new long[21];
+    for (int i = 0; i < samples.length; i++) {
+      long start = System.nanoTime();
+      query.run();
+      samples[i] = (System.nanoTime() - start) / 1_000;
+    }
+    Arrays.sort(samples);
+    return Math.max(1, samples[samples.length / 2] / 1_000);
+  }
+
+  private void assertPlansUseIndex(Specification<Exercise> spec, Object... values) {
+    SqlCapture.STATEMENTS.clear();
+    exerciseRepository.findAll(spec, PageRequest.of(0, 20));
+
+    // The page query, then the count query
+    assertThat(SqlCapture.STATEMENTS).hasSize(2);
+    for (String sql : SqlCapture.STATEMENTS) {
+      String plan = explain(sql, values);
+      assertThat(plan).as("%s%n%s", sql, plan).contains("idx_exercises_search_vector");
+      assertThat(plan).as("%s%n%s", sql, plan).doesNotContain("Seq Scan on exercises");
+    }
+  }
+
+  /**
+   * EXPLAIN of a statement exactly as Hibernate sent it. Hibernate inlines the tsquery literal, so
+   * only filter and paging values are parameters; a count query takes the leading ones.
+   */
+  private String explain(String sql, Object... values) {
+    return jdbcTemplate.execute(
+        (Connection connection) -> {
+          try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = ps.getParameterMetaData().getParameterCount();
+            for (int i = 0; i < parameters; i++) {
+              ps.setObject(i + 1, values[i]);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+              while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+              }
+            }
+            return plan.toString();
+          }
+        });
+  }
+
+  /** Records the SQL Hibernate sends, so the test can EXPLAIN exactly that. */
+  public static class SqlCapture implements StatementInspector {
+
+    static final ConcurrentLinkedQueue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public String inspect(String sql) {
+      STATEMENTS.add(sql);
+      return sql;
+    }
+  }
+}
@@ -0,0 +1,345 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jayway.jsonpath.JsonPath;
+import com.thentrees.gymhealthtech.controller.AIController;
+import com.thentrees.gymhealthtech.dto.response.AiJobResponse;
+import com.thentrees.gymhealthtech.enums.AiJobStatus;
+import com.thentrees.gymhealthtech.mapper.AIServiceMapper;
+import com.thentrees.gymhealthtech.model.User;
+import com.thentrees.gymhealthtech.repository.GoalRepository;
+import com.thentrees.gymhealthtech.repository.UserProfileRepository;
+import com.thentrees.gymhealthtech.service.MealPlannerService;
+import com.thentrees.gymhealthtech.service.PlanGeneratorService;
+import com.thentrees.gymhealthtech.support.StubAiServer;
+import com.thentrees.gymhealthtech.support.StubAiServer.Reply;
+import com.thentrees.gymhealthtech.util.AiClientGuard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * AI generations against a stub AI service that takes its time: the endpoints answer at once, job
+ * state flows through Redis to the status stream, and identical requests share one upstream call.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class AiJobServiceImplTest {
+
+  @Container
+  static final GenericContainer<?> REDIS =
+      new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+  private static final String API = "/api/v1/ai";
+  private static final String MEAL_PLAN_PATH = "/nutrition/meal-plan/generate";
+  private static final String MEAL_PLAN =
+      """
+      {"success": true, "message": "Meal plan generated",
+       "data": {"mealPlanId": "mp-1", "planDate": "2026-10-17"}}
+      """;
+  private static final Duration UPSTREAM_DELAY = Duration.ofSeconds(2);
+
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+  private final UsernamePasswordAuthenticationToken authentication = authenticate();
+  private StubAiServer stub;
+  private LettuceConnectionFactory connectionFactory;
+  private RedisMessageListenerContainer listenerContainer;
+  private ThreadPoolTaskExecutor aiJobExecutor;
+  private AiJobServiceImpl aiJobService;
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    stub = StubAiServer.start();
+    connectionFactory =
+        new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+    connectionFactory.afterPropertiesSet();
+    StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    // Serialized like the application's template, which job state round-trips through
+    RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+    redisTemplate.setConnectionFactory(connectionFactory);
+    redisTemplate.setKeySerializer(new StringRedisSerializer());
+    redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer(objectMapper));
+    redisTemplate.afterPropertiesSet();
+    listenerContainer = new RedisMessageListenerContainer();
+    listenerContainer.setConnectionFactory(connectionFactory);
+    listenerContainer.afterPropertiesSet();
+    listenerContainer.start();
+    aiJobExecutor = new ThreadPoolTaskExecutor();
+    aiJobExecutor.setCorePoolSize(4);
+    aiJobExecutor.setMaxPoolSize(4);
+    aiJobExecutor.setQueueCapacity(20);
+    aiJobExecutor.initialize();
+
+    aiJobService =
+        new AiJobServiceImpl(
+            aiService(),
+            new RedisServiceImpl(redisTemplate, stringRedisTemplate),
+            objectMapper,
+            aiJobExecutor,
+            stringRedisTemplate,
+            listenerContainer,
+            profileless(),
+            goalless(),
+            new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(aiJobService, "jobTtlHours", 1L);
+    ReflectionTestUtils.setField(aiJobService, "sseTimeoutMs", 30_000L);
+    ReflectionTestUtils.setField(aiJobService, "resultTtlMinutes", 30L);
+    aiJobService.init();
+    mockMvc = MockMvcBuilders.standaloneSetup(new AIController(aiJobService)).build();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    aiJobExecutor.shutdown();
+    listenerContainer.stop();
+    listenerContainer.destroy();
+    connectionFactory.destroy();
+    stub.close();
+  }
+
+  @Test
+  void submitIsAcceptedWithoutWaitingForTheUpstream() throws Exception {
+    stub.on(MEAL_PLAN_PATH, call -> Reply.ok(MEAL_PLAN).after(UPSTREAM_DELAY));
+
+    long start = System.nanoTime();
+    mockMvc
+        .perform(post(API + "/meal-plan/generate").principal(authentication))
+        .andExpect(status().isAccepted())
+        .andExpect(jsonPath("$.data.jobId").isNotEmpty())
+        .andExpect(jsonPath("$.data.mealPlan").doesNotExist());
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(UPSTREAM_DELAY.dividedBy(2));
+  }
+
+  @Test
+  void statusStreamClosesOnceTheJobHasFinished() throws Exception {
+    stub.on(MEAL_PLAN_PATH, call -> Reply.ok(MEAL_PLAN).after(UPSTREAM_DELAY));
+    String jobId = submitMealPlan();
+
+    MvcResult stream =
+        mockMvc
+            .perform(
+                get(API + "/jobs/{jobId}/events", jobId)
+                    .principal(authentication)
+                    .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // While the upstream works the stream stays open, having reported the running job
+    await().atMost(Duration.ofSeconds(5)).until(() -> stub.calls(MEAL_PLAN_PATH) == 1);
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .until(() -> stream.getResponse().getContentAsString().contains("\"status\":\"RUNNING\""));
+    assertThat(stream.getResponse().getContentAsString()).doesNotContain("SUCCEEDED");
+
+    stream.getAsyncResult(10_000);
+    long closedAt = System.nanoTime();
+
+    assertThat(closedAt).isGreaterThan(stub.lastRepliedAt());
+    List<String> events = events(stream.getResponse().getContentAsString());
+    assertThat(events).last().asString().contains("\"status\":\"SUCCEEDED\"");
+    assertThat(events).last().asString().contains("\"mealPlanId\":\"mp-1\"");
+    mockMvc
+        .perform(get(API + "/jobs/{jobId}", jobId).principal(authentication))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.status").value("SUCCEEDED"))
+        .andExpect(jsonPath("$.data.finishedAt").isNotEmpty());
+  }
+
+  @Test
+  void identicalSubmitsShareOneUpstreamCall() throws Exception {
+    stub.on(MEAL_PLAN_PATH, call -> Reply.ok(MEAL_PLAN).after(Duration.ofSeconds(1)));
+    int submits = 20;
+    ExecutorService clients = Executors.newFixedThreadPool(submits);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<AiJobResponse>> futures = new ArrayList<>();
+      for (int i = 0; i < submits; i++) {
+        futures.add(
+            clients.submit(
+                () -> {
+                  start.await();
+                  return aiJobService.submitMealPlan(userId(), false);
+                }));
+      }
+      start.countDown();
+      Set<UUID> jobIds = new HashSet<>();
+      for (Future<AiJobResponse> future : futures) {
+        jobIds.add(future.get(10, TimeUnit.SECONDS).getJobId());
+      }
+
+      assertThat(jobIds).hasSize(1);
+      awaitStatus(jobIds.iterator().next(), AiJobStatus.SUCCEEDED);
+      assertThat(stub.calls(MEAL_PLAN_PATH)).isEqualTo(1);
+    } finally {
+      clients.shutdownNow();
+    }
+  }
+
+  @Test
+  void finishedResultIsReusedUntilRegenerateIsAsked() throws Exception {
+    stub.on(MEAL_PLAN_PATH, call -> Reply.ok(MEAL_PLAN));
+    String first = submitMealPlan();
+    awaitStatus(UUID.fromString(first), AiJobStatus.SUCCEEDED);
+
+    // Cached: the finished job comes back with its plan, without another upstream call
+    mockMvc
+        .perform(post(API + "/meal-plan/generate").principal(authentication))
+        .andExpect(status().isAccepted())
+        .andExpect(jsonPath("$.data.jobId").value(first))
+        .andExpect(jsonPath("$.data.status").value("SUCCEEDED"))
+        .andExpect(jsonPath("$.data.mealPlan.data.mealPlanId").value("mp-1"));
+    assertThat(stub.calls(MEAL_PLAN_PATH)).isEqualTo(1);
+
+    MvcResult regenerated =
+        mockMvc
+            .perform(
+                post(API + "/meal-plan/generate")
+                    .param("regenerate", "true")
+                    .principal(authentication))
+            .andExpect(status().isAccepted())
+            .andReturn();
+    String second = JsonPath.read(regenerated.getResponse().getContentAsString(), "$.data.jobId");
+    assertThat(second).isNotEqualTo(first);
+    awaitStatus(UUID.fromString(second), AiJobStatus.SUCCEEDED);
+    assertThat(stub.calls(MEAL_PLAN_PATH)).isEqualTo(2);
+
+    // The regenerated result is the one reused from now on
+    assertThat(aiJobService.submitMealPlan(userId(), false).getJobId())
+        .isEqualTo(UUID.fromString(second));
+    assertThat(stub.calls(MEAL_PLAN_PATH)).isEqualTo(2);
+  }
+
+  @Test
+  void failedResultIsNotReused() throws Exception {
+    stub.on(MEAL_PLAN_PATH, call -> call == 1 ? Reply.status(500) : Reply.ok(MEAL_PLAN));
+    UUID failed = aiJobService.submitMealPlan(userId(), false).getJobId();
+    awaitStatus(failed, AiJobStatus.FAILED);
+
+    UUID retried = aiJobService.submitMealPlan(userId(), false).getJobId();
+
+    assertThat(retried).isNotEqualTo(failed);
+    awaitStatus(retried, AiJobStatus.SUCCEEDED);
+    assertThat(stub.calls(MEAL_PLAN_PATH)).isEqualTo(2);
+  }
+
+  private void awaitStatus(UUID jobId, AiJobStatus expected) {
+    await()
+        .atMost(Duration.ofSeconds(10))
+        .until(() -> aiJobService.getJob(jobId, userId()).getStatus() == expected);
+  }
+
+  private UUID userId() {
+    return ((User) authentication.getPrincipal()).getId();
+  }
+
+  private String submitMealPlan() throws Exception {
+    MvcResult submitted =
+        mockMvc
+            .perform(post(API + "/meal-plan/generate").principal(authentication))
+            .andExpect(status().isAccepted())
+            .andReturn();
+    return JsonPath.read(submitted.getResponse().getContentAsString(), "$.data.jobId");
+  }
+
+  /** The data lines of a text/event-stream body, in order. */
+  private static List<String> events(String body) {
+    return body.lines().filter(line -> line.startsWith("data:")).toList();
+  }
+
+  private AIServiceImpl aiService() {
+    AiClientGuard guard = new AiClientGuard(new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(guard, "deadlineSeconds", 10L);
+    ReflectionTestUtils.setField(guard, "maxAttempts", 3);
+    ReflectionTestUtils.setField(guard, "backoffMs", 100L);
+    ReflectionTestUtils.setField(guard, "minAttemptMs", 500L);
+    ReflectionTestUtils.setField(guard, "bulkheadPermits", 8);
+    ReflectionTestUtils.setField(guard, "windowSize", 20);
+    ReflectionTestUtils.setField(guard, "minimumCalls", 10);
+    ReflectionTestUtils.setField(guard, "failureRateThreshold", 50.0);
+    ReflectionTestUtils.setField(guard, "openSeconds", 30L);
+    ReflectionTestUtils.setField(guard, "halfOpenProbes", 2);
+    ReflectionTestUtils.setField(guard, "hedgeEnabled", false);
+    ReflectionTestUtils.invokeMethod(guard, "init");
+
+    AIServiceImpl aiService =
+        new AIServiceImpl(
+            WebClient.builder()
+                .baseUrl(stub.baseUrl())
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build(),
+            objectMapper,
+            mock(AIServiceMapper.class),
+            guard,
+            mock(PlanGeneratorService.class),
+            mock(MealPlannerService.class));
+    // Only the AI service answers, so a failure shows as one
+    ReflectionTestUtils.setField(aiService, "localFallbackEnabled", false);
+    ReflectionTestUtils.setField(aiService, "localMealPlanFallbackEnabled", false);
+    return aiService;
+  }
+
+  private static UserProfileRepository profileless() {
+    UserProfileRepository repository = mock(UserProfileRepository.class);
+    when(repository.findByUserId(any())).thenReturn(Optional.empty());
+    return repository;
+  }
+
+  private static GoalRepository goalless() {
+    GoalRepository repository = mock(GoalRepository.class);
+    when(repository.findActiveGoalByUserId(any(), any())).thenReturn(Optional.empty());
+    return repository;
+  }
+
+  private static UsernamePasswordAuthenticationToken authenticate() {
+    User user = new User();
+    user.setId(UUID.randomUUID());
+    return new UsernamePasswordAuthenticationToken(user, null, List.of());
+  }
+}
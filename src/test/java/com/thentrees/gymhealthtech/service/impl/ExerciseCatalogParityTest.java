@@ -0,0 +1,286 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.thentrees.gymhealthtech.dto.request.ExerciseSearchRequest;
+import com.thentrees.gymhealthtech.dto.response.ExerciseFacetResponse;
+import com.thentrees.gymhealthtech.dto.response.ExerciseListResponse;
+import com.thentrees.gymhealthtech.dto.response.PagedResponse;
+import com.thentrees.gymhealthtech.enums.ExerciseLevel;
+import com.thentrees.gymhealthtech.enums.ExerciseType;
+import com.thentrees.gymhealthtech.mapper.ExerciseMapper;
+import com.thentrees.gymhealthtech.model.Exercise;
+import com.thentrees.gymhealthtech.repository.ExerciseMuscleRepository;
+import com.thentrees.gymhealthtech.repository.ExerciseRepository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * The in-memory catalog must answer filter-only listings and facet counts exactly as the SQL
+ * search path does, on the schema the application builds (Flyway migrations, then Hibernate's
+ * update) with random exercises and random filters.
+ */
+@DataJpaTest(properties = "spring.profiles.active=test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class ExerciseCatalogParityTest {
+
+  // The migrations need the vector extension
+  @Container @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>(
+          DockerImageName.parse("pgvector/pgvector:pg16").asCompatibleSubstituteFor("postgres"));
+
+  private static final int EXERCISES = 300;
+  private static final int REQUESTS = 200;
+  private static final List<String> SORTS =
+      List.of("name", "slug", "difficultyLevel", "createdAt", "updatedAt");
+
+  @Autowired private ExerciseRepository exerciseRepository;
+  @Autowired private ExerciseMuscleRepository exerciseMuscleRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private final Random random = new Random(17);
+  private List<String> muscles;
+  private List<String> equipments;
+  private List<String> categories;
+  private ExerciseCatalogServiceImpl catalog;
+
+  @BeforeEach
+  void seed() {
+    // A few codes per facet so filters overlap and facet counts are non-trivial
+    muscles =
+        jdbcTemplate.queryForList("SELECT code FROM muscles ORDER BY code LIMIT 8", String.class);
+    equipments =
+        jdbcTemplate.queryForList(
+            "SELECT code FROM equipments ORDER BY code LIMIT 5", String.class);
+    categories =
+        jdbcTemplate.queryForList(
+            "SELECT code FROM exercise_categories ORDER BY code LIMIT 4", String.class);
+
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < EXERCISES; i++) {
+      order.add(i);
+    }
+    Collections.shuffle(order, random);
+    LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+    for (int i = 0; i < EXERCISES; i++) {
+      UUID id = UUID.randomUUID();
+      // Lowercase letters and digits only, so the database collation orders names like Java does
+      String name = String.format("exercise%03d", order.get(i));
+      jdbcTemplate.update(
+          """
+          INSERT INTO exercises (id, slug, name, primary_muscle, equipment, exercise_category,
+                                 exercise_type, difficulty_level, created_at, updated_at)
+          VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+          """,
+          id,
+          String.format("slug%03d", order.get((i * 7) % EXERCISES)),
+          name,
+          sometimes(muscles),
+          sometimes(equipments),
+          pick(categories),
+          random.nextInt(6) == 0 ? null : pick(List.of(ExerciseType.values())).name(),
+          1 + random.nextInt(5),
+          Timestamp.valueOf(base.plusMinutes(random.nextInt(1_000_000))),
+          Timestamp.valueOf(base.plusSeconds(random.nextInt(1_000_000_000))));
+      List<String> linked = new ArrayList<>(muscles);
+      Collections.shuffle(linked, random);
+      for (String muscle : linked.subList(0, random.nextInt(4))) {
+        jdbcTemplate.update(
+            """
+            INSERT INTO exercise_muscles (exercise_id, muscle_code, role)
+            VALUES (?, ?, ?::muscle_role)
+            """,
+            id,
+            muscle,
+            pick(List.of("PRIMARY", "SECONDARY", "STABILIZER")));
+      }
+    }
+
+    ExerciseMapper exerciseMapper = Mappers.getMapper(ExerciseMapper.class);
+    catalog =
+        new ExerciseCatalogServiceImpl(
+            exerciseRepository,
+            exerciseMuscleRepository,
+            exerciseMapper,
+            mock(StringRedisTemplate.class),
+            mock(RedisMessageListenerContainer.class));
+    catalog.rebuild();
+  }
+
+  @Test
+  void searchMatchesSqlForRandomFilters() {
+    Map<UUID, Exercise> byId =
+        exerciseRepository.findAll().stream()
+            .collect(Collectors.toMap(Exercise::getId, Function.identity()));
+
+    for (int n = 0; n < REQUESTS; n++) {
+      ExerciseSearchRequest request = randomRequest();
+      request.setSize(EXERCISES);
+      assertThat(catalog.supports(request)).isTrue();
+
+      List<UUID> fromCatalog =
+          catalog.search(request).getContent().stream().map(ExerciseListResponse::getId).toList();
+      Page<Exercise> fromSql = sql(request);
+      List<UUID> sqlIds = fromSql.getContent().stream().map(Exercise::getId).toList();
+
+      assertThat((long) fromCatalog.size()).as("%s", request).isEqualTo(fromSql.getTotalElements());
+      assertThat(fromCatalog).as("%s", request).containsExactlyInAnyOrderElementsOf(sqlIds);
+      // Ties may be broken differently, so compare the sequence of sort keys
+      Function<UUID, Object> sortKey = id -> sortKey(byId.get(id), request.getSortBy());
+      assertThat(fromCatalog.stream().map(sortKey).toList())
+          .as("%s", request)
+          .isEqualTo(sqlIds.stream().map(sortKey).toList());
+    }
+  }
+
+  @Test
+  void pagesMatchSqlOnUniqueSortKeys() {
+    for (int n = 0; n < REQUESTS; n++) {
+      ExerciseSearchRequest request = randomRequest();
+      request.setSortBy(random.nextBoolean() ? "name" : "slug");
+      request.setSize(1 + random.nextInt(15));
+      request.setPage(random.nextInt(4));
+
+      PagedResponse<ExerciseListResponse> fromCatalog = catalog.search(request);
+      Page<Exercise> fromSql = sql(request);
+
+      assertThat(fromCatalog.getContent().stream().map(ExerciseListResponse::getId).toList())
+          .as("%s", request)
+          .isEqualTo(fromSql.getContent().stream().map(Exercise::getId).toList());
+      assertThat(fromCatalog.getPagination().getTotalElements())
+          .isEqualTo(fromSql.getTotalElements());
+    }
+  }
+
+  @Test
+  void facetCountsMatchSqlCounts() {
+    for (int n = 0; n < REQUESTS / 4; n++) {
+      ExerciseSearchRequest request = randomRequest();
+      ExerciseFacetResponse facets = catalog.facets(request);
+
+      assertThat((long) facets.getTotalElements()).isEqualTo(count(request, r -> {}));
+      assertCounts(facets.getMuscles(), request, (r, code) -> r.setMusclesCodes(List.of(code)));
+      assertCounts(facets.getPrimaryMuscles(), request, ExerciseSearchRequest::setPrimaryMuscle);
+      assertCounts(facets.getEquipment(), request, ExerciseSearchRequest::setEquipmentType);
+      assertCounts(facets.getExerciseTypes(), request, ExerciseSearchRequest::setExerciseType);
+      assertCounts(
+          facets.getLevels(), request, (r, level) -> r.setLevel(ExerciseLevel.valueOf(level)));
+      assertCounts(facets.getCategories(), request, ExerciseSearchRequest::setExerciseCategory);
+    }
+  }
+
+  private Page<Exercise> sql(ExerciseSearchRequest request) {
+    return exerciseRepository.findAll(
+        ExerciseLibraryServiceImpl.buildSearchSpecification(request),
+        PageRequest.of(
+            request.getPage(),
+            request.getSize(),
+            Sort.Direction.fromString(request.getSortDirection()),
+            request.getSortBy()));
+  }
+
+  /** Each facet value's count is the SQL count with that value replacing the facet's filter. */
+  private void assertCounts(
+      Map<String, Integer> counts,
+      ExerciseSearchRequest request,
+      BiConsumer<ExerciseSearchRequest, String> setFacet) {
+    counts.forEach(
+        (value, hits) ->
+            assertThat((long) hits)
+                .as("%s = %s for %s", value, hits, request)
+                .isEqualTo(count(request, r -> setFacet.accept(r, value))));
+  }
+
+  private long count(ExerciseSearchRequest request, Consumer<ExerciseSearchRequest> facetValue) {
+    ExerciseSearchRequest narrowed = copy(request);
+    facetValue.accept(narrowed);
+    return exerciseRepository.count(ExerciseLibraryServiceImpl.buildSearchSpecification(narrowed));
+  }
+
+  private ExerciseSearchRequest randomRequest() {
+    ExerciseSearchRequest request = new ExerciseSearchRequest();
+    if (random.nextInt(3) == 0) {
+      request.setMusclesCodes(List.of(pick(muscles), pick(muscles)));
+    }
+    if (random.nextInt(4) == 0) {
+      request.setPrimaryMuscle(pick(muscles));
+    }
+    if (random.nextInt(3) == 0) {
+      request.setEquipmentType(pick(equipments));
+    }
+    if (random.nextInt(4) == 0) {
+      // Codes are case-insensitive, and an unknown one matches nothing on both paths
+      String type = pick(List.of(ExerciseType.values())).name().toLowerCase(Locale.ROOT);
+      request.setExerciseType(random.nextInt(5) == 0 ? "unknown" : type);
+    }
+    if (random.nextInt(3) == 0) {
+      request.setLevel(pick(List.of(ExerciseLevel.values())));
+    }
+    if (random.nextInt(4) == 0) {
+      request.setExerciseCategory(pick(categories));
+    }
+    request.setSortBy(pick(SORTS));
+    request.setSortDirection(random.nextBoolean() ? "ASC" : "DESC");
+    return request;
+  }
+
+  private static ExerciseSearchRequest copy(ExerciseSearchRequest request) {
+    ExerciseSearchRequest copy = new ExerciseSearchRequest();
+    copy.setMusclesCodes(request.getMusclesCodes());
+    copy.setPrimaryMuscle(request.getPrimaryMuscle());
+    copy.setEquipmentType(request.getEquipmentType());
+    copy.setExerciseType(request.getExerciseType());
+    copy.setLevel(request.getLevel());
+    copy.setExerciseCategory(request.getExerciseCategory());
+    return copy;
+  }
+
+  private static Object sortKey(Exercise exercise, String sortBy) {
+    return switch (sortBy) {
+      case "name" -> exercise.getName();
+      case "slug" -> exercise.getSlug();
+      case "difficultyLevel" -> exercise.getDifficultyLevel();
+      case "createdAt" -> exercise.getCreatedAt();
+      default -> exercise.getUpdatedAt();
+    };
+  }
+
+  private String sometimes(List<String> values) {
+    return random.nextInt(5) == 0 ? null : pick(values);
+  }
+
+  private <T> T pick(List<T> values) {
+    return values.get(random.nextInt(values.size()));
+  }
+}
@@ -0,0 +1,233 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.thentrees.gymhealthtech.constant.CacheConstant;
+import com.thentrees.gymhealthtech.dto.response.ImportFoodResponse;
+import com.thentrees.gymhealthtech.enums.ImportJobStatus;
+import com.thentrees.gymhealthtech.mapper.FoodMapperImpl;
+import com.thentrees.gymhealthtech.repository.FoodRepository;
+import com.thentrees.gymhealthtech.service.RedisService;
+import com.thentrees.gymhealthtech.service.TwoLevelCacheService;
+import com.thentrees.gymhealthtech.util.S3Util;
+import jakarta.validation.Validation;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Imports a generated 200k-row workbook into Postgres inside the heap of the "low-memory" surefire
+ * execution, which a workbook DOM of that size does not fit in.
+ */
+@Tag("low-memory")
+@DataJpaTest(properties = "spring.profiles.active=test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Batches commit on their own as they do on the import executor, so a failed one can be replayed
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class FoodImportServiceImplTest {
+
+  // The migrations need the vector extension
+  @Container @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>(
+          DockerImageName.parse("pgvector/pgvector:pg16").asCompatibleSubstituteFor("postgres"));
+
+  private static final int ROWS = 200_000;
+  private static final long MAX_HEAP = 256L * 1024 * 1024;
+
+  @Autowired private FoodRepository foodRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private final Map<String, Object> redis = new ConcurrentHashMap<>();
+  private final RedisService redisService = mock(RedisService.class);
+  private final TwoLevelCacheService twoLevelCacheService = mock(TwoLevelCacheService.class);
+  private final S3Util s3Util = mock(S3Util.class);
+  private FoodImportServiceImpl importService;
+  private Path workbook;
+  private List<String> report;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+        .when(redisService)
+        .set(anyString(), any(), any(Duration.class));
+    when(redisService.get(anyString()))
+        .thenAnswer(invocation -> redis.get(invocation.getArgument(0)));
+    // The report is a temp file deleted once the job ends, so read it when it is uploaded
+    when(s3Util.uploadFile(any(Path.class), anyString(), eq("text/csv")))
+        .thenAnswer(
+            invocation -> {
+              report = Files.readAllLines(invocation.getArgument(0), StandardCharsets.UTF_8);
+              return "import-reports/errors.csv";
+            });
+    when(s3Util.getFileUrl("import-reports/errors.csv"))
+        .thenReturn("https://cdn.example.com/import-reports/errors.csv");
+
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    importService =
+        new FoodImportServiceImpl(
+            foodRepository,
+            new FoodMapperImpl(),
+            redisService,
+            twoLevelCacheService,
+            objectMapper,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            s3Util,
+            Runnable::run);
+    ReflectionTestUtils.setField(importService, "batchSize", 500);
+    ReflectionTestUtils.setField(importService, "jobTtlHours", 1L);
+
+    workbook = Files.createTempFile("food-import-test-", ".xlsx");
+    writeWorkbook(workbook);
+  }
+
+  @AfterEach
+  void cleanUp() throws Exception {
+    Files.deleteIfExists(workbook);
+  }
+
+  @Test
+  void largeWorkbookImportsWithinSmallHeap() throws Exception {
+    assumeThat(Runtime.getRuntime().maxMemory())
+        .as("run through the low-memory surefire execution")
+        .isLessThanOrEqualTo(MAX_HEAP);
+
+    ImportFoodResponse queued = importService.startImport(upload(workbook));
+    ImportFoodResponse job = importService.getImportStatus(queued.getJobId());
+
+    // Per 1000 rows: one unparsable number and one missing meal time; per 10000 one name too
+    // long for its column, which only the database rejects
+    int parseErrors = ROWS / 1000;
+    int missingMealTimes = ROWS / 1000;
+    int tooLong = ROWS / 10_000;
+    int failed = parseErrors + missingMealTimes + tooLong;
+    // Per 1000 rows one name repeats the previous row's in upper case, and updates that row
+    int repeatedNames = ROWS / 1000;
+
+    assertThat(job.getStatus()).isEqualTo(ImportJobStatus.COMPLETED);
+    assertThat(job.getProcessedRows()).isEqualTo(ROWS);
+    assertThat(job.getTotalRows()).isEqualTo(ROWS);
+    assertThat(job.getFailCount()).isEqualTo(failed);
+    assertThat(job.getSuccessCount()).isEqualTo(ROWS - failed);
+    assertThat(job.getErrors()).hasSize(20);
+    assertThat(job.getErrorReportUrl())
+        .isEqualTo("https://cdn.example.com/import-reports/errors.csv");
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM foods WHERE is_deleted = false", Long.class))
+        .isEqualTo(ROWS - failed - repeatedNames);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT calories FROM foods WHERE lower(food_name) = 'food-000749'", Double.class))
+        .as("the later row with the same name wins")
+        .isEqualTo(750.0);
+    verify(twoLevelCacheService).invalidate(CacheConstant.FOOD_CACHE);
+
+    // Excel row numbers are 1-based and the header is row 1
+    assertThat(report).hasSize(1 + failed);
+    assertThat(report.get(0)).isEqualTo("row,food_name,error");
+    assertThat(report)
+        .contains(
+            "1001,\"food-001000\",\"column D: 'n/a' is not a number; calories: is required\"",
+            "501,\"food-000500\",\"mealTime: is required\"");
+    assertThat(report)
+        .filteredOn(line -> line.startsWith("251,\"food-000250\","))
+        .singleElement()
+        .asString()
+        .contains("value too long");
+  }
+
+  /** Streams the rows out through SXSSF, so writing the file stays within the same small heap. */
+  private static void writeWorkbook(Path path) throws Exception {
+    try (SXSSFWorkbook book = new SXSSFWorkbook(100);
+        OutputStream out = Files.newOutputStream(path)) {
+      book.setCompressTempFiles(true);
+      var sheet = book.createSheet("foods");
+      Row header = sheet.createRow(0);
+      List<String> columns =
+          List.of(
+              "food_name_vi", "food_name", "serving_weight_grams", "calories", "protein", "carbs",
+              "fat", "image_url", "meal_time", "vitamin_a", "vitamin_c", "vitamin_d", "category",
+              "fiber", "description", "detailed_benefits", "common_combinations",
+              "contraindications", "alternative_foods", "tags");
+      for (int c = 0; c < columns.size(); c++) {
+        header.createCell(c).setCellValue(columns.get(c));
+      }
+
+      for (int i = 1; i <= ROWS; i++) {
+        Row row = sheet.createRow(i);
+        // Every 1000th row from 750 on has the same natural key as the row above
+        String name =
+            i % 1000 == 750 ? String.format("FOOD-%06d", i - 1) : String.format("food-%06d", i);
+        row.createCell(0).setCellValue(i % 10_000 == 250 ? "món ".repeat(100) : "món " + i);
+        row.createCell(1).setCellValue(name);
+        row.createCell(2).setCellValue(100);
+        if (i % 1000 == 0) {
+          row.createCell(3).setCellValue("n/a");
+        } else {
+          row.createCell(3).setCellValue(i % 1000);
+        }
+        row.createCell(4).setCellValue(10);
+        row.createCell(5).setCellValue(20);
+        row.createCell(6).setCellValue(5);
+        if (i % 1000 != 500) {
+          row.createCell(8).setCellValue(i % 2 == 0 ? "breakfast" : "lunch");
+        }
+        row.createCell(12).setCellValue(i % 3 == 0 ? "protein" : "grain");
+        row.createCell(13).setCellValue(2);
+        row.createCell(14).setCellValue("generated food " + i);
+        row.createCell(19).setCellValue("ít béo | nhiều đạm");
+      }
+      book.write(out);
+      book.dispose();
+    }
+  }
+
+  private static MultipartFile upload(Path path) throws Exception {
+    MultipartFile file = mock(MultipartFile.class);
+    doAnswer(
+            invocation -> {
+              Files.copy(path, invocation.<Path>getArgument(0), REPLACE_EXISTING);
+              return null;
+            })
+        .when(file)
+        .transferTo(any(Path.class));
+    return file;
+  }
+}
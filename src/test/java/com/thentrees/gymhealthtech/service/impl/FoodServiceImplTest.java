@@ -0,0 +1,216 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.thentrees.gymhealthtech.dto.response.FoodResponse;
+import com.thentrees.gymhealthtech.dto.response.PagedResponse;
+import com.thentrees.gymhealthtech.enums.UserRole;
+import com.thentrees.gymhealthtech.mapper.FoodMapperImpl;
+import com.thentrees.gymhealthtech.model.Food;
+import com.thentrees.gymhealthtech.model.User;
+import com.thentrees.gymhealthtech.repository.FoodRepository;
+import com.thentrees.gymhealthtech.util.CacheKeyUtils;
+import com.thentrees.gymhealthtech.util.FileValidator;
+import com.thentrees.gymhealthtech.util.S3Util;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Food search through the two-level cache, against Postgres and Redis: every page is cached under
+ * its own key, and the cached results are those of the trigram search.
+ */
+@DataJpaTest(properties = "spring.profiles.active=test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class FoodServiceImplTest {
+
+  // The migrations need the vector extension
+  @Container @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>(
+          DockerImageName.parse("pgvector/pgvector:pg16").asCompatibleSubstituteFor("postgres"));
+
+  @Container
+  static final GenericContainer<?> REDIS =
+      new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+  @Autowired private FoodRepository foodRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+  private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+  private LettuceConnectionFactory connectionFactory;
+  private RedisMessageListenerContainer listenerContainer;
+  private FoodRepository repository;
+  private FoodServiceImpl foodService;
+
+  @BeforeEach
+  void setUp() {
+    connectionFactory =
+        new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+    connectionFactory.afterPropertiesSet();
+    StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    // Entries of an earlier test would outlive its rolled back rows
+    stringRedisTemplate.execute(
+        connection -> {
+          connection.serverCommands().flushAll();
+          return null;
+        },
+        true);
+    RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+    redisTemplate.setConnectionFactory(connectionFactory);
+    redisTemplate.afterPropertiesSet();
+    listenerContainer = new RedisMessageListenerContainer();
+    listenerContainer.setConnectionFactory(connectionFactory);
+    listenerContainer.afterPropertiesSet();
+    listenerContainer.start();
+
+    TwoLevelCacheServiceImpl cache =
+        new TwoLevelCacheServiceImpl(
+            new RedisServiceImpl(redisTemplate, stringRedisTemplate),
+            stringRedisTemplate,
+            listenerContainer,
+            objectMapper,
+            new SimpleMeterRegistry(),
+            transactionManager,
+            refreshExecutor);
+    ReflectionTestUtils.setField(cache, "localTtlSeconds", 30L);
+    ReflectionTestUtils.setField(cache, "localMaxSize", 1000L);
+    ReflectionTestUtils.setField(cache, "staleRatio", 0.5);
+    // Early refresh would add searches the tests count
+    ReflectionTestUtils.setField(cache, "earlyRefreshBeta", 0.0);
+    ReflectionTestUtils.setField(cache, "leaseEnabled", true);
+    ReflectionTestUtils.setField(cache, "leaseTtlMs", 10_000L);
+    ReflectionTestUtils.setField(cache, "leaseWaitMs", 1_000L);
+    ReflectionTestUtils.setField(cache, "leasePollMs", 20L);
+    cache.init();
+
+    // Counts the searches that reach the database
+    repository = mock(FoodRepository.class, AdditionalAnswers.delegatesTo(foodRepository));
+    foodService =
+        new FoodServiceImpl(
+            repository,
+            new FoodMapperImpl(),
+            mock(FileValidator.class),
+            mock(S3Util.class),
+            new CacheKeyUtils(objectMapper),
+            cache);
+    ReflectionTestUtils.setField(foodService, "searchCacheTtlMinutes", 10L);
+
+    User user = new User();
+    user.setRole(UserRole.USER);
+    SecurityContextHolder.getContext()
+        .setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+
+    foodRepository.saveAllAndFlush(
+        List.of(
+            food("Ức gà luộc", "Boiled chicken breast"),
+            food("Gà nướng mật ong", "Honey roasted chicken"),
+            food("Cánh gà chiên", "Fried chicken wings"),
+            food("Gà xé phay", "Shredded chicken salad"),
+            food("Phở bò", "Beef noodle soup")));
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    SecurityContextHolder.clearContext();
+    listenerContainer.stop();
+    listenerContainer.destroy();
+    refreshExecutor.shutdownNow();
+    connectionFactory.destroy();
+  }
+
+  @Test
+  void everyPageOfASearchIsCachedUnderItsOwnKey() {
+    PagedResponse<FoodResponse> first = search("chicken", PageRequest.of(0, 2));
+    PagedResponse<FoodResponse> second = search("chicken", PageRequest.of(1, 2));
+
+    assertThat(first.getPagination().getPage()).isZero();
+    assertThat(second.getPagination().getPage()).isEqualTo(1);
+    assertThat(first.getPagination().getTotalElements()).isEqualTo(4);
+    assertThat(first.getContent()).hasSize(2);
+    assertThat(second.getContent()).hasSize(2);
+    assertThat(ids(first)).doesNotContainAnyElementsOf(ids(second));
+
+    // Served from the cache now, each page still its own
+    assertThat(ids(search("chicken", PageRequest.of(0, 2)))).isEqualTo(ids(first));
+    assertThat(ids(search("chicken", PageRequest.of(1, 2)))).isEqualTo(ids(second));
+    verify(repository, times(2))
+        .searchByName(anyString(), isNull(), anyBoolean(), any(Pageable.class));
+  }
+
+  @Test
+  void keywordWithoutAccentsFindsAccentedNames() {
+    assertThat(search("ga nuong", PageRequest.of(0, 10)).getContent())
+        .extracting(FoodResponse::getFoodNameVi)
+        .containsExactly("Gà nướng mật ong");
+  }
+
+  @Test
+  void keywordWithTypoFindsTheClosestNames() {
+    assertThat(search("chickn", PageRequest.of(0, 10)).getContent())
+        .extracting(FoodResponse::getFoodNameVi)
+        .containsExactlyInAnyOrder(
+            "Ức gà luộc", "Gà nướng mật ong", "Cánh gà chiên", "Gà xé phay");
+  }
+
+  private PagedResponse<FoodResponse> search(String keyword, Pageable pageable) {
+    return foodService.getAllFoods(keyword, null, pageable);
+  }
+
+  private static List<UUID> ids(PagedResponse<FoodResponse> page) {
+    return page.getContent().stream().map(FoodResponse::getId).toList();
+  }
+
+  private static Food food(String nameVi, String name) {
+    Food food = new Food();
+    food.setFoodNameVi(nameVi);
+    food.setFoodName(name);
+    food.setServingWeightGrams(BigDecimal.valueOf(100));
+    food.setCalories(BigDecimal.valueOf(200));
+    food.setProtein(BigDecimal.valueOf(20));
+    food.setCarbs(BigDecimal.valueOf(10));
+    food.setFat(BigDecimal.valueOf(5));
+    food.setCategory("main");
+    food.setMealTime("lunch");
+    return food;
+  }
+}
@@ -0,0 +1,205 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.thentrees.gymhealthtech.service.impl.MealPlanSolver.FoodOption;
+import com.thentrees.gymhealthtech.service.impl.MealPlanSolver.Portion;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Day totals against the targets on a fixed catalog, the portion rules and the solver's speed. */
+class MealPlanSolverTest {
+
+  private static final List<String> MEALS = List.of("breakfast", "lunch", "dinner");
+  private static final double[] SHARES = {0.3, 0.4, 0.3};
+  // Allowed relative error of the day's calories, protein, carbs and fat
+  private static final double[] TOLERANCES = {0.10, 0.15, 0.20, 0.25};
+
+  private static final List<FoodOption> FIXED =
+      List.of(
+          food("oatmeal", "grain", List.of("breakfast"), 150, 5, 27, 3),
+          food("egg", "protein", MEALS, 78, 6, 0.6, 5),
+          food("banana", "fruit", List.of("breakfast", "lunch"), 105, 1.3, 27, 0.4),
+          food("milk", "dairy", List.of("breakfast"), 120, 8, 12, 5),
+          food("banh mi", "grain", List.of("breakfast"), 260, 8, 50, 3),
+          food("greek yogurt", "dairy", List.of("breakfast"), 100, 17, 6, 0.7),
+          food("white rice", "grain", List.of("lunch", "dinner"), 200, 4, 45, 0.4),
+          food("chicken breast", "protein", List.of("lunch", "dinner"), 165, 31, 0, 3.6),
+          food("salmon", "protein", List.of("lunch", "dinner"), 208, 20, 0, 13),
+          food("beef", "protein", List.of("lunch", "dinner"), 250, 26, 0, 15),
+          food("tofu", "protein", List.of("lunch", "dinner"), 144, 15, 3.5, 8.7),
+          food("broccoli", "vegetable", List.of("lunch", "dinner"), 55, 3.7, 11, 0.6),
+          food("sweet potato", "grain", List.of("lunch", "dinner"), 112, 2, 26, 0.1),
+          food("pho bo", "soup", List.of("breakfast", "lunch"), 350, 20, 45, 8),
+          food("olive oil", "fat", List.of("lunch", "dinner"), 119, 0, 0, 13.5),
+          food("peanut butter", "fat", List.of("breakfast"), 188, 8, 6, 16));
+
+  static Stream<Arguments> targets() {
+    return Stream.of(
+        Arguments.of((Object) new double[] {2000, 150, 200, 55.6}),
+        Arguments.of((Object) new double[] {2500, 140, 300, 69}),
+        Arguments.of((Object) new double[] {1600, 140, 130, 44}),
+        Arguments.of((Object) new double[] {3000, 160, 380, 83}),
+        Arguments.of((Object) new double[] {1800, 110, 200, 50}));
+  }
+
+  @ParameterizedTest
+  @MethodSource("targets")
+  void dayTotalsAreWithinToleranceOfTargets(double[] target) {
+    List<List<Portion>> day = solveDay(new MealPlanSolver(FIXED, Set.of(), 7), target);
+
+    double[] totals = totals(day);
+    for (int m = 0; m < totals.length; m++) {
+      assertThat(Math.abs(totals[m] - target[m]) / target[m])
+          .as("relative error of macro %d: %s for %s", m, totals[m], target[m])
+          .isLessThanOrEqualTo(TOLERANCES[m]);
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("targets")
+  void portionsFollowTheMealRules(double[] target) {
+    List<List<Portion>> day = solveDay(new MealPlanSolver(FIXED, Set.of(), 7), target);
+
+    Set<UUID> used = new HashSet<>();
+    for (int i = 0; i < MEALS.size(); i++) {
+      List<Portion> meal = day.get(i);
+      assertThat(meal).hasSizeBetween(1, MealPlanSolver.MAX_PORTIONS);
+      for (Portion portion : meal) {
+        assertThat(portion.food().mealTimes()).contains(MEALS.get(i));
+        assertThat(DoubleStream.of(MealPlanSolver.SERVING_STEPS).boxed().toList())
+            .contains(portion.servings());
+        assertThat(used.add(portion.food().id())).as("%s used twice", portion.food()).isTrue();
+      }
+    }
+  }
+
+  @Test
+  void recentFoodGivesWayToAnEquivalentOne() {
+    FoodOption recent = food("chicken breast", "protein", List.of("lunch"), 165, 31, 0, 3.6);
+    FoodOption other = food("chicken thigh", "protein", List.of("lunch"), 165, 31, 0, 3.6);
+    double[] target = {330, 62, 0, 7.2};
+
+    for (int seed = 0; seed < 50; seed++) {
+      List<Portion> meal =
+          new MealPlanSolver(List.of(recent, other), Set.of(recent.id()), seed)
+              .solveMeal("lunch", target);
+
+      assertThat(meal).extracting(Portion::food).containsExactly(other);
+    }
+  }
+
+  @Test
+  void sameInputsGiveSameDay() {
+    double[] target = {2000, 150, 200, 55.6};
+
+    assertThat(solveDay(new MealPlanSolver(FIXED, Set.of(), 11), target))
+        .isEqualTo(solveDay(new MealPlanSolver(FIXED, Set.of(), 11), target));
+  }
+
+  @Test
+  void largeCatalogIsSolvedQuickly() {
+    List<FoodOption> catalog = randomCatalog(new Random(1), 5000);
+    Set<UUID> recent = new HashSet<>();
+    catalog.stream().limit(200).forEach(food -> recent.add(food.id()));
+    double[] target = {2200, 140, 250, 65};
+    // Warm up the JIT so the measurement reflects steady state
+    for (int i = 0; i < 3; i++) {
+      solveDay(new MealPlanSolver(catalog, recent, i), target);
+    }
+
+    int days = 5;
+    long start = System.nanoTime();
+    for (int i = 0; i < days; i++) {
+      solveDay(new MealPlanSolver(catalog, recent, i), target);
+    }
+    long millisPerDay = (System.nanoTime() - start) / 1_000_000 / days;
+
+    assertThat(millisPerDay).as("ms per day for %d foods", catalog.size()).isLessThan(1000);
+  }
+
+  private static List<List<Portion>> solveDay(MealPlanSolver solver, double[] target) {
+    List<List<Portion>> day = new ArrayList<>();
+    for (int i = 0; i < MEALS.size(); i++) {
+      double share = SHARES[i];
+      day.add(solver.solveMeal(MEALS.get(i), Arrays.stream(target).map(t -> t * share).toArray()));
+    }
+    return day;
+  }
+
+  private static double[] totals(List<List<Portion>> day) {
+    double[] totals = new double[4];
+    for (List<Portion> meal : day) {
+      for (Portion portion : meal) {
+        for (int m = 0; m < totals.length; m++) {
+          totals[m] += portion.amount(m);
+        }
+      }
+    }
+    return totals;
+  }
+
+  private static List<FoodOption> randomCatalog(Random random, int size) {
+    List<String> categories = List.of("grain", "protein", "fruit", "dairy", "vegetable", "fat");
+    List<FoodOption> catalog = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      double protein = random.nextDouble() * 30;
+      double carbs = random.nextDouble() * 50;
+      double fat = random.nextDouble() * 15;
+      List<String> mealTimes = new ArrayList<>();
+      for (String meal : MEALS) {
+        if (random.nextBoolean()) {
+          mealTimes.add(meal);
+        }
+      }
+      catalog.add(
+          food(
+              "food-" + i,
+              categories.get(random.nextInt(categories.size())),
+              mealTimes,
+              4 * protein + 4 * carbs + 9 * fat,
+              protein,
+              carbs,
+              fat));
+    }
+    return catalog;
+  }
+
+  private static FoodOption food(
+      String name,
+      String category,
+      List<String> mealTimes,
+      double calories,
+      double protein,
+      double carbs,
+      double fat) {
+    return new FoodOption(
+        UUID.nameUUIDFromBytes(name.getBytes()),
+        name,
+        null,
+        null,
+        null,
+        category,
+        null,
+        null,
+        null,
+        mealTimes,
+        List.of(),
+        calories,
+        protein,
+        carbs,
+        fat,
+        0);
+  }
+}
@@ -0,0 +1,235 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.thentrees.gymhealthtech.dto.response.CursorPageResponse;
+import com.thentrees.gymhealthtech.dto.response.PostCommentResponse;
+import com.thentrees.gymhealthtech.enums.UserRole;
+import com.thentrees.gymhealthtech.enums.UserStatus;
+import com.thentrees.gymhealthtech.mapper.PostCommentMapperImpl;
+import com.thentrees.gymhealthtech.model.User;
+import com.thentrees.gymhealthtech.repository.PostCommentRepository;
+import com.thentrees.gymhealthtech.repository.PostRepository;
+import com.thentrees.gymhealthtech.repository.UserRepository;
+import com.thentrees.gymhealthtech.util.FileValidator;
+import com.thentrees.gymhealthtech.util.S3Util;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Comment threads against Postgres with Hibernate statistics: a page of threads costs the same
+ * number of statements however deep or wide the threads are.
+ */
+@DataJpaTest(
+    properties = {
+      "spring.profiles.active=test",
+      "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class PostCommentServiceImplTest {
+
+  // The migrations need the vector extension
+  @Container @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>(
+          DockerImageName.parse("pgvector/pgvector:pg16").asCompatibleSubstituteFor("postgres"));
+
+  // Post exists, page of roots, reply ids per thread, replies with their authors
+  private static final long THREAD_PAGE_STATEMENTS = 4;
+
+  private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 8, 0);
+
+  @Autowired private PostCommentRepository commentRepository;
+  @Autowired private PostRepository postRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private TestEntityManager entityManager;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private PostCommentServiceImpl commentService;
+  private Statistics statistics;
+  private List<UUID> authors;
+  private UUID postId;
+  private int commentCount;
+
+  @BeforeEach
+  void setUp() {
+    commentService =
+        new PostCommentServiceImpl(
+            commentRepository,
+            postRepository,
+            new PostCommentMapperImpl(),
+            mock(ApplicationEventPublisher.class),
+            mock(FileValidator.class),
+            mock(S3Util.class));
+    ReflectionTestUtils.setField(commentService, "commentPageSize", 20);
+    ReflectionTestUtils.setField(commentService, "commentMaxPageSize", 50);
+    ReflectionTestUtils.setField(commentService, "repliesPerThread", 3);
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    // A handful of authors, so replies are not all served by one cached user
+    authors = List.of(author("An"), author("Binh"), author("Chi"), author("Dung"));
+    postId = UUID.randomUUID();
+    jdbcTemplate.update(
+        """
+        INSERT INTO posts (id, user_id, content, created_at, updated_at, is_deleted, version)
+        VALUES (?, ?, 'Leg day', ?, ?, false, 0)
+        """,
+        postId,
+        authors.get(0),
+        START,
+        START);
+    // The profiles were inserted behind the saved users; load them from the database
+    entityManager.clear();
+  }
+
+  @Test
+  void deepThreadIsLoadedInAFixedNumberOfStatements() {
+    // One root with a chain of 60 replies, each answering the previous one
+    UUID root = comment(null, null);
+    UUID parent = root;
+    for (int i = 0; i < 60; i++) {
+      parent = comment(root, parent);
+    }
+    ReflectionTestUtils.setField(commentService, "repliesPerThread", 50);
+
+    CursorPageResponse<PostCommentResponse> page =
+        statements(() -> commentService.getPostComments(postId.toString(), null, null));
+
+    assertThat(page.getContent()).hasSize(1);
+    PostCommentResponse thread = page.getContent().get(0);
+    assertThat(depth(thread)).isEqualTo(50);
+    assertThat(thread.getHasMoreReplies()).isTrue();
+    assertThat(thread.getRepliesCursor()).isNotNull();
+  }
+
+  @Test
+  void wideThreadsAreLoadedInAFixedNumberOfStatements() {
+    // 20 roots, each answered 30 times directly
+    for (int r = 0; r < 20; r++) {
+      UUID root = comment(null, null);
+      for (int i = 0; i < 30; i++) {
+        comment(root, root);
+      }
+    }
+
+    CursorPageResponse<PostCommentResponse> page =
+        statements(() -> commentService.getPostComments(postId.toString(), null, 20));
+
+    assertThat(page.getContent()).hasSize(20);
+    assertThat(page.getContent())
+        .allSatisfy(
+            thread -> {
+              assertThat(thread.getReplies()).hasSize(3);
+              assertThat(thread.getHasMoreReplies()).isTrue();
+            });
+  }
+
+  @Test
+  void pageWithoutRepliesSkipsTheReplyQuery() {
+    for (int r = 0; r < 5; r++) {
+      comment(null, null);
+    }
+
+    entityManager.clear();
+    statistics.clear();
+    CursorPageResponse<PostCommentResponse> page =
+        commentService.getPostComments(postId.toString(), null, null);
+
+    assertThat(page.getContent()).hasSize(5).allSatisfy(t -> assertThat(t.getReplies()).isEmpty());
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(THREAD_PAGE_STATEMENTS - 1);
+  }
+
+  @Test
+  void moreRepliesArePagedFromTheThreadCursor() {
+    UUID root = comment(null, null);
+    for (int i = 0; i < 10; i++) {
+      comment(root, root);
+    }
+    PostCommentResponse thread =
+        commentService.getPostComments(postId.toString(), null, null).getContent().get(0);
+
+    entityManager.clear();
+    statistics.clear();
+    CursorPageResponse<PostCommentResponse> rest =
+        commentService.getCommentReplies(root, thread.getRepliesCursor(), 20);
+
+    assertThat(rest.getContent()).hasSize(7);
+    assertThat(rest.getContent().get(0).getId())
+        .isNotIn(thread.getReplies().stream().map(PostCommentResponse::getId).toList());
+    // Root exists, then one page of replies with their authors
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+  }
+
+  /** Runs the call on a cold persistence context and checks the statements it prepared. */
+  private <T> T statements(Supplier<T> call) {
+    entityManager.clear();
+    statistics.clear();
+    T result = call.get();
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(THREAD_PAGE_STATEMENTS);
+    return result;
+  }
+
+  private static int depth(PostCommentResponse comment) {
+    int depth = 0;
+    while (!comment.getReplies().isEmpty()) {
+      assertThat(comment.getReplies()).hasSize(1);
+      comment = comment.getReplies().get(0);
+      depth++;
+    }
+    return depth;
+  }
+
+  private UUID author(String name) {
+    User user = new User();
+    user.setEmail(name.toLowerCase() + "-" + UUID.randomUUID() + "@example.com");
+    user.setPasswordHash("hash");
+    user.setStatus(UserStatus.ACTIVE);
+    user.setRole(UserRole.USER);
+    UUID id = userRepository.saveAndFlush(user).getId();
+    jdbcTemplate.update("INSERT INTO user_profiles (user_id, full_name) VALUES (?, ?)", id, name);
+    return id;
+  }
+
+  private UUID comment(UUID root, UUID parent) {
+    UUID id = UUID.randomUUID();
+    jdbcTemplate.update(
+        """
+        INSERT INTO post_comments (id, post_id, user_id, parent_comment_id, root_comment_id,
+                                   content, likes_count, replies_count, is_active, is_pinned,
+                                   created_at, updated_at, is_deleted, version)
+        VALUES (?, ?, ?, ?, ?, ?, 0, 0, true, false, ?, ?, false, 0)
+        """,
+        id,
+        postId,
+        authors.get(commentCount % authors.size()),
+        parent,
+        root,
+        "comment " + commentCount,
+        START.plusSeconds(commentCount),
+        START);
+    commentCount++;
+    return id;
+  }
+}
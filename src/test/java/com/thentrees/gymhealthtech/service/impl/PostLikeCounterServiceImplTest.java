@@ -0,0 +1,92 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.thentrees.gymhealthtech.repository.PostRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/** Displayed like counts include every delta not yet in the database, whatever flush stage. */
+@Testcontainers(disabledWithoutDocker = true)
+class PostLikeCounterServiceImplTest {
+
+  @Container
+  static final GenericContainer<?> REDIS =
+      new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+  private final PostRepository postRepository = mock(PostRepository.class);
+  private LettuceConnectionFactory connectionFactory;
+  private PostLikeCounterServiceImpl counter;
+
+  @BeforeEach
+  void connect() {
+    connectionFactory =
+        new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+    connectionFactory.afterPropertiesSet();
+    StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    stringRedisTemplate.delete(
+        List.of("post:like-delta", "post:like-delta:processing", "post:like-delta:owner"));
+    counter = new PostLikeCounterServiceImpl(stringRedisTemplate, postRepository);
+    ReflectionTestUtils.setField(counter, "flushLeaseMs", 60_000L);
+  }
+
+  @AfterEach
+  void disconnect() {
+    connectionFactory.destroy();
+  }
+
+  @Test
+  void pendingDeltasAreSummedPerPost() {
+    UUID liked = UUID.randomUUID();
+    UUID unliked = UUID.randomUUID();
+    UUID untouched = UUID.randomUUID();
+    counter.recordDelta(liked, 1);
+    counter.recordDelta(liked, 1);
+    counter.recordDelta(unliked, -1);
+
+    assertThat(counter.pendingDeltas(List.of(liked, unliked, untouched)))
+        .isEqualTo(Map.of(liked, 2, unliked, -1));
+  }
+
+  @Test
+  void failedFlushKeepsItsDeltasVisibleAlongsideNewOnes() {
+    UUID postId = UUID.randomUUID();
+    counter.recordDelta(postId, 3);
+    when(postRepository.applyLikeDeltas(anyString(), anyString()))
+        .thenThrow(new QueryTimeoutException("database unavailable"));
+
+    assertThat(counter.flushPendingDeltas()).isZero();
+    // The 3 now sits in the processing hash, the new like in the pending one
+    counter.recordDelta(postId, 1);
+
+    assertThat(counter.pendingDeltas(List.of(postId))).isEqualTo(Map.of(postId, 4));
+  }
+
+  @Test
+  void appliedFlushLeavesNothingPending() {
+    UUID postId = UUID.randomUUID();
+    counter.recordDelta(postId, 2);
+    when(postRepository.applyLikeDeltas(anyString(), anyString())).thenReturn(1);
+
+    assertThat(counter.flushPendingDeltas()).isEqualTo(1);
+
+    assertThat(counter.pendingDeltas(List.of(postId))).isEmpty();
+  }
+}
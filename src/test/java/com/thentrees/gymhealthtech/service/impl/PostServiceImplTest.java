@@ -0,0 +1,149 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.thentrees.gymhealthtech.dto.request.CreatePostRequest;
+import com.thentrees.gymhealthtech.dto.response.PostResponse;
+import com.thentrees.gymhealthtech.enums.UserRole;
+import com.thentrees.gymhealthtech.enums.UserStatus;
+import com.thentrees.gymhealthtech.mapper.PostMapperImpl;
+import com.thentrees.gymhealthtech.model.Post;
+import com.thentrees.gymhealthtech.model.User;
+import com.thentrees.gymhealthtech.model.UserProfile;
+import com.thentrees.gymhealthtech.repository.PlanDayRepository;
+import com.thentrees.gymhealthtech.repository.PlanItemRepository;
+import com.thentrees.gymhealthtech.repository.PlanRepository;
+import com.thentrees.gymhealthtech.repository.PostLikeRepository;
+import com.thentrees.gymhealthtech.repository.PostRepository;
+import com.thentrees.gymhealthtech.repository.PostSaveRepository;
+import com.thentrees.gymhealthtech.service.PostLikeCounterService;
+import com.thentrees.gymhealthtech.service.PostMembershipService;
+import com.thentrees.gymhealthtech.service.UserService;
+import com.thentrees.gymhealthtech.util.FileValidator;
+import com.thentrees.gymhealthtech.util.S3Util;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** Posts created by a principal that came from the principal cache, as the JWT filter sets it. */
+class PostServiceImplTest {
+
+  private static final String EMAIL = "an@example.com";
+
+  private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+  private final PostRepository postRepository = mock(PostRepository.class);
+  private PrincipalCacheServiceImpl principalCache;
+  private PostServiceImpl postService;
+
+  @BeforeEach
+  void setUp() {
+    principalCache =
+        new PrincipalCacheServiceImpl(
+            userDetailsService,
+            mock(StringRedisTemplate.class),
+            mock(RedisMessageListenerContainer.class),
+            new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(principalCache, "jwtExpiration", 900_000L);
+    ReflectionTestUtils.setField(principalCache, "ttlSeconds", 60L);
+    ReflectionTestUtils.setField(principalCache, "maxSize", 100L);
+    principalCache.init();
+
+    postService =
+        new PostServiceImpl(
+            mock(UserService.class),
+            mock(PlanRepository.class),
+            mock(PlanDayRepository.class),
+            mock(PlanItemRepository.class),
+            postRepository,
+            new PostMapperImpl(),
+            mock(PostLikeRepository.class),
+            mock(PostLikeCounterService.class),
+            mock(PostMembershipService.class),
+            mock(PostSaveRepository.class),
+            mock(ApplicationEventPublisher.class),
+            mock(S3Util.class),
+            mock(FileValidator.class));
+    when(postRepository.save(any(Post.class))).thenAnswer(invocation -> invocation.getArgument(0));
+  }
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void createPostShowsTheAuthorFromTheCachedPrincipal() {
+    User user = user("An Nguyen", "https://cdn.example.com/an.png");
+    when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(user);
+
+    // The second request is served from the cache, the first one loads it
+    for (int i = 0; i < 2; i++) {
+      authenticate();
+      PostResponse response = postService.createPost(request(), List.of());
+
+      assertThat(response.getUser().getId()).isEqualTo(user.getId().toString());
+      assertThat(response.getUser().getUsername()).isEqualTo("An Nguyen");
+      assertThat(response.getUser().getAvatarUrl()).isEqualTo("https://cdn.example.com/an.png");
+    }
+    verify(userDetailsService, times(1)).loadUserByUsername(EMAIL);
+  }
+
+  @Test
+  void cachedPrincipalDoesNotShareTheProfileBetweenRequests() {
+    when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(user("An Nguyen", null));
+
+    User first = (User) principalCache.loadUser(EMAIL);
+    first.getProfile().setFullName("changed by one request");
+    User second = (User) principalCache.loadUser(EMAIL);
+
+    assertThat(second.getProfile()).isNotSameAs(first.getProfile());
+    assertThat(second.getProfile().getFullName()).isEqualTo("An Nguyen");
+    assertThat(second.getProfile().getId()).isEqualTo(second.getId());
+  }
+
+  private void authenticate() {
+    UserDetails principal = principalCache.loadUser(EMAIL);
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new UsernamePasswordAuthenticationToken(
+                principal, null, principal.getAuthorities()));
+  }
+
+  private static CreatePostRequest request() {
+    CreatePostRequest request = new CreatePostRequest();
+    request.setContent("Leg day done");
+    return request;
+  }
+
+  private static User user(String fullName, String avatarUrl) {
+    User user = new User();
+    user.setId(UUID.randomUUID());
+    user.setEmail(EMAIL);
+    user.setPasswordHash("hash");
+    user.setStatus(UserStatus.ACTIVE);
+    user.setRole(UserRole.USER);
+    UserProfile profile = new UserProfile();
+    profile.setId(user.getId());
+    profile.setUser(user);
+    profile.setFullName(fullName);
+    profile.setAvatarUrl(avatarUrl);
+    user.setProfile(profile);
+    return user;
+  }
+}
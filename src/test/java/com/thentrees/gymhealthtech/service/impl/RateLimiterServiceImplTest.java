@@ -0,0 +1,156 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.thentrees.gymhealthtech.service.RateLimiterService.Decision;
+import com.thentrees.gymhealthtech.service.RateLimiterService.Policy;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Limiter instances sharing one Redis stand in for the replicas: the Lua bucket holds one limit
+ * for all of them, and an unreachable Redis falls back to per-node buckets.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RateLimiterServiceImplTest {
+
+  @Container
+  static final GenericContainer<?> REDIS =
+      new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+  private final String key = "user-" + UUID.randomUUID();
+  private final List<LettuceConnectionFactory> connectionFactories = new ArrayList<>();
+
+  @AfterEach
+  void disconnect() {
+    connectionFactories.forEach(LettuceConnectionFactory::destroy);
+  }
+
+  @Test
+  void instancesShareOneBucket() {
+    List<RateLimiterServiceImpl> nodes = List.of(sharedLimiter(), sharedLimiter());
+    Policy policy = Policy.perPeriod("shared", 10, Duration.ofMinutes(1));
+
+    int allowed = 0;
+    for (int i = 0; i < 20; i++) {
+      if (nodes.get(i % 2).tryConsume(key, policy).allowed()) {
+        allowed++;
+      }
+    }
+
+    assertThat(allowed).isEqualTo(10);
+    Decision denied = nodes.get(1).tryConsume(key, policy);
+    assertThat(denied.allowed()).isFalse();
+    assertThat(denied.remaining()).isZero();
+    assertThat(denied.retryAfterSeconds()).isBetween(1L, 60L);
+  }
+
+  @Test
+  void concurrentRequestsAcrossInstancesNeverExceedTheLimit() throws Exception {
+    List<RateLimiterServiceImpl> nodes = List.of(sharedLimiter(), sharedLimiter());
+    Policy policy = Policy.perPeriod("concurrent", 25, Duration.ofMinutes(1));
+
+    int requests = 100;
+    ExecutorService executor = Executors.newFixedThreadPool(32);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < requests; i++) {
+        RateLimiterServiceImpl node = nodes.get(i % 2);
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return node.tryConsume(key, policy).allowed();
+                }));
+      }
+      start.countDown();
+      int allowed = 0;
+      for (Future<Boolean> future : futures) {
+        if (future.get()) {
+          allowed++;
+        }
+      }
+
+      assertThat(allowed).isEqualTo(25);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void bucketRefillsForEveryInstance() throws Exception {
+    RateLimiterServiceImpl first = sharedLimiter();
+    RateLimiterServiceImpl second = sharedLimiter();
+    Policy policy = Policy.perPeriod("refill", 2, Duration.ofSeconds(1));
+
+    assertThat(first.tryConsume(key, policy).allowed()).isTrue();
+    assertThat(second.tryConsume(key, policy).allowed()).isTrue();
+    Decision denied = first.tryConsume(key, policy);
+    assertThat(denied.allowed()).isFalse();
+    assertThat(denied.retryAfterSeconds()).isEqualTo(1);
+
+    Thread.sleep(1_100);
+
+    assertThat(first.tryConsume(key, policy).allowed()).isTrue();
+    assertThat(second.tryConsume(key, policy).allowed()).isTrue();
+    assertThat(second.tryConsume(key, policy).allowed()).isFalse();
+  }
+
+  @Test
+  void unreachableRedisFallsBackToALocalBucket() throws Exception {
+    int closedPort;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      closedPort = socket.getLocalPort();
+    }
+    RateLimiterServiceImpl first = limiter("localhost", closedPort);
+    RateLimiterServiceImpl second = limiter("localhost", closedPort);
+    Policy policy = Policy.perPeriod("fallback", 3, Duration.ofMinutes(1));
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(first.tryConsume(key, policy).allowed()).isTrue();
+    }
+    Decision denied = first.tryConsume(key, policy);
+
+    assertThat(denied.allowed()).isFalse();
+    assertThat(denied.retryAfterSeconds()).isBetween(1L, 60L);
+    // Each node limits on its own until Redis is back
+    assertThat(second.tryConsume(key, policy).allowed()).isTrue();
+  }
+
+  private RateLimiterServiceImpl sharedLimiter() {
+    return limiter(REDIS.getHost(), REDIS.getMappedPort(6379));
+  }
+
+  private RateLimiterServiceImpl limiter(String host, int port) {
+    LettuceConnectionFactory connectionFactory =
+        new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(host, port),
+            LettuceClientConfiguration.builder().commandTimeout(Duration.ofSeconds(2)).build());
+    connectionFactory.afterPropertiesSet();
+    connectionFactories.add(connectionFactory);
+    RateLimiterServiceImpl limiter =
+        new RateLimiterServiceImpl(new StringRedisTemplate(connectionFactory));
+    ReflectionTestUtils.setField(limiter, "localCacheSize", 1000L);
+    limiter.init();
+    return limiter;
+  }
+}
@@ -0,0 +1,215 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static com.thentrees.gymhealthtech.constant.CacheConstant.NAMESPACE_INVALIDATION_CHANNEL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/** Versioned namespaces under concurrent first reads, invalidations and commits, on real Redis. */
+@Testcontainers(disabledWithoutDocker = true)
+class RedisServiceConcurrencyTest {
+
+  @Container
+  static final GenericContainer<?> REDIS =
+      new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+  private static final int THREADS = 16;
+
+  private final String namespace = "test-" + UUID.randomUUID();
+  private LettuceConnectionFactory connectionFactory;
+  private StringRedisTemplate stringRedisTemplate;
+  private RedisServiceImpl redisService;
+
+  @BeforeEach
+  void connect() {
+    connectionFactory =
+        new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+    connectionFactory.afterPropertiesSet();
+    stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+    redisTemplate.setConnectionFactory(connectionFactory);
+    redisTemplate.afterPropertiesSet();
+    redisService = new RedisServiceImpl(redisTemplate, stringRedisTemplate);
+  }
+
+  @AfterEach
+  void disconnect() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    connectionFactory.destroy();
+  }
+
+  @Test
+  void concurrentFirstReadsAgreeOnOneVersion() throws Exception {
+    Set<String> keys = ConcurrentHashMap.newKeySet();
+
+    runConcurrently(THREADS, thread -> keys.add(redisService.versionedKey(namespace, "k")));
+
+    assertThat(keys).hasSize(1);
+  }
+
+  @Test
+  void everyInvalidationMovesToANewVersionWhileReadersSeeItOnlyGrow() throws Exception {
+    int perThread = 20;
+    long initial = version();
+
+    runConcurrently(
+        THREADS,
+        thread -> {
+          long last = initial;
+          for (int i = 0; i < perThread; i++) {
+            if (thread % 2 == 0) {
+              redisService.invalidateNamespace(namespace);
+            } else {
+              long seen = version();
+              assertThat(seen).isGreaterThanOrEqualTo(last);
+              last = seen;
+            }
+          }
+        });
+
+    assertThat(version()).isEqualTo(initial + (long) (THREADS / 2) * perThread);
+  }
+
+  @Test
+  void invalidationInsideTransactionWaitsForCommit() {
+    long before = version();
+
+    TransactionSynchronizationManager.initSynchronization();
+    redisService.invalidateNamespace(namespace);
+    assertThat(version()).as("not bumped before commit").isEqualTo(before);
+
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+    synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+    assertThat(version()).isEqualTo(before + 1);
+  }
+
+  @Test
+  void rolledBackInvalidationKeepsTheVersion() {
+    long before = version();
+
+    TransactionSynchronizationManager.initSynchronization();
+    redisService.invalidateNamespace(namespace);
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+    synchronizations.forEach(
+        sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+    assertThat(version()).isEqualTo(before);
+  }
+
+  @Test
+  void broadcastIsSentOnlyOnceTheNewVersionIsReadable() throws Exception {
+    RedisMessageListenerContainer listeners = new RedisMessageListenerContainer();
+    listeners.setConnectionFactory(connectionFactory);
+    listeners.afterPropertiesSet();
+    listeners.start();
+    // The version a node reads when the broadcast reaches it, as it would to reload
+    LinkedBlockingQueue<Long> versionsOnReceipt = new LinkedBlockingQueue<>();
+    listeners.addMessageListener(
+        (message, pattern) -> {
+          if (namespace.equals(new String(message.getBody(), StandardCharsets.UTF_8))) {
+            versionsOnReceipt.add(version());
+          }
+        },
+        new ChannelTopic(NAMESPACE_INVALIDATION_CHANNEL));
+    awaitSubscribed(listeners);
+
+    try {
+      List<Long> bumped = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        redisService.invalidateNamespace(namespace);
+        bumped.add(version());
+      }
+      for (long version : bumped) {
+        assertThat(versionsOnReceipt.poll(5, TimeUnit.SECONDS))
+            .isNotNull()
+            .isGreaterThanOrEqualTo(version);
+      }
+    } finally {
+      listeners.stop();
+      listeners.destroy();
+    }
+  }
+
+  private long version() {
+    String key = redisService.versionedKey(namespace, "k");
+    // namespace:v<version>:k
+    return Long.parseLong(key.substring(namespace.length() + 2, key.length() - 2));
+  }
+
+  private void awaitSubscribed(RedisMessageListenerContainer listeners) {
+    // Subscriptions are asynchronous; once a probe channel added last gets a message, all are live
+    String probe = "probe-" + UUID.randomUUID();
+    CountDownLatch received = new CountDownLatch(1);
+    listeners.addMessageListener(
+        (message, pattern) -> received.countDown(), new ChannelTopic(probe));
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .until(
+            () -> {
+              stringRedisTemplate.convertAndSend(probe, "ping");
+              return received.await(50, TimeUnit.MILLISECONDS);
+            });
+  }
+
+  /** Runs {@code task} on {@code threads} threads released together, rethrowing any failure. */
+  private static void runConcurrently(int threads, IntConsumer task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        int thread = i;
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  task.accept(thread);
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,359 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.thentrees.gymhealthtech.dto.request.CreateStartSessionRequest;
+import com.thentrees.gymhealthtech.dto.response.WeeklySummaryResponse;
+import com.thentrees.gymhealthtech.enums.PlanSourceType;
+import com.thentrees.gymhealthtech.enums.PlanStatusType;
+import com.thentrees.gymhealthtech.enums.UserRole;
+import com.thentrees.gymhealthtech.enums.UserStatus;
+import com.thentrees.gymhealthtech.exception.ValidationException;
+import com.thentrees.gymhealthtech.mapper.SessionMapper;
+import com.thentrees.gymhealthtech.model.Plan;
+import com.thentrees.gymhealthtech.model.PlanDay;
+import com.thentrees.gymhealthtech.model.PlanItem;
+import com.thentrees.gymhealthtech.model.Session;
+import com.thentrees.gymhealthtech.model.SessionSet;
+import com.thentrees.gymhealthtech.model.User;
+import com.thentrees.gymhealthtech.repository.ExerciseRepository;
+import com.thentrees.gymhealthtech.repository.PlanDayRepository;
+import com.thentrees.gymhealthtech.repository.PlanItemRepository;
+import com.thentrees.gymhealthtech.repository.PlanRepository;
+import com.thentrees.gymhealthtech.repository.SessionRepository;
+import com.thentrees.gymhealthtech.repository.SessionSetRepository;
+import com.thentrees.gymhealthtech.repository.UserRepository;
+import com.thentrees.gymhealthtech.repository.projection.TrainingStatsTotals;
+import com.thentrees.gymhealthtech.service.TrainingStatsService;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Sessions against Postgres: concurrent starts for one user leave exactly one session in progress,
+ * every set gets its own planned prescription, and the per-session summary rows are one query.
+ */
+@DataJpaTest(
+    properties = {
+      "spring.profiles.active=test",
+      "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Each start commits on its own, as it does behind the service's transactional proxy
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class SessionManagementServiceImplTest {
+
+  // The migrations need the vector extension; session status is a Postgres enum, bound as text
+  @Container @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>(
+              DockerImageName.parse("pgvector/pgvector:pg16").asCompatibleSubstituteFor("postgres"))
+          .withUrlParam("stringtype", "unspecified");
+
+  private static final int CONCURRENT_STARTS = 50;
+
+  @Autowired private UserRepository userRepository;
+  @Autowired private PlanRepository planRepository;
+  @Autowired private PlanDayRepository planDayRepository;
+  @Autowired private PlanItemRepository planItemRepository;
+  @Autowired private SessionRepository sessionRepository;
+  @Autowired private SessionSetRepository sessionSetRepository;
+  @Autowired private ExerciseRepository exerciseRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final SessionMapper sessionMapper = mock(SessionMapper.class);
+  private final TrainingStatsService trainingStatsService = mock(TrainingStatsService.class);
+  private SessionManagementServiceImpl sessionService;
+  private TransactionTemplate transaction;
+  private User user;
+  private PlanDay planDay;
+  private final List<UUID> exerciseIds = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    sessionService =
+        new SessionManagementServiceImpl(
+            planDayRepository,
+            sessionRepository,
+            planItemRepository,
+            sessionSetRepository,
+            objectMapper,
+            planRepository,
+            sessionMapper,
+            trainingStatsService);
+    transaction = new TransactionTemplate(transactionManager);
+
+    user = new User();
+    user.setEmail("lifter-" + UUID.randomUUID() + "@example.com");
+    user.setPasswordHash("hash");
+    user.setStatus(UserStatus.ACTIVE);
+    user.setRole(UserRole.USER);
+    user = userRepository.save(user);
+
+    Plan plan = new Plan();
+    plan.setUser(user);
+    plan.setTitle("Push pull legs");
+    plan.setSource(PlanSourceType.AI);
+    plan.setStatus(PlanStatusType.ACTIVE);
+    plan.setEndDate(LocalDate.now().plusWeeks(4));
+    plan = planRepository.save(plan);
+
+    planDay = new PlanDay();
+    planDay.setPlan(plan);
+    planDay.setDayIndex(1);
+    planDay = planDayRepository.save(planDay);
+
+    for (int i = 1; i <= 2; i++) {
+      PlanItem item = new PlanItem();
+      item.setPlanDay(planDay);
+      exerciseIds.add(exercise("press-" + i));
+      item.setExercise(exerciseRepository.getReferenceById(exerciseIds.get(i - 1)));
+      item.setItemIndex(i);
+      item.setPrescription(
+          objectMapper
+              .createObjectNode()
+              .put("sets", 3)
+              .put("reps", 10)
+              .put("restSeconds", 90)
+              .put("weight", 40.0));
+      planItemRepository.save(item);
+    }
+  }
+
+  @Test
+  void concurrentStartsLeaveOneSessionInProgress() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_STARTS);
+    int started = 0;
+    int rejected = 0;
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < CONCURRENT_STARTS; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  try {
+                    startSession();
+                    return true;
+                  } catch (ValidationException e) {
+                    return false;
+                  }
+                }));
+      }
+      start.countDown();
+      for (Future<Boolean> future : futures) {
+        if (future.get(60, TimeUnit.SECONDS)) {
+          started++;
+        } else {
+          rejected++;
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(started).isEqualTo(1);
+    assertThat(rejected).isEqualTo(CONCURRENT_STARTS - 1);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM sessions WHERE user_id = ?", Long.class, user.getId()))
+        .isEqualTo(1);
+    // Rejected starts roll back without leaving sets behind
+    assertThat(
+            jdbcTemplate.queryForObject(
+                """
+                SELECT count(*) FROM session_sets ss JOIN sessions s ON s.id = ss.session_id
+                WHERE s.user_id = ?
+                """,
+                Long.class,
+                user.getId()))
+        .isEqualTo(6);
+  }
+
+  @Test
+  void everySetGetsItsOwnPlannedPrescription() {
+    startSession();
+
+    ArgumentCaptor<Session> session = ArgumentCaptor.forClass(Session.class);
+    verify(sessionMapper).toResponse(session.capture(), eq(true));
+    List<SessionSet> sets = session.getValue().getSessionSets();
+    assertThat(sets).hasSize(6);
+    Set<JsonNode> planned = Collections.newSetFromMap(new IdentityHashMap<>());
+    sets.forEach(set -> planned.add(set.getPlanned()));
+    assertThat(planned).hasSize(6);
+
+    // Editing one set's plan, as adjusting a set mid-workout does, leaves its siblings alone
+    ((ObjectNode) sets.get(0).getPlanned()).put("reps", 8);
+    assertThat(sets.get(1).getPlanned().get("reps").asInt()).isEqualTo(10);
+    assertThat(sets.get(0).getPlanItem().getPrescription().get("reps").asInt()).isEqualTo(10);
+  }
+
+  @Test
+  void weeklySummaryRowsAreOneQueryHoweverManySessions() {
+    LocalDateTime monday =
+        LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+    TrainingStatsTotals totals = totals();
+    when(trainingStatsService.getTotals(any(), any(), any())).thenReturn(totals);
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    long[] statements = new long[2];
+    int[] sessionCounts = {1, 20};
+    for (int run = 0; run < sessionCounts.length; run++) {
+      for (int i = 0; i < sessionCounts[run]; i++) {
+        completedSession(monday.plusHours(run * 24L + 6).plusMinutes(i * 2L), 8);
+      }
+      statistics.clear();
+      WeeklySummaryResponse summary = summaryWeek();
+      statements[run] = statistics.getPrepareStatementCount();
+
+      int sessions = run == 0 ? 1 : 21;
+      assertThat(summary.getDailySummaries()).hasSize(sessions);
+      assertThat(summary.getDailySummaries())
+          .allSatisfy(
+              row -> {
+                assertThat(row.getTotalSets()).isEqualTo(8);
+                // Every set but the last is completed at 10 x 40
+                assertThat(row.getCompletedSets()).isEqualTo(7);
+                assertThat(row.getTotalVolume()).isEqualTo(7 * 400);
+                assertThat(row.getDurationMinutes()).isEqualTo(45);
+              });
+    }
+
+    assertThat(statements[0]).isEqualTo(1);
+    assertThat(statements[1]).isEqualTo(statements[0]);
+  }
+
+  private WeeklySummaryResponse summaryWeek() {
+    authenticate();
+    try {
+      return sessionService.getSummaryWeekSessions();
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+  }
+
+  private void completedSession(LocalDateTime startedAt, int sets) {
+    UUID sessionId = UUID.randomUUID();
+    jdbcTemplate.update(
+        """
+        INSERT INTO sessions (id, user_id, plan_day_id, started_at, ended_at, status, created_at,
+                              updated_at, version, is_deleted)
+        VALUES (?, ?, ?, ?, ?, 'COMPLETED', now(), now(), 0, false)
+        """,
+        sessionId,
+        user.getId(),
+        planDay.getId(),
+        startedAt,
+        startedAt.plusMinutes(45));
+    for (int i = 1; i <= sets; i++) {
+      String actual =
+          i < sets
+              ? "{\"reps\": 10, \"weight\": 40, \"completedAt\": \"2026-01-01T08:00:00\"}"
+              : "{\"restSeconds\": 90}";
+      jdbcTemplate.update(
+          """
+          INSERT INTO session_sets (id, session_id, exercise_id, set_index, actual, created_at,
+                                    updated_at, version, is_deleted)
+          VALUES (?, ?, ?, ?, CAST(? AS jsonb), now(), now(), 0, false)
+          """,
+          UUID.randomUUID(),
+          sessionId,
+          exerciseIds.get(i % exerciseIds.size()),
+          i,
+          actual);
+    }
+  }
+
+  /** Rollup totals that only need to be non-empty: the rows come from the sessions table. */
+  private static TrainingStatsTotals totals() {
+    TrainingStatsTotals totals = mock(TrainingStatsTotals.class);
+    when(totals.getTotalSessions()).thenReturn(1L);
+    when(totals.getCompletedSessions()).thenReturn(1L);
+    when(totals.getTotalSets()).thenReturn(0L);
+    when(totals.getCompletedSets()).thenReturn(0L);
+    when(totals.getTotalVolume()).thenReturn(0L);
+    when(totals.getTotalDurationMinutes()).thenReturn(0L);
+    when(totals.getCompletedDurationMinutes()).thenReturn(0L);
+    when(totals.getCompletionPctSum()).thenReturn(0.0);
+    when(totals.getRpeSum()).thenReturn(0L);
+    when(totals.getRpeCount()).thenReturn(0L);
+    return totals;
+  }
+
+  private void authenticate() {
+    SecurityContextHolder.getContext()
+        .setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+  }
+
+  private void startSession() {
+    authenticate();
+    try {
+      transaction.executeWithoutResult(
+          status ->
+              sessionService.startSession(
+                  CreateStartSessionRequest.builder().planDayId(planDay.getId()).build()));
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+  }
+
+  private UUID exercise(String slug) {
+    UUID id = UUID.randomUUID();
+    String category =
+        jdbcTemplate.queryForObject(
+            "SELECT code FROM exercise_categories ORDER BY code LIMIT 1", String.class);
+    jdbcTemplate.update(
+        "INSERT INTO exercises (id, slug, name, exercise_category) VALUES (?, ?, ?, ?)",
+        id,
+        slug + "-" + id,
+        slug,
+        category);
+    return id;
+  }
+}
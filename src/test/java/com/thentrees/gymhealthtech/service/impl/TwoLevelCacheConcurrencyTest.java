@@ -0,0 +1,318 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Several cache instances sharing one Redis stand in for the nodes of a cluster: concurrent misses
+ * must run one loader, and a committed write must never be followed by a stale cached read.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TwoLevelCacheConcurrencyTest {
+
+  @Container
+  static final GenericContainer<?> REDIS =
+      new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+  private static final String KEY = "k";
+  private static final Duration TTL = Duration.ofMinutes(5);
+  private static final TypeReference<Integer> INTEGER = new TypeReference<>() {};
+
+  private final String namespace = "test-" + UUID.randomUUID();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(2);
+  private final List<RedisMessageListenerContainer> listenerContainers = new ArrayList<>();
+  private LettuceConnectionFactory connectionFactory;
+  private StringRedisTemplate stringRedisTemplate;
+  private RedisServiceImpl redisService;
+
+  @BeforeEach
+  void connect() {
+    connectionFactory =
+        new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+    connectionFactory.afterPropertiesSet();
+    stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+    redisTemplate.setConnectionFactory(connectionFactory);
+    redisTemplate.afterPropertiesSet();
+    redisService = new RedisServiceImpl(redisTemplate, stringRedisTemplate);
+  }
+
+  @AfterEach
+  void disconnect() throws Exception {
+    for (RedisMessageListenerContainer container : listenerContainers) {
+      container.stop();
+      container.destroy();
+    }
+    refreshExecutor.shutdownNow();
+    connectionFactory.destroy();
+  }
+
+  @ParameterizedTest(name = "{0} concurrent misses")
+  @ValueSource(ints = {32, 500})
+  void concurrentMissesOnOneNodeRunOneLoader(int misses) throws Exception {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    TwoLevelCacheServiceImpl node = node(meterRegistry);
+    AtomicInteger loads = new AtomicInteger();
+
+    List<Integer> values =
+        runConcurrently(misses, () -> node.get(namespace, KEY, INTEGER, TTL, slowLoad(loads, 42)));
+
+    assertThat(loads).hasValue(1);
+    assertThat(values).containsOnly(42);
+    // One lookup missed; the rest joined its flight or, arriving after it, hit the local copy
+    assertThat(lookups(meterRegistry, "miss")).isEqualTo(1);
+    assertThat(lookups(meterRegistry, "coalesced") + lookups(meterRegistry, "l1_hit"))
+        .isEqualTo(misses - 1);
+    assertThat(lookups(meterRegistry, "coalesced")).isPositive();
+    assertThat(lookups(meterRegistry, "l2_hit")).isZero();
+  }
+
+  @Test
+  void concurrentMissesAcrossNodesRunOneLoader() throws Exception {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    List<TwoLevelCacheServiceImpl> nodes =
+        List.of(node(meterRegistry), node(meterRegistry), node(meterRegistry));
+    AtomicInteger loads = new AtomicInteger();
+    AtomicInteger next = new AtomicInteger();
+
+    List<Integer> values =
+        runConcurrently(
+            30,
+            () ->
+                nodes
+                    .get(next.getAndIncrement() % nodes.size())
+                    .get(namespace, KEY, INTEGER, TTL, slowLoad(loads, 42)));
+
+    assertThat(loads).hasValue(1);
+    assertThat(values).containsOnly(42);
+    // One flight per node reached Redis: it missed, or found the value another node stored
+    double misses = lookups(meterRegistry, "miss");
+    assertThat(misses + lookups(meterRegistry, "l2_hit")).isEqualTo(3);
+    assertThat(misses).isPositive();
+    // Of the nodes that missed, all but the lease holder got the holder's value
+    assertThat(lookups(meterRegistry, "l2_lease_wait_hit")).isEqualTo(misses - 1);
+    assertThat(lookups(meterRegistry, "coalesced") + lookups(meterRegistry, "l1_hit"))
+        .isEqualTo(27);
+  }
+
+  @Test
+  void writeRacingReadsNeverLeavesStaleValueCachedPastCommit() throws Exception {
+    List<TwoLevelCacheServiceImpl> nodes = List.of(node(), node());
+    AtomicInteger committed = new AtomicInteger();
+    // Reads the committed value, then dawdles so writes land between the read and the cache store
+    Supplier<Integer> loader =
+        () -> {
+          int value = committed.get();
+          sleep(ThreadLocalRandom.current().nextInt(3));
+          return value;
+        };
+
+    AtomicBoolean stop = new AtomicBoolean();
+    ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    ExecutorService readers = Executors.newFixedThreadPool(6);
+    for (int i = 0; i < 6; i++) {
+      readers.execute(
+          () -> {
+            while (!stop.get()) {
+              try {
+                nodes
+                    .get(ThreadLocalRandom.current().nextInt(nodes.size()))
+                    .get(namespace, KEY, INTEGER, TTL, loader);
+              } catch (Throwable e) {
+                failures.add(e);
+              }
+            }
+          });
+    }
+
+    try {
+      for (int write = 1; write <= 30; write++) {
+        int value = write;
+        commitWrite(nodes.get(write % nodes.size()), () -> committed.set(value));
+
+        // Redis under the current version holds nothing older than the commit, right away
+        String json =
+            stringRedisTemplate.opsForValue().get(redisService.versionedKey(namespace, KEY));
+        if (json != null) {
+          assertThat(objectMapper.readTree(json).get("value").asInt()).isEqualTo(value);
+        }
+        // Local copies go once the broadcast arrives, and racing loads cannot put them back
+        for (TwoLevelCacheServiceImpl node : nodes) {
+          await()
+              .atMost(Duration.ofSeconds(2))
+              .untilAsserted(
+                  () ->
+                      assertThat(node.get(namespace, KEY, INTEGER, TTL, loader)).isEqualTo(value));
+        }
+        sleep(5);
+      }
+    } finally {
+      stop.set(true);
+      readers.shutdown();
+      assertThat(readers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    assertThat(failures).isEmpty();
+    for (TwoLevelCacheServiceImpl node : nodes) {
+      assertThat(node.get(namespace, KEY, INTEGER, TTL, loader)).isEqualTo(committed.get());
+    }
+  }
+
+  private TwoLevelCacheServiceImpl node() {
+    return node(new SimpleMeterRegistry());
+  }
+
+  /** A node: its own local cache and broadcast subscription, sharing Redis with the others. */
+  private TwoLevelCacheServiceImpl node(MeterRegistry meterRegistry) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.afterPropertiesSet();
+    container.start();
+    listenerContainers.add(container);
+
+    TwoLevelCacheServiceImpl node =
+        new TwoLevelCacheServiceImpl(
+            redisService,
+            stringRedisTemplate,
+            container,
+            objectMapper,
+            meterRegistry,
+            mock(PlatformTransactionManager.class),
+            refreshExecutor);
+    ReflectionTestUtils.setField(node, "localTtlSeconds", 30L);
+    ReflectionTestUtils.setField(node, "localMaxSize", 1000L);
+    ReflectionTestUtils.setField(node, "staleRatio", 0.5);
+    // Early refresh would add loads the tests count
+    ReflectionTestUtils.setField(node, "earlyRefreshBeta", 0.0);
+    ReflectionTestUtils.setField(node, "leaseEnabled", true);
+    ReflectionTestUtils.setField(node, "leaseTtlMs", 10_000L);
+    ReflectionTestUtils.setField(node, "leaseWaitMs", 5_000L);
+    ReflectionTestUtils.setField(node, "leasePollMs", 20L);
+    node.init();
+    awaitSubscribed(container);
+    return node;
+  }
+
+  /** The write, then the invalidation it registered, in the order a committing transaction runs. */
+  private void commitWrite(TwoLevelCacheServiceImpl node, Runnable write) {
+    TransactionSynchronizationManager.initSynchronization();
+    List<TransactionSynchronization> synchronizations;
+    try {
+      node.invalidate(namespace);
+      write.run();
+    } finally {
+      synchronizations = TransactionSynchronizationManager.getSynchronizations();
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    synchronizations.forEach(TransactionSynchronization::afterCommit);
+  }
+
+  /** Lookups of this test's namespace answered the given way, summed over every node. */
+  private double lookups(MeterRegistry meterRegistry, String result) {
+    return meterRegistry
+        .find("cache.two_level.lookups")
+        .tag("cache", namespace)
+        .tag("result", result)
+        .counters()
+        .stream()
+        .mapToDouble(Counter::count)
+        .sum();
+  }
+
+  private Supplier<Integer> slowLoad(AtomicInteger loads, int value) {
+    return () -> {
+      loads.incrementAndGet();
+      sleep(200);
+      return value;
+    };
+  }
+
+  private void awaitSubscribed(RedisMessageListenerContainer container) {
+    // Subscriptions are asynchronous; once a probe channel added last gets a message, all are live
+    String probe = "probe-" + UUID.randomUUID();
+    CountDownLatch received = new CountDownLatch(1);
+    container.addMessageListener(
+        (message, pattern) -> received.countDown(), new ChannelTopic(probe));
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .until(
+            () -> {
+              stringRedisTemplate.convertAndSend(probe, "ping");
+              return received.await(50, TimeUnit.MILLISECONDS);
+            });
+  }
+
+  private static <T> List<T> runConcurrently(int threads, Supplier<T> task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<T>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return task.get();
+                }));
+      }
+      start.countDown();
+      List<T> results = new ArrayList<>();
+      for (Future<T> future : futures) {
+        results.add(future.get(30, TimeUnit.SECONDS));
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
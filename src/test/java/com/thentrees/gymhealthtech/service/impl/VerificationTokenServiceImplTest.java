@@ -0,0 +1,181 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.thentrees.gymhealthtech.enums.UserRole;
+import com.thentrees.gymhealthtech.enums.UserStatus;
+import com.thentrees.gymhealthtech.enums.VerificationType;
+import com.thentrees.gymhealthtech.model.User;
+import com.thentrees.gymhealthtech.model.VerificationToken;
+import com.thentrees.gymhealthtech.repository.UserRepository;
+import com.thentrees.gymhealthtech.repository.VerificationTokenRepository;
+import com.thentrees.gymhealthtech.service.EmailService;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Selector/verifier tokens against Postgres among 100k stored tokens: a lookup is one index probe,
+ * and the purge removes only expired or long-consumed tokens, one bounded batch at a time.
+ */
+@DataJpaTest(properties = "spring.profiles.active=test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class VerificationTokenServiceImplTest {
+
+  // The migrations need the vector extension; token type is a Postgres enum, bound as text
+  @Container @ServiceConnection
+  static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>(
+              DockerImageName.parse("pgvector/pgvector:pg16").asCompatibleSubstituteFor("postgres"))
+          .withUrlParam("stringtype", "unspecified");
+
+  private static final int BATCH_SIZE = 1_000;
+
+  @Autowired private VerificationTokenRepository verificationTokenRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private final EmailService emailService = mock(EmailService.class);
+  private VerificationTokenRepository repository;
+  private VerificationTokenServiceImpl tokenService;
+  private User user;
+  private User otherUser;
+
+  @BeforeEach
+  void setUp() {
+    // Counts the purge batches that reach the database
+    repository =
+        mock(
+            VerificationTokenRepository.class,
+            AdditionalAnswers.delegatesTo(verificationTokenRepository));
+    tokenService = new VerificationTokenServiceImpl(repository, emailService);
+    ReflectionTestUtils.setField(tokenService, "purgeBatchSize", BATCH_SIZE);
+    ReflectionTestUtils.setField(tokenService, "consumedRetentionHours", 24L);
+
+    user = user();
+    // Holds the seeded tokens, so sending a new token to the user leaves them in place
+    otherUser = user();
+  }
+
+  @Test
+  void emailedTokenIsFoundBySelectorAndVerifier() {
+    String token = sendToken();
+    String selector = token.substring(0, token.indexOf('.'));
+    String verifier = token.substring(token.indexOf('.') + 1);
+
+    VerificationToken found = tokenService.findByToken(token, VerificationType.EMAIL).orElseThrow();
+
+    assertThat(found.getUser().getId()).isEqualTo(user.getId());
+    assertThat(found.getSelector()).isEqualTo(selector);
+    // Only a digest of the verifier is stored
+    assertThat(found.getTokenHash()).doesNotContain(verifier);
+    assertThat(tokenService.findByToken(selector + ".wrong", VerificationType.EMAIL)).isEmpty();
+    assertThat(tokenService.findByToken(token, VerificationType.PASSWORD_RESET)).isEmpty();
+    assertThat(tokenService.findByToken(selector, VerificationType.EMAIL)).isEmpty();
+    assertThat(tokenService.findByToken(selector + ".", VerificationType.EMAIL)).isEmpty();
+  }
+
+  @Test
+  void newTokenReplacesThePreviousOne() {
+    String first = sendToken();
+    String second = sendToken();
+
+    assertThat(tokenService.findByToken(first, VerificationType.EMAIL)).isEmpty();
+    assertThat(tokenService.findByToken(second, VerificationType.EMAIL)).isPresent();
+  }
+
+  @Test
+  void lookupAmong100kTokensIsOneIndexProbe() {
+    seed(100_000, "now() + interval '1 day'", "NULL");
+    jdbcTemplate.execute("ANALYZE verification_tokens");
+    String token = sendToken();
+    String selector = token.substring(0, token.indexOf('.'));
+
+    List<String> plan =
+        jdbcTemplate.queryForList(
+            "EXPLAIN SELECT * FROM verification_tokens WHERE selector = ? AND type = 'EMAIL'",
+            String.class,
+            selector);
+
+    assertThat(String.join("\n", plan))
+        .contains("uq_verification_tokens_selector")
+        .doesNotContain("Seq Scan");
+    assertThat(tokenService.findByToken(token, VerificationType.EMAIL)).isPresent();
+  }
+
+  @Test
+  void purgeRemovesExpiredAndLongConsumedTokensInBatches() {
+    // 100k tokens: 60k expired, 20k consumed two days ago, 10k consumed an hour ago, 10k active
+    seed(60_000, "now() - interval '1 hour'", "NULL");
+    seed(20_000, "now() + interval '1 day'", "now() - interval '2 days'");
+    seed(10_000, "now() + interval '1 day'", "now() - interval '1 hour'");
+    seed(10_000, "now() + interval '1 day'", "NULL");
+    String active = sendToken();
+
+    int purged = tokenService.purgeExpiredTokens();
+
+    assertThat(purged).isEqualTo(80_000);
+    // 80 full batches, then one that finds nothing left
+    verify(repository, times(81)).deleteExpiredBatch(any(), any(), eq(BATCH_SIZE));
+    assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM verification_tokens", Long.class))
+        .isEqualTo(20_001);
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM verification_tokens WHERE expires_at < now()", Long.class))
+        .isZero();
+    assertThat(tokenService.findByToken(active, VerificationType.EMAIL)).isPresent();
+    assertThat(tokenService.purgeExpiredTokens()).isZero();
+  }
+
+  private String sendToken() {
+    tokenService.generateAndSendVerificationToken(user);
+    ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+    verify(emailService, atLeastOnce())
+        .sendEmailVerification(eq(user.getEmail()), any(), token.capture());
+    return token.getValue();
+  }
+
+  private User user() {
+    User pending = new User();
+    pending.setEmail("verify-" + UUID.randomUUID() + "@example.com");
+    pending.setPasswordHash("hash");
+    pending.setStatus(UserStatus.PENDING_VERIFICATION);
+    pending.setRole(UserRole.USER);
+    return userRepository.saveAndFlush(pending);
+  }
+
+  /** Inserts email tokens for the other user with the given SQL expiry and consumed time. */
+  private void seed(int count, String expiresAt, String consumedAt) {
+    jdbcTemplate.update(
+        """
+        INSERT INTO verification_tokens (id, user_id, type, selector, token_hash, expires_at,
+                                         consumed_at, created_at)
+        SELECT gen_random_uuid(), ?, 'EMAIL', md5('s' || random() || g),
+               md5(random()::text || g), %s, %s, now()
+        FROM generate_series(1, ?) AS g
+        """
+            .formatted(expiresAt, consumedAt),
+        otherUser.getId(),
+        count);
+  }
+}
@@ -0,0 +1,209 @@
+package com.thentrees.gymhealthtech.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thentrees.gymhealthtech.dto.response.ExerciseListResponse;
+import com.thentrees.gymhealthtech.enums.ExerciseLevel;
+import com.thentrees.gymhealthtech.enums.FitnessLevel;
+import com.thentrees.gymhealthtech.enums.ObjectiveType;
+import com.thentrees.gymhealthtech.service.impl.WorkoutPlanRules.DayTemplate;
+import com.thentrees.gymhealthtech.service.impl.WorkoutPlanRules.Dose;
+import com.thentrees.gymhealthtech.service.impl.WorkoutPlanRules.Movement;
+import com.thentrees.gymhealthtech.service.impl.WorkoutPlanRules.Selector;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/** Constraint checks over random catalogs and goals; each seed is a reproducible case. */
+class WorkoutPlanRulesTest {
+
+  private static final List<String> BODY_PARTS =
+      List.of(
+          "chest", "shoulders", "back", "upper_legs", "glutes", "lower_legs", "upper_arms",
+          "waist", "cardio", "neck");
+  private static final List<String> TYPES =
+      List.of("COMPOUND", "ISOLATION", "BODYWEIGHT", "CARDIO", "STRETCH");
+  private static final List<String> EQUIPMENT =
+      List.of("Body Weight", "Barbell", "Dumbbell", "Smith Machine", "Cable");
+
+  static Stream<Long> seeds() {
+    return IntStream.range(0, 300).mapToObj(i -> (long) i);
+  }
+
+  @ParameterizedTest
+  @MethodSource("seeds")
+  void eligibleExercisesRespectDifficultyCapAndEquipment(long seed) {
+    Random random = new Random(seed);
+    List<ExerciseListResponse> catalog = catalog(random, random.nextInt(80));
+    FitnessLevel fitnessLevel = pick(random, List.of(FitnessLevel.values()));
+    Set<String> available = availableEquipment(random);
+
+    List<ExerciseListResponse> eligible =
+        WorkoutPlanRules.eligibleExercises(catalog, fitnessLevel, available);
+
+    for (ExerciseListResponse exercise : catalog) {
+      assertThat(eligible.contains(exercise))
+          .as("exercise %s for %s with %s", exercise, fitnessLevel, available)
+          .isEqualTo(withinCap(exercise, fitnessLevel) && usable(exercise, available));
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("seeds")
+  void generatedWeekSatisfiesSessionConstraints(long seed) {
+    Random random = new Random(seed);
+    FitnessLevel fitnessLevel = pick(random, List.of(FitnessLevel.values()));
+    Dose dose = Dose.of(pick(random, List.of(ObjectiveType.values())), fitnessLevel);
+    int sessions = 1 + random.nextInt(7);
+    int perSession = WorkoutPlanRules.exercisesPerSession(20 + random.nextInt(120), dose);
+    List<ExerciseListResponse> eligible =
+        WorkoutPlanRules.eligibleExercises(
+            catalog(random, random.nextInt(120)), fitnessLevel, availableEquipment(random));
+    Selector selector = new Selector(eligible, random.nextInt());
+
+    assertThat(perSession)
+        .isBetween(WorkoutPlanRules.MIN_EXERCISES, WorkoutPlanRules.MAX_EXERCISES);
+    for (DayTemplate template : DayTemplate.splitFor(sessions)) {
+      List<ExerciseListResponse> day = selector.pickDay(template.slots, perSession);
+      ExerciseListResponse finisher = dose.cardioFinisher() ? selector.pickFinisher(day) : null;
+
+      assertThat(day).hasSizeLessThanOrEqualTo(perSession);
+      assertThat(eligible).containsAll(day);
+      assertThat(day)
+          .allSatisfy(exercise -> assertThat(template.slots).contains(Movement.of(exercise)));
+      List<UUID> ids = new ArrayList<>(day.stream().map(ExerciseListResponse::getId).toList());
+      if (finisher != null) {
+        assertThat(Movement.of(finisher)).isEqualTo(Movement.CARDIO);
+        ids.add(finisher.getId());
+      }
+      assertThat(ids).as("no repeats within a session").doesNotHaveDuplicates();
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("seeds")
+  void sessionIsFullWhenEverySlotHasEnoughCandidates(long seed) {
+    Random random = new Random(seed);
+    int perSession = WorkoutPlanRules.MIN_EXERCISES + random.nextInt(8);
+    List<ExerciseListResponse> catalog = new ArrayList<>();
+    for (String bodyPart : List.of("chest", "back", "upper_legs", "lower_legs", "upper_arms")) {
+      for (int i = 0; i < perSession; i++) {
+        catalog.add(exercise(random, bodyPart, "COMPOUND", null, null));
+      }
+    }
+    catalog.add(exercise(random, "waist", "ISOLATION", null, null));
+    catalog.add(exercise(random, "waist", "ISOLATION", null, null));
+
+    Selector selector = new Selector(catalog, random.nextInt());
+    for (DayTemplate template : List.of(DayTemplate.UPPER, DayTemplate.LOWER)) {
+      assertThat(selector.pickDay(template.slots, perSession)).hasSize(perSession);
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("seeds")
+  void sameInputsGiveSameWeek(long seed) {
+    List<ExerciseListResponse> catalog = catalog(new Random(seed), 60);
+    Selector first = new Selector(catalog, (int) seed);
+    Selector second = new Selector(new ArrayList<>(catalog), (int) seed);
+    for (DayTemplate template : DayTemplate.splitFor(7)) {
+      assertThat(first.pickDay(template.slots, 6)).isEqualTo(second.pickDay(template.slots, 6));
+    }
+  }
+
+  @Test
+  void finisherNeverRepeatsCardioOfConditioningDay() {
+    Random random = new Random(42);
+    List<ExerciseListResponse> catalog =
+        List.of(
+            exercise(random, "cardio", "CARDIO", null, null),
+            exercise(random, "cardio", "CARDIO", null, null),
+            exercise(random, "waist", "ISOLATION", null, null),
+            exercise(random, "waist", "ISOLATION", null, null));
+    Selector selector = new Selector(catalog, 0);
+
+    List<ExerciseListResponse> day = selector.pickDay(DayTemplate.CONDITIONING.slots, 4);
+
+    assertThat(day).hasSize(4);
+    assertThat(selector.pickFinisher(day)).isNull();
+  }
+
+  @Test
+  void availableEquipmentNormalizesCodesAndNames() throws Exception {
+    var preferences =
+        new ObjectMapper()
+            .readTree("{\"availableEquipment\": [\"smith_machine\", \" Dumbbell \", \"\", 3]}");
+
+    assertThat(WorkoutPlanRules.availableEquipment(preferences))
+        .containsExactlyInAnyOrder("smith machine", "dumbbell");
+    assertThat(WorkoutPlanRules.availableEquipment(null)).isEmpty();
+  }
+
+  private static boolean withinCap(ExerciseListResponse exercise, FitnessLevel fitnessLevel) {
+    int cap =
+        switch (fitnessLevel) {
+          case BEGINNER -> 2;
+          case INTERMEDIATE -> 3;
+          case ADVANCED -> 5;
+        };
+    return exercise.getLevel() == null || exercise.getLevel().getMaxDifficulty() <= cap;
+  }
+
+  private static boolean usable(ExerciseListResponse exercise, Set<String> available) {
+    if (exercise.getEquipment() == null || available.isEmpty()) {
+      return true;
+    }
+    String equipment = WorkoutPlanRules.normalize(exercise.getEquipment());
+    return equipment.equals("body weight") || available.contains(equipment);
+  }
+
+  private static Set<String> availableEquipment(Random random) {
+    Set<String> available = new HashSet<>();
+    for (String equipment : EQUIPMENT) {
+      if (random.nextInt(3) == 0) {
+        available.add(WorkoutPlanRules.normalize(equipment));
+      }
+    }
+    return available;
+  }
+
+  private static List<ExerciseListResponse> catalog(Random random, int size) {
+    List<ExerciseListResponse> catalog = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      catalog.add(
+          exercise(
+              random,
+              pick(random, BODY_PARTS),
+              random.nextInt(10) == 0 ? null : pick(random, TYPES),
+              random.nextInt(5) == 0 ? null : pick(random, List.of(ExerciseLevel.values())),
+              random.nextInt(5) == 0 ? null : pick(random, EQUIPMENT)));
+    }
+    return catalog;
+  }
+
+  private static ExerciseListResponse exercise(
+      Random random, String bodyPart, String type, ExerciseLevel level, String equipment) {
+    UUID id = new UUID(random.nextLong(), random.nextLong());
+    return ExerciseListResponse.builder()
+        .id(id)
+        .name(bodyPart + "-" + id)
+        .bodyPart(bodyPart)
+        .exerciseType(type)
+        .level(level)
+        .equipment(equipment)
+        .build();
+  }
+
+  private static <T> T pick(Random random, List<T> values) {
+    return values.get(random.nextInt(values.size()));
+  }
+}
@@ -0,0 +1,105 @@
+package com.thentrees.gymhealthtech.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Stand-in for the AI service on a local port. Each path answers with the reply its function
+ * returns for the n-th call (1-based), after that reply's delay.
+ */
+public final class StubAiServer implements AutoCloseable {
+
+  /** One canned answer; {@code delay} is waited before the status line is sent. */
+  public record Reply(int status, String body, Duration delay) {
+
+    public static Reply ok(String body) {
+      return new Reply(200, body, Duration.ZERO);
+    }
+
+    public static Reply status(int status) {
+      return new Reply(status, "{}", Duration.ZERO);
+    }
+
+    public Reply after(Duration delay) {
+      return new Reply(status, body, delay);
+    }
+  }
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final Map<String, IntFunction<Reply>> replies = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+  private final AtomicLong lastRepliedAt = new AtomicLong();
+
+  private StubAiServer(HttpServer server) {
+    this.server = server;
+  }
+
+  public static StubAiServer start() throws IOException {
+    StubAiServer stub =
+        new StubAiServer(HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0));
+    stub.server.setExecutor(stub.executor);
+    stub.server.createContext("/", stub::handle);
+    stub.server.start();
+    return stub;
+  }
+
+  public String baseUrl() {
+    return "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  public StubAiServer on(String path, IntFunction<Reply> reply) {
+    replies.put(path, reply);
+    return this;
+  }
+
+  /** Requests received on {@code path}, including those still waiting out their delay. */
+  public int calls(String path) {
+    AtomicInteger count = calls.get(path);
+    return count == null ? 0 : count.get();
+  }
+
+  /** {@link System#nanoTime()} when the last reply was written. */
+  public long lastRepliedAt() {
+    return lastRepliedAt.get();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      exchange.getRequestBody().readAllBytes();
+      String path = exchange.getRequestURI().getPath();
+      int call = calls.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+      IntFunction<Reply> replyFor = replies.get(path);
+      Reply reply = replyFor == null ? Reply.status(404) : replyFor.apply(call);
+      Thread.sleep(reply.delay().toMillis());
+
+      byte[] body = reply.body().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(reply.status(), body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+      lastRepliedAt.set(System.nanoTime());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}
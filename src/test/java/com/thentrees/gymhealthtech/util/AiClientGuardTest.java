@@ -0,0 +1,190 @@
+package com.thentrees.gymhealthtech.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.thentrees.gymhealthtech.exception.AiServiceUnavailableException;
+import com.thentrees.gymhealthtech.support.StubAiServer;
+import com.thentrees.gymhealthtech.support.StubAiServer.Reply;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/** The guard in front of a stub AI service that answers late or with server errors. */
+class AiClientGuardTest {
+
+  private static final String PATH = "/generate-plan";
+  private static final Duration VERIFY_TIMEOUT = Duration.ofSeconds(10);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private StubAiServer stub;
+  private AiClientGuard guard;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    stub = StubAiServer.start();
+    guard = new AiClientGuard(meterRegistry);
+    ReflectionTestUtils.setField(guard, "deadlineSeconds", 2L);
+    ReflectionTestUtils.setField(guard, "maxAttempts", 3);
+    ReflectionTestUtils.setField(guard, "backoffMs", 50L);
+    ReflectionTestUtils.setField(guard, "minAttemptMs", 200L);
+    ReflectionTestUtils.setField(guard, "bulkheadPermits", 8);
+    ReflectionTestUtils.setField(guard, "windowSize", 4);
+    ReflectionTestUtils.setField(guard, "minimumCalls", 4);
+    ReflectionTestUtils.setField(guard, "failureRateThreshold", 50.0);
+    ReflectionTestUtils.setField(guard, "openSeconds", 30L);
+    ReflectionTestUtils.setField(guard, "halfOpenProbes", 1);
+    ReflectionTestUtils.setField(guard, "hedgeEnabled", false);
+    guard.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    stub.close();
+  }
+
+  @Test
+  void refusedRequestIsRetriedUntilItSucceeds() {
+    stub.on(PATH, call -> call < 3 ? Reply.status(503) : Reply.ok("{\"plan\":1}"));
+
+    StepVerifier.create(guard.execute(call(stub)))
+        .expectNext("{\"plan\":1}")
+        .expectComplete()
+        .verify(VERIFY_TIMEOUT);
+    assertThat(stub.calls(PATH)).isEqualTo(3);
+  }
+
+  @Test
+  void retriesStopAtTheMaximumAttempts() {
+    stub.on(PATH, call -> Reply.status(502));
+
+    Throwable failure = failureOf(guard.execute(call(stub)));
+
+    assertThat(failure).isInstanceOf(WebClientResponseException.BadGateway.class);
+    assertThat(stub.calls(PATH)).isEqualTo(3);
+    assertThat(AiClientGuard.isNeverSent(failure)).isFalse();
+  }
+
+  @Test
+  void serverErrorThatMayHaveBeenProcessedIsNotRetried() {
+    // The service may have saved a plan before failing, a retry could save a second one
+    stub.on(PATH, call -> Reply.status(500));
+
+    Throwable failure = failureOf(guard.execute(call(stub)));
+
+    assertThat(failure).isInstanceOf(WebClientResponseException.InternalServerError.class);
+    assertThat(stub.calls(PATH)).isEqualTo(1);
+    assertThat(AiClientGuard.isNeverSent(failure)).isFalse();
+  }
+
+  @Test
+  void gatewayTimeoutIsNotRetried() {
+    stub.on(PATH, call -> Reply.status(504));
+
+    Throwable failure = failureOf(guard.execute(call(stub)));
+
+    assertThat(failure).isInstanceOf(WebClientResponseException.GatewayTimeout.class);
+    assertThat(stub.calls(PATH)).isEqualTo(1);
+  }
+
+  @Test
+  void clientErrorDoesNotCountAgainstTheUpstream() {
+    stub.on(PATH, call -> Reply.status(400));
+
+    for (int i = 0; i < 4; i++) {
+      assertThat(failureOf(guard.execute(call(stub))))
+          .isInstanceOf(WebClientResponseException.BadRequest.class);
+    }
+
+    assertThat(circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    assertThat(calls("client_error")).isEqualTo(4);
+  }
+
+  @Test
+  void slowAnswerFailsAtTheDeadline() {
+    stub.on(PATH, call -> Reply.ok("{}").after(Duration.ofSeconds(5)));
+
+    long start = System.nanoTime();
+    Throwable failure = failureOf(guard.execute(call(stub)));
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    assertThat(failure).isInstanceOf(TimeoutException.class);
+    assertThat(elapsed).isBetween(Duration.ofMillis(1_900), Duration.ofMillis(3_500));
+    assertThat(stub.calls(PATH)).isEqualTo(1);
+    // The request was sent and may still be processed
+    assertThat(AiClientGuard.isNeverSent(failure)).isFalse();
+    assertThat(calls("deadline_exceeded")).isEqualTo(1);
+  }
+
+  @Test
+  void retryIsSkippedWhenItWouldNotFitTheDeadline() {
+    // The first refusal comes late; an attempt needs a second, and less than that is left
+    ReflectionTestUtils.setField(guard, "minAttemptMs", 1_000L);
+    stub.on(PATH, call -> Reply.status(503).after(Duration.ofMillis(1_200)));
+
+    Throwable failure = failureOf(guard.execute(call(stub)));
+
+    assertThat(failure).isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+    assertThat(stub.calls(PATH)).isEqualTo(1);
+  }
+
+  @Test
+  void deadlineExpiriesOpenTheCircuitAndLaterCallsAreNeverSent() {
+    stub.on(PATH, call -> Reply.ok("{}").after(Duration.ofSeconds(5)));
+    ReflectionTestUtils.setField(guard, "deadlineSeconds", 1L);
+    for (int i = 0; i < 4; i++) {
+      assertThat(failureOf(guard.execute(call(stub)))).isInstanceOf(TimeoutException.class);
+    }
+    assertThat(circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+    Throwable failure = failureOf(guard.execute(call(stub)));
+
+    assertThat(failure).isInstanceOf(AiServiceUnavailableException.class);
+    assertThat(AiClientGuard.isNeverSent(failure)).isTrue();
+    assertThat(stub.calls(PATH)).isEqualTo(4);
+  }
+
+  @Test
+  void unreachableServiceIsRetriedAndReportedAsNeverSent() {
+    StubAiServer closed = stub;
+    stub.close();
+
+    Throwable failure = failureOf(guard.execute(call(closed)));
+
+    assertThat(failure).isInstanceOf(WebClientRequestException.class);
+    assertThat(AiClientGuard.isNeverSent(failure)).isTrue();
+    assertThat(calls("failure")).isEqualTo(3);
+  }
+
+  private CircuitBreaker.State circuitState() {
+    CircuitBreaker breaker = (CircuitBreaker) ReflectionTestUtils.getField(guard, "circuitBreaker");
+    return breaker.getState();
+  }
+
+  private static Supplier<Mono<String>> call(StubAiServer server) {
+    WebClient webClient = WebClient.create(server.baseUrl());
+    return () -> webClient.post().uri(PATH).bodyValue("{}").retrieve().bodyToMono(String.class);
+  }
+
+  private static Throwable failureOf(Mono<String> call) {
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    StepVerifier.create(call).consumeErrorWith(failure::set).verify(VERIFY_TIMEOUT);
+    return failure.get();
+  }
+
+  private double calls(String outcome) {
+    return meterRegistry
+        .counter("ai.client.calls", "attempt", "primary", "outcome", outcome)
+        .count();
+  }
+}
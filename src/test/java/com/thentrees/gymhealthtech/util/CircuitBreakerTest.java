@@ -0,0 +1,147 @@
+package com.thentrees.gymhealthtech.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.thentrees.gymhealthtech.util.CircuitBreaker.Permit;
+import com.thentrees.gymhealthtech.util.CircuitBreaker.State;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private static final Duration OPEN = Duration.ofMillis(100);
+
+  // Window of 4, decided after 4 calls, opens at 50% failures, 2 probes
+  private final CircuitBreaker breaker = new CircuitBreaker(4, 4, 50, OPEN, 2);
+
+  @Test
+  void staysClosedBelowTheFailureRate() {
+    record(true, true, true, false);
+
+    assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    assertThat(breaker.tryAcquire()).isNotNull();
+  }
+
+  @Test
+  void waitsForTheMinimumCallsBeforeOpening() {
+    record(false, false, false);
+
+    assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void opensAtTheFailureRateAndRejectsCalls() {
+    record(true, false, true, false);
+
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    assertThat(breaker.tryAcquire()).isNull();
+  }
+
+  @Test
+  void onlyTheLastWindowCounts() {
+    // Old failures slide out of the window of 4
+    record(false, true, true, true, true, false);
+
+    assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void halfOpenAfterThePauseAdmitsOnlyTheProbes() throws Exception {
+    open();
+    Thread.sleep(OPEN.toMillis() + 20);
+
+    assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+    Permit first = breaker.tryAcquire();
+    Permit second = breaker.tryAcquire();
+    assertThat(first.probe()).isTrue();
+    assertThat(second.probe()).isTrue();
+    assertThat(breaker.tryAcquire()).isNull();
+  }
+
+  @Test
+  void closesOnceEveryProbeSucceeds() throws Exception {
+    open();
+    Thread.sleep(OPEN.toMillis() + 20);
+    Permit first = breaker.tryAcquire();
+    Permit second = breaker.tryAcquire();
+
+    breaker.onResult(first, true);
+    assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+    breaker.onResult(second, true);
+
+    assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    // A fresh window: three failures are not enough to decide
+    record(false, false, false);
+    assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void failedProbeOpensAgain() throws Exception {
+    open();
+    Thread.sleep(OPEN.toMillis() + 20);
+    Permit probe = breaker.tryAcquire();
+
+    breaker.onResult(probe, false);
+
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    assertThat(breaker.tryAcquire()).isNull();
+  }
+
+  @Test
+  void releasedProbeFreesItsSlot() throws Exception {
+    open();
+    Thread.sleep(OPEN.toMillis() + 20);
+    Permit first = breaker.tryAcquire();
+    breaker.tryAcquire();
+
+    breaker.release(first);
+
+    assertThat(breaker.tryAcquire()).isNotNull();
+    assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+  }
+
+  @Test
+  void resultsFromBeforeAStateChangeAreIgnored() throws Exception {
+    // Taken while closed, settled after the circuit has opened
+    Permit stale = breaker.tryAcquire();
+    open();
+    breaker.onResult(stale, true);
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+
+    Thread.sleep(OPEN.toMillis() + 20);
+    Permit probe = breaker.tryAcquire();
+    Permit otherProbe = breaker.tryAcquire();
+    // A late failure of the closed-state call must not reopen the half-open circuit
+    breaker.onResult(stale, false);
+    breaker.onResult(probe, true);
+    breaker.onResult(otherProbe, true);
+
+    assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void staleProbeCannotCloseTheReopenedCircuit() throws Exception {
+    open();
+    Thread.sleep(OPEN.toMillis() + 20);
+    Permit failing = breaker.tryAcquire();
+    Permit late = breaker.tryAcquire();
+    breaker.onResult(failing, false);
+
+    breaker.onResult(late, true);
+    breaker.release(late);
+
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    assertThat(breaker.tryAcquire()).isNull();
+  }
+
+  private void open() {
+    record(false, false, false, false);
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+  }
+
+  private void record(boolean... outcomes) {
+    for (boolean success : outcomes) {
+      breaker.onResult(breaker.tryAcquire(), success);
+    }
+  }
+}